@@ -10,10 +10,12 @@
  */
 package org.eclipse.che.api.deploy;
 
+import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.inject.matcher.Matchers.subclassesOf;
 import static org.eclipse.che.inject.Matchers.names;
 import static org.eclipse.che.multiuser.api.permission.server.SystemDomain.SYSTEM_DOMAIN_ACTIONS;
 
+import com.google.common.collect.ImmutableList;
 import com.google.inject.AbstractModule;
 import com.google.inject.TypeLiteral;
 import com.google.inject.assistedinject.FactoryModuleBuilder;
@@ -21,14 +23,17 @@ import com.google.inject.multibindings.MapBinder;
 import com.google.inject.multibindings.Multibinder;
 import com.google.inject.name.Names;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import javax.sql.DataSource;
 import org.eclipse.che.agent.exec.client.ExecAgentClientFactory;
 import org.eclipse.che.api.core.notification.RemoteSubscriptionStorage;
 import org.eclipse.che.api.core.rest.CheJsonProvider;
+import org.eclipse.che.api.core.rest.HttpJsonRequestFactory;
 import org.eclipse.che.api.core.rest.MessageBodyAdapter;
 import org.eclipse.che.api.core.rest.MessageBodyAdapterInterceptor;
+import org.eclipse.che.api.core.rest.PooledHttpJsonRequestFactory;
 import org.eclipse.che.api.factory.server.FactoryAcceptValidator;
 import org.eclipse.che.api.factory.server.FactoryCreateValidator;
 import org.eclipse.che.api.factory.server.FactoryEditValidator;
@@ -102,6 +107,20 @@ import org.flywaydb.core.internal.util.PlaceholderReplacer;
 @DynaModule
 public class WsMasterModule extends AbstractModule {
 
+  /** Read-mostly entities kept in JPA shared cache when it is enabled. */
+  private static final List<String> SHARED_CACHE_ENTITIES =
+      ImmutableList.of(
+          "org.eclipse.che.account.spi.AccountImpl",
+          "org.eclipse.che.api.user.server.model.impl.UserImpl",
+          "org.eclipse.che.api.user.server.model.impl.ProfileImpl",
+          "org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl",
+          "org.eclipse.che.api.workspace.server.model.impl.stack.StackImpl",
+          "org.eclipse.che.multiuser.organization.spi.impl.OrganizationImpl",
+          "org.eclipse.che.multiuser.organization.spi.impl.MemberImpl",
+          "org.eclipse.che.multiuser.api.permission.server.model.impl.SystemPermissionsImpl",
+          "org.eclipse.che.multiuser.permission.workspace.server.model.impl.WorkerImpl",
+          "org.eclipse.che.multiuser.permission.workspace.server.stack.StackPermissionsImpl");
+
   @Override
   protected void configure() {
     // db related components modules
@@ -243,6 +262,9 @@ public class WsMasterModule extends AbstractModule {
     } else {
       configureSingleUserMode(persistenceProperties);
     }
+    if (Boolean.valueOf(System.getenv("CHE_JPA_SHARED__CACHE_ENABLED"))) {
+      configureSharedCache(persistenceProperties);
+    }
 
     install(
         new com.google.inject.persist.jpa.JpaPersistModule("main")
@@ -262,12 +284,27 @@ public class WsMasterModule extends AbstractModule {
     MapBinder.newMapBinder(binder(), String.class, WorkspaceNextApplier.class);
   }
 
+  /**
+   * Keeps read-mostly entities in JPA shared cache. Size of the cache per entity type and time to
+   * live of cached entities are configured with CHE_JPA_SHARED__CACHE_SIZE and
+   * CHE_JPA_SHARED__CACHE_TTL__SEC environment variables. When replication is enabled, changes of
+   * cached entities are propagated to the other Che servers as invalidations over JGroups.
+   */
+  private void configureSharedCache(Map<String, String> persistenceProperties) {
+    org.eclipse.che.core.db.jpa.eclipselink.SharedCacheCustomizer.configure(
+        persistenceProperties,
+        SHARED_CACHE_ENTITIES,
+        Integer.parseInt(firstNonNull(System.getenv("CHE_JPA_SHARED__CACHE_SIZE"), "1000")),
+        Long.parseLong(firstNonNull(System.getenv("CHE_JPA_SHARED__CACHE_TTL__SEC"), "3600")));
+  }
+
   private void configureSingleUserMode(Map<String, String> persistenceProperties) {
     persistenceProperties.put(
         PersistenceUnitProperties.EXCEPTION_HANDLER_CLASS,
         "org.eclipse.che.core.db.h2.jpa.eclipselink.H2ExceptionHandler");
     bind(TokenValidator.class).to(org.eclipse.che.api.local.DummyTokenValidator.class);
     bind(MachineTokenProvider.class).to(MachineTokenProvider.EmptyMachineTokenProvider.class);
+    bind(HttpJsonRequestFactory.class).to(PooledHttpJsonRequestFactory.class);
 
     bind(org.eclipse.che.api.workspace.server.stack.StackLoader.class);
     bind(DataSource.class).toProvider(org.eclipse.che.core.db.h2.H2DataSourceProvider.class);
@@ -69,7 +69,7 @@ public class JsonRpcMessageReceiver implements WebSocketMessageReceiver {
     List<String> messages = jsonRpcUnmarshaller.unmarshalArray(message);
     for (String innerMessage : messages) {
       if (jsonRpcQualifier.isJsonRpcRequest(innerMessage)) {
-        requestProcessor.process(() -> processRequest(endpointId, innerMessage));
+        processRequest(endpointId, innerMessage);
       } else if (jsonRpcQualifier.isJsonRpcResponse(innerMessage)) {
         processResponse(endpointId, innerMessage);
       } else {
@@ -91,12 +91,37 @@ public class JsonRpcMessageReceiver implements WebSocketMessageReceiver {
   }
 
   private void processRequest(String endpointId, String innerMessage) {
-    JsonRpcRequest request = null;
+    JsonRpcRequest request;
     try {
       request = jsonRpcUnmarshaller.unmarshalRequest(innerMessage);
+    } catch (JsonRpcException e) {
+      errorTransmitter.transmit(endpointId, e);
+      return;
+    }
+    requestProcessor.process(
+        endpointId,
+        request.getMethod(),
+        () -> dispatchRequest(endpointId, request),
+        () -> rejectRequest(endpointId, request));
+  }
+
+  private void rejectRequest(String endpointId, JsonRpcRequest request) {
+    if (request.getId() == null) {
+      LOGGER.warn(
+          "Notification '{}' from endpoint '{}' is dropped, server is overloaded",
+          request.getMethod(),
+          endpointId);
+    } else {
+      String error = "Server is overloaded, request is rejected";
+      errorTransmitter.transmit(endpointId, new JsonRpcException(-32000, error, request.getId()));
+    }
+  }
+
+  private void dispatchRequest(String endpointId, JsonRpcRequest request) {
+    try {
       requestDispatcher.dispatch(endpointId, request);
     } catch (JsonRpcException e) {
-      if (request == null || request.getId() == null) {
+      if (request.getId() == null) {
         errorTransmitter.transmit(endpointId, e);
       } else {
         errorTransmitter.transmit(
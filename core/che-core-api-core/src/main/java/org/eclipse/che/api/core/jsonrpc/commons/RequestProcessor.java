@@ -18,4 +18,21 @@ public interface RequestProcessor {
    * @param runnable runnable to be called for processing of a request
    */
   void process(Runnable runnable);
+
+  /**
+   * Process a runnable interface that handles a request with the specified method coming from the
+   * specified endpoint. Implementations may use this information to limit concurrency or to
+   * collect statistics, by default it is ignored. If the request can't be accepted for processing,
+   * e.g. because the implementation is overloaded, the rejection handler is called instead of the
+   * runnable.
+   *
+   * @param endpointId identifier of the endpoint the request came from
+   * @param method name of the requested method
+   * @param runnable runnable to be called for processing of a request
+   * @param rejectionHandler runnable to be called if the request is rejected
+   */
+  default void process(
+      String endpointId, String method, Runnable runnable, Runnable rejectionHandler) {
+    process(runnable);
+  }
 }
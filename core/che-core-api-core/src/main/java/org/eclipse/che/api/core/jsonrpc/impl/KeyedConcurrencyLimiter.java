@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.jsonrpc.impl;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Limits the number of tasks that run concurrently for the same key. A task occupies a slot of its
+ * key only while it runs: the slot is taken when the executor starts the task, and if all the
+ * slots are taken by then the task is put into the FIFO queue of the key without running. Queued
+ * tasks are passed to their executors again one by one when running tasks of the same key are
+ * completed. Keys that have neither running nor queued tasks are not kept in memory.
+ */
+class KeyedConcurrencyLimiter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(KeyedConcurrencyLimiter.class);
+
+  private final ConcurrentHashMap<String, Slot> slots;
+  private final AtomicInteger pendingCount;
+
+  KeyedConcurrencyLimiter() {
+    this.slots = new ConcurrentHashMap<>();
+    this.pendingCount = new AtomicInteger();
+  }
+
+  /**
+   * Passes the given task to the executor. When the executor starts the task and the number of
+   * running tasks of the key has already reached the limit, the task is queued instead of being
+   * run.
+   *
+   * @param key the key the task belongs to
+   * @param limit maximum number of concurrently running tasks of the key
+   * @param executor the executor which runs the task
+   * @param task the task to execute
+   * @throws RuntimeException if the executor rejects the task
+   */
+  void execute(String key, int limit, Executor executor, Runnable task) {
+    new Pending(key, limit, executor, task).submit(false);
+  }
+
+  /** Returns the number of tasks which are waiting for their key to be released. */
+  int getPendingCount() {
+    return pendingCount.get();
+  }
+
+  private boolean tryAcquire(Pending pending, boolean requeued) {
+    boolean[] acquired = new boolean[1];
+    slots.compute(
+        pending.key,
+        (k, slot) -> {
+          if (slot == null) {
+            slot = new Slot();
+          }
+          if (slot.running < pending.limit) {
+            slot.running++;
+            acquired[0] = true;
+          } else {
+            // a task that has already waited for the key keeps its place in the queue
+            if (requeued) {
+              slot.pending.addFirst(pending);
+            } else {
+              slot.pending.addLast(pending);
+            }
+            pendingCount.incrementAndGet();
+          }
+          return slot;
+        });
+    return acquired[0];
+  }
+
+  private void release(String key) {
+    Pending next = pollNext(key, true);
+    while (next != null) {
+      try {
+        next.submit(true);
+        return;
+      } catch (RuntimeException x) {
+        // the task is dropped, the executor is responsible for reporting the rejection
+        LOG.debug("Task of key '{}' is rejected: {}", key, x.getMessage());
+      }
+      next = pollNext(key, false);
+    }
+  }
+
+  private Pending pollNext(String key, boolean releaseSlot) {
+    Pending[] next = new Pending[1];
+    slots.computeIfPresent(
+        key,
+        (k, slot) -> {
+          if (releaseSlot) {
+            slot.running--;
+          }
+          next[0] = slot.pending.poll();
+          if (next[0] != null) {
+            pendingCount.decrementAndGet();
+          }
+          return slot.running == 0 && slot.pending.isEmpty() ? null : slot;
+        });
+    return next[0];
+  }
+
+  /** Running and pending tasks of a single key, guarded by the map bucket lock. */
+  private static class Slot {
+    final Deque<Pending> pending = new ArrayDeque<>();
+    int running;
+  }
+
+  private class Pending {
+    final String key;
+    final int limit;
+    final Executor executor;
+    final Runnable task;
+
+    Pending(String key, int limit, Executor executor, Runnable task) {
+      this.key = key;
+      this.limit = limit;
+      this.executor = executor;
+      this.task = task;
+    }
+
+    void submit(boolean requeued) {
+      executor.execute(
+          () -> {
+            if (!tryAcquire(this, requeued)) {
+              return;
+            }
+            try {
+              task.run();
+            } finally {
+              release(key);
+            }
+          });
+    }
+  }
+}
@@ -10,50 +10,233 @@
  */
 package org.eclipse.che.api.core.jsonrpc.impl;
 
-import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.primitives.Ints;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Singleton;
-import java.util.concurrent.ExecutorService;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
-import javax.annotation.PostConstruct;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
 import org.eclipse.che.api.core.jsonrpc.commons.RequestProcessor;
+import org.eclipse.che.commons.annotation.Nullable;
 import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Processes incoming JSON-RPC requests in a bounded thread pool.
+ *
+ * <p>The number of requests of a single endpoint that may be processed at the same time is limited,
+ * so an endpoint that sends a burst of requests can't occupy the whole pool, the rest of its
+ * requests wait in the endpoint queue and are passed to the pool in the order they arrived.
+ * Additionally the concurrency of particular methods may be limited the same way. A request takes
+ * its endpoint and method slots only when it starts running, so it never holds one limit while
+ * waiting for another. When the queue of the pool is full the request is rejected, the thread that
+ * received it is never used to process it.
+ *
+ * <p>Queue depth, number of active threads and per-method latency statistics are available through
+ * the getters of this class.
+ */
 @Singleton
 public class ServerSideRequestProcessor implements RequestProcessor {
-  private ExecutorService executorService;
 
-  @PostConstruct
-  private void postConstruct() {
+  private static final Logger LOG = LoggerFactory.getLogger(ServerSideRequestProcessor.class);
+
+  /** Prevents latency statistics from growing due to requests of unknown methods. */
+  private static final int MAX_MONITORED_METHODS = 512;
+
+  private final ThreadPoolExecutor executor;
+  private final KeyedConcurrencyLimiter endpointLimiter;
+  private final KeyedConcurrencyLimiter methodLimiter;
+  private final int endpointMaxConcurrency;
+  private final Map<String, Integer> methodMaxConcurrency;
+  private final ConcurrentHashMap<String, LatencyStatistics> latencies;
+
+  @Inject
+  public ServerSideRequestProcessor(
+      @Named("che.core.jsonrpc.processor_max_pool_size") int maxPoolSize,
+      @Named("che.core.jsonrpc.processor_queue_capacity") int queueCapacity,
+      @Named("che.core.jsonrpc.processor_endpoint_max_concurrency") int endpointMaxConcurrency,
+      @Nullable @Named("che.core.jsonrpc.processor_method_max_concurrency")
+          String methodMaxConcurrency) {
     ThreadFactory factory =
         new ThreadFactoryBuilder()
             .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
-            .setNameFormat(ServerSideRequestProcessor.class.getSimpleName())
+            .setNameFormat(ServerSideRequestProcessor.class.getSimpleName() + "-%d")
             .setDaemon(true)
             .build();
 
-    executorService = newCachedThreadPool(factory);
+    executor =
+        new ThreadPoolExecutor(
+            maxPoolSize,
+            maxPoolSize,
+            60L,
+            SECONDS,
+            new LinkedBlockingQueue<>(queueCapacity),
+            factory,
+            new ThreadPoolExecutor.AbortPolicy());
+    executor.allowCoreThreadTimeOut(true);
+
+    this.methodLimiter = new KeyedConcurrencyLimiter();
+    this.endpointLimiter = new KeyedConcurrencyLimiter();
+    this.endpointMaxConcurrency = endpointMaxConcurrency;
+    this.methodMaxConcurrency = parseMethodLimits(methodMaxConcurrency);
+    this.latencies = new ConcurrentHashMap<>();
   }
 
   @PreDestroy
   private void preDestroy() {
-    executorService.shutdown();
+    executor.shutdown();
     try {
-      if (executorService.awaitTermination(5, SECONDS)) {
-        executorService.shutdownNow();
-        executorService.awaitTermination(5, SECONDS);
+      if (!executor.awaitTermination(5, SECONDS)) {
+        executor.shutdownNow();
+        executor.awaitTermination(5, SECONDS);
       }
     } catch (InterruptedException ie) {
-      executorService.shutdownNow();
+      executor.shutdownNow();
       Thread.currentThread().interrupt();
     }
   }
 
   @Override
   public void process(Runnable runnable) {
-    executorService.execute(runnable);
+    executor.execute(runnable);
+  }
+
+  @Override
+  public void process(
+      String endpointId, String method, Runnable runnable, Runnable rejectionHandler) {
+    long submitted = System.nanoTime();
+    Runnable task =
+        () -> {
+          try {
+            runnable.run();
+          } finally {
+            recordLatency(method, System.nanoTime() - submitted);
+          }
+        };
+    Executor pool =
+        command -> {
+          try {
+            executor.execute(command);
+          } catch (RejectedExecutionException x) {
+            LOG.warn("Request '{}' of endpoint '{}' is rejected, pool is full", method, endpointId);
+            rejectionHandler.run();
+            throw x;
+          }
+        };
+    Integer methodLimit = methodMaxConcurrency.get(method);
+    try {
+      if (methodLimit == null) {
+        endpointLimiter.execute(endpointId, endpointMaxConcurrency, pool, task);
+      } else {
+        endpointLimiter.execute(
+            endpointId,
+            endpointMaxConcurrency,
+            command -> methodLimiter.execute(method, methodLimit, pool, command),
+            task);
+      }
+    } catch (RejectedExecutionException ignored) {
+      // already reported to the rejection handler
+    }
+  }
+
+  /**
+   * Returns the number of requests waiting to be processed, including the requests waiting for
+   * their endpoint or method concurrency limit.
+   */
+  public int getQueueSize() {
+    return executor.getQueue().size()
+        + endpointLimiter.getPendingCount()
+        + methodLimiter.getPendingCount();
+  }
+
+  /** Returns the approximate number of threads that are actively processing requests. */
+  public int getActiveCount() {
+    return executor.getActiveCount();
+  }
+
+  /** Returns the current number of threads in the pool. */
+  public int getPoolSize() {
+    return executor.getPoolSize();
+  }
+
+  /**
+   * Returns latency statistics of processed requests grouped by method, latency is measured from
+   * the moment request is received till the moment it is processed.
+   */
+  public Map<String, LatencyStatistics> getLatencyStatistics() {
+    return ImmutableMap.copyOf(latencies);
+  }
+
+  private void recordLatency(String method, long nanos) {
+    LatencyStatistics statistics = latencies.get(method);
+    if (statistics == null) {
+      if (latencies.size() >= MAX_MONITORED_METHODS) {
+        return;
+      }
+      statistics = latencies.computeIfAbsent(method, m -> new LatencyStatistics());
+    }
+    statistics.record(nanos);
+  }
+
+  private static Map<String, Integer> parseMethodLimits(String property) {
+    Map<String, Integer> limits = new HashMap<>();
+    if (property == null) {
+      return limits;
+    }
+    for (String entry : Splitter.on(',').trimResults().omitEmptyStrings().split(property)) {
+      int separator = entry.lastIndexOf('=');
+      Integer limit = separator < 0 ? null : Ints.tryParse(entry.substring(separator + 1).trim());
+      if (limit == null || limit <= 0) {
+        LOG.warn("Ignoring malformed JSON-RPC method concurrency limit '{}'", entry);
+        continue;
+      }
+      limits.put(entry.substring(0, separator).trim(), limit);
+    }
+    return limits;
+  }
+
+  /** Accumulated latency statistics of a single JSON-RPC method. */
+  public static class LatencyStatistics {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    void record(long nanos) {
+      count.increment();
+      totalNanos.add(nanos);
+      maxNanos.accumulate(nanos);
+    }
+
+    /** Returns the number of processed requests. */
+    public long getCount() {
+      return count.sum();
+    }
+
+    /** Returns the average latency in milliseconds. */
+    public long getAverageMillis() {
+      long n = count.sum();
+      return n == 0 ? 0 : NANOSECONDS.toMillis(totalNanos.sum() / n);
+    }
+
+    /** Returns the maximum latency in milliseconds. */
+    public long getMaxMillis() {
+      return NANOSECONDS.toMillis(maxNanos.get());
+    }
   }
 }
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.rest;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Objects.requireNonNull;
+
+import com.google.gson.reflect.TypeToken;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.eclipse.che.commons.json.JsonHelper;
+import org.eclipse.che.commons.json.JsonParseException;
+import org.eclipse.che.dto.server.BinaryJsonFormat;
+import org.eclipse.che.dto.server.BinaryJsonParser;
+import org.eclipse.che.dto.server.DtoFactory;
+
+/**
+ * Implementation of {@link HttpJsonResponse} that keeps the content as received UTF-8 encoded bytes
+ * and decodes them directly into the requested type, without building an intermediate string.
+ *
+ * <p>The content may also be in {@link BinaryJsonFormat binary format}, in this case it's converted
+ * to JSON only when it's requested as a string or as a non DTO type.
+ *
+ * @see PooledHttpJsonRequest
+ */
+public class ByteArrayHttpJsonResponse implements HttpJsonResponse {
+
+  private static final Type STRING_MAP_TYPE = new TypeToken<Map<String, String>>() {}.getType();
+
+  private final byte[] content;
+  private final boolean binary;
+  private final int responseCode;
+  private final Map<String, List<String>> headers;
+
+  protected ByteArrayHttpJsonResponse(
+      byte[] content, int responseCode, Map<String, List<String>> headers) {
+    this(content, false, responseCode, headers);
+  }
+
+  /**
+   * Creates response with the given content.
+   *
+   * @param binary whether content is in binary format rather than in JSON
+   */
+  protected ByteArrayHttpJsonResponse(
+      byte[] content, boolean binary, int responseCode, Map<String, List<String>> headers) {
+    this.content = content;
+    this.binary = binary;
+    this.responseCode = responseCode;
+    this.headers =
+        unmodifiableMap(
+            headers
+                .entrySet()
+                .stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> unmodifiableList(e.getValue()))));
+  }
+
+  @Override
+  public String asString() {
+    if (binary) {
+      try {
+        return new BinaryJsonParser(new ByteArrayInputStream(content)).parse().toString();
+      } catch (IOException x) {
+        throw new UncheckedIOException(x);
+      }
+    }
+    return new String(content, UTF_8);
+  }
+
+  @Override
+  public <T> T asDto(Class<T> dtoInterface) {
+    requireNonNull(dtoInterface, "Required non-null dto interface");
+    if (binary) {
+      try {
+        return DtoFactory.getInstance()
+            .createDtoFromBinary(new ByteArrayInputStream(content), dtoInterface);
+      } catch (IOException x) {
+        throw new UncheckedIOException(x);
+      }
+    }
+    try (Reader reader = contentReader()) {
+      return DtoFactory.getInstance().createDtoFromJson(reader, dtoInterface);
+    } catch (IOException x) {
+      throw new UncheckedIOException(x); // won't happen
+    }
+  }
+
+  @Override
+  public <T> List<T> asList(Class<T> dtoInterface) {
+    requireNonNull(dtoInterface, "Required non-null dto interface");
+    if (binary) {
+      try {
+        return DtoFactory.getInstance()
+            .createListDtoFromBinary(new ByteArrayInputStream(content), dtoInterface);
+      } catch (IOException x) {
+        throw new UncheckedIOException(x);
+      }
+    }
+    try (Reader reader = contentReader()) {
+      return DtoFactory.getInstance().createListDtoFromJson(reader, dtoInterface);
+    } catch (IOException x) {
+      throw new UncheckedIOException(x); // won't happen
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Map<String, String> asProperties() throws IOException {
+    return as(Map.class, STRING_MAP_TYPE);
+  }
+
+  @Override
+  public <T> T as(Class<T> clazz, Type genericType) throws IOException {
+    requireNonNull(clazz, "Required non-null class");
+    try (Reader reader = contentReader()) {
+      return JsonHelper.fromJson(reader, clazz, genericType);
+    } catch (JsonParseException jsonEx) {
+      throw new IOException(jsonEx.getLocalizedMessage(), jsonEx);
+    }
+  }
+
+  @Override
+  public Map<String, List<String>> getHeaders() {
+    return headers;
+  }
+
+  @Override
+  public int getResponseCode() {
+    return responseCode;
+  }
+
+  private Reader contentReader() {
+    if (binary) {
+      return new StringReader(asString());
+    }
+    return new InputStreamReader(new ByteArrayInputStream(content), UTF_8);
+  }
+}
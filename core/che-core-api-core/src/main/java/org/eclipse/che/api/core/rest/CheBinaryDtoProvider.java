@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import javax.inject.Singleton;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import org.eclipse.che.dto.server.BinaryJsonFormat;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.dto.server.JsonSerializable;
+import org.eclipse.che.dto.shared.DTO;
+
+/**
+ * Implementation of {@link MessageBodyReader} and {@link MessageBodyWriter} which binds DTOs and
+ * lists of DTOs to and from content in {@link BinaryJsonFormat binary format}.
+ *
+ * @see org.eclipse.che.everrest.BinaryDtoResponseFilter
+ */
+@Singleton
+@Provider
+@Produces({BinaryJsonFormat.MEDIA_TYPE})
+@Consumes({BinaryJsonFormat.MEDIA_TYPE})
+public class CheBinaryDtoProvider<T> implements MessageBodyReader<T>, MessageBodyWriter<T> {
+
+  @Override
+  public boolean isWriteable(
+      Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+    // elements of lists are written according to their runtime types
+    return JsonSerializable.class.isAssignableFrom(type) || List.class.isAssignableFrom(type);
+  }
+
+  @Override
+  public long getSize(
+      T t, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+    return -1;
+  }
+
+  @Override
+  public void writeTo(
+      T t,
+      Class<?> type,
+      Type genericType,
+      Annotation[] annotations,
+      MediaType mediaType,
+      MultivaluedMap<String, Object> httpHeaders,
+      OutputStream entityStream)
+      throws IOException, WebApplicationException {
+    // Add Cache-Control before start write body.
+    httpHeaders.putSingle(HttpHeaders.CACHE_CONTROL, "public, no-cache, no-store, no-transform");
+    DtoFactory.getInstance().toBinary(t, entityStream);
+  }
+
+  @Override
+  public boolean isReadable(
+      Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+    return type.isAnnotationPresent(DTO.class)
+        || (type.isAssignableFrom(List.class) && getDtoElementClass(genericType) != null);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public T readFrom(
+      Class<T> type,
+      Type genericType,
+      Annotation[] annotations,
+      MediaType mediaType,
+      MultivaluedMap<String, String> httpHeaders,
+      InputStream entityStream)
+      throws IOException, WebApplicationException {
+    if (type.isAnnotationPresent(DTO.class)) {
+      return DtoFactory.getInstance().createDtoFromBinary(entityStream, type);
+    }
+    return (T)
+        DtoFactory.getInstance()
+            .createListDtoFromBinary(entityStream, getDtoElementClass(genericType));
+  }
+
+  /** Returns the DTO interface of the list elements or null if type is not a list of DTOs. */
+  private static Class<?> getDtoElementClass(Type genericType) {
+    if (genericType instanceof ParameterizedType) {
+      Type elementType = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+      if (elementType instanceof Class && ((Class<?>) elementType).isAnnotationPresent(DTO.class)) {
+        return (Class<?>) elementType;
+      }
+    }
+    return null;
+  }
+}
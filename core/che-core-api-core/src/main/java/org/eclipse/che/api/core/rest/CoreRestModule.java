@@ -19,6 +19,8 @@ public class CoreRestModule extends AbstractModule {
   @Override
   protected void configure() {
     bind(CheJsonProvider.class);
+    bind(CheBinaryDtoProvider.class);
+    bind(org.eclipse.che.everrest.BinaryDtoResponseFilter.class);
     bind(ApiExceptionMapper.class);
     bind(RuntimeExceptionMapper.class);
     Multibinder.newSetBinder(binder(), Class.class, Names.named("che.json.ignored_classes"));
@@ -187,7 +187,7 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
    * @throws ConflictException when response code is 409
    * @throws BadRequestException when response code is 400
    */
-  protected DefaultHttpJsonResponse doRequest(
+  protected HttpJsonResponse doRequest(
       int timeout,
       String url,
       String method,
@@ -198,19 +198,7 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
       throws IOException, ServerException, ForbiddenException, NotFoundException,
           UnauthorizedException, ConflictException, BadRequestException {
     final String authToken = EnvironmentContext.getCurrent().getSubject().getToken();
-    final boolean hasQueryParams = parameters != null && !parameters.isEmpty();
-    if (hasQueryParams || authToken != null) {
-      final UriBuilder ub = UriBuilder.fromUri(url);
-      // remove sensitive information from url.
-      ub.replaceQueryParam("token", EMPTY_ARRAY);
-
-      if (hasQueryParams) {
-        for (Pair<String, ?> parameter : parameters) {
-          ub.queryParam(parameter.first, parameter.second);
-        }
-      }
-      url = ub.build().toString();
-    }
+    url = prepareUrl(url, parameters, authToken);
     final HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
     conn.setConnectTimeout(timeout > 0 ? timeout : 60000);
     conn.setReadTimeout(timeout > 0 ? timeout : 60000);
@@ -247,7 +235,8 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
         }
       }
       final int responseCode = conn.getResponseCode();
-      if ((responseCode / 100) != 2) {
+      // not modified response is a valid answer to the conditional request
+      if ((responseCode / 100) != 2 && responseCode != HttpURLConnection.HTTP_NOT_MODIFIED) {
         InputStream in = conn.getErrorStream();
         if (in == null) {
           in = conn.getInputStream();
@@ -256,40 +245,12 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
         try (Reader reader = new InputStreamReader(in)) {
           str = CharStreams.toString(reader);
         }
-        final String contentType = conn.getContentType();
-        if (contentType != null
-            && (contentType.startsWith(MediaType.APPLICATION_JSON)
-                || contentType.startsWith("application/vnd.api+json"))) {
-          final ServiceError serviceError =
-              DtoFactory.getInstance().createDtoFromJson(str, ServiceError.class);
-          if (serviceError.getMessage() != null) {
-            if (responseCode == Response.Status.FORBIDDEN.getStatusCode()) {
-              throw new ForbiddenException(serviceError);
-            } else if (responseCode == Response.Status.NOT_FOUND.getStatusCode()) {
-              throw new NotFoundException(serviceError);
-            } else if (responseCode == Response.Status.UNAUTHORIZED.getStatusCode()) {
-              throw new UnauthorizedException(serviceError);
-            } else if (responseCode == Response.Status.CONFLICT.getStatusCode()) {
-              throw new ConflictException(serviceError);
-            } else if (responseCode == Response.Status.INTERNAL_SERVER_ERROR.getStatusCode()) {
-              throw new ServerException(serviceError);
-            } else if (responseCode == Response.Status.BAD_REQUEST.getStatusCode()) {
-              throw new BadRequestException(serviceError);
-            }
-            throw new ServerException(serviceError);
-          }
-        }
-        // Can't parse content as json or content has format other we expect for error.
-        throw new IOException(
-            String.format(
-                "Failed access: %s, method: %s, response code: %d, message: %s",
-                UriBuilder.fromUri(url).replaceQuery("token").build(), method, responseCode, str));
+        throwErrorResponse(url, method, responseCode, conn.getContentType(), str);
       }
       final String contentType = conn.getContentType();
       if (responseCode != HttpURLConnection.HTTP_NO_CONTENT
           && contentType != null
-          && !(contentType.startsWith(MediaType.APPLICATION_JSON)
-              || contentType.startsWith("application/vnd.api+json"))) {
+          && !isJsonContentType(contentType)) {
         throw new IOException(conn.getResponseMessage());
       }
 
@@ -302,6 +263,77 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
     }
   }
 
+  /**
+   * Removes sensitive information from the given url and appends query parameters to it.
+   *
+   * @param url request url
+   * @param parameters query parameters, may be null
+   * @param authToken authorization token of the current subject, may be null
+   * @return url which is ready to be requested
+   */
+  static String prepareUrl(String url, List<Pair<String, ?>> parameters, String authToken) {
+    final boolean hasQueryParams = parameters != null && !parameters.isEmpty();
+    if (hasQueryParams || authToken != null) {
+      final UriBuilder ub = UriBuilder.fromUri(url);
+      // remove sensitive information from url.
+      ub.replaceQueryParam("token", EMPTY_ARRAY);
+
+      if (hasQueryParams) {
+        for (Pair<String, ?> parameter : parameters) {
+          ub.queryParam(parameter.first, parameter.second);
+        }
+      }
+      return ub.build().toString();
+    }
+    return url;
+  }
+
+  /** Returns true if the given content type denotes json content. */
+  static boolean isJsonContentType(String contentType) {
+    return contentType.startsWith(MediaType.APPLICATION_JSON)
+        || contentType.startsWith("application/vnd.api+json");
+  }
+
+  /**
+   * Throws an exception which corresponds to the given unsuccessful response.
+   *
+   * @param url requested url
+   * @param method request method
+   * @param responseCode response code, not 2xx
+   * @param contentType content type of the response, may be null
+   * @param content response content
+   */
+  static void throwErrorResponse(
+      String url, String method, int responseCode, String contentType, String content)
+      throws IOException, ServerException, ForbiddenException, NotFoundException,
+          UnauthorizedException, ConflictException, BadRequestException {
+    if (contentType != null && isJsonContentType(contentType)) {
+      final ServiceError serviceError =
+          DtoFactory.getInstance().createDtoFromJson(content, ServiceError.class);
+      if (serviceError.getMessage() != null) {
+        if (responseCode == Response.Status.FORBIDDEN.getStatusCode()) {
+          throw new ForbiddenException(serviceError);
+        } else if (responseCode == Response.Status.NOT_FOUND.getStatusCode()) {
+          throw new NotFoundException(serviceError);
+        } else if (responseCode == Response.Status.UNAUTHORIZED.getStatusCode()) {
+          throw new UnauthorizedException(serviceError);
+        } else if (responseCode == Response.Status.CONFLICT.getStatusCode()) {
+          throw new ConflictException(serviceError);
+        } else if (responseCode == Response.Status.INTERNAL_SERVER_ERROR.getStatusCode()) {
+          throw new ServerException(serviceError);
+        } else if (responseCode == Response.Status.BAD_REQUEST.getStatusCode()) {
+          throw new BadRequestException(serviceError);
+        }
+        throw new ServerException(serviceError);
+      }
+    }
+    // Can't parse content as json or content has format other we expect for error.
+    throw new IOException(
+        String.format(
+            "Failed access: %s, method: %s, response code: %d, message: %s",
+            UriBuilder.fromUri(url).replaceQuery("token").build(), method, responseCode, content));
+  }
+
   @Override
   public String toString() {
     return "DefaultHttpJsonRequest{"
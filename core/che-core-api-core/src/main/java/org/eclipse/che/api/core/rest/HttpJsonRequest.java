@@ -142,7 +142,8 @@ public interface HttpJsonRequest {
 
   /**
    * Makes http request with content type "application/json" and authorization headers based on
-   * current {@link EnvironmentContext#getCurrent() context}.
+   * current {@link EnvironmentContext#getCurrent() context}. Response with 304 code, which answers
+   * conditional request, is returned as successful one with an empty body.
    *
    * @return {@link HttpJsonResponse} instance which represents response of this request
    * @throws IOException when server response content type is different from "application/json"(Not
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.rest;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.HttpHeaders;
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.eclipse.che.api.core.BadRequestException;
+import org.eclipse.che.api.core.ConflictException;
+import org.eclipse.che.api.core.ForbiddenException;
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.UnauthorizedException;
+import org.eclipse.che.api.core.rest.shared.dto.Link;
+import org.eclipse.che.commons.env.EnvironmentContext;
+import org.eclipse.che.commons.lang.Pair;
+import org.eclipse.che.dto.server.BinaryJsonFormat;
+import org.eclipse.che.dto.server.DtoFactory;
+
+/**
+ * Implementation of {@link HttpJsonRequest} which is executed by a shared {@link OkHttpClient}, so
+ * connections are kept alive and reused between requests.
+ *
+ * <p>Unlike {@link DefaultHttpJsonRequest} the response content is not converted to a string, it's
+ * decoded directly into the requested type. Small responses are read completely before the request
+ * returns, so the connection returns to the pool even if the content is never decoded. Larger
+ * responses are decoded straight from the connection and their content can be read only once.
+ *
+ * <p>If binary DTOs are accepted, the server is asked to respond with DTOs in {@link
+ * BinaryJsonFormat binary format}, servers which don't support it respond with JSON.
+ *
+ * @see PooledHttpJsonRequestFactory
+ */
+public class PooledHttpJsonRequest extends DefaultHttpJsonRequest {
+
+  private static final MediaType JSON_MEDIA_TYPE = MediaType.parse("application/json");
+  private static final byte[] EMPTY_CONTENT = new byte[0];
+  private static final long MAX_BUFFERED_CONTENT_LENGTH = 64 * 1024;
+  private static final String BINARY_OR_JSON =
+      BinaryJsonFormat.MEDIA_TYPE + ", " + javax.ws.rs.core.MediaType.APPLICATION_JSON + ";q=0.9";
+
+  private final OkHttpClient client;
+  private final boolean acceptBinaryDto;
+
+  protected PooledHttpJsonRequest(OkHttpClient client, String url) {
+    this(client, false, url);
+  }
+
+  protected PooledHttpJsonRequest(OkHttpClient client, Link link) {
+    this(client, false, link);
+  }
+
+  protected PooledHttpJsonRequest(OkHttpClient client, boolean acceptBinaryDto, String url) {
+    super(url);
+    this.client = client;
+    this.acceptBinaryDto = acceptBinaryDto;
+  }
+
+  protected PooledHttpJsonRequest(OkHttpClient client, boolean acceptBinaryDto, Link link) {
+    super(link);
+    this.client = client;
+    this.acceptBinaryDto = acceptBinaryDto;
+  }
+
+  @Override
+  protected HttpJsonResponse doRequest(
+      int timeout,
+      String url,
+      String method,
+      Object body,
+      List<Pair<String, ?>> parameters,
+      String authorizationHeaderValue,
+      List<Pair<String, String>> headers)
+      throws IOException, ServerException, ForbiddenException, NotFoundException,
+          UnauthorizedException, ConflictException, BadRequestException {
+    final String authToken = EnvironmentContext.getCurrent().getSubject().getToken();
+    url = prepareUrl(url, parameters, authToken);
+
+    final Request.Builder builder = new Request.Builder().url(url);
+    if (headers != null) {
+      for (Pair<String, String> header : headers) {
+        builder.header(header.first, header.second);
+      }
+    }
+    // drop a hint for server side that we want to receive application/json
+    builder.addHeader(
+        HttpHeaders.ACCEPT,
+        acceptBinaryDto ? BINARY_OR_JSON : javax.ws.rs.core.MediaType.APPLICATION_JSON);
+    if (!isNullOrEmpty(authorizationHeaderValue)) {
+      builder.header(HttpHeaders.AUTHORIZATION, authorizationHeaderValue);
+    } else if (authToken != null) {
+      builder.header(HttpHeaders.AUTHORIZATION, authToken);
+    }
+
+    RequestBody requestBody = null;
+    if (body != null) {
+      requestBody =
+          RequestBody.create(
+              JSON_MEDIA_TYPE, DtoFactory.getInstance().toJson(body).getBytes(UTF_8));
+      if (HttpMethod.GET.equals(method)) {
+        // keep the behaviour of HttpURLConnection which sends GET requests with body as POST
+        method = HttpMethod.POST;
+      }
+    } else if (HttpMethod.POST.equals(method)
+        || HttpMethod.PUT.equals(method)
+        || "PATCH".equals(method)) {
+      requestBody = RequestBody.create(null, EMPTY_CONTENT);
+    }
+    builder.method(method, requestBody);
+
+    final OkHttpClient client =
+        timeout > 0
+            ? this.client
+                .newBuilder()
+                .connectTimeout(timeout, MILLISECONDS)
+                .readTimeout(timeout, MILLISECONDS)
+                .writeTimeout(timeout, MILLISECONDS)
+                .build()
+            : this.client;
+
+    final Response response = client.newCall(builder.build()).execute();
+    boolean streamed = false;
+    try {
+      final int responseCode = response.code();
+      final String contentType = response.header(HttpHeaders.CONTENT_TYPE);
+      final ResponseBody responseBody = response.body();
+      // not modified response is a valid answer to the conditional request
+      if ((responseCode / 100) != 2 && responseCode != HTTP_NOT_MODIFIED) {
+        throwErrorResponse(
+            url,
+            method,
+            responseCode,
+            contentType,
+            responseBody == null ? "" : responseBody.string());
+      }
+      final boolean binary = acceptBinaryDto && isBinaryContentType(contentType);
+      if (responseCode != 204
+          && responseCode != HTTP_NOT_MODIFIED
+          && contentType != null
+          && !binary
+          && !isJsonContentType(contentType)) {
+        throw new IOException(response.message());
+      }
+      if (responseBody != null
+          && responseCode != 204
+          && responseCode != HTTP_NOT_MODIFIED
+          && !HttpMethod.HEAD.equals(method)
+          && !isSmall(responseBody)) {
+        streamed = true;
+        return new PooledHttpJsonResponse(responseBody, binary, responseCode, headersOf(response));
+      }
+      return new ByteArrayHttpJsonResponse(
+          responseBody == null ? EMPTY_CONTENT : responseBody.bytes(),
+          binary,
+          responseCode,
+          headersOf(response));
+    } finally {
+      if (!streamed) {
+        response.close();
+      }
+    }
+  }
+
+  /**
+   * Small responses are read at once and the connection is returned to the pool right away, even
+   * if the caller is not interested in the content. Larger responses and responses of unknown
+   * length are decoded from the connection when the content is requested.
+   */
+  private static boolean isSmall(ResponseBody body) {
+    final long length = body.contentLength();
+    return length >= 0 && length <= MAX_BUFFERED_CONTENT_LENGTH;
+  }
+
+  /**
+   * Returns response headers keeping the case of their names as received, unlike {@link
+   * okhttp3.Headers#toMultimap()} which lowercases them.
+   */
+  private static Map<String, List<String>> headersOf(Response response) {
+    final Headers headers = response.headers();
+    final Map<String, List<String>> result = new LinkedHashMap<>();
+    for (int i = 0; i < headers.size(); i++) {
+      result.computeIfAbsent(headers.name(i), name -> new ArrayList<>()).add(headers.value(i));
+    }
+    return result;
+  }
+
+  private static boolean isBinaryContentType(String contentType) {
+    if (contentType == null) {
+      return false;
+    }
+    final MediaType mediaType = MediaType.parse(contentType);
+    return mediaType != null
+        && BinaryJsonFormat.MEDIA_TYPE.equals(mediaType.type() + '/' + mediaType.subtype());
+  }
+}
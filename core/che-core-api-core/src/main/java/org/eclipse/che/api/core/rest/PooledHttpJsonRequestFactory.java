@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.rest;
+
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.validation.constraints.NotNull;
+import okhttp3.Connection;
+import okhttp3.ConnectionPool;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import org.eclipse.che.api.core.rest.shared.dto.Link;
+
+/**
+ * Creates {@link PooledHttpJsonRequest} instances which share a single pool of keep-alive
+ * connections, so subsequent requests to the same host don't pay for new TCP/TLS handshakes.
+ *
+ * <p>Workspace master and agent bind {@link HttpJsonRequestFactory} to this factory or to its
+ * subclasses which authorize the requests. Per-host connection statistics are available through
+ * {@link #getHostStatistics()}. Created requests may be configured to ask servers for DTOs
+ * in {@link org.eclipse.che.dto.server.BinaryJsonFormat binary format}.
+ *
+ * @see PooledHttpJsonRequest
+ */
+@Singleton
+public class PooledHttpJsonRequestFactory implements HttpJsonRequestFactory {
+
+  private static final int DEFAULT_TIMEOUT_MS = 60_000;
+
+  private final ConnectionPool connectionPool;
+  private final OkHttpClient client;
+  private final Set<Connection> knownConnections;
+  private final ConcurrentHashMap<String, HostStatistics> hostStatistics;
+  private final boolean acceptBinaryDto;
+
+  @Inject
+  public PooledHttpJsonRequestFactory(
+      @Named("che.core.rest.http_client.max_idle_connections") int maxIdleConnections,
+      @Named("che.core.rest.http_client.keep_alive_ms") long keepAliveMs,
+      @Named("che.core.rest.http_client.accept_binary_dto") boolean acceptBinaryDto) {
+    this.acceptBinaryDto = acceptBinaryDto;
+    this.connectionPool = new ConnectionPool(maxIdleConnections, keepAliveMs, MILLISECONDS);
+    this.knownConnections = Collections.newSetFromMap(new WeakHashMap<>());
+    this.hostStatistics = new ConcurrentHashMap<>();
+    this.client =
+        new OkHttpClient.Builder()
+            .connectionPool(connectionPool)
+            .connectTimeout(DEFAULT_TIMEOUT_MS, MILLISECONDS)
+            .readTimeout(DEFAULT_TIMEOUT_MS, MILLISECONDS)
+            .writeTimeout(DEFAULT_TIMEOUT_MS, MILLISECONDS)
+            .addNetworkInterceptor(new StatisticsInterceptor())
+            .build();
+  }
+
+  @Override
+  public HttpJsonRequest fromUrl(@NotNull String url) {
+    return new PooledHttpJsonRequest(client, acceptBinaryDto, url);
+  }
+
+  @Override
+  public HttpJsonRequest fromLink(@NotNull Link link) {
+    return new PooledHttpJsonRequest(client, acceptBinaryDto, link);
+  }
+
+  /** Returns the number of open connections, both idle and in use. */
+  public int getConnectionCount() {
+    return connectionPool.connectionCount();
+  }
+
+  /** Returns the number of idle connections kept in the pool. */
+  public int getIdleConnectionCount() {
+    return connectionPool.idleConnectionCount();
+  }
+
+  /** Returns statistics of the requests grouped by the requested host. */
+  public Map<String, HostStatistics> getHostStatistics() {
+    return ImmutableMap.copyOf(hostStatistics);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    connectionPool.evictAll();
+    client.dispatcher().executorService().shutdown();
+  }
+
+  /** Collects statistics of each request sent over the network. */
+  private class StatisticsInterceptor implements Interceptor {
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+      HostStatistics statistics =
+          hostStatistics.computeIfAbsent(
+              chain.request().url().host(), host -> new HostStatistics());
+      Connection connection = chain.connection();
+      if (connection != null) {
+        boolean isNew;
+        synchronized (knownConnections) {
+          isNew = knownConnections.add(connection);
+        }
+        if (isNew) {
+          statistics.openedConnections.increment();
+        } else {
+          statistics.reusedConnections.increment();
+        }
+      }
+      long start = System.nanoTime();
+      try {
+        Response response = chain.proceed(chain.request());
+        if (response.code() / 100 != 2 && response.code() != HTTP_NOT_MODIFIED) {
+          statistics.failedRequests.increment();
+        }
+        return response;
+      } catch (IOException x) {
+        statistics.failedRequests.increment();
+        throw x;
+      } finally {
+        statistics.requests.increment();
+        statistics.totalNanos.add(System.nanoTime() - start);
+      }
+    }
+  }
+
+  /** Statistics of the requests sent to a single host. */
+  public static class HostStatistics {
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failedRequests = new LongAdder();
+    private final LongAdder openedConnections = new LongAdder();
+    private final LongAdder reusedConnections = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    /** Returns the number of sent requests. */
+    public long getRequests() {
+      return requests.sum();
+    }
+
+    /**
+     * Returns the number of requests failed with an i/o error or a response code which is neither
+     * 2xx nor 304.
+     */
+    public long getFailedRequests() {
+      return failedRequests.sum();
+    }
+
+    /** Returns the number of connections opened to the host. */
+    public long getOpenedConnections() {
+      return openedConnections.sum();
+    }
+
+    /** Returns the number of requests sent over an already opened connection. */
+    public long getReusedConnections() {
+      return reusedConnections.sum();
+    }
+
+    /** Returns the average time in milliseconds spent waiting for a response. */
+    public long getAverageResponseMillis() {
+      long n = requests.sum();
+      return n == 0 ? 0 : NANOSECONDS.toMillis(totalNanos.sum() / n);
+    }
+  }
+}
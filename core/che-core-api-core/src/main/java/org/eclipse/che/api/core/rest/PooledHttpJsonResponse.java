@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.rest;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Objects.requireNonNull;
+
+import com.google.gson.reflect.TypeToken;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import okhttp3.ResponseBody;
+import org.eclipse.che.commons.json.JsonHelper;
+import org.eclipse.che.commons.json.JsonParseException;
+import org.eclipse.che.dto.server.BinaryJsonParser;
+import org.eclipse.che.dto.server.DtoFactory;
+
+/**
+ * Response which decodes the content straight from the body of a pooled connection, so large
+ * responses are not buffered in memory. The content can be read only once, the connection returns
+ * to the pool as soon as the content is read.
+ *
+ * @see PooledHttpJsonRequest
+ */
+public class PooledHttpJsonResponse implements HttpJsonResponse {
+
+  private static final Type STRING_MAP_TYPE = new TypeToken<Map<String, String>>() {}.getType();
+
+  private final ResponseBody body;
+  private final boolean binary;
+  private final int responseCode;
+  private final Map<String, List<String>> headers;
+  private final AtomicBoolean consumed = new AtomicBoolean();
+
+  /**
+   * Creates response reading the content from the given body.
+   *
+   * @param binary whether content is in binary format rather than in JSON
+   */
+  protected PooledHttpJsonResponse(
+      ResponseBody body, boolean binary, int responseCode, Map<String, List<String>> headers) {
+    this.body = body;
+    this.binary = binary;
+    this.responseCode = responseCode;
+    this.headers =
+        unmodifiableMap(
+            headers
+                .entrySet()
+                .stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> unmodifiableList(e.getValue()))));
+  }
+
+  @Override
+  public String asString() {
+    try (ResponseBody content = consume()) {
+      if (binary) {
+        return new BinaryJsonParser(content.byteStream()).parse().toString();
+      }
+      return content.string();
+    } catch (IOException x) {
+      throw new UncheckedIOException(x);
+    }
+  }
+
+  @Override
+  public <T> T asDto(Class<T> dtoInterface) {
+    requireNonNull(dtoInterface, "Required non-null dto interface");
+    try (ResponseBody content = consume()) {
+      if (binary) {
+        return DtoFactory.getInstance().createDtoFromBinary(content.byteStream(), dtoInterface);
+      }
+      return DtoFactory.getInstance().createDtoFromJson(content.charStream(), dtoInterface);
+    } catch (IOException x) {
+      throw new UncheckedIOException(x);
+    }
+  }
+
+  @Override
+  public <T> List<T> asList(Class<T> dtoInterface) {
+    requireNonNull(dtoInterface, "Required non-null dto interface");
+    try (ResponseBody content = consume()) {
+      if (binary) {
+        return DtoFactory.getInstance().createListDtoFromBinary(content.byteStream(), dtoInterface);
+      }
+      return DtoFactory.getInstance().createListDtoFromJson(content.charStream(), dtoInterface);
+    } catch (IOException x) {
+      throw new UncheckedIOException(x);
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Map<String, String> asProperties() throws IOException {
+    return as(Map.class, STRING_MAP_TYPE);
+  }
+
+  @Override
+  public <T> T as(Class<T> clazz, Type genericType) throws IOException {
+    requireNonNull(clazz, "Required non-null class");
+    try (ResponseBody content = consume();
+        Reader reader =
+            binary
+                ? new StringReader(new BinaryJsonParser(content.byteStream()).parse().toString())
+                : content.charStream()) {
+      return JsonHelper.fromJson(reader, clazz, genericType);
+    } catch (JsonParseException jsonEx) {
+      throw new IOException(jsonEx.getLocalizedMessage(), jsonEx);
+    }
+  }
+
+  @Override
+  public Map<String, List<String>> getHeaders() {
+    return headers;
+  }
+
+  @Override
+  public int getResponseCode() {
+    return responseCode;
+  }
+
+  private ResponseBody consume() {
+    if (!consumed.compareAndSet(false, true)) {
+      throw new IllegalStateException("Response content is already read");
+    }
+    return body;
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.everrest;
+
+import java.util.List;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import org.eclipse.che.dto.server.BinaryJsonFormat;
+import org.eclipse.che.dto.server.JsonSerializable;
+import org.everrest.core.ApplicationContext;
+import org.everrest.core.Filter;
+import org.everrest.core.GenericContainerResponse;
+import org.everrest.core.ResponseFilter;
+
+/**
+ * Filter implementing {@link ResponseFilter} which switches JSON responses containing DTOs to the
+ * {@link BinaryJsonFormat binary format} when client explicitly accepts it. Clients which don't
+ * mention binary format in the Accept header, e.g. browsers, always get JSON.
+ *
+ * @see org.eclipse.che.api.core.rest.CheBinaryDtoProvider
+ */
+@Filter
+public class BinaryDtoResponseFilter implements ResponseFilter {
+
+  private static final MediaType BINARY_TYPE = MediaType.valueOf(BinaryJsonFormat.MEDIA_TYPE);
+
+  @Override
+  public void doFilter(GenericContainerResponse containerResponse) {
+    // Only handle JSON content
+    if (!MediaType.APPLICATION_JSON_TYPE.equals(containerResponse.getContentType())) {
+      return;
+    }
+    if (!isDtoEntity(containerResponse.getEntity())) {
+      return;
+    }
+    List<MediaType> acceptableTypes =
+        ApplicationContext.getCurrent().getHttpHeaders().getAcceptableMediaTypes();
+    if (isBinaryAccepted(acceptableTypes)) {
+      containerResponse.setResponse(
+          Response.fromResponse(containerResponse.getResponse()).type(BINARY_TYPE).build());
+    }
+  }
+
+  private static boolean isBinaryAccepted(List<MediaType> acceptableTypes) {
+    for (MediaType acceptableType : acceptableTypes) {
+      // wildcards don't count, binary format must be requested explicitly
+      if (BINARY_TYPE.getType().equals(acceptableType.getType())
+          && BINARY_TYPE.getSubtype().equals(acceptableType.getSubtype())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isDtoEntity(Object entity) {
+    if (entity instanceof JsonSerializable) {
+      return true;
+    }
+    if (entity instanceof List) {
+      for (Object element : (List<?>) entity) {
+        if (!(element instanceof JsonSerializable)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return false;
+  }
+}
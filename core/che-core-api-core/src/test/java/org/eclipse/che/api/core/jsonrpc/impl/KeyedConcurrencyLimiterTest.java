@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.jsonrpc.impl;
+
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests for {@link KeyedConcurrencyLimiter}. */
+public class KeyedConcurrencyLimiterTest {
+
+  private DeferredExecutor executor;
+  private KeyedConcurrencyLimiter limiter;
+  private List<String> executed;
+
+  @BeforeMethod
+  public void setUp() {
+    executor = new DeferredExecutor();
+    limiter = new KeyedConcurrencyLimiter();
+    executed = new ArrayList<>();
+  }
+
+  @Test
+  public void queuesTaskStartedWhenLimitIsReached() {
+    limiter.execute(
+        "key",
+        1,
+        executor,
+        () -> {
+          executed.add("1");
+          // starts the second task while the first one is running
+          executor.runAll();
+          assertEquals(limiter.getPendingCount(), 1);
+          executed.add("1 done");
+        });
+    limiter.execute("key", 1, executor, () -> executed.add("2"));
+
+    executor.runNext();
+
+    assertEquals(executed, asList("1", "1 done"));
+    assertEquals(executor.tasks.size(), 1);
+    assertEquals(limiter.getPendingCount(), 0);
+
+    executor.runAll();
+
+    assertEquals(executed, asList("1", "1 done", "2"));
+  }
+
+  @Test
+  public void passesPendingTasksToExecutorInOrder() {
+    limiter.execute(
+        "key",
+        1,
+        executor,
+        () -> {
+          executor.runAll();
+          executed.add("1");
+        });
+    limiter.execute("key", 1, executor, () -> executed.add("2"));
+    limiter.execute("key", 1, executor, () -> executed.add("3"));
+
+    executor.runAll();
+
+    assertEquals(executed, asList("1", "2", "3"));
+    assertEquals(limiter.getPendingCount(), 0);
+  }
+
+  @Test
+  public void doesNotLimitTasksOfDifferentKeys() {
+    limiter.execute(
+        "key1",
+        1,
+        executor,
+        () -> {
+          executor.runAll();
+          executed.add("1");
+        });
+    limiter.execute("key2", 1, executor, () -> executed.add("2"));
+
+    executor.runNext();
+
+    assertEquals(executed, asList("2", "1"));
+    assertEquals(limiter.getPendingCount(), 0);
+  }
+
+  @Test
+  public void releasesKeyWhenTaskFails() {
+    limiter.execute(
+        "key",
+        1,
+        executor,
+        () -> {
+          throw new IllegalStateException("test");
+        });
+    limiter.execute("key", 1, executor, () -> executed.add("2"));
+
+    try {
+      executor.runNext();
+    } catch (IllegalStateException ignored) {
+    }
+    executor.runAll();
+
+    assertEquals(executed, asList("2"));
+  }
+
+  @Test
+  public void releasesKeyWhenExecutorRejectsTask() {
+    boolean rejected = false;
+    try {
+      limiter.execute(
+          "key",
+          1,
+          task -> {
+            throw new IllegalStateException("rejected");
+          },
+          () -> executed.add("1"));
+    } catch (IllegalStateException x) {
+      rejected = true;
+    }
+    limiter.execute("key", 1, executor, () -> executed.add("2"));
+    executor.runAll();
+
+    assertTrue(rejected);
+    assertEquals(executed, asList("2"));
+  }
+
+  @Test
+  public void passesNextPendingTaskWhenExecutorRejectsPendingOne() {
+    limiter.execute(
+        "key",
+        1,
+        executor,
+        () -> {
+          executor.runAll();
+          executor.rejectNext = true;
+          executed.add("1");
+        });
+    limiter.execute("key", 1, executor, () -> executed.add("2"));
+    limiter.execute("key", 1, executor, () -> executed.add("3"));
+
+    executor.runAll();
+
+    assertEquals(executed, asList("1", "3"));
+    assertEquals(limiter.getPendingCount(), 0);
+  }
+
+  @Test
+  public void doesNotHoldSlotWhileWaitingForAnotherKey() {
+    KeyedConcurrencyLimiter methodLimiter = new KeyedConcurrencyLimiter();
+    Executor methodExecutor = task -> methodLimiter.execute("method", 1, executor, task);
+    limiter.execute(
+        "endpoint1",
+        1,
+        methodExecutor,
+        () -> {
+          // the second task waits for the method, the third one must not wait for the endpoint
+          executor.runAll();
+          executed.add("1");
+        });
+    limiter.execute("endpoint2", 1, methodExecutor, () -> executed.add("2"));
+    limiter.execute("endpoint2", 1, executor, () -> executed.add("3"));
+
+    executor.runNext();
+
+    assertEquals(executed, asList("3", "1"));
+
+    executor.runAll();
+
+    assertEquals(executed, asList("3", "1", "2"));
+  }
+
+  /** Executor that runs tasks only when asked to. */
+  private static class DeferredExecutor implements Executor {
+    final List<Runnable> tasks = new ArrayList<>();
+    boolean rejectNext;
+
+    @Override
+    public void execute(Runnable command) {
+      if (rejectNext) {
+        rejectNext = false;
+        throw new RejectedExecutionException("rejected");
+      }
+      tasks.add(command);
+    }
+
+    void runNext() {
+      tasks.remove(0).run();
+    }
+
+    void runAll() {
+      while (!tasks.isEmpty()) {
+        runNext();
+      }
+    }
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.rest;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.eclipse.che.api.core.util.LinksHelper.createLink;
+import static org.testng.Assert.assertEquals;
+
+import com.google.common.reflect.TypeToken;
+import java.io.IOException;
+import java.util.Set;
+import org.eclipse.che.api.core.rest.shared.dto.Link;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.dto.server.JsonArrayImpl;
+import org.eclipse.che.dto.server.JsonStringMapImpl;
+import org.testng.annotations.Test;
+
+/** Tests of {@link ByteArrayHttpJsonResponse}. */
+public class ByteArrayHttpJsonResponseTest {
+
+  @Test
+  public void shouldReturnStringAsItIsIfStringIsRequested() throws Exception {
+    final ByteArrayHttpJsonResponse response = response("string response", 200);
+
+    assertEquals(response.asString(), "string response");
+  }
+
+  @Test
+  public void shouldReturnJsonSerializableInstanceIfItWasRequested() throws Exception {
+    final Link testLink = createLink("POST", "http://localhost:8080", "rel");
+    final ByteArrayHttpJsonResponse response =
+        response(DtoFactory.getInstance().toJson(testLink), 200);
+
+    assertEquals(response.asDto(Link.class), testLink);
+  }
+
+  @Test
+  public void shouldDeserializeResponseToGivenType() throws Exception {
+    final String responseBody =
+        DtoFactory.getInstance().toJson(new JsonArrayImpl<>(singletonList("element")));
+    final ByteArrayHttpJsonResponse response = response(responseBody, 200);
+
+    assertEquals(
+        response.as(Set.class, new TypeToken<Set<String>>() {}.getType()), singleton("element"));
+  }
+
+  @Test
+  public void shouldBeAbleToRequestProperties() throws Exception {
+    final String responseBody =
+        DtoFactory.getInstance().toJson(new JsonStringMapImpl<>(singletonMap("key", "value")));
+    final ByteArrayHttpJsonResponse response = response(responseBody, 200);
+
+    assertEquals(response.asProperties(), singletonMap("key", "value"));
+  }
+
+  @Test
+  public void shouldBeAbleToRequestListOfJsonSerializableElements() throws Exception {
+    final Link testLink = createLink("POST", "http://localhost:8080", "rel");
+    final String responseBody =
+        DtoFactory.getInstance().toJson(new JsonArrayImpl<>(singletonList(testLink)));
+    final ByteArrayHttpJsonResponse response = response(responseBody, 200);
+
+    assertEquals(response.asList(Link.class), singletonList(testLink));
+  }
+
+  @Test(expectedExceptions = NullPointerException.class)
+  public void shouldThrowNullPointerExceptionWhenClazzIsNull() throws Exception {
+    response("{}", 200).as(null, null);
+  }
+
+  @Test(expectedExceptions = NullPointerException.class)
+  public void shouldThrowNullPointerExceptionWhenDtoInterfaceIsNull() throws Exception {
+    response("{}", 200).asDto(null);
+  }
+
+  @Test(expectedExceptions = IOException.class)
+  public void shouldThrowServerExceptionWhenParsingNotValidJsonContent() throws Exception {
+    response("not valid json", 200).as(Set.class, null);
+  }
+
+  @Test
+  public void shouldReturnCorrectResponseCode() {
+    final ByteArrayHttpJsonResponse response = response("not valid json", 201);
+
+    assertEquals(response.getResponseCode(), 201);
+  }
+
+  @Test
+  public void shouldDecodeUtf8Content() throws Exception {
+    final ByteArrayHttpJsonResponse response =
+        response("{\"key\":\"\u0436\u0443\u043a\"}", 200);
+
+    assertEquals(response.asProperties(), singletonMap("key", "\u0436\u0443\u043a"));
+  }
+
+  @Test
+  public void shouldDecodeBinaryContent() throws Exception {
+    final Link testLink = createLink("POST", "http://localhost:8080", "rel");
+    final ByteArrayHttpJsonResponse response =
+        new ByteArrayHttpJsonResponse(
+            DtoFactory.getInstance().toBinary(testLink), true, 200, emptyMap());
+
+    assertEquals(response.asDto(Link.class), testLink);
+    assertEquals(response.asString(), DtoFactory.getInstance().toJson(testLink));
+  }
+
+  @Test
+  public void shouldDecodeBinaryListContent() throws Exception {
+    final Link testLink = createLink("POST", "http://localhost:8080", "rel");
+    final ByteArrayHttpJsonResponse response =
+        new ByteArrayHttpJsonResponse(
+            DtoFactory.getInstance().toBinary(singletonList(testLink)), true, 200, emptyMap());
+
+    assertEquals(response.asList(Link.class), singletonList(testLink));
+  }
+
+  private static ByteArrayHttpJsonResponse response(String content, int responseCode) {
+    return new ByteArrayHttpJsonResponse(content.getBytes(UTF_8), responseCode, emptyMap());
+  }
+}
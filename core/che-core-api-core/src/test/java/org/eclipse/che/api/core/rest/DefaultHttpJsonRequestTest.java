@@ -280,6 +280,16 @@ public class DefaultHttpJsonRequestTest {
     new DefaultHttpJsonRequest(getUrl(ctx) + "/501/response-code-test").useGetMethod().request();
   }
 
+  @Test
+  public void shouldNotThrowExceptionWhenResponseCodeIs304(ITestContext ctx) throws Exception {
+    final HttpJsonResponse response =
+        new DefaultHttpJsonRequest(getUrl(ctx) + "/304/response-code-test")
+            .useGetMethod()
+            .request();
+
+    assertEquals(response.getResponseCode(), 304);
+  }
+
   @Test(expectedExceptions = IOException.class)
   public void shouldThrowIOExceptionIfServerReturnsTypeDifferentFromApplicationJson(
       ITestContext ctx) throws Exception {
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.rest;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.eclipse.che.api.core.util.LinksHelper.createLink;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import com.google.common.base.Strings;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.name.Names;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import org.eclipse.che.api.core.rest.shared.dto.Link;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests of {@link PooledHttpJsonRequestFactory} injected the way the services bind it. */
+public class PooledHttpJsonRequestFactoryTest {
+
+  private static final Link SMALL_LINK = createLink("GET", "http://localhost/small", "small");
+  private static final Link LARGE_LINK =
+      createLink("GET", "http://localhost/" + Strings.repeat("large", 100_000), "large");
+
+  private HttpServer server;
+  private String serverUrl;
+  private PooledHttpJsonRequestFactory requestFactory;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/small", exchange -> respond(exchange, SMALL_LINK, false));
+    server.createContext("/large", exchange -> respond(exchange, LARGE_LINK, true));
+    server.start();
+    serverUrl = "http://localhost:" + server.getAddress().getPort();
+
+    Injector injector =
+        Guice.createInjector(
+            binder -> {
+              binder
+                  .bindConstant()
+                  .annotatedWith(Names.named("che.core.rest.http_client.max_idle_connections"))
+                  .to(5);
+              binder
+                  .bindConstant()
+                  .annotatedWith(Names.named("che.core.rest.http_client.keep_alive_ms"))
+                  .to(60_000L);
+              binder
+                  .bindConstant()
+                  .annotatedWith(Names.named("che.core.rest.http_client.accept_binary_dto"))
+                  .to(false);
+              binder.bind(HttpJsonRequestFactory.class).to(PooledHttpJsonRequestFactory.class);
+            });
+    HttpJsonRequestFactory factory = injector.getInstance(HttpJsonRequestFactory.class);
+    assertTrue(factory instanceof PooledHttpJsonRequestFactory);
+    requestFactory = (PooledHttpJsonRequestFactory) factory;
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    requestFactory.shutdown();
+    server.stop(0);
+  }
+
+  @Test
+  public void shouldReuseConnectionForSubsequentRequests() throws Exception {
+    HttpJsonResponse first = requestFactory.fromUrl(serverUrl + "/small").request();
+    HttpJsonResponse second = requestFactory.fromUrl(serverUrl + "/small").request();
+
+    assertEquals(first.asDto(Link.class), SMALL_LINK);
+    assertEquals(second.asDto(Link.class), SMALL_LINK);
+    PooledHttpJsonRequestFactory.HostStatistics statistics =
+        requestFactory.getHostStatistics().get("localhost");
+    assertEquals(statistics.getRequests(), 2);
+    assertEquals(statistics.getOpenedConnections(), 1);
+    assertEquals(statistics.getReusedConnections(), 1);
+  }
+
+  @Test
+  public void shouldDecodeLargeResponseStraightFromConnection() throws Exception {
+    HttpJsonResponse response = requestFactory.fromUrl(serverUrl + "/large").request();
+
+    assertTrue(response instanceof PooledHttpJsonResponse);
+    assertEquals(response.asDto(Link.class), LARGE_LINK);
+    assertEquals(requestFactory.getIdleConnectionCount(), 1);
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void shouldNotReadLargeResponseTwice() throws Exception {
+    HttpJsonResponse response = requestFactory.fromUrl(serverUrl + "/large").request();
+    response.asDto(Link.class);
+
+    response.asString();
+  }
+
+  private static void respond(HttpExchange exchange, Link link, boolean chunked)
+      throws IOException {
+    byte[] content = DtoFactory.getInstance().toJson(link).getBytes(UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, chunked ? 0 : content.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(content);
+    }
+  }
+}
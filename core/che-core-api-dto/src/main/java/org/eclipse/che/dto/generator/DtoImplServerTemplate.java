@@ -11,6 +11,7 @@ package org.eclipse.che.dto.generator;
 
 import com.google.common.primitives.Primitives;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
@@ -19,9 +20,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import org.eclipse.che.commons.lang.reflect.ParameterizedTypeImpl;
+import org.eclipse.che.dto.server.DtoTypeAdapter;
 import org.eclipse.che.dto.server.JsonArrayImpl;
 import org.eclipse.che.dto.server.JsonSerializable;
 import org.eclipse.che.dto.server.JsonStringMapImpl;
+import org.eclipse.che.dto.server.JsonValues;
 import org.eclipse.che.dto.shared.DTOImpl;
 import org.eclipse.che.dto.shared.DelegateRule;
 import org.eclipse.che.dto.shared.DelegateTo;
@@ -34,6 +38,12 @@ public class DtoImplServerTemplate extends DtoImpl {
   private static final String JSON_MAP_IMPL = JsonStringMapImpl.class.getCanonicalName();
   private static final String SERVER_DTO_MARKER =
       "  @" + DTOImpl.class.getCanonicalName() + "(\"server\")\n";
+  private static final String TYPE_ADAPTER_BASE = DtoTypeAdapter.class.getCanonicalName();
+  private static final String PARAMETERIZED_TYPE_IMPL =
+      ParameterizedTypeImpl.class.getCanonicalName();
+
+  /** Name of the streaming type adapter class which is nested in each DTO implementation. */
+  static final String TYPE_ADAPTER_CLASS_NAME = "GsonTypeAdapter";
 
   DtoImplServerTemplate(DtoTemplate template, Class<?> superInterface) {
     super(template, superInterface);
@@ -69,6 +79,7 @@ public class DtoImplServerTemplate extends DtoImpl {
     emitDeserializer(methods, builder);
     emitDeserializerShortcut(builder);
     emitCopyConstructor(methods, builder);
+    emitTypeAdapter(getters, superGetterNames, builder);
     // Delegation DTO methods.
     emitDelegateMethods(builder);
     // "builder" method, it is method that set field and return "this" instance
@@ -375,13 +386,11 @@ public class DtoImplServerTemplate extends DtoImpl {
     builder.append("    }\n\n");
   }
 
-  private static StringBuilder appendNaiveCopyJsonExpression(
-      String inValue, StringBuilder builder) {
-    builder.append("((");
-    builder.append(inValue);
-    builder.append(") != null ? new JsonParser().parse((");
+  private static StringBuilder appendCopyJsonExpression(String inValue, StringBuilder builder) {
+    builder.append(JsonValues.class.getCanonicalName());
+    builder.append(".copyOf(");
     builder.append(inValue);
-    builder.append(").toString()) : null)");
+    builder.append(")");
     return builder;
   }
 
@@ -390,17 +399,10 @@ public class DtoImplServerTemplate extends DtoImpl {
     builder.append("  public static class ");
     builder.append(getImplClassName());
 
-    Class<?> superType = getSuperDtoInterface(getDtoInterface());
-    if (superType != null && superType != JsonSerializable.class) {
+    final String superImplName = getSuperImplName();
+    if (superImplName != null) {
       // We need to extend something.
-      builder.append(" extends ");
-
-      final Class<?> superTypeImpl = getEnclosingTemplate().getDtoImplementation(superType);
-      if (superTypeImpl == null) {
-        builder.append(superType.getSimpleName()).append("Impl");
-      } else {
-        builder.append(superTypeImpl.getCanonicalName());
-      }
+      builder.append(" extends ").append(superImplName);
     }
     builder.append(" implements ");
     builder.append(dtoInterface.getCanonicalName());
@@ -410,6 +412,242 @@ public class DtoImplServerTemplate extends DtoImpl {
     emitDefaultConstructor(builder);
   }
 
+  /**
+   * Returns the name of implementation of super DTO interface or null if DTO interface doesn't
+   * extend any other DTO interface.
+   */
+  private String getSuperImplName() {
+    Class<?> superType = getSuperDtoInterface(getDtoInterface());
+    if (superType == null || superType == JsonSerializable.class) {
+      return null;
+    }
+    final Class<?> superTypeImpl = getEnclosingTemplate().getDtoImplementation(superType);
+    if (superTypeImpl == null) {
+      return superType.getSimpleName() + "Impl";
+    }
+    return superTypeImpl.getCanonicalName();
+  }
+
+  /**
+   * Emits streaming Gson adapter which reads and writes fields declared in this implementation and
+   * delegates the rest of the fields to the adapter of the super implementation.
+   *
+   * @see DtoTypeAdapter
+   */
+  private void emitTypeAdapter(
+      List<Method> getters, Set<String> superGetterNames, StringBuilder builder) {
+    final List<Method> fields = new ArrayList<>();
+    for (Method getter : getters) {
+      if (!superGetterNames.contains(getter.getName())) {
+        fields.add(getter);
+      }
+    }
+    final String superImplName = getSuperImplName();
+    builder
+        .append("    public static class ")
+        .append(TYPE_ADAPTER_CLASS_NAME)
+        .append("<T extends ")
+        .append(getImplClassName())
+        .append("> extends ");
+    if (superImplName == null) {
+      builder.append(TYPE_ADAPTER_BASE);
+    } else {
+      builder.append(superImplName).append(".").append(TYPE_ADAPTER_CLASS_NAME);
+    }
+    builder.append("<T> {\n");
+
+    // adapters of the fields which are not written directly
+    for (Method getter : fields) {
+      if (!isWrittenDirectly(getter.getReturnType())) {
+        builder
+            .append("      private final com.google.gson.TypeAdapter<")
+            .append(getAdapterTypeName(getter))
+            .append("> ")
+            .append(getAdapterFieldName(getter))
+            .append(";\n");
+      }
+    }
+    builder.append("\n");
+    builder.append("      public ").append(TYPE_ADAPTER_CLASS_NAME).append("(Gson gson) {\n");
+    builder.append("        super(gson);\n");
+    for (Method getter : fields) {
+      Class<?> type = getter.getReturnType();
+      if (!isWrittenDirectly(type)) {
+        builder
+            .append("        ")
+            .append(getAdapterFieldName(getter))
+            .append(" = getAdapter(")
+            .append(
+                type.isPrimitive()
+                    ? Primitives.wrap(type).getCanonicalName() + ".class"
+                    : getTypeExpression(getter.getGenericReturnType()))
+            .append(");\n");
+      }
+    }
+    builder.append("      }\n\n");
+
+    builder.append("      @Override\n");
+    builder.append("      protected T newInstance() {\n");
+    builder.append("        return (T) new ").append(getImplClassName()).append("();\n");
+    builder.append("      }\n\n");
+
+    builder.append("      @Override\n");
+    builder.append(
+        "      protected void writeFields(com.google.gson.stream.JsonWriter out, T dto)"
+            + " throws java.io.IOException {\n");
+    for (Method getter : fields) {
+      emitWriteField(getter, builder);
+    }
+    builder.append("        super.writeFields(out, dto);\n");
+    builder.append("      }\n\n");
+
+    builder.append("      @Override\n");
+    builder.append(
+        "      protected boolean readField("
+            + "String name, com.google.gson.stream.JsonReader in, T dto)"
+            + " throws java.io.IOException {\n");
+    if (!fields.isEmpty()) {
+      builder.append("        switch (name) {\n");
+      for (Method getter : fields) {
+        builder
+            .append("          case ")
+            .append(quoteStringLiteral(getJsonFieldName(getter)))
+            .append(":\n");
+        emitReadField(getter, builder);
+        builder.append("            return true;\n");
+      }
+      builder.append("        }\n");
+    }
+    builder.append("        return super.readField(name, in, dto);\n");
+    builder.append("      }\n");
+    builder.append("    }\n\n");
+  }
+
+  private void emitWriteField(Method getter, StringBuilder builder) {
+    final String fieldName = getJavaFieldName(getter.getName());
+    final Class<?> type = getter.getReturnType();
+    builder
+        .append("        out.name(")
+        .append(quoteStringLiteral(getJsonFieldName(getter)))
+        .append(");\n");
+    if (isWrittenDirectly(type)) {
+      builder.append("        out.value(dto.").append(fieldName).append(");\n");
+    } else if (type.isPrimitive()
+        || getter.getGenericReturnType() instanceof ParameterizedType
+        || Modifier.isFinal(type.getModifiers())) {
+      // runtime type of the value is always the same as declared one
+      builder
+          .append("        ")
+          .append(getAdapterFieldName(getter))
+          .append(".write(out, dto.")
+          .append(fieldName)
+          .append(");\n");
+    } else {
+      builder
+          .append("        writeValue(out, ")
+          .append(type.getCanonicalName())
+          .append(".class, ")
+          .append(getAdapterFieldName(getter))
+          .append(", dto.")
+          .append(fieldName)
+          .append(");\n");
+    }
+  }
+
+  private void emitReadField(Method getter, StringBuilder builder) {
+    final String fieldName = getJavaFieldName(getter.getName());
+    final Class<?> type = getter.getReturnType();
+    if (type == String.class) {
+      builder.append("            dto.").append(fieldName).append(" = readString(in);\n");
+    } else if (type == int.class || type == long.class || type == boolean.class) {
+      final String readMethod =
+          type == int.class ? "readInt" : type == long.class ? "readLong" : "readBoolean";
+      builder
+          .append("            dto.")
+          .append(fieldName)
+          .append(" = ")
+          .append(readMethod)
+          .append("(in, dto.")
+          .append(fieldName)
+          .append(");\n");
+    } else if (type.isPrimitive()) {
+      // null doesn't change value of primitive field
+      final String wrapper = Primitives.wrap(type).getCanonicalName();
+      final String valueName = fieldName + "Value";
+      builder
+          .append("            ")
+          .append(wrapper)
+          .append(" ")
+          .append(valueName)
+          .append(" = ")
+          .append(getAdapterFieldName(getter))
+          .append(".read(in);\n");
+      builder
+          .append("            if (")
+          .append(valueName)
+          .append(" != null) {\n")
+          .append("              dto.")
+          .append(fieldName)
+          .append(" = ")
+          .append(valueName)
+          .append(";\n")
+          .append("            }\n");
+    } else {
+      builder
+          .append("            dto.")
+          .append(fieldName)
+          .append(" = ")
+          .append(getAdapterFieldName(getter))
+          .append(".read(in);\n");
+    }
+  }
+
+  /** Strings, ints, longs and booleans are written without intermediate adapter. */
+  private static boolean isWrittenDirectly(Class<?> type) {
+    return type == String.class || type == int.class || type == long.class || type == boolean.class;
+  }
+
+  private String getAdapterFieldName(Method getter) {
+    return getJavaFieldName(getter.getName()) + "Adapter";
+  }
+
+  private String getAdapterTypeName(Method getter) {
+    final Class<?> type = getter.getReturnType();
+    if (type.isPrimitive()) {
+      return Primitives.wrap(type).getCanonicalName();
+    }
+    return getImplName(getter.getGenericReturnType(), false);
+  }
+
+  /**
+   * Returns java expression which creates {@link Type} of the DTO field, replacing JSON
+   * collections with corresponding Java types the same way as it is done for the field declaration.
+   */
+  private String getTypeExpression(Type type) {
+    if (type instanceof Class<?>) {
+      return ((Class<?>) type).getCanonicalName() + ".class";
+    }
+    final ParameterizedType pType = (ParameterizedType) type;
+    Class<?> rawClass = getRawClass(pType);
+    final StringBuilder sb = new StringBuilder();
+    if (rawClass == JsonArray.class) {
+      rawClass = ArrayList.class;
+    } else if (rawClass == JsonStringMap.class) {
+      rawClass = HashMap.class;
+      sb.append(", java.lang.String.class");
+    }
+    for (Type typeArgument : pType.getActualTypeArguments()) {
+      sb.append(", ").append(getTypeExpression(typeArgument));
+    }
+    return "new "
+        + PARAMETERIZED_TYPE_IMPL
+        + "("
+        + rawClass.getCanonicalName()
+        + ".class"
+        + sb
+        + ")";
+  }
+
   private void emitPostamble(StringBuilder builder) {
     builder.append("  }\n\n");
   }
@@ -602,7 +840,7 @@ public class DtoImplServerTemplate extends DtoImpl {
       builder.append(i).append("}\n");
     } else if (isAny(rawClass)) {
       builder.append(i).append("this.").append(fieldName).append(" = ");
-      appendNaiveCopyJsonExpression(origin + "." + getterName + "()", builder).append(";\n");
+      appendCopyJsonExpression(origin + "." + getterName + "()", builder).append(";\n");
     } else if (getEnclosingTemplate().isDtoInterface(rawClass)) {
       builder
           .append(i)
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.dto.server;
+
+/**
+ * Describes compact binary representation of JSON documents which is used for exchanging DTOs
+ * between servers.
+ *
+ * <p>Document starts with {@link #MAGIC} byte followed by {@link #VERSION} byte, then the tokens of
+ * JSON document follow, each token starts with a tag byte. Strings are written as UTF-8 bytes
+ * prefixed with their length, integral numbers are written as zig-zag encoded variable length
+ * integers, other numbers are written as 8 bytes doubles or as strings if they can't be
+ * represented as doubles precisely. Each object field name is written only once per document, its
+ * subsequent occurrences are replaced with the index of the name.
+ *
+ * @see BinaryJsonWriter
+ * @see BinaryJsonParser
+ */
+public final class BinaryJsonFormat {
+
+  /** Media type of the documents written in binary format. */
+  public static final String MEDIA_TYPE = "application/x-che-dto-binary";
+
+  static final int MAGIC = 0xCB;
+  static final int VERSION = 1;
+
+  static final int BEGIN_OBJECT = 1;
+  static final int END_OBJECT = 2;
+  static final int BEGIN_ARRAY = 3;
+  static final int END_ARRAY = 4;
+  /** Name which is met first time, followed by the name string. */
+  static final int NAME = 5;
+  /** Name which was met before, followed by the index of the name. */
+  static final int NAME_REF = 6;
+  static final int STRING = 7;
+  static final int NULL = 8;
+  static final int TRUE = 9;
+  static final int FALSE = 10;
+  static final int LONG = 11;
+  static final int DOUBLE = 12;
+  /** Number which is written as string. */
+  static final int NUMBER = 13;
+
+  private BinaryJsonFormat() {}
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.dto.server;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.MalformedJsonException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Parses documents written in {@link BinaryJsonFormat binary format} into the tree of {@link
+ * JsonElement}s. DTOs should rather be decoded with {@link DtoFactory#createDtoFromBinary}, which
+ * reads the document straight into DTO fields without building the tree.
+ *
+ * <p>Instances of this class are not thread safe, new instance should be created for each document.
+ *
+ * @see BinaryJsonReader
+ * @see BinaryJsonWriter
+ */
+public class BinaryJsonParser {
+
+  /** Maximum nesting level of objects and arrays. */
+  public static final int MAX_DEPTH = BinaryJsonReader.MAX_DEPTH;
+
+  private static final TypeAdapter<JsonElement> JSON_ELEMENT_ADAPTER =
+      new Gson().getAdapter(JsonElement.class);
+
+  private final InputStream in;
+
+  public BinaryJsonParser(InputStream in) {
+    this.in = in;
+  }
+
+  /**
+   * Reads the whole document.
+   *
+   * @throws MalformedJsonException if the document is not a valid binary document
+   * @throws IOException if an i/o error occurs
+   */
+  public JsonElement parse() throws IOException {
+    return JSON_ELEMENT_ADAPTER.read(new BinaryJsonReader(in));
+  }
+}
@@ -0,0 +1,426 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.dto.server;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.BEGIN_ARRAY;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.BEGIN_OBJECT;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.DOUBLE;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.END_ARRAY;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.END_OBJECT;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.FALSE;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.LONG;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.MAGIC;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.NAME;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.NAME_REF;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.NULL;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.NUMBER;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.STRING;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.TRUE;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.VERSION;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link JsonReader} which reads JSON document written in {@link BinaryJsonFormat binary format}
+ * token by token, so any Gson type adapter, including the ones generated for DTOs, decodes binary
+ * documents straight into the target objects without building an intermediate tree. Names met
+ * before are resolved by their index in the document, the same string instance is returned for all
+ * the occurrences of a name.
+ *
+ * <p>Documents may come from untrusted clients, so the reader never allocates memory for the
+ * declared length of a string before its content is actually read, and it rejects documents nested
+ * deeper than {@link #MAX_DEPTH} levels.
+ *
+ * <p>Map keys are read with {@link #nextName()}, Gson's map adapter can't promote names of this
+ * reader to values, so maps are read by the adapter registered in {@link DtoFactory}.
+ *
+ * <p>Instances of this class are not thread safe, new instance should be created for each document.
+ *
+ * @see BinaryJsonWriter
+ */
+public class BinaryJsonReader extends JsonReader {
+
+  /** Maximum nesting level of objects and arrays. */
+  public static final int MAX_DEPTH = 256;
+
+  private static final int CHUNK_SIZE = 8192;
+  private static final int NONE = -1;
+
+  private final InputStream in;
+  private final List<String> names;
+  private final byte[] chunk;
+
+  private boolean started;
+  private boolean finished;
+  private int depth;
+  private int peeked = NONE;
+
+  public BinaryJsonReader(InputStream in) {
+    super(new StringReader(""));
+    this.in = in instanceof BufferedInputStream ? in : new BufferedInputStream(in);
+    this.names = new ArrayList<>();
+    this.chunk = new byte[CHUNK_SIZE];
+  }
+
+  @Override
+  public JsonToken peek() throws IOException {
+    if (finished) {
+      return JsonToken.END_DOCUMENT;
+    }
+    switch (peekTag()) {
+      case BEGIN_OBJECT:
+        return JsonToken.BEGIN_OBJECT;
+      case END_OBJECT:
+        return JsonToken.END_OBJECT;
+      case BEGIN_ARRAY:
+        return JsonToken.BEGIN_ARRAY;
+      case END_ARRAY:
+        return JsonToken.END_ARRAY;
+      case NAME:
+      case NAME_REF:
+        return JsonToken.NAME;
+      case STRING:
+        return JsonToken.STRING;
+      case NULL:
+        return JsonToken.NULL;
+      case TRUE:
+      case FALSE:
+        return JsonToken.BOOLEAN;
+      case LONG:
+      case DOUBLE:
+      case NUMBER:
+        return JsonToken.NUMBER;
+      default:
+        throw new MalformedJsonException("Unexpected tag " + peeked);
+    }
+  }
+
+  @Override
+  public boolean hasNext() throws IOException {
+    final JsonToken token = peek();
+    return token != JsonToken.END_OBJECT
+        && token != JsonToken.END_ARRAY
+        && token != JsonToken.END_DOCUMENT;
+  }
+
+  @Override
+  public void beginObject() throws IOException {
+    consume(JsonToken.BEGIN_OBJECT);
+    enter();
+  }
+
+  @Override
+  public void endObject() throws IOException {
+    consume(JsonToken.END_OBJECT);
+    exit();
+  }
+
+  @Override
+  public void beginArray() throws IOException {
+    consume(JsonToken.BEGIN_ARRAY);
+    enter();
+  }
+
+  @Override
+  public void endArray() throws IOException {
+    consume(JsonToken.END_ARRAY);
+    exit();
+  }
+
+  @Override
+  public String nextName() throws IOException {
+    if (consume(JsonToken.NAME) == NAME) {
+      final String name = readString();
+      names.add(name);
+      return name;
+    }
+    final long index = readVarLong();
+    if (index >= names.size()) {
+      throw new MalformedJsonException("Unknown name index " + index);
+    }
+    return names.get((int) index);
+  }
+
+  @Override
+  public String nextString() throws IOException {
+    final JsonToken token = peek();
+    if (token != JsonToken.STRING && token != JsonToken.NUMBER) {
+      throw unexpected("a string", token);
+    }
+    final int tag = peeked;
+    peeked = NONE;
+    final String value;
+    if (tag == LONG) {
+      value = Long.toString(readLong());
+    } else if (tag == DOUBLE) {
+      value = Double.toString(readDouble());
+    } else {
+      value = readString();
+    }
+    valueRead();
+    return value;
+  }
+
+  @Override
+  public boolean nextBoolean() throws IOException {
+    final boolean value = consume(JsonToken.BOOLEAN) == TRUE;
+    valueRead();
+    return value;
+  }
+
+  @Override
+  public void nextNull() throws IOException {
+    consume(JsonToken.NULL);
+    valueRead();
+  }
+
+  @Override
+  public double nextDouble() throws IOException {
+    final JsonToken token = peek();
+    if (token == JsonToken.STRING) {
+      return Double.parseDouble(nextString());
+    }
+    if (token != JsonToken.NUMBER) {
+      throw unexpected("a double", token);
+    }
+    final int tag = peeked;
+    peeked = NONE;
+    final double value;
+    if (tag == LONG) {
+      value = readLong();
+    } else if (tag == DOUBLE) {
+      value = readDouble();
+    } else {
+      value = Double.parseDouble(readString());
+    }
+    valueRead();
+    return value;
+  }
+
+  @Override
+  public long nextLong() throws IOException {
+    final JsonToken token = peek();
+    if (token != JsonToken.STRING && token != JsonToken.NUMBER) {
+      throw unexpected("a long", token);
+    }
+    if (peeked == LONG) {
+      peeked = NONE;
+      final long value = readLong();
+      valueRead();
+      return value;
+    }
+    final String text = nextString();
+    try {
+      return Long.parseLong(text);
+    } catch (NumberFormatException x) {
+      final double value = Double.parseDouble(text);
+      final long result = (long) value;
+      if (result != value) {
+        throw new NumberFormatException("Expected a long but was " + text);
+      }
+      return result;
+    }
+  }
+
+  @Override
+  public int nextInt() throws IOException {
+    final long value = nextLong();
+    final int result = (int) value;
+    if (result != value) {
+      throw new NumberFormatException("Expected an int but was " + value);
+    }
+    return result;
+  }
+
+  @Override
+  public void skipValue() throws IOException {
+    int skipDepth = 0;
+    do {
+      final JsonToken token = peek();
+      switch (token) {
+        case BEGIN_OBJECT:
+          beginObject();
+          skipDepth++;
+          break;
+        case BEGIN_ARRAY:
+          beginArray();
+          skipDepth++;
+          break;
+        case END_OBJECT:
+          endObject();
+          skipDepth--;
+          break;
+        case END_ARRAY:
+          endArray();
+          skipDepth--;
+          break;
+        case NAME:
+          nextName();
+          break;
+        case BOOLEAN:
+          nextBoolean();
+          break;
+        case NULL:
+          nextNull();
+          break;
+        case END_DOCUMENT:
+          return;
+        default:
+          nextString();
+      }
+    } while (skipDepth > 0);
+  }
+
+  @Override
+  public void close() throws IOException {
+    peeked = NONE;
+    finished = true;
+    in.close();
+  }
+
+  @Override
+  public String getPath() {
+    return "$";
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " at depth " + depth;
+  }
+
+  private int peekTag() throws IOException {
+    if (peeked == NONE) {
+      if (!started) {
+        if (in.read() != MAGIC) {
+          throw new MalformedJsonException("Not a binary JSON document");
+        }
+        final int version = in.read();
+        if (version != VERSION) {
+          throw new MalformedJsonException("Unsupported binary JSON version " + version);
+        }
+        started = true;
+      }
+      peeked = readByte();
+    }
+    return peeked;
+  }
+
+  /**
+   * Consumes the tag of the expected token and returns it, the payload of the token is left to the
+   * caller.
+   */
+  private int consume(JsonToken expected) throws IOException {
+    final JsonToken token = peek();
+    if (token != expected) {
+      throw unexpected(expected.name(), token);
+    }
+    final int tag = peeked;
+    peeked = NONE;
+    return tag;
+  }
+
+  private void enter() throws MalformedJsonException {
+    if (++depth > MAX_DEPTH) {
+      throw new MalformedJsonException("Document is nested deeper than " + MAX_DEPTH + " levels");
+    }
+  }
+
+  private void exit() {
+    depth--;
+    valueRead();
+  }
+
+  private void valueRead() {
+    if (depth == 0) {
+      finished = true;
+    }
+  }
+
+  private static IllegalStateException unexpected(String expected, JsonToken actual) {
+    return new IllegalStateException("Expected " + expected + " but was " + actual);
+  }
+
+  private long readLong() throws IOException {
+    final long value = readVarLong();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private double readDouble() throws IOException {
+    long bits = 0;
+    for (int i = 0; i < 8; i++) {
+      bits = (bits << 8) | readByte();
+    }
+    return Double.longBitsToDouble(bits);
+  }
+
+  private String readString() throws IOException {
+    final long length = readVarLong();
+    if (length > Integer.MAX_VALUE) {
+      throw new MalformedJsonException("Illegal string length " + length);
+    }
+    if (length <= chunk.length) {
+      readFully(chunk, (int) length);
+      return new String(chunk, 0, (int) length, UTF_8);
+    }
+    // the length is not trusted, memory grows only as the content is actually read
+    final ByteArrayOutputStream content = new ByteArrayOutputStream(chunk.length * 2);
+    long remaining = length;
+    while (remaining > 0) {
+      final int size = (int) Math.min(remaining, chunk.length);
+      readFully(chunk, size);
+      content.write(chunk, 0, size);
+      remaining -= size;
+    }
+    return new String(content.toByteArray(), UTF_8);
+  }
+
+  private void readFully(byte[] bytes, int length) throws IOException {
+    int offset = 0;
+    while (offset < length) {
+      final int read = in.read(bytes, offset, length - offset);
+      if (read < 0) {
+        throw new EOFException();
+      }
+      offset += read;
+    }
+  }
+
+  private long readVarLong() throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      final int b = readByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new MalformedJsonException("Malformed variable length number");
+  }
+
+  private int readByte() throws IOException {
+    final int b = in.read();
+    if (b < 0) {
+      throw new EOFException();
+    }
+    return b;
+  }
+}
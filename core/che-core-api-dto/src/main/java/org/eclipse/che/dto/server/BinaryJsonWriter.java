@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.dto.server;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.BEGIN_ARRAY;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.BEGIN_OBJECT;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.DOUBLE;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.END_ARRAY;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.END_OBJECT;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.FALSE;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.LONG;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.MAGIC;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.NAME;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.NAME_REF;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.NULL;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.NUMBER;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.STRING;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.TRUE;
+import static org.eclipse.che.dto.server.BinaryJsonFormat.VERSION;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link JsonWriter} which writes JSON document in {@link BinaryJsonFormat binary format}, so any
+ * Gson type adapter may be used for writing binary documents. Raw JSON values are parsed and
+ * written as the corresponding binary tokens.
+ */
+public class BinaryJsonWriter extends JsonWriter {
+
+  private static final Writer UNWRITABLE_WRITER =
+      new Writer() {
+        @Override
+        public void write(char[] buffer, int offset, int counter) {
+          throw new AssertionError();
+        }
+
+        @Override
+        public void flush() {
+          throw new AssertionError();
+        }
+
+        @Override
+        public void close() {
+          throw new AssertionError();
+        }
+      };
+
+  private static final int FLUSH_THRESHOLD = 8192;
+
+  private final OutputStream out;
+  private final Map<String, Integer> names;
+
+  private byte[] buffer;
+  private int position;
+  private String deferredName;
+
+  public BinaryJsonWriter(OutputStream out) {
+    super(UNWRITABLE_WRITER);
+    this.out = out;
+    this.names = new HashMap<>();
+    this.buffer = new byte[FLUSH_THRESHOLD + 64];
+    writeByte(MAGIC);
+    writeByte(VERSION);
+  }
+
+  @Override
+  public JsonWriter beginArray() throws IOException {
+    writeToken(BEGIN_ARRAY);
+    return this;
+  }
+
+  @Override
+  public JsonWriter endArray() throws IOException {
+    writeToken(END_ARRAY);
+    return this;
+  }
+
+  @Override
+  public JsonWriter beginObject() throws IOException {
+    writeToken(BEGIN_OBJECT);
+    return this;
+  }
+
+  @Override
+  public JsonWriter endObject() throws IOException {
+    if (deferredName != null) {
+      throw new IllegalStateException("Name '" + deferredName + "' doesn't have a value");
+    }
+    writeToken(END_OBJECT);
+    return this;
+  }
+
+  @Override
+  public JsonWriter name(String name) throws IOException {
+    if (name == null) {
+      throw new NullPointerException("name == null");
+    }
+    if (deferredName != null) {
+      throw new IllegalStateException("Name '" + deferredName + "' doesn't have a value");
+    }
+    deferredName = name;
+    return this;
+  }
+
+  @Override
+  public JsonWriter value(String value) throws IOException {
+    if (value == null) {
+      return nullValue();
+    }
+    writeToken(STRING);
+    writeString(value);
+    return this;
+  }
+
+  @Override
+  public JsonWriter jsonValue(String value) throws IOException {
+    if (value == null) {
+      return nullValue();
+    }
+    writeElement(new JsonParser().parse(value));
+    return this;
+  }
+
+  @Override
+  public JsonWriter nullValue() throws IOException {
+    if (deferredName != null && !getSerializeNulls()) {
+      // skip the name together with the value
+      deferredName = null;
+      return this;
+    }
+    writeToken(NULL);
+    return this;
+  }
+
+  @Override
+  public JsonWriter value(boolean value) throws IOException {
+    writeToken(value ? TRUE : FALSE);
+    return this;
+  }
+
+  @Override
+  public JsonWriter value(Boolean value) throws IOException {
+    if (value == null) {
+      return nullValue();
+    }
+    return value(value.booleanValue());
+  }
+
+  @Override
+  public JsonWriter value(double value) throws IOException {
+    if (!isLenient() && (Double.isNaN(value) || Double.isInfinite(value))) {
+      throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+    }
+    writeToken(DOUBLE);
+    final long bits = Double.doubleToRawLongBits(value);
+    ensureCapacity(8);
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      buffer[position++] = (byte) (bits >>> shift);
+    }
+    return this;
+  }
+
+  @Override
+  public JsonWriter value(long value) throws IOException {
+    writeToken(LONG);
+    // zig-zag encoding keeps small negative numbers short
+    writeVarLong((value << 1) ^ (value >> 63));
+    return this;
+  }
+
+  @Override
+  public JsonWriter value(Number value) throws IOException {
+    if (value == null) {
+      return nullValue();
+    }
+    if (value instanceof Integer
+        || value instanceof Long
+        || value instanceof Short
+        || value instanceof Byte
+        || value instanceof AtomicInteger
+        || value instanceof AtomicLong) {
+      return value(value.longValue());
+    }
+    if (value instanceof Double) {
+      return value(value.doubleValue());
+    }
+    final String string = value.toString();
+    if (!isLenient()
+        && (string.equals("-Infinity") || string.equals("Infinity") || string.equals("NaN"))) {
+      throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+    }
+    writeToken(NUMBER);
+    writeString(string);
+    return this;
+  }
+
+  @Override
+  public void flush() throws IOException {
+    out.write(buffer, 0, position);
+    position = 0;
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (deferredName != null) {
+      throw new IOException("Incomplete document");
+    }
+    out.write(buffer, 0, position);
+    position = 0;
+    out.close();
+  }
+
+  private void writeElement(JsonElement element) throws IOException {
+    if (element.isJsonNull()) {
+      nullValue();
+    } else if (element.isJsonPrimitive()) {
+      final JsonPrimitive primitive = element.getAsJsonPrimitive();
+      if (primitive.isBoolean()) {
+        value(primitive.getAsBoolean());
+      } else if (primitive.isNumber()) {
+        value(primitive.getAsNumber());
+      } else {
+        value(primitive.getAsString());
+      }
+    } else if (element.isJsonArray()) {
+      beginArray();
+      for (JsonElement item : element.getAsJsonArray()) {
+        writeElement(item);
+      }
+      endArray();
+    } else {
+      beginObject();
+      for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+        name(entry.getKey());
+        writeElement(entry.getValue());
+      }
+      endObject();
+    }
+  }
+
+  private void writeToken(int tag) throws IOException {
+    if (deferredName != null) {
+      final Integer index = names.get(deferredName);
+      if (index == null) {
+        names.put(deferredName, names.size());
+        writeByte(NAME);
+        writeString(deferredName);
+      } else {
+        writeByte(NAME_REF);
+        writeVarLong(index);
+      }
+      deferredName = null;
+    }
+    writeByte(tag);
+    if (position > FLUSH_THRESHOLD) {
+      out.write(buffer, 0, position);
+      position = 0;
+    }
+  }
+
+  private void writeString(String value) {
+    final byte[] bytes = value.getBytes(UTF_8);
+    writeVarLong(bytes.length);
+    ensureCapacity(bytes.length);
+    System.arraycopy(bytes, 0, buffer, position, bytes.length);
+    position += bytes.length;
+  }
+
+  private void writeVarLong(long value) {
+    ensureCapacity(10);
+    while ((value & ~0x7FL) != 0) {
+      buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buffer[position++] = (byte) value;
+  }
+
+  private void writeByte(int value) {
+    ensureCapacity(1);
+    buffer[position++] = (byte) value;
+  }
+
+  private void ensureCapacity(int length) {
+    if (position + length > buffer.length) {
+      final byte[] newBuffer = new byte[Math.max(buffer.length * 2, position + length)];
+      System.arraycopy(buffer, 0, newBuffer, 0, position);
+      buffer = newBuffer;
+    }
+  }
+}
@@ -18,15 +18,21 @@ import com.google.common.cache.LoadingCache;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
 import com.google.gson.JsonSyntaxException;
 import com.google.gson.TypeAdapter;
 import com.google.gson.TypeAdapterFactory;
 import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.io.StringReader;
 import java.lang.reflect.ParameterizedType;
@@ -106,7 +112,9 @@ public final class DtoFactory {
           ServiceLoader.load(TypeAdapterFactory.class).iterator(),
           new NullAsEmptyTAF<>(Collection.class, Collections.emptyList()),
           new NullAsEmptyTAF<>(Map.class, Collections.emptyMap()),
-          new DtoInterfaceTAF());
+          new BinaryMapTAF(),
+          new DtoInterfaceTAF(),
+          new DtoImplTAF());
 
   /**
    * Created deep copy of DTO object.
@@ -355,6 +363,81 @@ public final class DtoFactory {
 
   //
 
+  /**
+   * Writes specified DTO, or list of DTOs, to the stream in binary format.
+   *
+   * @param dto DTO object or list of DTO objects
+   * @param out stream to write to
+   * @throws IOException if an i/o error occurs
+   * @see BinaryJsonFormat
+   */
+  public void toBinary(Object dto, OutputStream out) throws IOException {
+    final BinaryJsonWriter writer = new BinaryJsonWriter(out);
+    try {
+      dtoGson.toJson(dto, dto.getClass(), writer);
+    } catch (JsonIOException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      throw e;
+    }
+    writer.flush();
+  }
+
+  /**
+   * Writes specified DTO, or list of DTOs, in binary format.
+   *
+   * @see #toBinary(Object, OutputStream)
+   */
+  public byte[] toBinary(Object dto) {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try {
+      toBinary(dto, out);
+    } catch (IOException e) {
+      throw new RuntimeException(e); // won't happen
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Creates new instance of class which implements specified DTO interface, parses specified data
+   * written in binary format and uses parsed data for initializing fields of DTO object.
+   *
+   * @param binary data in binary format
+   * @param dtoInterface DTO interface
+   * @throws IllegalArgumentException if can't provide any implementation for specified interface
+   * @throws IOException if an i/o error occurs or data is not in binary format
+   * @see BinaryJsonFormat
+   */
+  public <T> T createDtoFromBinary(InputStream binary, Class<T> dtoInterface) throws IOException {
+    getDtoProvider(dtoInterface);
+    return dtoGson.getAdapter(dtoInterface).read(new BinaryJsonReader(binary));
+  }
+
+  /**
+   * Parses the data written in binary format from the specified stream into list of objects of the
+   * specified type.
+   *
+   * @param binary data in binary format
+   * @param dtoInterface DTO interface
+   * @return list of DTO
+   * @throws IllegalArgumentException if can't provide any implementation for specified interface
+   * @throws IOException if an i/o error occurs or data is not in binary format
+   * @see BinaryJsonFormat
+   */
+  public <T> JsonArray<T> createListDtoFromBinary(InputStream binary, Class<T> dtoInterface)
+      throws IOException {
+    getDtoProvider(dtoInterface);
+    @SuppressWarnings("unchecked")
+    final TypeToken<List<T>> listType =
+        (TypeToken<List<T>>) TypeToken.get(listTypeCache.getUnchecked(dtoInterface));
+    final List<T> list = dtoGson.getAdapter(listType).read(new BinaryJsonReader(binary));
+    return new JsonArrayImpl<>(list);
+  }
+
+  //
+
   @SuppressWarnings("unchecked")
   private <T> DtoProvider<T> getDtoProvider(Class<T> dtoInterface) {
     DtoProvider<?> dtoProvider = dtoInterface2Providers.get(dtoInterface);
@@ -447,6 +530,24 @@ public final class DtoFactory {
     }
   }
 
+  /**
+   * Provides streaming adapters generated for DTO implementation classes, implementations which
+   * don't have such adapters are handled by Gson's reflective adapter.
+   *
+   * @see DtoTypeAdapter
+   */
+  private class DtoImplTAF implements TypeAdapterFactory {
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+      DtoProvider<?> prov = dtoImpl2Providers.get(type.getRawType());
+      if (prov != null) {
+        return (TypeAdapter<T>) prov.createTypeAdapter(gson);
+      }
+      return null;
+    }
+  }
+
   /**
    * Wraps Gson's default List/Map adapter factories serialize null List/Map fields as empty
    * instead.
@@ -483,6 +584,59 @@ public final class DtoFactory {
     }
   }
 
+  /**
+   * Reads maps from {@link BinaryJsonReader} entry by entry, Gson's map adapter can't read keys of
+   * the binary reader as it relies on the internals of the text reader. Maps are read from other
+   * readers and written by the delegate adapter.
+   */
+  private static class BinaryMapTAF implements TypeAdapterFactory {
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+      if (!Map.class.isAssignableFrom(type.getRawType())) {
+        return null;
+      }
+      final TypeAdapter<T> delegate = gson.getDelegateAdapter(this, type);
+      final Type[] keyAndValueTypes = {Object.class, Object.class};
+      if (type.getType() instanceof ParameterizedType) {
+        final Type[] arguments = ((ParameterizedType) type.getType()).getActualTypeArguments();
+        if (arguments.length == 2) {
+          keyAndValueTypes[0] = arguments[0];
+          keyAndValueTypes[1] = arguments[1];
+        }
+      }
+      final boolean stringKeys = keyAndValueTypes[0] == String.class;
+      final TypeAdapter<?> keyAdapter = gson.getAdapter(TypeToken.get(keyAndValueTypes[0]));
+      final TypeAdapter<?> valueAdapter = gson.getAdapter(TypeToken.get(keyAndValueTypes[1]));
+      return new TypeAdapter<T>() {
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+          delegate.write(out, value);
+        }
+
+        @Override
+        public T read(JsonReader in) throws IOException {
+          if (!(in instanceof BinaryJsonReader) || in.peek() != JsonToken.BEGIN_OBJECT) {
+            return delegate.read(in);
+          }
+          final Map<Object, Object> map =
+              (Map<Object, Object>) delegate.fromJsonTree(new JsonObject());
+          in.beginObject();
+          while (in.hasNext()) {
+            final String name = in.nextName();
+            final Object key =
+                stringKeys ? name : keyAdapter.fromJsonTree(new JsonPrimitive(name));
+            if (map.put(key, valueAdapter.read(in)) != null) {
+              throw new JsonSyntaxException("duplicate key: " + key);
+            }
+          }
+          in.endObject();
+          return (T) map;
+        }
+      };
+    }
+  }
+
   static {
     for (DtoFactoryVisitor visitor : ServiceLoader.load(DtoFactoryVisitor.class)) {
       visitor.accept(INSTANCE);
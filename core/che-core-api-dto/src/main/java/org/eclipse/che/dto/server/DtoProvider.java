@@ -10,7 +10,9 @@
  */
 package org.eclipse.che.dto.server;
 
+import com.google.gson.Gson;
 import com.google.gson.JsonElement;
+import com.google.gson.TypeAdapter;
 
 /**
  * Provides implementation of DTO interface.
@@ -27,4 +29,15 @@ public interface DtoProvider<DTO> {
   DTO newInstance();
 
   DTO clone(DTO origin);
+
+  /**
+   * Creates streaming adapter for the implementation class, or returns null if the implementation
+   * should be serialized by Gson's reflective adapter.
+   *
+   * @param gson the Gson which uses the adapter, adapters of DTO fields should be obtained from it
+   * @see DtoTypeAdapter
+   */
+  default TypeAdapter<? extends DTO> createTypeAdapter(Gson gson) {
+    return null;
+  }
 }
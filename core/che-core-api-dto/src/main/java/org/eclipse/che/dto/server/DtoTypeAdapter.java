@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.dto.server;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.internal.bind.ReflectiveTypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Base class for the streaming type adapters generated for server DTO implementations.
+ *
+ * <p>Generated adapters read and write fields of DTO implementation directly, without reflection.
+ * The produced JSON is the same as produced by Gson's reflective adapter: fields of the
+ * implementation class go before the fields of its super class, null values are written according
+ * to the {@link JsonWriter#getSerializeNulls()} and values of fields which are not primitives,
+ * strings or collections are written by the adapter of their runtime type.
+ *
+ * @param <T> type of DTO implementation
+ * @see DtoProvider#createTypeAdapter(Gson)
+ */
+public abstract class DtoTypeAdapter<T> extends TypeAdapter<T> {
+
+  protected final Gson gson;
+
+  protected DtoTypeAdapter(Gson gson) {
+    this.gson = gson;
+  }
+
+  /** Creates new empty instance of DTO implementation. */
+  protected abstract T newInstance();
+
+  /** Writes fields of the given DTO, must be overridden by each generated adapter. */
+  protected void writeFields(JsonWriter out, T dto) throws IOException {}
+
+  /**
+   * Reads value of the field with the given JSON name into the given DTO, must be overridden by
+   * each generated adapter.
+   *
+   * @return true if the field is known and its value has been read, false otherwise
+   */
+  protected boolean readField(String name, JsonReader in, T dto) throws IOException {
+    return false;
+  }
+
+  @Override
+  public void write(JsonWriter out, T value) throws IOException {
+    if (value == null) {
+      out.nullValue();
+      return;
+    }
+    out.beginObject();
+    writeFields(out, value);
+    out.endObject();
+  }
+
+  @Override
+  public T read(JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    final T dto = newInstance();
+    try {
+      in.beginObject();
+      while (in.hasNext()) {
+        if (!readField(in.nextName(), in, dto)) {
+          in.skipValue();
+        }
+      }
+      in.endObject();
+    } catch (IllegalStateException x) {
+      throw new JsonSyntaxException(x);
+    }
+    return dto;
+  }
+
+  /** Returns adapter for the declared type of DTO field. */
+  @SuppressWarnings("unchecked")
+  protected <V> TypeAdapter<V> getAdapter(Type type) {
+    return (TypeAdapter<V>) gson.getAdapter(TypeToken.get(type));
+  }
+
+  /**
+   * Writes value of the field which declared type is not final, the same way as Gson does, if the
+   * runtime type of the value differs from the declared type the adapter of runtime type is
+   * preferred unless it is a reflective one.
+   */
+  @SuppressWarnings("unchecked")
+  protected void writeValue(
+      JsonWriter out, Class<?> declaredType, TypeAdapter<?> declaredAdapter, Object value)
+      throws IOException {
+    TypeAdapter<Object> adapter = (TypeAdapter<Object>) declaredAdapter;
+    if (value != null && value.getClass() != declaredType) {
+      final TypeAdapter<Object> runtimeAdapter =
+          (TypeAdapter<Object>) gson.getAdapter(value.getClass());
+      if (!(runtimeAdapter instanceof ReflectiveTypeAdapterFactory.Adapter)
+          || declaredAdapter instanceof ReflectiveTypeAdapterFactory.Adapter) {
+        adapter = runtimeAdapter;
+      }
+    }
+    adapter.write(out, value);
+  }
+
+  protected static String readString(JsonReader in) throws IOException {
+    final JsonToken token = in.peek();
+    if (token == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    if (token == JsonToken.BOOLEAN) {
+      return Boolean.toString(in.nextBoolean());
+    }
+    return in.nextString();
+  }
+
+  protected static boolean readBoolean(JsonReader in, boolean defaultValue) throws IOException {
+    final JsonToken token = in.peek();
+    if (token == JsonToken.NULL) {
+      in.nextNull();
+      return defaultValue;
+    }
+    if (token == JsonToken.STRING) {
+      return Boolean.parseBoolean(in.nextString());
+    }
+    return in.nextBoolean();
+  }
+
+  protected static int readInt(JsonReader in, int defaultValue) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return defaultValue;
+    }
+    try {
+      return in.nextInt();
+    } catch (NumberFormatException x) {
+      throw new JsonSyntaxException(x);
+    }
+  }
+
+  protected static long readLong(JsonReader in, long defaultValue) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return defaultValue;
+    }
+    try {
+      return in.nextLong();
+    } catch (NumberFormatException x) {
+      throw new JsonSyntaxException(x);
+    }
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.dto.server;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.util.Map;
+
+/** Utility methods for the values of DTO fields which may hold any JSON. */
+public final class JsonValues {
+
+  /**
+   * Returns a deep copy of the given value of 'any' DTO field.
+   *
+   * <p>JSON elements are copied structurally, primitives and nulls are immutable and shared with
+   * the original. Values of other types are converted to JSON through their string representation.
+   *
+   * @param value value to copy, may be null
+   * @return copy of the value or null if the value is null
+   */
+  public static JsonElement copyOf(Object value) {
+    if (value == null) {
+      return null;
+    }
+    if (value instanceof JsonElement) {
+      return copyOf((JsonElement) value);
+    }
+    return new JsonParser().parse(value.toString());
+  }
+
+  private static JsonElement copyOf(JsonElement element) {
+    if (element.isJsonObject()) {
+      final JsonObject copy = new JsonObject();
+      for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+        copy.add(entry.getKey(), copyOf(entry.getValue()));
+      }
+      return copy;
+    }
+    if (element.isJsonArray()) {
+      final JsonArray copy = new JsonArray();
+      for (JsonElement item : element.getAsJsonArray()) {
+        copy.add(copyOf(item));
+      }
+      return copy;
+    }
+    return element;
+  }
+
+  private JsonValues() {}
+}
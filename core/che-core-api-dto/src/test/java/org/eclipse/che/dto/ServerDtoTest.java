@@ -10,17 +10,27 @@
  */
 package org.eclipse.che.dto;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,7 +44,11 @@ import org.eclipse.che.dto.definitions.SimpleDto;
 import org.eclipse.che.dto.definitions.model.Model;
 import org.eclipse.che.dto.definitions.model.ModelComponentDto;
 import org.eclipse.che.dto.definitions.model.ModelDto;
+import org.eclipse.che.dto.server.BinaryJsonParser;
+import org.eclipse.che.dto.server.BinaryJsonReader;
+import org.eclipse.che.dto.server.BinaryJsonWriter;
 import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.dto.server.DtoTypeAdapter;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -183,6 +197,16 @@ public class ServerDtoTest {
     assertEquals(expJson, json);
   }
 
+  @Test
+  public void testCloneCopiesAnyStructurally() throws Exception {
+    DtoWithAny dto1 = dtoFactory.createDto(DtoWithAny.class).withStuff(createTestValueForAny());
+    DtoWithAny dto2 = dtoFactory.clone(dto1);
+
+    Assert.assertEquals(dto2.getStuff(), createTestValueForAny());
+    ((JsonObject) dto1.getStuff()).addProperty("d", true);
+    Assert.assertEquals(dto2.getStuff(), createTestValueForAny());
+  }
+
   @Test
   public void testShadowedFields() throws Exception {
     GrandchildDto dto1 = dtoFactory.createDto(GrandchildDto.class);
@@ -431,6 +455,157 @@ public class ServerDtoTest {
     assertEquals(childDto.getParentField(), "parent-field");
   }
 
+  @Test
+  public void shouldUseGeneratedTypeAdapterForDtoImplementation() {
+    SimpleDto dto = dtoFactory.createDto(SimpleDto.class);
+
+    assertTrue(dtoFactory.getGson().getAdapter(dto.getClass()) instanceof DtoTypeAdapter);
+  }
+
+  @Test
+  public void shouldSkipUnknownFieldsAndKeepDefaultValueOfPrimitiveWhenDeserializing() {
+    String json = "{\"id\":null,\"unknown\":[1,{\"a\":2}],\"name\":true,\"default\":\"d\"}";
+
+    SimpleDto dto = dtoFactory.createDtoFromJson(json, SimpleDto.class);
+
+    checkSimpleDto(dto, "true", 0, "d");
+  }
+
+  @Test
+  public void shouldSerializeFieldsOfSuperImplementation() {
+    DTOHierarchy.ChildDto dto =
+        dtoFactory
+            .createDto(DTOHierarchy.ChildDto.class)
+            .withDtoField("dto-field")
+            .withChildField("child-field")
+            .withParentField("parent-field");
+
+    DTOHierarchy.ChildDto copy =
+        dtoFactory.createDtoFromJson(dtoFactory.toJson(dto), DTOHierarchy.ChildDto.class);
+
+    assertEquals(copy, dto);
+  }
+
+  @Test
+  public void shouldWriteAndReadDtoInBinaryFormat() throws Exception {
+    SimpleDto simpleDto =
+        dtoFactory.createDto(SimpleDto.class).withName("name").withId(-1).withDefault("default");
+    ComplicatedDto dto =
+        dtoFactory
+            .createDto(ComplicatedDto.class)
+            .withStrings(asList("Something 1", "Something 2"))
+            .withSimpleEnum(ComplicatedDto.SimpleEnum.TWO)
+            .withMap(ImmutableMap.of("key", simpleDto))
+            .withSimpleDtos(asList(simpleDto, simpleDto))
+            .withArrayOfArrayOfEnum(
+                singletonList(
+                    asList(ComplicatedDto.SimpleEnum.ONE, ComplicatedDto.SimpleEnum.THREE)));
+
+    byte[] binary = dtoFactory.toBinary(dto);
+    ComplicatedDto copy =
+        dtoFactory.createDtoFromBinary(new ByteArrayInputStream(binary), ComplicatedDto.class);
+
+    assertEquals(copy, dto);
+    assertTrue(binary.length < dtoFactory.toJson(dto).getBytes(UTF_8).length);
+  }
+
+  @Test
+  public void shouldWriteAndReadListOfDtosInBinaryFormat() throws Exception {
+    List<DtoWithAny> dtos =
+        asList(
+            dtoFactory.createDto(DtoWithAny.class).withStuff(createTestValueForAny()),
+            dtoFactory.createDto(DtoWithAny.class).withObjects(singletonList(1.5)));
+
+    List<DtoWithAny> fromBinary =
+        dtoFactory.createListDtoFromBinary(
+            new ByteArrayInputStream(dtoFactory.toBinary(dtos)), DtoWithAny.class);
+    List<DtoWithAny> fromJson =
+        dtoFactory.createListDtoFromJson(dtoFactory.getGson().toJson(dtos), DtoWithAny.class);
+
+    assertEquals(fromBinary, fromJson);
+  }
+
+  @Test
+  public void shouldSkipUnknownFieldsWhenReadingDtoFromBinary() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryJsonWriter writer = new BinaryJsonWriter(out);
+    writer.beginObject().name("unknown").jsonValue("{\"name\":[1,{\"id\":2}]}");
+    writer.name("name").value("name").name("id").value(1).endObject();
+    writer.flush();
+
+    SimpleDto dto =
+        dtoFactory.createDtoFromBinary(
+            new ByteArrayInputStream(out.toByteArray()), SimpleDto.class);
+
+    assertEquals(dto, dtoFactory.createDto(SimpleDto.class).withName("name").withId(1));
+  }
+
+  @Test
+  public void shouldResolveRepeatedBinaryNamesToSameInstance() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryJsonWriter writer = new BinaryJsonWriter(out);
+    writer.beginArray();
+    writer.beginObject().name("name").value(1).endObject();
+    writer.beginObject().name("name").value(2).endObject();
+    writer.endArray().flush();
+
+    BinaryJsonReader reader = new BinaryJsonReader(new ByteArrayInputStream(out.toByteArray()));
+    reader.beginArray();
+    reader.beginObject();
+    String first = reader.nextName();
+    assertEquals(reader.nextInt(), 1);
+    reader.endObject();
+    reader.beginObject();
+    String second = reader.nextName();
+    assertEquals(reader.nextInt(), 2);
+    reader.endObject();
+    reader.endArray();
+
+    assertSame(first, second);
+    assertEquals(reader.peek(), JsonToken.END_DOCUMENT);
+  }
+
+  @Test(expectedExceptions = MalformedJsonException.class)
+  public void shouldThrowExceptionWhenReadingJsonAsBinary() throws Exception {
+    dtoFactory.createDtoFromBinary(
+        new ByteArrayInputStream("{\"id\":1}".getBytes(UTF_8)), SimpleDto.class);
+  }
+
+  @Test(expectedExceptions = EOFException.class)
+  public void shouldNotTrustDeclaredLengthOfBinaryString() throws Exception {
+    // magic, version, string tag, length of Integer.MAX_VALUE as varint, then just a few bytes
+    byte[] document = {(byte) 0xCB, 1, 7, -1, -1, -1, -1, 7, 'a', 'b', 'c'};
+
+    new BinaryJsonParser(new ByteArrayInputStream(document)).parse();
+  }
+
+  @Test(expectedExceptions = MalformedJsonException.class)
+  public void shouldRejectTooDeeplyNestedBinaryDocument() throws Exception {
+    byte[] document = new byte[2 + 100_000];
+    document[0] = (byte) 0xCB;
+    document[1] = 1;
+    // begin array tags
+    Arrays.fill(document, 2, document.length, (byte) 3);
+
+    new BinaryJsonParser(new ByteArrayInputStream(document)).parse();
+  }
+
+  @Test
+  public void shouldWriteRawJsonValueInBinaryFormat() throws Exception {
+    String raw = "{\"array\":[1,2.5,true,\"text\"],\"object\":{\"name\":\"value\"}}";
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryJsonWriter writer = new BinaryJsonWriter(out);
+    writer.beginObject().name("raw").jsonValue(raw).name("next").value(1).endObject();
+    writer.flush();
+
+    JsonElement parsed = new BinaryJsonParser(new ByteArrayInputStream(out.toByteArray())).parse();
+
+    JsonObject expected = new JsonObject();
+    expected.add("raw", new JsonParser().parse(raw));
+    expected.addProperty("next", 1);
+    assertEquals(parsed, expected);
+  }
+
   @Test(
     expectedExceptions = IllegalArgumentException.class,
     expectedExceptionsMessageRegExp =
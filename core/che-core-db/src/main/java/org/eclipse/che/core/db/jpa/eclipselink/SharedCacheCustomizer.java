@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.core.db.jpa.eclipselink;
+
+import static java.lang.String.join;
+
+import com.google.common.base.Splitter;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.persistence.config.CacheIsolationType;
+import org.eclipse.persistence.config.PersistenceUnitProperties;
+import org.eclipse.persistence.config.SessionCustomizer;
+import org.eclipse.persistence.descriptors.ClassDescriptor;
+import org.eclipse.persistence.descriptors.invalidation.TimeToLiveCacheInvalidationPolicy;
+import org.eclipse.persistence.mappings.DatabaseMapping;
+import org.eclipse.persistence.mappings.ForeignReferenceMapping;
+import org.eclipse.persistence.sessions.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Configures shared (second level) cache of the persistence unit.
+ *
+ * <p>The configured read-mostly entities and the entities reachable from them through relationships
+ * are kept in the shared cache, so loading of cached entity never goes to the database for its
+ * relationships. Caching of other entities is left as configured by the persistence unit, the
+ * customizer doesn't change it. Cached entities are kept softly up to the configured size per
+ * entity type and are invalidated after the configured time to live, which bounds staleness caused
+ * by changes made bypassing this persistence unit. When cache coordination is configured, e.g. with
+ * JGroups, changes of cached entities are propagated as invalidations, so the other instances
+ * reload changed entities on the next access instead of merging the changes.
+ *
+ * <p>Example:
+ *
+ * <pre>
+ * Map&lt;String, String&gt; properties = new HashMap&lt;&gt;();
+ * SharedCacheCustomizer.configure(properties, asList(WorkspaceImpl.class.getName()), 1000, 3600);
+ * install(new JpaPersistModule("main").properties(properties));
+ * </pre>
+ */
+public class SharedCacheCustomizer implements SessionCustomizer {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SharedCacheCustomizer.class);
+
+  /** Comma separated class names of entities to cache. */
+  public static final String CACHED_ENTITIES_PROPERTY = "che.jpa.shared_cache.entities";
+  /** Number of entities of each type which are kept strongly in cache. */
+  public static final String SIZE_PROPERTY = "che.jpa.shared_cache.size";
+  /** Time to live of cached entity in seconds, non-positive value means no time limit. */
+  public static final String TTL_PROPERTY = "che.jpa.shared_cache.ttl_sec";
+
+  /**
+   * Configures the given persistence unit properties to use shared cache for the given entities.
+   *
+   * @param persistenceProperties persistence unit properties
+   * @param entities class names of entities to cache
+   * @param size number of entities of each type which are kept strongly in cache
+   * @param ttlSec time to live of cached entity in seconds, non-positive means no time limit
+   */
+  public static void configure(
+      Map<String, String> persistenceProperties,
+      Collection<String> entities,
+      int size,
+      long ttlSec) {
+    persistenceProperties.put(
+        PersistenceUnitProperties.SESSION_CUSTOMIZER, SharedCacheCustomizer.class.getName());
+    persistenceProperties.put(CACHED_ENTITIES_PROPERTY, join(",", entities));
+    persistenceProperties.put(SIZE_PROPERTY, Integer.toString(size));
+    persistenceProperties.put(TTL_PROPERTY, Long.toString(ttlSec));
+  }
+
+  @Override
+  public void customize(Session session) throws Exception {
+    final Set<String> roots = new HashSet<>();
+    final Object entitiesProperty = session.getProperty(CACHED_ENTITIES_PROPERTY);
+    if (entitiesProperty != null) {
+      final Splitter splitter = Splitter.on(',').trimResults().omitEmptyStrings();
+      roots.addAll(splitter.splitToList(entitiesProperty.toString()));
+    }
+    final Object sizeProperty = session.getProperty(SIZE_PROPERTY);
+    final Object ttlProperty = session.getProperty(TTL_PROPERTY);
+    final int size = sizeProperty == null ? 0 : Integer.parseInt(sizeProperty.toString());
+    final long ttlSec = ttlProperty == null ? 0 : Long.parseLong(ttlProperty.toString());
+
+    final Map<String, ClassDescriptor> descriptors = new HashMap<>();
+    for (ClassDescriptor descriptor : session.getDescriptors().values()) {
+      if (!descriptor.isAggregateDescriptor()
+          && !descriptor.isAggregateCollectionDescriptor()
+          && !descriptor.isDescriptorForInterface()) {
+        descriptors.put(descriptor.getJavaClassName(), descriptor);
+      }
+    }
+    final Set<String> cached = findReachable(roots, descriptors);
+    for (ClassDescriptor descriptor : descriptors.values()) {
+      if (cached.contains(descriptor.getJavaClassName())) {
+        descriptor.setCacheIsolation(CacheIsolationType.SHARED);
+        descriptor.useSoftCacheWeakIdentityMap();
+        if (size > 0) {
+          descriptor.setIdentityMapSize(size);
+        }
+        if (ttlSec > 0) {
+          descriptor.setCacheInvalidationPolicy(
+              new TimeToLiveCacheInvalidationPolicy(TimeUnit.SECONDS.toMillis(ttlSec)));
+        }
+        descriptor.setCacheSynchronizationType(ClassDescriptor.INVALIDATE_CHANGED_OBJECTS);
+      }
+    }
+    LOG.info("Shared cache is enabled for entities {}", cached);
+  }
+
+  /**
+   * Returns class names of the given entities and the entities reachable from them through
+   * relationships, inheritance hierarchies are cached as a whole.
+   */
+  private static Set<String> findReachable(
+      Set<String> roots, Map<String, ClassDescriptor> descriptors) {
+    final Set<String> reachable = new HashSet<>();
+    final Deque<String> queue = new ArrayDeque<>(roots);
+    while (!queue.isEmpty()) {
+      final String className = queue.poll();
+      final ClassDescriptor descriptor = descriptors.get(className);
+      if (descriptor == null) {
+        if (roots.contains(className)) {
+          LOG.warn("Entity '{}' is not managed by the persistence unit, skipped", className);
+        }
+        continue;
+      }
+      if (!reachable.add(className)) {
+        continue;
+      }
+      for (DatabaseMapping mapping : descriptor.getMappings()) {
+        if (mapping.isForeignReferenceMapping()) {
+          // null for element collections of basic types
+          final String referenceClassName =
+              ((ForeignReferenceMapping) mapping).getReferenceClassName();
+          if (referenceClassName != null) {
+            queue.add(referenceClassName);
+          }
+        }
+      }
+      if (descriptor.hasInheritance()
+          && descriptor.getInheritancePolicy().getParentClassName() != null) {
+        queue.add(descriptor.getInheritancePolicy().getParentClassName());
+      }
+      // descriptors are not initialized yet, so children are found by their parent names
+      for (ClassDescriptor other : descriptors.values()) {
+        if (other.hasInheritance()
+            && className.equals(other.getInheritancePolicy().getParentClassName())) {
+          queue.add(other.getJavaClassName());
+        }
+      }
+    }
+    return reachable;
+  }
+}
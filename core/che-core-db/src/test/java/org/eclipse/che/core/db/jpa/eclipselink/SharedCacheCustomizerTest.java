@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.core.db.jpa.eclipselink;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.persistence.config.CacheIsolationType;
+import org.eclipse.persistence.config.PersistenceUnitProperties;
+import org.eclipse.persistence.descriptors.ClassDescriptor;
+import org.eclipse.persistence.descriptors.RelationalDescriptor;
+import org.eclipse.persistence.descriptors.invalidation.TimeToLiveCacheInvalidationPolicy;
+import org.eclipse.persistence.mappings.OneToManyMapping;
+import org.eclipse.persistence.mappings.OneToOneMapping;
+import org.eclipse.persistence.sessions.DatabaseSession;
+import org.eclipse.persistence.sessions.Project;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests for {@link SharedCacheCustomizer}. */
+public class SharedCacheCustomizerTest {
+
+  private ClassDescriptor workspace;
+  private ClassDescriptor config;
+  private ClassDescriptor permissions;
+  private ClassDescriptor workerPermissions;
+  private ClassDescriptor expiration;
+  private DatabaseSession session;
+
+  @BeforeMethod
+  public void setUp() {
+    workspace = descriptor(Workspace.class);
+    final OneToOneMapping configMapping = new OneToOneMapping();
+    configMapping.setAttributeName("config");
+    configMapping.setReferenceClass(Config.class);
+    workspace.addMapping(configMapping);
+    final OneToManyMapping permissionsMapping = new OneToManyMapping();
+    permissionsMapping.setAttributeName("permissions");
+    permissionsMapping.setReferenceClass(Permissions.class);
+    workspace.addMapping(permissionsMapping);
+    config = descriptor(Config.class);
+    permissions = descriptor(Permissions.class);
+    workerPermissions = descriptor(WorkerPermissions.class);
+    workerPermissions.getInheritancePolicy().setParentClassName(Permissions.class.getName());
+    expiration = descriptor(Expiration.class);
+
+    final Project project = new Project();
+    for (ClassDescriptor descriptor :
+        asList(workspace, config, permissions, workerPermissions, expiration)) {
+      project.addDescriptor(descriptor);
+    }
+    session = project.createDatabaseSession();
+  }
+
+  @Test
+  public void shouldConfigurePersistenceUnitProperties() {
+    final Map<String, String> properties = new HashMap<>();
+
+    SharedCacheCustomizer.configure(
+        properties, asList(Workspace.class.getName(), Config.class.getName()), 500, 60);
+
+    assertEquals(
+        properties.get(PersistenceUnitProperties.SESSION_CUSTOMIZER),
+        SharedCacheCustomizer.class.getName());
+    assertEquals(
+        properties.get(SharedCacheCustomizer.CACHED_ENTITIES_PROPERTY),
+        Workspace.class.getName() + ',' + Config.class.getName());
+    assertEquals(properties.get(SharedCacheCustomizer.SIZE_PROPERTY), "500");
+    assertEquals(properties.get(SharedCacheCustomizer.TTL_PROPERTY), "60");
+  }
+
+  @Test
+  public void shouldShareConfiguredEntitiesWithTheirRelationships() throws Exception {
+    final CacheIsolationType expirationIsolation = expiration.getCacheIsolation();
+    final Map<String, String> properties = new HashMap<>();
+    SharedCacheCustomizer.configure(
+        properties, singletonList(Workspace.class.getName()), 500, 60);
+    properties.forEach(session::setProperty);
+
+    new SharedCacheCustomizer().customize(session);
+
+    for (ClassDescriptor descriptor : asList(workspace, config, permissions, workerPermissions)) {
+      assertEquals(descriptor.getCacheIsolation(), CacheIsolationType.SHARED);
+      assertEquals(descriptor.getIdentityMapSize(), 500);
+      assertEquals(
+          descriptor.getCacheSynchronizationType(), ClassDescriptor.INVALIDATE_CHANGED_OBJECTS);
+      assertTrue(
+          descriptor.getCacheInvalidationPolicy() instanceof TimeToLiveCacheInvalidationPolicy);
+    }
+    assertEquals(expiration.getCacheIsolation(), expirationIsolation);
+  }
+
+  @Test
+  public void shouldNotChangeCachingWhenNoEntityIsConfigured() throws Exception {
+    final List<ClassDescriptor> descriptors =
+        asList(workspace, config, permissions, workerPermissions, expiration);
+    final List<CacheIsolationType> isolations =
+        descriptors.stream().map(ClassDescriptor::getCacheIsolation).collect(toList());
+
+    new SharedCacheCustomizer().customize(session);
+
+    assertEquals(
+        descriptors.stream().map(ClassDescriptor::getCacheIsolation).collect(toList()),
+        isolations);
+  }
+
+  private static ClassDescriptor descriptor(Class<?> entityClass) {
+    final RelationalDescriptor descriptor = new RelationalDescriptor();
+    descriptor.setJavaClass(entityClass);
+    descriptor.setTableName(entityClass.getSimpleName());
+    descriptor.addPrimaryKeyFieldName(entityClass.getSimpleName() + ".ID");
+    return descriptor;
+  }
+
+  private static class Workspace {}
+
+  private static class Config {}
+
+  private static class Permissions {}
+
+  private static class WorkerPermissions extends Permissions {}
+
+  private static class Expiration {}
+}
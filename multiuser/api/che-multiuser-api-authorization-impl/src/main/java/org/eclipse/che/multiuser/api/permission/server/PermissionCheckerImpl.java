@@ -18,20 +18,31 @@ import org.eclipse.che.api.core.ServerException;
 /**
  * Implementation of {@link PermissionChecker} that use {@link PermissionsManager} for checking.
  *
+ * <p>Decisions are cached in {@link PermissionsDecisionCache}.
+ *
  * @author Sergii Leschenko
  */
 public class PermissionCheckerImpl implements PermissionChecker {
   private final PermissionsManager permissionsManager;
+  private final PermissionsDecisionCache decisionCache;
 
   @Inject
-  public PermissionCheckerImpl(PermissionsManager permissionsManager) {
+  public PermissionCheckerImpl(
+      PermissionsManager permissionsManager, PermissionsDecisionCache decisionCache) {
     this.permissionsManager = permissionsManager;
+    this.decisionCache = decisionCache;
   }
 
   @Override
   public boolean hasPermission(String user, String domain, String instance, String action)
       throws ServerException, NotFoundException, ConflictException {
-    return permissionsManager.exists(user, domain, instance, action)
-        || permissionsManager.exists("*", domain, instance, action);
+    return decisionCache.get(
+        user,
+        domain,
+        instance,
+        action,
+        () ->
+            permissionsManager.exists(user, domain, instance, action)
+                || permissionsManager.exists("*", domain, instance, action));
   }
 }
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.api.permission.server;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.eclipse.che.api.core.ConflictException;
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.multiuser.api.permission.shared.event.PermissionsEvent;
+import org.eclipse.che.multiuser.api.permission.shared.model.Permissions;
+
+/**
+ * Bounded cache of permission check decisions keyed by user, domain, instance and action.
+ *
+ * <p>Decisions are invalidated when permissions of the corresponding user or of all users ('*')
+ * are created, updated or removed on this node. Invalidations which happen on other nodes must be
+ * propagated with {@link #invalidate(String, String, String)}. Entries also expire after the
+ * configured period, that covers permissions removed directly from storage together with their
+ * instances.
+ */
+@Singleton
+public class PermissionsDecisionCache implements EventSubscriber<PermissionsEvent> {
+
+  private static final String ALL_USERS = "*";
+
+  private final EventService eventService;
+  private final Cache<Key, Boolean> decisions;
+  /** Incremented on each invalidation, so the decisions calculated before it are not cached. */
+  private final AtomicLong generation;
+  /** Guards the generation check and caching of decisions against concurrent invalidations. */
+  private final Object cacheLock;
+  /** Keys of cached decisions by domain and instance, guarded by {@link #cacheLock}. */
+  private final Map<List<String>, Set<Key>> keysByInstance;
+
+  @Inject
+  public PermissionsDecisionCache(
+      EventService eventService,
+      @Named("che.permissions.decision_cache.max_size") long maxSize,
+      @Named("che.permissions.decision_cache.expire_after_write_sec") long expireAfterWriteSec) {
+    this.eventService = eventService;
+    this.decisions =
+        CacheBuilder.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(expireAfterWriteSec, TimeUnit.SECONDS)
+            .recordStats()
+            .removalListener(this::onRemoval)
+            .build();
+    this.generation = new AtomicLong();
+    this.cacheLock = new Object();
+    this.keysByInstance = new HashMap<>();
+  }
+
+  @PostConstruct
+  private void subscribe() {
+    eventService.subscribe(this);
+  }
+
+  @PreDestroy
+  private void unsubscribe() {
+    eventService.unsubscribe(this);
+  }
+
+  @Override
+  public void onEvent(PermissionsEvent event) {
+    final Permissions permissions = event.getPermissions();
+    invalidate(permissions.getUserId(), permissions.getDomainId(), permissions.getInstanceId());
+  }
+
+  /**
+   * Returns cached decision or calculates it with the given checker and caches the result.
+   *
+   * @throws ServerException when checker fails, the result is not cached in this case
+   * @throws NotFoundException when checker fails, the result is not cached in this case
+   * @throws ConflictException when checker fails, the result is not cached in this case
+   */
+  public boolean get(String user, String domain, String instance, String action, Checker checker)
+      throws ServerException, NotFoundException, ConflictException {
+    final Key key = new Key(user, domain, instance, action);
+    final Boolean cached = decisions.getIfPresent(key);
+    if (cached != null) {
+      return cached;
+    }
+    final long checkGeneration = generation.get();
+    final boolean decision = checker.check();
+    synchronized (cacheLock) {
+      if (checkGeneration == generation.get()) {
+        decisions.put(key, decision);
+        keysByInstance.computeIfAbsent(key.instanceKey(), k -> new HashSet<>()).add(key);
+      }
+    }
+    return decision;
+  }
+
+  /**
+   * Invalidates decisions which depend on permissions of the given user for the given instance.
+   *
+   * @param user id of the user whose permissions changed, '*' invalidates decisions of all users
+   * @param domain domain of changed permissions
+   * @param instance instance of changed permissions, may be null for domains without instances
+   */
+  public void invalidate(String user, String domain, String instance) {
+    final boolean allUsers = ALL_USERS.equals(user);
+    synchronized (cacheLock) {
+      generation.incrementAndGet();
+      final Set<Key> keys = keysByInstance.get(Arrays.asList(domain, instance));
+      if (keys == null) {
+        return;
+      }
+      for (Iterator<Key> it = keys.iterator(); it.hasNext(); ) {
+        final Key key = it.next();
+        if (allUsers || Objects.equals(key.user, user)) {
+          it.remove();
+          decisions.invalidate(key);
+        }
+      }
+      if (keys.isEmpty()) {
+        keysByInstance.remove(Arrays.asList(domain, instance));
+      }
+    }
+  }
+
+  /** Invalidates all cached decisions. */
+  public void invalidateAll() {
+    synchronized (cacheLock) {
+      generation.incrementAndGet();
+      keysByInstance.clear();
+      decisions.invalidateAll();
+    }
+  }
+
+  /** Returns statistics of cache hits and misses. */
+  public CacheStats getStats() {
+    return decisions.stats();
+  }
+
+  /** Removes the key of evicted or expired decision from the index. */
+  private void onRemoval(RemovalNotification<Key, Boolean> notification) {
+    if (notification.getCause() == RemovalCause.REPLACED) {
+      return;
+    }
+    final Key key = notification.getKey();
+    synchronized (cacheLock) {
+      // the decision may be cached again after it was removed
+      if (key == null || decisions.asMap().containsKey(key)) {
+        return;
+      }
+      final Set<Key> keys = keysByInstance.get(key.instanceKey());
+      if (keys != null && keys.remove(key) && keys.isEmpty()) {
+        keysByInstance.remove(key.instanceKey());
+      }
+    }
+  }
+
+  /** Calculates permission check decision when it is not cached. */
+  @FunctionalInterface
+  public interface Checker {
+    boolean check() throws ServerException, NotFoundException, ConflictException;
+  }
+
+  private static final class Key {
+    private final String user;
+    private final String domain;
+    private final String instance;
+    private final String action;
+
+    private Key(String user, String domain, String instance, String action) {
+      this.user = user;
+      this.domain = domain;
+      this.instance = instance;
+      this.action = action;
+    }
+
+    private List<String> instanceKey() {
+      return Arrays.asList(domain, instance);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      final Key other = (Key) obj;
+      return Objects.equals(user, other.user)
+          && Objects.equals(domain, other.domain)
+          && Objects.equals(instance, other.instance)
+          && Objects.equals(action, other.action);
+    }
+
+    @Override
+    public int hashCode() {
+      int hash = 7;
+      hash = hash * 31 + Objects.hashCode(user);
+      hash = hash * 31 + Objects.hashCode(domain);
+      hash = hash * 31 + Objects.hashCode(instance);
+      hash = hash * 31 + Objects.hashCode(action);
+      return hash;
+    }
+  }
+}
@@ -12,21 +12,31 @@ package org.eclipse.che.multiuser.api.permission.server;
 
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 
-import org.mockito.InjectMocks;
+import org.eclipse.che.api.core.notification.EventService;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
 @Listeners(MockitoTestNGListener.class)
 public class PermissionCheckerImplTest {
   @Mock private PermissionsManager permissionsManager;
+  @Mock private EventService eventService;
 
-  @InjectMocks private PermissionCheckerImpl permissionChecker;
+  private PermissionCheckerImpl permissionChecker;
+
+  @BeforeMethod
+  public void setUp() {
+    permissionChecker =
+        new PermissionCheckerImpl(
+            permissionsManager, new PermissionsDecisionCache(eventService, 100, 60));
+  }
 
   @Test
   public void shouldCheckExistingDirectUsersPermissions() throws Exception {
@@ -55,4 +65,17 @@ public class PermissionCheckerImplTest {
     verify(permissionsManager).exists("user123", "domain123", "instance123", "test");
     verify(permissionsManager).exists("*", "domain123", "instance123", "test");
   }
+
+  @Test
+  public void shouldReuseCachedDecision() throws Exception {
+    when(permissionsManager.exists(anyString(), anyString(), anyString(), anyString()))
+        .thenReturn(true);
+
+    permissionChecker.hasPermission("user123", "domain123", "instance123", "test");
+    boolean hasPermission =
+        permissionChecker.hasPermission("user123", "domain123", "instance123", "test");
+
+    assertEquals(hasPermission, true);
+    verify(permissionsManager, times(1)).exists("user123", "domain123", "instance123", "test");
+  }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.api.permission.server;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.multiuser.api.permission.shared.event.PermissionsEvent;
+import org.eclipse.che.multiuser.api.permission.shared.model.Permissions;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests {@link PermissionsDecisionCache}. */
+@Listeners(MockitoTestNGListener.class)
+public class PermissionsDecisionCacheTest {
+
+  @Mock private EventService eventService;
+
+  private PermissionsDecisionCache cache;
+
+  @BeforeMethod
+  public void setUp() {
+    cache = new PermissionsDecisionCache(eventService, 100, 60);
+  }
+
+  @Test
+  public void shouldCacheDecision() throws Exception {
+    assertTrue(cache.get("user", "domain", "instance", "read", () -> true));
+
+    assertTrue(cache.get("user", "domain", "instance", "read", () -> false));
+    assertEquals(cache.getStats().hitCount(), 1);
+    assertEquals(cache.getStats().missCount(), 1);
+  }
+
+  @Test
+  public void shouldInvalidateDecisionsOfUserOnPermissionsEvent() throws Exception {
+    cache.get("user", "domain", "instance", "read", () -> true);
+    cache.get("user", "domain", "instance", "write", () -> true);
+    cache.get("user2", "domain", "instance", "read", () -> true);
+    cache.get("user", "domain", "instance2", "read", () -> true);
+
+    cache.onEvent(createEvent("user", "domain", "instance"));
+
+    assertFalse(cache.get("user", "domain", "instance", "read", () -> false));
+    assertFalse(cache.get("user", "domain", "instance", "write", () -> false));
+    assertTrue(cache.get("user2", "domain", "instance", "read", () -> false));
+    assertTrue(cache.get("user", "domain", "instance2", "read", () -> false));
+  }
+
+  @Test
+  public void shouldInvalidateDecisionsOfAllUsersWhenPublicPermissionsChange() throws Exception {
+    cache.get("user", "domain", "instance", "read", () -> true);
+    cache.get("user2", "domain", "instance", "read", () -> true);
+
+    cache.invalidate("*", "domain", "instance");
+
+    assertFalse(cache.get("user", "domain", "instance", "read", () -> false));
+    assertFalse(cache.get("user2", "domain", "instance", "read", () -> false));
+  }
+
+  @Test
+  public void shouldInvalidateDecisionsOfDomainWithoutInstances() throws Exception {
+    cache.get("user", "system", null, "manageSystem", () -> true);
+
+    cache.invalidate("user", "system", null);
+
+    assertFalse(cache.get("user", "system", null, "manageSystem", () -> false));
+  }
+
+  @Test
+  public void shouldNotCacheDecisionCalculatedConcurrentlyWithInvalidation() throws Exception {
+    assertTrue(
+        cache.get(
+            "user",
+            "domain",
+            "instance",
+            "read",
+            () -> {
+              cache.invalidate("user", "domain", "instance");
+              return true;
+            }));
+
+    assertFalse(cache.get("user", "domain", "instance", "read", () -> false));
+  }
+
+  @Test
+  public void shouldInvalidateDecisionCachedAgainAfterEviction() throws Exception {
+    cache = new PermissionsDecisionCache(eventService, 1, 60);
+    cache.get("user", "domain", "instance", "read", () -> true);
+    cache.get("user", "domain", "instance2", "read", () -> true);
+    cache.get("user", "domain", "instance", "read", () -> true);
+
+    cache.invalidate("user", "domain", "instance");
+
+    assertFalse(cache.get("user", "domain", "instance", "read", () -> false));
+  }
+
+  private static PermissionsEvent createEvent(String user, String domain, String instance) {
+    final Permissions permissions = mock(Permissions.class);
+    when(permissions.getUserId()).thenReturn(user);
+    when(permissions.getDomainId()).thenReturn(domain);
+    when(permissions.getInstanceId()).thenReturn(instance);
+    final PermissionsEvent event = mock(PermissionsEvent.class);
+    when(event.getPermissions()).thenReturn(permissions);
+    return event;
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.api.distributed.cache;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.multiuser.api.permission.server.PermissionsDecisionCache;
+import org.eclipse.che.multiuser.api.permission.shared.event.PermissionsEvent;
+import org.eclipse.che.multiuser.api.permission.shared.model.Permissions;
+import org.jgroups.JChannel;
+import org.jgroups.Message;
+import org.jgroups.ReceiverAdapter;
+import org.jgroups.View;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Propagates invalidations of {@link PermissionsDecisionCache} between Che Servers instances.
+ *
+ * <p>Each permissions change which happens on this instance is sent to other instances, so they
+ * invalidate the same decisions. When cluster membership changes all the decisions are invalidated
+ * as the changes made while instances were disconnected could be missed.
+ */
+@Singleton
+public class DistributedPermissionsCacheInvalidator implements EventSubscriber<PermissionsEvent> {
+
+  private static final String CHANNEL_NAME = "PermissionsDecisionCache";
+  private static final Logger LOG =
+      LoggerFactory.getLogger(DistributedPermissionsCacheInvalidator.class);
+
+  private final EventService eventService;
+  private final JChannel channel;
+
+  @Inject
+  public DistributedPermissionsCacheInvalidator(
+      @Named("jgroups.config.file") String confFile,
+      EventService eventService,
+      PermissionsDecisionCache decisionCache) {
+    this.eventService = eventService;
+    try {
+      channel = new JChannel(confFile);
+      channel.setDiscardOwnMessages(true);
+      channel.setReceiver(
+          new ReceiverAdapter() {
+            @Override
+            public void receive(Message msg) {
+              final String[] permissions = (String[]) msg.getObject();
+              decisionCache.invalidate(permissions[0], permissions[1], permissions[2]);
+            }
+
+            @Override
+            public void viewAccepted(View view) {
+              decisionCache.invalidateAll();
+            }
+          });
+      channel.connect(CHANNEL_NAME);
+    } catch (Exception ex) {
+      throw new RuntimeException(
+          "Jgroups permissions cache channel creation failed. Cause :" + ex.getMessage());
+    }
+    eventService.subscribe(this);
+  }
+
+  @Override
+  public void onEvent(PermissionsEvent event) {
+    final Permissions permissions = event.getPermissions();
+    final String[] payload = {
+      permissions.getUserId(), permissions.getDomainId(), permissions.getInstanceId()
+    };
+    try {
+      channel.send(new Message(null, payload));
+    } catch (Exception ex) {
+      LOG.error(
+          "Failed to propagate permissions cache invalidation. Cause: {}", ex.getMessage(), ex);
+    }
+  }
+
+  /** Stops propagation of permissions cache invalidations. */
+  public void shutdown() {
+    eventService.unsubscribe(this);
+    channel.close();
+  }
+}
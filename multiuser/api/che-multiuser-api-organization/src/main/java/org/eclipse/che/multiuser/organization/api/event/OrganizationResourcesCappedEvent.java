@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.organization.api.event;
+
+import java.util.List;
+import org.eclipse.che.multiuser.resource.model.Resource;
+
+/** Published after resources caps of suborganization are stored or reset. */
+public class OrganizationResourcesCappedEvent {
+
+  private final String suborganizationId;
+  private final List<? extends Resource> resourcesCaps;
+
+  public OrganizationResourcesCappedEvent(
+      String suborganizationId, List<? extends Resource> resourcesCaps) {
+    this.suborganizationId = suborganizationId;
+    this.resourcesCaps = resourcesCaps;
+  }
+
+  /** Returns id of suborganization whose resources caps changed. */
+  public String getSuborganizationId() {
+    return suborganizationId;
+  }
+
+  /** Returns new resources caps, empty list when caps are reset. */
+  public List<? extends Resource> getResourcesCaps() {
+    return resourcesCaps;
+  }
+}
@@ -14,8 +14,6 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
-import org.eclipse.che.multiuser.organization.api.OrganizationManager;
-import org.eclipse.che.multiuser.organization.shared.model.Organization;
 import org.eclipse.che.multiuser.organization.spi.impl.OrganizationImpl;
 import org.eclipse.che.multiuser.resource.api.ResourceLockKeyProvider;
 
@@ -28,23 +26,17 @@ import org.eclipse.che.multiuser.resource.api.ResourceLockKeyProvider;
  */
 @Singleton
 public class OrganizationResourceLockKeyProvider implements ResourceLockKeyProvider {
-  private final OrganizationManager organizationManager;
+  private final OrganizationsHierarchy organizationsHierarchy;
 
   @Inject
-  public OrganizationResourceLockKeyProvider(OrganizationManager organizationManager) {
-    this.organizationManager = organizationManager;
+  public OrganizationResourceLockKeyProvider(OrganizationsHierarchy organizationsHierarchy) {
+    this.organizationsHierarchy = organizationsHierarchy;
   }
 
   @Override
   public String getLockKey(String accountId) throws ServerException {
-    String currentOrganizationId = accountId;
     try {
-      Organization organization = organizationManager.getById(currentOrganizationId);
-      while (organization.getParent() != null) {
-        currentOrganizationId = organization.getParent();
-        organization = organizationManager.getById(currentOrganizationId);
-      }
-      return organization.getId();
+      return organizationsHierarchy.getRoot(accountId);
     } catch (NotFoundException e) {
       // should not happen
       throw new ServerException(e.getLocalizedMessage(), e);
@@ -10,7 +10,6 @@
  */
 package org.eclipse.che.multiuser.organization.api.resource;
 
-import static java.util.Collections.emptyList;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
 
@@ -28,8 +27,8 @@ import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.commons.lang.concurrent.Unlocker;
 import org.eclipse.che.core.db.cascade.CascadeEventSubscriber;
-import org.eclipse.che.multiuser.organization.api.OrganizationManager;
 import org.eclipse.che.multiuser.organization.api.event.BeforeOrganizationRemovedEvent;
+import org.eclipse.che.multiuser.organization.api.event.OrganizationResourcesCappedEvent;
 import org.eclipse.che.multiuser.organization.shared.model.OrganizationDistributedResources;
 import org.eclipse.che.multiuser.organization.spi.OrganizationDistributedResourcesDao;
 import org.eclipse.che.multiuser.organization.spi.impl.OrganizationDistributedResourcesImpl;
@@ -50,23 +49,26 @@ import org.eclipse.che.multiuser.resource.model.Resource;
 @Singleton
 public class OrganizationResourcesDistributor {
   private final OrganizationDistributedResourcesDao organizationDistributedResourcesDao;
-  private final OrganizationManager organizationManager;
+  private final OrganizationsHierarchy organizationsHierarchy;
   private final ResourcesLocks resourcesLocks;
   private final ResourceManager resourceManager;
   private final ResourceAggregator resourceAggregator;
+  private final EventService eventService;
 
   @Inject
   public OrganizationResourcesDistributor(
       OrganizationDistributedResourcesDao organizationDistributedResourcesDao,
-      OrganizationManager organizationManager,
+      OrganizationsHierarchy organizationsHierarchy,
       ResourcesLocks resourcesLocks,
       ResourceManager resourceManager,
-      ResourceAggregator resourceAggregator) {
+      ResourceAggregator resourceAggregator,
+      EventService eventService) {
     this.organizationDistributedResourcesDao = organizationDistributedResourcesDao;
-    this.organizationManager = organizationManager;
+    this.organizationsHierarchy = organizationsHierarchy;
     this.resourcesLocks = resourcesLocks;
     this.resourceManager = resourceManager;
     this.resourceAggregator = resourceAggregator;
+    this.eventService = eventService;
   }
 
   @Inject
@@ -111,6 +113,7 @@ public class OrganizationResourcesDistributor {
         organizationDistributedResourcesDao.store(
             new OrganizationDistributedResourcesImpl(suborganizationId, resourcesCaps));
       }
+      eventService.publish(new OrganizationResourcesCappedEvent(suborganizationId, resourcesCaps));
     }
   }
 
@@ -127,11 +130,7 @@ public class OrganizationResourcesDistributor {
       throws NotFoundException, ConflictException, ServerException {
     requireNonNull(suborganizationId, "Required non-null suborganization id");
     checkIsSuborganization(suborganizationId);
-    try {
-      return organizationDistributedResourcesDao.get(suborganizationId).getResourcesCap();
-    } catch (NotFoundException e) {
-      return emptyList();
-    }
+    return organizationsHierarchy.getResourcesCaps(suborganizationId);
   }
 
   /**
@@ -219,7 +218,7 @@ public class OrganizationResourcesDistributor {
 
   private String checkIsSuborganization(String organizationId)
       throws NotFoundException, ConflictException, ServerException {
-    String parentOrganization = organizationManager.getById(organizationId).getParent();
+    String parentOrganization = organizationsHierarchy.getParent(organizationId);
     if (parentOrganization == null) {
       throw new ConflictException("It is not allowed to cap resources for root organization.");
     }
@@ -19,10 +19,7 @@ import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 import org.eclipse.che.api.core.NotFoundException;
-import org.eclipse.che.api.core.Pages;
 import org.eclipse.che.api.core.ServerException;
-import org.eclipse.che.multiuser.organization.api.OrganizationManager;
-import org.eclipse.che.multiuser.organization.shared.model.Organization;
 import org.eclipse.che.multiuser.resource.api.AvailableResourcesProvider;
 import org.eclipse.che.multiuser.resource.api.ResourceAggregator;
 import org.eclipse.che.multiuser.resource.api.exception.NoEnoughResourcesException;
@@ -51,31 +48,30 @@ public class OrganizationalAccountAvailableResourcesProvider implements Availabl
 
   private final Provider<ResourceManager> resourceManagerProvider;
   private final ResourceAggregator resourceAggregator;
-  private final OrganizationManager organizationManager;
+  private final OrganizationsHierarchy organizationsHierarchy;
 
   @Inject
   public OrganizationalAccountAvailableResourcesProvider(
       Provider<ResourceManager> resourceManagerProvider,
       ResourceAggregator resourceAggregator,
-      OrganizationManager organizationManager) {
+      OrganizationsHierarchy organizationsHierarchy) {
     this.resourceManagerProvider = resourceManagerProvider;
     this.resourceAggregator = resourceAggregator;
-    this.organizationManager = organizationManager;
+    this.organizationsHierarchy = organizationsHierarchy;
   }
 
   @Override
   public List<? extends Resource> getAvailableResources(String accountId)
       throws NotFoundException, ServerException {
-    Organization organization = organizationManager.getById(accountId);
+    String parentId = organizationsHierarchy.getParent(accountId);
 
-    if (organization.getParent() == null) {
-      return getAvailableOrganizationResources(organization);
+    if (parentId == null) {
+      return getAvailableOrganizationResources(accountId);
     } else {
-      Organization parentOrganization = organizationManager.getById(organization.getParent());
       return resourceAggregator.min(
           resourceAggregator.intersection(
-              getAvailableOrganizationResources(parentOrganization),
-              getAvailableOrganizationResources(organization)));
+              getAvailableOrganizationResources(parentId),
+              getAvailableOrganizationResources(accountId)));
     }
   }
 
@@ -83,25 +79,25 @@ public class OrganizationalAccountAvailableResourcesProvider implements Availabl
    * Returns total resources minus resources which are already used by organization or by any of its
    * suborganizations.
    *
-   * @param organization organization id to calculate its available resources
+   * @param organizationId organization id to calculate its available resources
    * @return resources which are available for usage by specified organization
    * @throws NotFoundException when organization with specified id doesn't exist
    * @throws ServerException when any other exception occurs on calculation of available resources
    */
   @VisibleForTesting
-  List<? extends Resource> getAvailableOrganizationResources(Organization organization)
+  List<? extends Resource> getAvailableOrganizationResources(String organizationId)
       throws NotFoundException, ServerException {
     final ResourceManager resourceManager = resourceManagerProvider.get();
-    final List<? extends Resource> total = resourceManager.getTotalResources(organization.getId());
+    final List<? extends Resource> total = resourceManager.getTotalResources(organizationId);
     final List<Resource> unavailable =
-        new ArrayList<>(resourceManager.getUsedResources(organization.getId()));
-    unavailable.addAll(getUsedResourcesBySuborganizations(organization.getQualifiedName()));
+        new ArrayList<>(resourceManager.getUsedResources(organizationId));
+    unavailable.addAll(getUsedResourcesBySuborganizations(organizationId));
     try {
       return resourceAggregator.deduct(total, unavailable);
     } catch (NoEnoughResourcesException e) {
       LOG.warn(
           "Organization with id {} uses more resources {} than it has {}.",
-          organization.getId(),
+          organizationId,
           format(unavailable),
           format(total));
       return resourceAggregator.excess(total, unavailable);
@@ -113,21 +109,17 @@ public class OrganizationalAccountAvailableResourcesProvider implements Availabl
    *
    * <p>Note that the result will includes used resources of all direct and nested suborganizations.
    *
-   * @param parentQualifiedName parent qualified name, e.g. 'parentName/suborgName
+   * @param organizationId id of parent organization
    * @return resources which are used by suborganizations of specified organization.
    * @throws ServerException when any other exception occurs on calculation of used resources
    */
   @VisibleForTesting
-  List<Resource> getUsedResourcesBySuborganizations(String parentQualifiedName)
+  List<Resource> getUsedResourcesBySuborganizations(String organizationId)
       throws NotFoundException, ServerException {
     ResourceManager resourceManager = resourceManagerProvider.get();
     List<Resource> usedResources = new ArrayList<>();
-    for (Organization suborganization :
-        Pages.iterate(
-            (maxItems, skipCount) ->
-                organizationManager.getSuborganizations(
-                    parentQualifiedName, maxItems, skipCount))) {
-      usedResources.addAll(resourceManager.getUsedResources(suborganization.getId()));
+    for (String suborganizationId : organizationsHierarchy.getSuborganizations(organizationId)) {
+      usedResources.addAll(resourceManager.getUsedResources(suborganizationId));
     }
     return usedResources;
   }
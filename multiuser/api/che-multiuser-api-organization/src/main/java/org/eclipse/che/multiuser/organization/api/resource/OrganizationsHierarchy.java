@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.organization.api.resource;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+import static org.eclipse.che.multiuser.organization.shared.event.EventType.ORGANIZATION_REMOVED;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.Pages;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.multiuser.organization.api.OrganizationManager;
+import org.eclipse.che.multiuser.organization.api.event.OrganizationPersistedEvent;
+import org.eclipse.che.multiuser.organization.api.event.OrganizationResourcesCappedEvent;
+import org.eclipse.che.multiuser.organization.shared.event.OrganizationEvent;
+import org.eclipse.che.multiuser.organization.shared.model.Organization;
+import org.eclipse.che.multiuser.organization.spi.OrganizationDistributedResourcesDao;
+import org.eclipse.che.multiuser.resource.model.Resource;
+
+/**
+ * In-memory index of organizations tree and of resources caps of suborganizations.
+ *
+ * <p>Parent organization, direct suborganizations and resources caps are fetched from storage on
+ * first request and then kept in memory, so resolving of root organization and suborganizations
+ * usage does not hit the database on each resources check. Parent of organization never changes,
+ * so the index is updated when organizations are created or removed and when resources caps are
+ * changed with {@link OrganizationResourcesDistributor} on this Che server. Changes made by other
+ * Che server replicas are not published locally, so the entries also expire after the configured
+ * time.
+ */
+@Singleton
+public class OrganizationsHierarchy {
+
+  /** Stored as parent of root organizations as concurrent map does not allow null values. */
+  private static final String NO_PARENT = "";
+
+  private final OrganizationManager organizationManager;
+  private final OrganizationDistributedResourcesDao distributedResourcesDao;
+  private final EventService eventService;
+  private final EventSubscriber<OrganizationPersistedEvent> persistedSubscriber;
+  private final EventSubscriber<OrganizationEvent> removedSubscriber;
+  private final EventSubscriber<OrganizationResourcesCappedEvent> cappedSubscriber;
+
+  private final Cache<String, String> parents;
+  private final Cache<String, List<String>> children;
+  private final Cache<String, List<Resource>> resourcesCaps;
+  /** Incremented on each change, so the data fetched from storage before it is not cached. */
+  private final AtomicLong generation;
+  /** Guards the generation check and caching of fetched data against concurrent changes. */
+  private final Object cacheLock;
+
+  @Inject
+  public OrganizationsHierarchy(
+      OrganizationManager organizationManager,
+      OrganizationDistributedResourcesDao distributedResourcesDao,
+      EventService eventService,
+      @Named("che.organization.hierarchy_cache.expire_after_write_sec") long expireAfterWriteSec) {
+    this.organizationManager = organizationManager;
+    this.distributedResourcesDao = distributedResourcesDao;
+    this.eventService = eventService;
+    this.parents = newCache(expireAfterWriteSec);
+    this.children = newCache(expireAfterWriteSec);
+    this.resourcesCaps = newCache(expireAfterWriteSec);
+    this.generation = new AtomicLong();
+    this.cacheLock = new Object();
+    this.persistedSubscriber = event -> onOrganizationPersisted(event.getOrganization());
+    this.removedSubscriber =
+        event -> {
+          if (event.getType() == ORGANIZATION_REMOVED) {
+            onOrganizationRemoved(event.getOrganization());
+          }
+        };
+    this.cappedSubscriber =
+        event -> onResourcesCapped(event.getSuborganizationId(), event.getResourcesCaps());
+    eventService.subscribe(persistedSubscriber, OrganizationPersistedEvent.class);
+    eventService.subscribe(removedSubscriber, OrganizationEvent.class);
+    eventService.subscribe(cappedSubscriber, OrganizationResourcesCappedEvent.class);
+  }
+
+  @PreDestroy
+  private void unsubscribe() {
+    eventService.unsubscribe(persistedSubscriber, OrganizationPersistedEvent.class);
+    eventService.unsubscribe(removedSubscriber, OrganizationEvent.class);
+    eventService.unsubscribe(cappedSubscriber, OrganizationResourcesCappedEvent.class);
+  }
+
+  /**
+   * Returns id of parent organization or null when the given organization is root organization.
+   *
+   * @param organizationId organization id
+   * @throws NotFoundException when organization with given id doesn't exist
+   * @throws ServerException when any other error occurs
+   */
+  public String getParent(String organizationId) throws NotFoundException, ServerException {
+    requireNonNull(organizationId, "Required non-null organization id");
+    String parent = parents.getIfPresent(organizationId);
+    if (parent == null) {
+      final long loadGeneration = generation.get();
+      parent = organizationManager.getById(organizationId).getParent();
+      if (parent == null) {
+        parent = NO_PARENT;
+      }
+      putIfUnchanged(parents, organizationId, parent, loadGeneration);
+    }
+    return NO_PARENT.equals(parent) ? null : parent;
+  }
+
+  /**
+   * Returns id of root organization of the tree the given organization belongs to.
+   *
+   * @param organizationId organization id
+   * @throws NotFoundException when organization with given id doesn't exist
+   * @throws ServerException when any other error occurs
+   */
+  public String getRoot(String organizationId) throws NotFoundException, ServerException {
+    String current = organizationId;
+    String parent;
+    while ((parent = getParent(current)) != null) {
+      current = parent;
+    }
+    return current;
+  }
+
+  /**
+   * Returns ids of all direct and nested suborganizations of the given organization.
+   *
+   * @param organizationId organization id
+   * @throws ServerException when any error occurs
+   */
+  public List<String> getSuborganizations(String organizationId) throws ServerException {
+    requireNonNull(organizationId, "Required non-null organization id");
+    final List<String> suborganizations = new ArrayList<>();
+    final Deque<String> queue = new ArrayDeque<>(getChildren(organizationId));
+    while (!queue.isEmpty()) {
+      final String suborganization = queue.poll();
+      suborganizations.add(suborganization);
+      queue.addAll(getChildren(suborganization));
+    }
+    return suborganizations;
+  }
+
+  /**
+   * Returns resources caps of the given suborganization or empty list when it is not capped.
+   *
+   * @param suborganizationId suborganization id
+   * @throws ServerException when any error occurs
+   */
+  public List<? extends Resource> getResourcesCaps(String suborganizationId)
+      throws ServerException {
+    requireNonNull(suborganizationId, "Required non-null suborganization id");
+    List<Resource> caps = resourcesCaps.getIfPresent(suborganizationId);
+    if (caps == null) {
+      final long loadGeneration = generation.get();
+      try {
+        caps =
+            unmodifiableList(
+                new ArrayList<>(distributedResourcesDao.get(suborganizationId).getResourcesCap()));
+      } catch (NotFoundException e) {
+        caps = emptyList();
+      }
+      putIfUnchanged(resourcesCaps, suborganizationId, caps, loadGeneration);
+    }
+    return caps;
+  }
+
+  private List<String> getChildren(String organizationId) throws ServerException {
+    List<String> organizationChildren = children.getIfPresent(organizationId);
+    if (organizationChildren == null) {
+      final long loadGeneration = generation.get();
+      organizationChildren = new ArrayList<>();
+      for (Organization child :
+          Pages.iterate(
+              (maxItems, skipCount) ->
+                  organizationManager.getByParent(organizationId, maxItems, skipCount))) {
+        organizationChildren.add(child.getId());
+      }
+      organizationChildren = unmodifiableList(organizationChildren);
+      synchronized (cacheLock) {
+        if (loadGeneration == generation.get()) {
+          children.put(organizationId, organizationChildren);
+          for (String child : organizationChildren) {
+            parents.put(child, organizationId);
+          }
+        }
+      }
+    }
+    return organizationChildren;
+  }
+
+  /**
+   * Caches the value fetched from storage unless the index was changed since the fetch started,
+   * as the fetched value may already be stale then.
+   */
+  private <T> void putIfUnchanged(
+      Cache<String, T> cache, String key, T value, long loadGeneration) {
+    synchronized (cacheLock) {
+      if (loadGeneration == generation.get()) {
+        cache.put(key, value);
+      }
+    }
+  }
+
+  private void onOrganizationPersisted(Organization organization) {
+    synchronized (cacheLock) {
+      generation.incrementAndGet();
+      if (organization.getParent() != null) {
+        children.invalidate(organization.getParent());
+      }
+    }
+  }
+
+  private void onOrganizationRemoved(Organization organization) {
+    synchronized (cacheLock) {
+      generation.incrementAndGet();
+      parents.invalidate(organization.getId());
+      children.invalidate(organization.getId());
+      resourcesCaps.invalidate(organization.getId());
+      if (organization.getParent() != null) {
+        children.invalidate(organization.getParent());
+      }
+    }
+  }
+
+  private void onResourcesCapped(String suborganizationId, List<? extends Resource> caps) {
+    synchronized (cacheLock) {
+      generation.incrementAndGet();
+      resourcesCaps.put(suborganizationId, unmodifiableList(new ArrayList<>(caps)));
+    }
+  }
+
+  private static <T> Cache<String, T> newCache(long expireAfterWriteSec) {
+    return CacheBuilder.newBuilder()
+        .expireAfterWrite(expireAfterWriteSec, TimeUnit.SECONDS)
+        .build();
+  }
+}
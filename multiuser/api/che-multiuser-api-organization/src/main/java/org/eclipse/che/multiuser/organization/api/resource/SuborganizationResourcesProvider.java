@@ -27,7 +27,6 @@ import org.eclipse.che.account.shared.model.Account;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
-import org.eclipse.che.multiuser.organization.api.OrganizationManager;
 import org.eclipse.che.multiuser.organization.spi.impl.OrganizationImpl;
 import org.eclipse.che.multiuser.resource.api.ResourcesProvider;
 import org.eclipse.che.multiuser.resource.api.usage.ResourceManager;
@@ -49,18 +48,18 @@ public class SuborganizationResourcesProvider implements ResourcesProvider {
   public static final String PARENT_RESOURCES_PROVIDER = "parentOrganization";
 
   private final AccountManager accountManager;
-  private final OrganizationManager organizationManager;
+  private final OrganizationsHierarchy organizationsHierarchy;
   private final Provider<OrganizationResourcesDistributor> distributorProvider;
   private final Provider<ResourceManager> resourceManagerProvider;
 
   @Inject
   public SuborganizationResourcesProvider(
       AccountManager accountManager,
-      OrganizationManager organizationManager,
+      OrganizationsHierarchy organizationsHierarchy,
       Provider<OrganizationResourcesDistributor> distributorProvider,
       Provider<ResourceManager> resourceManagerProvider) {
     this.accountManager = accountManager;
-    this.organizationManager = organizationManager;
+    this.organizationsHierarchy = organizationsHierarchy;
     this.distributorProvider = distributorProvider;
     this.resourceManagerProvider = resourceManagerProvider;
   }
@@ -72,7 +71,7 @@ public class SuborganizationResourcesProvider implements ResourcesProvider {
     String parent;
 
     if (!OrganizationImpl.ORGANIZATIONAL_ACCOUNT.equals(account.getType())
-        || (parent = organizationManager.getById(accountId).getParent()) == null) {
+        || (parent = organizationsHierarchy.getParent(accountId)) == null) {
       return emptyList();
     }
 
@@ -13,11 +13,13 @@ package org.eclipse.che.multiuser.organization.api.resource;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 
+import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.multiuser.organization.api.OrganizationManager;
+import org.eclipse.che.multiuser.organization.spi.OrganizationDistributedResourcesDao;
 import org.eclipse.che.multiuser.organization.spi.impl.OrganizationImpl;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
@@ -30,8 +32,18 @@ import org.testng.annotations.Test;
 @Listeners(MockitoTestNGListener.class)
 public class OrganizationResourceLockKeyProviderTest {
   @Mock private OrganizationManager organizationManager;
+  @Mock private OrganizationDistributedResourcesDao distributedResourcesDao;
+  @Mock private EventService eventService;
 
-  @InjectMocks private OrganizationResourceLockKeyProvider lockProvider;
+  private OrganizationResourceLockKeyProvider lockProvider;
+
+  @BeforeMethod
+  public void setUp() {
+    lockProvider =
+        new OrganizationResourceLockKeyProvider(
+            new OrganizationsHierarchy(
+                organizationManager, distributedResourcesDao, eventService, 60));
+  }
 
   @Test
   public void shouldReturnRootOrganizationId() throws Exception {
@@ -25,23 +25,26 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 import java.util.Collections;
 import java.util.List;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.Page;
+import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.commons.lang.concurrent.Unlocker;
-import org.eclipse.che.multiuser.organization.api.OrganizationManager;
+import org.eclipse.che.multiuser.organization.api.event.OrganizationResourcesCappedEvent;
 import org.eclipse.che.multiuser.organization.shared.model.OrganizationDistributedResources;
 import org.eclipse.che.multiuser.organization.spi.OrganizationDistributedResourcesDao;
 import org.eclipse.che.multiuser.organization.spi.impl.OrganizationDistributedResourcesImpl;
-import org.eclipse.che.multiuser.organization.spi.impl.OrganizationImpl;
 import org.eclipse.che.multiuser.resource.api.ResourceAggregator;
 import org.eclipse.che.multiuser.resource.api.exception.NoEnoughResourcesException;
 import org.eclipse.che.multiuser.resource.api.usage.ResourceManager;
 import org.eclipse.che.multiuser.resource.api.usage.ResourcesLocks;
 import org.eclipse.che.multiuser.resource.model.Resource;
 import org.eclipse.che.multiuser.resource.spi.impl.ResourceImpl;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
@@ -65,7 +68,10 @@ public class OrganizationResourcesDistributorTest {
   @Mock private ResourcesLocks resourcesLocks;
   @Mock private ResourceManager resourceManager;
   @Mock private ResourceAggregator resourceAggregator;
-  @Mock private OrganizationManager organizationManager;
+  @Mock private OrganizationsHierarchy organizationsHierarchy;
+  @Mock private EventService eventService;
+
+  @Captor private ArgumentCaptor<OrganizationResourcesCappedEvent> cappedEventCaptor;
 
   @Spy @InjectMocks private OrganizationResourcesDistributor manager;
 
@@ -74,10 +80,8 @@ public class OrganizationResourcesDistributorTest {
     doNothing().when(manager).checkResourcesAvailability(anyString(), any());
     when(resourcesLocks.lock(anyString())).thenReturn(lock);
 
-    when(organizationManager.getById(ORG_ID))
-        .thenReturn(new OrganizationImpl(ORG_ID, ORG_ID + "name", PARENT_ORG_ID));
-    when(organizationManager.getById(PARENT_ORG_ID))
-        .thenReturn(new OrganizationImpl(PARENT_ORG_ID, PARENT_ORG_ID + "name", null));
+    when(organizationsHierarchy.getParent(ORG_ID)).thenReturn(PARENT_ORG_ID);
+    when(organizationsHierarchy.getParent(PARENT_ORG_ID)).thenReturn(null);
   }
 
   @Test
@@ -92,6 +96,9 @@ public class OrganizationResourcesDistributorTest {
     verify(distributedResourcesDao).store(new OrganizationDistributedResourcesImpl(ORG_ID, toCap));
     verify(resourcesLocks).lock(ORG_ID);
     verify(lock).close();
+    verify(eventService).publish(cappedEventCaptor.capture());
+    assertEquals(cappedEventCaptor.getValue().getSuborganizationId(), ORG_ID);
+    assertEquals(cappedEventCaptor.getValue().getResourcesCaps(), toCap);
   }
 
   @Test
@@ -121,6 +128,9 @@ public class OrganizationResourcesDistributorTest {
     verify(distributedResourcesDao).remove(ORG_ID);
     verify(resourcesLocks).lock(ORG_ID);
     verify(lock).close();
+    verify(eventService).publish(cappedEventCaptor.capture());
+    assertEquals(cappedEventCaptor.getValue().getSuborganizationId(), ORG_ID);
+    assertTrue(cappedEventCaptor.getValue().getResourcesCaps().isEmpty());
   }
 
   @Test(
@@ -174,14 +184,16 @@ public class OrganizationResourcesDistributorTest {
     // given
     final OrganizationDistributedResourcesImpl distributedResources =
         createDistributedResources(1000);
-    when(distributedResourcesDao.get(anyString())).thenReturn(distributedResources);
+    doReturn(distributedResources.getResourcesCap())
+        .when(organizationsHierarchy)
+        .getResourcesCaps(anyString());
 
     // when
     final List<? extends Resource> fetchedDistributedResources = manager.getResourcesCaps(ORG_ID);
 
     // then
     assertEquals(fetchedDistributedResources, distributedResources.getResourcesCap());
-    verify(distributedResourcesDao).get(ORG_ID);
+    verify(organizationsHierarchy).getResourcesCaps(ORG_ID);
   }
 
   @Test(expectedExceptions = NullPointerException.class)
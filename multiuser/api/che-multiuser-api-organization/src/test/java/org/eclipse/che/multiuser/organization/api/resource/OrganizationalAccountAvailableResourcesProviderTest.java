@@ -14,15 +14,10 @@ import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
-import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.ArgumentMatchers.argThat;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
@@ -31,11 +26,7 @@ import static org.testng.Assert.assertTrue;
 import java.util.List;
 import javax.inject.Provider;
 import org.eclipse.che.api.core.NotFoundException;
-import org.eclipse.che.api.core.Page;
 import org.eclipse.che.api.core.ServerException;
-import org.eclipse.che.multiuser.organization.api.OrganizationManager;
-import org.eclipse.che.multiuser.organization.shared.model.Organization;
-import org.eclipse.che.multiuser.organization.spi.impl.OrganizationImpl;
 import org.eclipse.che.multiuser.resource.api.ResourceAggregator;
 import org.eclipse.che.multiuser.resource.api.exception.NoEnoughResourcesException;
 import org.eclipse.che.multiuser.resource.api.usage.ResourceManager;
@@ -52,7 +43,6 @@ import org.testng.annotations.Test;
 /** Test for {@link OrganizationalAccountAvailableResourcesProvider} */
 @Listeners(MockitoTestNGListener.class)
 public class OrganizationalAccountAvailableResourcesProviderTest {
-  private static final String ROOT_ORG_NAME = "root";
   private static final String ROOT_ORG_ID = "organization123";
   private static final String SUBORG_ID = "organization321";
   private static final String SUBSUBORG_ID = "organization231";
@@ -60,26 +50,18 @@ public class OrganizationalAccountAvailableResourcesProviderTest {
   @Mock private Provider<ResourceManager> resourceManagerProvider;
   @Mock private ResourceManager resourceManager;
   @Mock private ResourceAggregator resourceAggregator;
-  @Mock private OrganizationManager organizationManager;
+  @Mock private OrganizationsHierarchy organizationsHierarchy;
 
   @InjectMocks @Spy
   private OrganizationalAccountAvailableResourcesProvider availableResourcesProvider;
 
-  private Organization rootOrganization;
-  private Organization suborganization;
-  private Organization subsuborganization;
-
   @BeforeMethod
   public void setUp() throws Exception {
     when(resourceManagerProvider.get()).thenReturn(resourceManager);
 
-    rootOrganization = new OrganizationImpl(ROOT_ORG_ID, ROOT_ORG_NAME, null);
-    suborganization = new OrganizationImpl(SUBORG_ID, "root/suborg", ROOT_ORG_ID);
-    subsuborganization = new OrganizationImpl(SUBSUBORG_ID, "root/suborg/subsuborg", SUBORG_ID);
-
-    when(organizationManager.getById(ROOT_ORG_ID)).thenReturn(rootOrganization);
-    when(organizationManager.getById(SUBORG_ID)).thenReturn(suborganization);
-    when(organizationManager.getById(SUBSUBORG_ID)).thenReturn(subsuborganization);
+    when(organizationsHierarchy.getParent(ROOT_ORG_ID)).thenReturn(null);
+    when(organizationsHierarchy.getParent(SUBORG_ID)).thenReturn(ROOT_ORG_ID);
+    when(organizationsHierarchy.getParent(SUBSUBORG_ID)).thenReturn(SUBORG_ID);
   }
 
   @Test
@@ -119,8 +101,8 @@ public class OrganizationalAccountAvailableResourcesProviderTest {
     // then
     assertEquals(availableResources.size(), 1);
     assertEquals(availableResources.get(0), parentAvailableResource);
-    verify(availableResourcesProvider).getAvailableOrganizationResources(rootOrganization);
-    verify(availableResourcesProvider).getAvailableOrganizationResources(suborganization);
+    verify(availableResourcesProvider).getAvailableOrganizationResources(ROOT_ORG_ID);
+    verify(availableResourcesProvider).getAvailableOrganizationResources(SUBORG_ID);
     verify(resourceAggregator)
         .intersection(
             singletonList(parentAvailableResource), singletonList(suborgAvailableResource));
@@ -150,14 +132,14 @@ public class OrganizationalAccountAvailableResourcesProviderTest {
 
     // when
     List<? extends Resource> availableResources =
-        availableResourcesProvider.getAvailableOrganizationResources(rootOrganization);
+        availableResourcesProvider.getAvailableOrganizationResources(ROOT_ORG_ID);
 
     // then
     assertEquals(availableResources.size(), 1);
     assertEquals(availableResources.get(0), availableResource);
     verify(resourceManager).getTotalResources(ROOT_ORG_ID);
     verify(resourceManager).getUsedResources(ROOT_ORG_ID);
-    verify(availableResourcesProvider).getUsedResourcesBySuborganizations(ROOT_ORG_NAME);
+    verify(availableResourcesProvider).getUsedResourcesBySuborganizations(ROOT_ORG_ID);
     verify(resourceAggregator)
         .deduct(
             singletonList(totalResource),
@@ -189,14 +171,14 @@ public class OrganizationalAccountAvailableResourcesProviderTest {
 
     // when
     List<? extends Resource> availableResources =
-        availableResourcesProvider.getAvailableOrganizationResources(rootOrganization);
+        availableResourcesProvider.getAvailableOrganizationResources(ROOT_ORG_ID);
 
     // then
     assertEquals(availableResources.size(), 1);
     assertEquals(availableResources.get(0), excessiveTotalResource);
     verify(resourceManager).getTotalResources(ROOT_ORG_ID);
     verify(resourceManager).getUsedResources(ROOT_ORG_ID);
-    verify(availableResourcesProvider).getUsedResourcesBySuborganizations(ROOT_ORG_NAME);
+    verify(availableResourcesProvider).getUsedResourcesBySuborganizations(ROOT_ORG_ID);
     verify(resourceAggregator)
         .deduct(asList(totalResource, excessiveTotalResource), singletonList(usedResource));
     verify(resourceAggregator)
@@ -206,10 +188,8 @@ public class OrganizationalAccountAvailableResourcesProviderTest {
   @Test
   public void shouldCalculateUsedResourceBySuborganizations() throws Exception {
     // given
-    doReturn(new Page<>(singletonList(suborganization), 0, 1, 2))
-        .doReturn(new Page<>(singletonList(subsuborganization), 1, 1, 2))
-        .when(organizationManager)
-        .getSuborganizations(anyString(), anyInt(), anyLong());
+    when(organizationsHierarchy.getSuborganizations(ROOT_ORG_ID))
+        .thenReturn(asList(SUBORG_ID, SUBSUBORG_ID));
     ResourceImpl usedBySuborgResource = new ResourceImpl("test", 1500, "unit");
     doReturn(singletonList(usedBySuborgResource)).when(resourceManager).getUsedResources(SUBORG_ID);
     ResourceImpl usedBySubsuborgResource = new ResourceImpl("test", 2000, "unit");
@@ -219,14 +199,13 @@ public class OrganizationalAccountAvailableResourcesProviderTest {
 
     // when
     List<? extends Resource> usedResources =
-        availableResourcesProvider.getUsedResourcesBySuborganizations(ROOT_ORG_NAME);
+        availableResourcesProvider.getUsedResourcesBySuborganizations(ROOT_ORG_ID);
 
     // then
     assertEquals(usedResources.size(), 2);
     assertTrue(usedResources.contains(usedBySuborgResource));
     assertTrue(usedResources.contains(usedBySubsuborgResource));
-    verify(organizationManager, times(2))
-        .getSuborganizations(eq(ROOT_ORG_NAME), anyInt(), anyLong());
+    verify(organizationsHierarchy).getSuborganizations(ROOT_ORG_ID);
     verify(resourceManager).getUsedResources(SUBORG_ID);
     verify(resourceManager).getUsedResources(SUBSUBORG_ID);
   }
@@ -235,7 +214,6 @@ public class OrganizationalAccountAvailableResourcesProviderTest {
       throws NotFoundException, ServerException {
     doReturn(singletonList(availableResource))
         .when(availableResourcesProvider)
-        .getAvailableOrganizationResources(
-            argThat(argument -> organizationId.equals(((Organization) argument).getId())));
+        .getAvailableOrganizationResources(organizationId);
   }
 }
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.organization.api.resource;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.Page;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.multiuser.organization.api.OrganizationManager;
+import org.eclipse.che.multiuser.organization.api.event.OrganizationPersistedEvent;
+import org.eclipse.che.multiuser.organization.api.event.OrganizationRemovedEvent;
+import org.eclipse.che.multiuser.organization.api.event.OrganizationResourcesCappedEvent;
+import org.eclipse.che.multiuser.organization.spi.OrganizationDistributedResourcesDao;
+import org.eclipse.che.multiuser.organization.spi.impl.OrganizationDistributedResourcesImpl;
+import org.eclipse.che.multiuser.organization.spi.impl.OrganizationImpl;
+import org.eclipse.che.multiuser.resource.spi.impl.ResourceImpl;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests for {@link OrganizationsHierarchy}. */
+@Listeners(MockitoTestNGListener.class)
+public class OrganizationsHierarchyTest {
+  private static final String ROOT_ORG_ID = "root123";
+  private static final String SUBORG_ID = "suborg123";
+  private static final String SUBSUBORG_ID = "subsuborg123";
+
+  @Mock private OrganizationManager organizationManager;
+  @Mock private OrganizationDistributedResourcesDao distributedResourcesDao;
+
+  private OrganizationImpl rootOrganization;
+  private OrganizationImpl suborganization;
+  private OrganizationImpl subsuborganization;
+  private EventService eventService;
+  private OrganizationsHierarchy hierarchy;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    rootOrganization = new OrganizationImpl(ROOT_ORG_ID, "root", null);
+    suborganization = new OrganizationImpl(SUBORG_ID, "root/suborg", ROOT_ORG_ID);
+    subsuborganization = new OrganizationImpl(SUBSUBORG_ID, "root/suborg/subsuborg", SUBORG_ID);
+    eventService = new EventService();
+    hierarchy =
+        new OrganizationsHierarchy(organizationManager, distributedResourcesDao, eventService, 60);
+  }
+
+  @Test
+  public void shouldCacheParentOfOrganization() throws Exception {
+    when(organizationManager.getById(SUBORG_ID)).thenReturn(suborganization);
+
+    assertEquals(hierarchy.getParent(SUBORG_ID), ROOT_ORG_ID);
+    assertEquals(hierarchy.getParent(SUBORG_ID), ROOT_ORG_ID);
+
+    verify(organizationManager).getById(SUBORG_ID);
+  }
+
+  @Test
+  public void shouldCacheAbsenceOfParentForRootOrganization() throws Exception {
+    when(organizationManager.getById(ROOT_ORG_ID)).thenReturn(rootOrganization);
+
+    assertNull(hierarchy.getParent(ROOT_ORG_ID));
+    assertNull(hierarchy.getParent(ROOT_ORG_ID));
+
+    verify(organizationManager).getById(ROOT_ORG_ID);
+  }
+
+  @Test
+  public void shouldResolveRootOrganization() throws Exception {
+    when(organizationManager.getById(ROOT_ORG_ID)).thenReturn(rootOrganization);
+    when(organizationManager.getById(SUBORG_ID)).thenReturn(suborganization);
+    when(organizationManager.getById(SUBSUBORG_ID)).thenReturn(subsuborganization);
+
+    assertEquals(hierarchy.getRoot(SUBSUBORG_ID), ROOT_ORG_ID);
+    assertEquals(hierarchy.getRoot(SUBORG_ID), ROOT_ORG_ID);
+    assertEquals(hierarchy.getRoot(ROOT_ORG_ID), ROOT_ORG_ID);
+
+    verify(organizationManager).getById(SUBORG_ID);
+  }
+
+  @Test
+  public void shouldReturnDirectAndNestedSuborganizations() throws Exception {
+    prepareChildren(ROOT_ORG_ID, suborganization);
+    prepareChildren(SUBORG_ID, subsuborganization);
+    prepareChildren(SUBSUBORG_ID);
+
+    assertEquals(hierarchy.getSuborganizations(ROOT_ORG_ID), asList(SUBORG_ID, SUBSUBORG_ID));
+    assertEquals(hierarchy.getSuborganizations(ROOT_ORG_ID), asList(SUBORG_ID, SUBSUBORG_ID));
+
+    verify(organizationManager).getByParent(eq(ROOT_ORG_ID), anyInt(), anyLong());
+    verify(organizationManager).getByParent(eq(SUBORG_ID), anyInt(), anyLong());
+    assertEquals(hierarchy.getParent(SUBSUBORG_ID), SUBORG_ID);
+  }
+
+  @Test
+  public void shouldRefetchChildrenOfParentWhenSuborganizationIsPersisted() throws Exception {
+    prepareChildren(ROOT_ORG_ID);
+    assertTrue(hierarchy.getSuborganizations(ROOT_ORG_ID).isEmpty());
+
+    prepareChildren(ROOT_ORG_ID, suborganization);
+    prepareChildren(SUBORG_ID);
+    eventService.publish(new OrganizationPersistedEvent(suborganization));
+
+    assertEquals(hierarchy.getSuborganizations(ROOT_ORG_ID), singletonList(SUBORG_ID));
+    verify(organizationManager, times(2)).getByParent(eq(ROOT_ORG_ID), anyInt(), anyLong());
+  }
+
+  @Test(expectedExceptions = NotFoundException.class)
+  public void shouldForgetOrganizationWhenItIsRemoved() throws Exception {
+    when(organizationManager.getById(SUBORG_ID)).thenReturn(suborganization);
+    hierarchy.getParent(SUBORG_ID);
+
+    doThrow(new NotFoundException("not found")).when(organizationManager).getById(SUBORG_ID);
+    eventService.publish(new OrganizationRemovedEvent("user", suborganization, emptyList()));
+
+    hierarchy.getParent(SUBORG_ID);
+  }
+
+  @Test
+  public void shouldCacheResourcesCaps() throws Exception {
+    final List<ResourceImpl> caps = singletonList(new ResourceImpl("test", 1000, "unit"));
+    when(distributedResourcesDao.get(SUBORG_ID))
+        .thenReturn(new OrganizationDistributedResourcesImpl(SUBORG_ID, caps));
+
+    assertEquals(hierarchy.getResourcesCaps(SUBORG_ID), caps);
+    assertEquals(hierarchy.getResourcesCaps(SUBORG_ID), caps);
+
+    verify(distributedResourcesDao).get(SUBORG_ID);
+  }
+
+  @Test
+  public void shouldReturnEmptyCapsWhenSuborganizationIsNotCapped() throws Exception {
+    when(distributedResourcesDao.get(SUBORG_ID)).thenThrow(new NotFoundException("not found"));
+
+    assertTrue(hierarchy.getResourcesCaps(SUBORG_ID).isEmpty());
+    assertTrue(hierarchy.getResourcesCaps(SUBORG_ID).isEmpty());
+
+    verify(distributedResourcesDao).get(SUBORG_ID);
+  }
+
+  @Test
+  public void shouldUpdateResourcesCapsOnCappedEvent() throws Exception {
+    when(distributedResourcesDao.get(SUBORG_ID)).thenThrow(new NotFoundException("not found"));
+    hierarchy.getResourcesCaps(SUBORG_ID);
+    final List<ResourceImpl> caps = singletonList(new ResourceImpl("test", 1000, "unit"));
+
+    eventService.publish(new OrganizationResourcesCappedEvent(SUBORG_ID, caps));
+
+    assertEquals(hierarchy.getResourcesCaps(SUBORG_ID), caps);
+    verify(distributedResourcesDao).get(SUBORG_ID);
+  }
+
+  @Test
+  public void shouldRefetchSuborganizationsWhenCacheExpires() throws Exception {
+    hierarchy =
+        new OrganizationsHierarchy(organizationManager, distributedResourcesDao, eventService, 0);
+    prepareChildren(ROOT_ORG_ID);
+    assertTrue(hierarchy.getSuborganizations(ROOT_ORG_ID).isEmpty());
+
+    // suborganization created by another Che server, no local event is published
+    prepareChildren(ROOT_ORG_ID, suborganization);
+    prepareChildren(SUBORG_ID);
+
+    assertEquals(hierarchy.getSuborganizations(ROOT_ORG_ID), singletonList(SUBORG_ID));
+  }
+
+  private void prepareChildren(String parentId, OrganizationImpl... children) throws Exception {
+    doReturn(new Page<>(asList(children), 0, 30, children.length))
+        .when(organizationManager)
+        .getByParent(eq(parentId), anyInt(), anyLong());
+  }
+}
@@ -25,8 +25,6 @@ import java.util.List;
 import javax.inject.Provider;
 import org.eclipse.che.account.api.AccountManager;
 import org.eclipse.che.account.shared.model.Account;
-import org.eclipse.che.multiuser.organization.api.OrganizationManager;
-import org.eclipse.che.multiuser.organization.shared.model.Organization;
 import org.eclipse.che.multiuser.organization.spi.impl.OrganizationImpl;
 import org.eclipse.che.multiuser.resource.api.usage.ResourceManager;
 import org.eclipse.che.multiuser.resource.model.ProvidedResources;
@@ -47,10 +45,9 @@ import org.testng.annotations.Test;
 @Listeners(MockitoTestNGListener.class)
 public class SuborganizationResourcesProviderTest {
   @Mock private Account account;
-  @Mock private Organization organization;
 
   @Mock private AccountManager accountManager;
-  @Mock private OrganizationManager organizationManager;
+  @Mock private OrganizationsHierarchy organizationsHierarchy;
   @Mock private OrganizationResourcesDistributor resourcesDistributor;
   @Mock private Provider<OrganizationResourcesDistributor> distributorProvider;
   @Mock private Provider<ResourceManager> resourceManagerProvider;
@@ -61,7 +58,6 @@ public class SuborganizationResourcesProviderTest {
   @BeforeMethod
   public void setUp() throws Exception {
     when(accountManager.getById(any())).thenReturn(account);
-    when(organizationManager.getById(any())).thenReturn(organization);
 
     when(distributorProvider.get()).thenReturn(resourcesDistributor);
 
@@ -69,7 +65,7 @@ public class SuborganizationResourcesProviderTest {
 
     suborganizationResourcesProvider =
         new SuborganizationResourcesProvider(
-            accountManager, organizationManager, distributorProvider, resourceManagerProvider);
+            accountManager, organizationsHierarchy, distributorProvider, resourceManagerProvider);
   }
 
   @Test
@@ -90,7 +86,7 @@ public class SuborganizationResourcesProviderTest {
   public void shouldNotProvideResourcesForRootOrganizationalAccount() throws Exception {
     // given
     when(account.getType()).thenReturn(OrganizationImpl.ORGANIZATIONAL_ACCOUNT);
-    when(organization.getParent()).thenReturn(null);
+    when(organizationsHierarchy.getParent("organization123")).thenReturn(null);
 
     // when
     final List<ProvidedResources> providedResources =
@@ -99,14 +95,14 @@ public class SuborganizationResourcesProviderTest {
     // then
     assertTrue(providedResources.isEmpty());
     verify(accountManager).getById("organization123");
-    verify(organizationManager).getById("organization123");
+    verify(organizationsHierarchy).getParent("organization123");
   }
 
   @Test
   public void shouldProvideResourcesForSuborganizationalAccount() throws Exception {
     // given
     when(account.getType()).thenReturn(OrganizationImpl.ORGANIZATIONAL_ACCOUNT);
-    when(organization.getParent()).thenReturn("parentOrg");
+    when(organizationsHierarchy.getParent("organization123")).thenReturn("parentOrg");
     final ResourceImpl parentNotCapedResource = new ResourceImpl("test", 1234, "unit");
     final ResourceImpl parentCapedResource = new ResourceImpl("caped", 20, "unit");
     final ResourceImpl parentUnlimitedCapedResource = new ResourceImpl("unlimited", -1, "unit");
@@ -136,7 +132,7 @@ public class SuborganizationResourcesProviderTest {
             -1L,
             asList(parentNotCapedResource, capedResourceCap, unlimitedCapedResourceCap)));
     verify(accountManager).getById("organization123");
-    verify(organizationManager).getById("organization123");
+    verify(organizationsHierarchy).getParent("organization123");
     verify(resourcesDistributor).getResourcesCaps("organization123");
     verify(resourceManager).getTotalResources("parentOrg");
   }
@@ -146,7 +142,7 @@ public class SuborganizationResourcesProviderTest {
       throws Exception {
     // given
     when(account.getType()).thenReturn(OrganizationImpl.ORGANIZATIONAL_ACCOUNT);
-    when(organization.getParent()).thenReturn("parentOrg");
+    when(organizationsHierarchy.getParent("organization123")).thenReturn("parentOrg");
     doReturn(emptyList()).when(resourcesDistributor).getResourcesCaps(any());
     doReturn(emptyList()).when(resourceManager).getAvailableResources(anyString());
 
@@ -157,7 +153,7 @@ public class SuborganizationResourcesProviderTest {
     // then
     assertTrue(providedResources.isEmpty());
     verify(accountManager).getById("organization123");
-    verify(organizationManager).getById("organization123");
+    verify(organizationsHierarchy).getParent("organization123");
     verify(resourcesDistributor, never()).getResourcesCaps("organization123");
     verify(resourceManager).getTotalResources("parentOrg");
   }
@@ -37,6 +37,7 @@ import org.eclipse.che.api.core.Page;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.multiuser.api.permission.server.event.PermissionsUpdatedEvent;
 import org.eclipse.che.multiuser.api.permission.server.model.impl.AbstractPermissions;
 import org.eclipse.che.multiuser.api.permission.server.spi.PermissionsDao;
 import org.eclipse.che.multiuser.api.permission.shared.dto.PermissionsDto;
@@ -102,6 +103,34 @@ public class PermissionsManagerTest {
                     permissions.getUserId(), permissions.getDomainId(), permissions.getActions()));
   }
 
+  @Test
+  public void shouldPublishUpdatedEventWhenActionsOfExistingPermissionsChange() throws Exception {
+    final TestPermissionsImpl permissions =
+        new TestPermissionsImpl("user", "test", "test123", asList("read", SET_PERMISSIONS));
+    when(permissionsDao.store(any(TestPermissionsImpl.class)))
+        .thenReturn(
+            Optional.of(
+                new TestPermissionsImpl("user", "test", "test123", singletonList(SET_PERMISSIONS))));
+
+    permissionsManager.storePermission(permissions);
+
+    verify(eventService).publish(any(PermissionsUpdatedEvent.class));
+  }
+
+  @Test
+  public void shouldNotPublishEventWhenActionsOfExistingPermissionsDoNotChange() throws Exception {
+    final TestPermissionsImpl permissions =
+        new TestPermissionsImpl("user", "test", "test123", singletonList(SET_PERMISSIONS));
+    when(permissionsDao.store(any(TestPermissionsImpl.class)))
+        .thenReturn(
+            Optional.of(
+                new TestPermissionsImpl("user", "test", "test123", singletonList(SET_PERMISSIONS))));
+
+    permissionsManager.storePermission(permissions);
+
+    verify(eventService, never()).publish(any());
+  }
+
   @Test(
     expectedExceptions = ConflictException.class,
     expectedExceptionsMessageRegExp =
@@ -99,6 +99,9 @@ public class ResourceManager {
   /**
    * Returns list of resources which are used by given account.
    *
+   * <p>Resources reserved by the account with {@link ResourcesReservations} are considered as
+   * used by the usage trackers.
+   *
    * @param accountId id of account
    * @return list of resources which are used by given account
    * @throws NotFoundException when account with specified id was not found
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.resource.api.usage;
+
+import static java.util.Collections.emptyList;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import javax.inject.Singleton;
+import org.eclipse.che.commons.lang.concurrent.Unlocker;
+import org.eclipse.che.multiuser.resource.model.Resource;
+import org.eclipse.che.multiuser.resource.spi.impl.ResourceImpl;
+
+/**
+ * Keeps resources which are reserved by accounts for operations in progress.
+ *
+ * <p>Reserved resources are considered as used by usage trackers, so resources can be checked and
+ * reserved under {@link ResourcesLocks} and the operation which consumes them can be performed
+ * without holding the lock. When a tracker records the usage caused by the operation it {@link
+ * #consume consumes} the corresponding part of the reservation in the same atomic step, so the
+ * resources are never counted both as reserved and as used. What is left of the reservation is
+ * released when the operation finishes.
+ *
+ * <pre>
+ * try (Unlocker u = resourcesReservations.reserve("account123", resources)) {
+ *    // perform operation which uses reserved resources here
+ * }
+ * </pre>
+ */
+@Singleton
+public class ResourcesReservations {
+
+  private final Map<String, List<Reservation>> reservations = new HashMap<>();
+
+  /**
+   * Reserves the given resources for the given account. The reservation belongs to the operation
+   * performed by the current thread.
+   *
+   * @param accountId account id to reserve resources for
+   * @param resources resources to reserve
+   * @return reservation which releases the resources when unlocked
+   */
+  public synchronized Unlocker reserve(String accountId, List<? extends Resource> resources) {
+    final Reservation reservation = new Reservation(accountId, Thread.currentThread(), resources);
+    reservations.computeIfAbsent(accountId, id -> new ArrayList<>()).add(reservation);
+    return reservation;
+  }
+
+  /**
+   * Returns resources reserved by the given account, the same resource type may be present a few
+   * times.
+   *
+   * @param accountId account id
+   */
+  public synchronized List<Resource> getReservedResources(String accountId) {
+    final List<Resource> reserved = new ArrayList<>();
+    for (Reservation reservation : reservations.getOrDefault(accountId, emptyList())) {
+      for (Resource resource : reservation.resources) {
+        if (resource.getAmount() > 0) {
+          reserved.add(resource);
+        }
+      }
+    }
+    return reserved;
+  }
+
+  /**
+   * Returns the amount of the given resource type reserved by the given account.
+   *
+   * @param accountId account id
+   * @param resourceType type of resource
+   */
+  public synchronized long getReservedAmount(String accountId, String resourceType) {
+    long amount = 0;
+    for (Reservation reservation : reservations.getOrDefault(accountId, emptyList())) {
+      for (Resource resource : reservation.resources) {
+        if (resourceType.equals(resource.getType())) {
+          amount += resource.getAmount();
+        }
+      }
+    }
+    return amount;
+  }
+
+  /**
+   * Takes the given amount of the resource out of the reservations which belong to the operation
+   * performed by the current thread, as the resource is recorded as used from now on.
+   *
+   * <p>Workspace events are published synchronously by the thread which performs the reserved
+   * operation, so the usage recorded on such an event is matched with its reservation exactly.
+   * Usage recorded by any other thread doesn't affect reservations, they are released when the
+   * operation finishes.
+   *
+   * @param accountId account id
+   * @param resourceType type of used resource
+   * @param amount used amount
+   */
+  public synchronized void consume(String accountId, String resourceType, long amount) {
+    final Thread current = Thread.currentThread();
+    for (Reservation reservation : reservations.getOrDefault(accountId, emptyList())) {
+      if (amount <= 0) {
+        return;
+      }
+      if (reservation.owner != current) {
+        continue;
+      }
+      final ListIterator<Resource> it = reservation.resources.listIterator();
+      while (it.hasNext() && amount > 0) {
+        final Resource resource = it.next();
+        if (resourceType.equals(resource.getType()) && resource.getAmount() > 0) {
+          final long consumed = Math.min(amount, resource.getAmount());
+          it.set(
+              new ResourceImpl(
+                  resource.getType(), resource.getAmount() - consumed, resource.getUnit()));
+          amount -= consumed;
+        }
+      }
+    }
+  }
+
+  private synchronized void release(Reservation reservation) {
+    final List<Reservation> accountReservations = reservations.get(reservation.accountId);
+    if (accountReservations != null
+        && accountReservations.remove(reservation)
+        && accountReservations.isEmpty()) {
+      reservations.remove(reservation.accountId);
+    }
+  }
+
+  private final class Reservation implements Unlocker {
+    private final String accountId;
+    private final Thread owner;
+    /** Resources which are not consumed yet, guarded by the reservations. */
+    private final List<Resource> resources;
+
+    private Reservation(String accountId, Thread owner, List<? extends Resource> resources) {
+      this.accountId = accountId;
+      this.owner = owner;
+      this.resources = new ArrayList<>(resources);
+    }
+
+    @Override
+    public void unlock() {
+      release(this);
+    }
+  }
+}
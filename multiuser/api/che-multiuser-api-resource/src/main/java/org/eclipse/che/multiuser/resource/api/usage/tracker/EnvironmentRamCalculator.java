@@ -13,14 +13,27 @@ package org.eclipse.che.multiuser.resource.api.usage.tracker;
 import static java.lang.String.format;
 import static org.eclipse.che.api.core.model.workspace.config.MachineConfig.MEMORY_LIMIT_ATTRIBUTE;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.ValidationException;
 import org.eclipse.che.api.core.model.workspace.Runtime;
 import org.eclipse.che.api.core.model.workspace.config.Environment;
 import org.eclipse.che.api.core.model.workspace.config.MachineConfig;
+import org.eclipse.che.api.core.model.workspace.config.Recipe;
 import org.eclipse.che.api.workspace.server.spi.InfrastructureException;
 import org.eclipse.che.api.workspace.server.spi.environment.InternalEnvironment;
 import org.eclipse.che.api.workspace.server.spi.environment.InternalEnvironmentFactory;
@@ -28,17 +41,32 @@ import org.eclipse.che.api.workspace.server.spi.environment.InternalEnvironmentF
 /**
  * Helps to calculate amount of RAM defined in {@link Environment environment}
  *
+ * <p>RAM of environments is cached by a hash of the recipe and machines configuration, so the same
+ * environment is parsed only once for all the limits checks and resources usage calculations.
+ *
  * @author Sergii Leschenko
  * @author Anton Korneta
  */
+@Singleton
 public class EnvironmentRamCalculator {
   private static final long BYTES_TO_MEGABYTES_DIVIDER = 1024L * 1024L;
 
   private final Map<String, InternalEnvironmentFactory> environmentFactories;
+  private final Cache<HashCode, Long> environmentsRam;
 
   @Inject
-  public EnvironmentRamCalculator(Map<String, InternalEnvironmentFactory> environmentFactories) {
+  public EnvironmentRamCalculator(
+      Map<String, InternalEnvironmentFactory> environmentFactories,
+      @Named("che.limits.workspace.env.ram_cache.max_size") long cacheMaxSize,
+      @Named("che.limits.workspace.env.ram_cache.expire_after_write_sec")
+          long cacheExpireAfterWriteSec) {
     this.environmentFactories = environmentFactories;
+    this.environmentsRam =
+        CacheBuilder.newBuilder()
+            .maximumSize(cacheMaxSize)
+            .expireAfterWrite(cacheExpireAfterWriteSec, TimeUnit.SECONDS)
+            .recordStats()
+            .build();
   }
 
   /**
@@ -46,6 +74,22 @@ public class EnvironmentRamCalculator {
    * environment in megabytes.
    */
   public long calculate(Environment environment) throws ServerException {
+    final HashCode key = hash(environment);
+    final Long cached = environmentsRam.getIfPresent(key);
+    if (cached != null) {
+      return cached;
+    }
+    final long ram = calculateInternal(environment);
+    environmentsRam.put(key, ram);
+    return ram;
+  }
+
+  /** Returns statistics of hits and misses of environments RAM cache. */
+  public CacheStats getCacheStats() {
+    return environmentsRam.stats();
+  }
+
+  private long calculateInternal(Environment environment) throws ServerException {
     try {
       return getInternalEnvironment(environment)
               .getMachines()
@@ -95,6 +139,44 @@ public class EnvironmentRamCalculator {
     }
   }
 
+  /**
+   * Hashes everything RAM of environment may depend on: recipe and machines attributes and
+   * installers. Servers, volumes and environment variables don't affect RAM.
+   */
+  private static HashCode hash(Environment environment) {
+    final Hasher hasher = Hashing.sha256().newHasher();
+    final Recipe recipe = environment.getRecipe();
+    putString(hasher, recipe.getType());
+    putString(hasher, recipe.getContentType());
+    putString(hasher, recipe.getContent());
+    putString(hasher, recipe.getLocation());
+    for (Map.Entry<String, ? extends MachineConfig> machineEntry :
+        new TreeMap<>(environment.getMachines()).entrySet()) {
+      final MachineConfig machine = machineEntry.getValue();
+      putString(hasher, machineEntry.getKey());
+      final List<String> installers = machine.getInstallers();
+      hasher.putInt(installers.size());
+      installers.forEach(installer -> putString(hasher, installer));
+      final Map<String, String> attributes = new TreeMap<>(machine.getAttributes());
+      hasher.putInt(attributes.size());
+      attributes.forEach(
+          (name, value) -> {
+            putString(hasher, name);
+            putString(hasher, value);
+          });
+    }
+    return hasher.hash();
+  }
+
+  /** Puts nullable string to the hasher, so adjacent strings can't be mixed up. */
+  private static void putString(Hasher hasher, String value) {
+    if (value == null) {
+      hasher.putInt(-1);
+    } else {
+      hasher.putInt(value.length()).putString(value, StandardCharsets.UTF_8);
+    }
+  }
+
   private InternalEnvironment getInternalEnvironment(Environment environment)
       throws InfrastructureException, ValidationException, NotFoundException {
     final String recipeType = environment.getRecipe().getType();
@@ -0,0 +1,368 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.resource.api.usage.tracker;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import org.eclipse.che.account.shared.model.Account;
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.Pages;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.model.workspace.Workspace;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.workspace.server.WorkspaceManager;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
+import org.eclipse.che.api.workspace.shared.dto.event.WorkspaceStatusEvent;
+import org.eclipse.che.api.workspace.shared.event.WorkspaceCreatedEvent;
+import org.eclipse.che.api.workspace.shared.event.WorkspaceRemovedEvent;
+import org.eclipse.che.commons.schedule.ScheduleDelay;
+import org.eclipse.che.multiuser.resource.api.usage.ResourcesReservations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps usage of workspace related resources per namespace and updates it incrementally on
+ * workspace events, so checking of used resources doesn't go through all the namespace workspaces
+ * each time.
+ *
+ * <p>Usage of a resource in a namespace is calculated with a full scan of the namespace workspaces
+ * on the first request, after that it is updated by {@link WorkspaceCreatedEvent}, {@link
+ * WorkspaceRemovedEvent} and {@link WorkspaceStatusEvent}. Usage which was not requested since the
+ * previous reconciliation is dropped.
+ *
+ * <p>The ledger is kept by each Che Server instance on its own, instances neither share it nor
+ * synchronize it with each other. Events of workspaces which are created, started or stopped by
+ * other instances are not visible here, such changes are caught only by the periodic
+ * reconciliation, which recalculates the kept usage with full scans of the database. Until then
+ * limits checks on this instance see the usage as it was at the previous reconciliation, so in a
+ * deployment with several instances an account may exceed its limits by the workspaces started on
+ * other instances within one reconciliation period. The period is configured with {@code
+ * che.limits.usage_ledger.reconciliation_period_s}.
+ *
+ * <p>Resources reserved by the account with {@link ResourcesReservations} are included into the
+ * returned usage. When an event of the operation which holds the reservation is recorded, the
+ * recorded amount is consumed from the reservation under the same lock the usage is read with, so
+ * the kept usage never counts the resources twice.
+ */
+@Singleton
+public class ResourceUsageLedger {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ResourceUsageLedger.class);
+
+  private final Provider<WorkspaceManager> workspaceManagerProvider;
+  private final EventService eventService;
+  private final ResourcesReservations resourcesReservations;
+  private final ConcurrentMap<String, NamespaceUsage> namespaces;
+  /** Namespaces of the workspaces whose usage is kept, used for resolving status events. */
+  private final ConcurrentMap<String, String> workspacesNamespaces;
+  /** Number of full scans in progress. */
+  private final AtomicInteger scans;
+
+  private final EventSubscriber<WorkspaceCreatedEvent> createdEventsSubscriber;
+  private final EventSubscriber<WorkspaceRemovedEvent> removedEventsSubscriber;
+  private final EventSubscriber<WorkspaceStatusEvent> statusEventsSubscriber;
+
+  @Inject
+  public ResourceUsageLedger(
+      Provider<WorkspaceManager> workspaceManagerProvider,
+      EventService eventService,
+      ResourcesReservations resourcesReservations) {
+    this.workspaceManagerProvider = workspaceManagerProvider;
+    this.eventService = eventService;
+    this.resourcesReservations = resourcesReservations;
+    this.namespaces = new ConcurrentHashMap<>();
+    this.workspacesNamespaces = new ConcurrentHashMap<>();
+    this.scans = new AtomicInteger();
+    this.createdEventsSubscriber = event -> onWorkspaceChanged(event.getWorkspace());
+    this.removedEventsSubscriber = event -> onWorkspaceRemoved(event.getWorkspace());
+    this.statusEventsSubscriber = event -> onStatusChanged(event.getWorkspaceId());
+  }
+
+  @VisibleForTesting
+  @PostConstruct
+  void subscribe() {
+    eventService.subscribe(createdEventsSubscriber, WorkspaceCreatedEvent.class);
+    eventService.subscribe(removedEventsSubscriber, WorkspaceRemovedEvent.class);
+    eventService.subscribe(statusEventsSubscriber, WorkspaceStatusEvent.class);
+  }
+
+  @PreDestroy
+  private void unsubscribe() {
+    eventService.unsubscribe(createdEventsSubscriber, WorkspaceCreatedEvent.class);
+    eventService.unsubscribe(removedEventsSubscriber, WorkspaceRemovedEvent.class);
+    eventService.unsubscribe(statusEventsSubscriber, WorkspaceStatusEvent.class);
+  }
+
+  /**
+   * Returns used and reserved amount of the given resource in the namespace of the given account.
+   *
+   * @param account account whose namespace workspaces use the resource
+   * @param resourceType type of resource, usage of each type is kept separately
+   * @param includeRuntimes whether workspaces should be fetched with runtimes for a full scan
+   * @param calculator calculates amount of resource used by a single workspace, it must return the
+   *     same result for the same resource type
+   * @throws ServerException when any other error occurs during full scan
+   */
+  public long getUsed(
+      Account account, String resourceType, boolean includeRuntimes, UsageCalculator calculator)
+      throws ServerException {
+    final NamespaceUsage namespaceUsage = namespaces.get(account.getName());
+    if (namespaceUsage != null) {
+      synchronized (namespaceUsage) {
+        final Usage usage = namespaceUsage.usages.get(resourceType);
+        if (usage != null) {
+          usage.requested = true;
+          return usage.total
+              + resourcesReservations.getReservedAmount(account.getId(), resourceType);
+        }
+      }
+    }
+    // reservation is released only after the workspaces show the consumed resources,
+    // so reading it before the scan may count the resources twice, but never misses them
+    final long reserved = resourcesReservations.getReservedAmount(account.getId(), resourceType);
+    final Usage usage = new Usage(resourceType, includeRuntimes, calculator);
+    usage.requested = true;
+    return scan(account.getName(), account.getId(), resourceType, usage).total + reserved;
+  }
+
+  /**
+   * Recalculates all the kept usage with full scans and drops usage which was not requested since
+   * the previous reconciliation.
+   */
+  @ScheduleDelay(
+    initialDelayParameterName = "che.limits.usage_ledger.reconciliation_period_s",
+    delayParameterName = "che.limits.usage_ledger.reconciliation_period_s"
+  )
+  public void reconcile() {
+    for (Map.Entry<String, NamespaceUsage> namespaceEntry : namespaces.entrySet()) {
+      final String namespace = namespaceEntry.getKey();
+      final NamespaceUsage namespaceUsage = namespaceEntry.getValue();
+      final Map<String, Usage> toRescan = new HashMap<>();
+      synchronized (namespaceUsage) {
+        namespaceUsage.usages.values().removeIf(usage -> !usage.requested);
+        if (namespaceUsage.usages.isEmpty()) {
+          drop(namespace, namespaceUsage);
+          continue;
+        }
+        for (Map.Entry<String, Usage> usageEntry : namespaceUsage.usages.entrySet()) {
+          usageEntry.getValue().requested = false;
+          toRescan.put(usageEntry.getKey(), usageEntry.getValue());
+        }
+      }
+      for (Map.Entry<String, Usage> usageEntry : toRescan.entrySet()) {
+        final Usage kept = usageEntry.getValue();
+        try {
+          final Usage rescanned =
+              new Usage(usageEntry.getKey(), kept.includeRuntimes, kept.calculator);
+          final Usage scanned =
+              scan(namespace, namespaceUsage.accountId, usageEntry.getKey(), rescanned);
+          if (scanned.total != kept.total) {
+            LOG.debug(
+                "Usage of resource '{}' in namespace '{}' reconciled from {} to {}",
+                usageEntry.getKey(),
+                namespace,
+                kept.total,
+                scanned.total);
+          }
+        } catch (ServerException e) {
+          LOG.error(e.getLocalizedMessage(), e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Calculates usage with a full scan of namespace workspaces and keeps it when no workspace of
+   * the namespace changed during the scan.
+   */
+  private Usage scan(String namespace, String accountId, String resourceType, Usage usage)
+      throws ServerException {
+    final NamespaceUsage namespaceUsage =
+        namespaces.computeIfAbsent(namespace, ns -> new NamespaceUsage(accountId));
+    scans.incrementAndGet();
+    try {
+      final long modCount;
+      synchronized (namespaceUsage) {
+        modCount = namespaceUsage.modCount;
+      }
+      final List<WorkspaceImpl> workspaces =
+          Pages.stream(
+                  (maxItems, skipCount) ->
+                      workspaceManagerProvider
+                          .get()
+                          .getByNamespace(namespace, usage.includeRuntimes, maxItems, skipCount))
+              .collect(Collectors.toList());
+      for (WorkspaceImpl workspace : workspaces) {
+        usage.put(workspace.getId(), usage.calculator.calculate(workspace));
+      }
+      synchronized (namespaceUsage) {
+        if (namespaceUsage.modCount == modCount && namespaces.get(namespace) == namespaceUsage) {
+          namespaceUsage.usages.put(resourceType, usage);
+          for (WorkspaceImpl workspace : workspaces) {
+            workspacesNamespaces.put(workspace.getId(), namespace);
+          }
+        }
+      }
+      return usage;
+    } finally {
+      scans.decrementAndGet();
+    }
+  }
+
+  private void onWorkspaceChanged(Workspace workspace) {
+    final NamespaceUsage namespaceUsage = namespaces.get(workspace.getNamespace());
+    if (namespaceUsage == null) {
+      return;
+    }
+    final List<Usage> usages;
+    synchronized (namespaceUsage) {
+      // scans which are in progress may have seen the workspace before the change
+      namespaceUsage.modCount++;
+      usages = new ArrayList<>(namespaceUsage.usages.values());
+    }
+    final Map<Usage, Long> amounts = new HashMap<>();
+    try {
+      for (Usage usage : usages) {
+        amounts.put(usage, usage.calculator.calculate(workspace));
+      }
+    } catch (ServerException e) {
+      LOG.error(e.getLocalizedMessage(), e);
+      drop(workspace.getNamespace(), namespaceUsage);
+      return;
+    }
+    synchronized (namespaceUsage) {
+      namespaceUsage.modCount++;
+      for (Map.Entry<Usage, Long> amountEntry : amounts.entrySet()) {
+        final Usage usage = amountEntry.getKey();
+        final long amount = amountEntry.getValue();
+        usage.put(workspace.getId(), amount);
+        if (amount > 0) {
+          // the event may be published by the operation which reserved the resource
+          resourcesReservations.consume(namespaceUsage.accountId, usage.resourceType, amount);
+        }
+      }
+      workspacesNamespaces.put(workspace.getId(), workspace.getNamespace());
+    }
+  }
+
+  private void onWorkspaceRemoved(Workspace workspace) {
+    onWorkspaceRemoved(workspace.getId(), workspace.getNamespace());
+  }
+
+  private void onWorkspaceRemoved(String workspaceId, String namespace) {
+    workspacesNamespaces.remove(workspaceId);
+    final NamespaceUsage namespaceUsage = namespaces.get(namespace);
+    if (namespaceUsage != null) {
+      synchronized (namespaceUsage) {
+        namespaceUsage.modCount++;
+        for (Usage usage : namespaceUsage.usages.values()) {
+          usage.put(workspaceId, 0);
+        }
+      }
+    }
+  }
+
+  private void onStatusChanged(String workspaceId) {
+    final String namespace = workspacesNamespaces.get(workspaceId);
+    if (namespace == null && scans.get() == 0) {
+      // usage of the workspace namespace is not kept
+      return;
+    }
+    final WorkspaceImpl workspace;
+    try {
+      workspace = workspaceManagerProvider.get().getWorkspace(workspaceId);
+    } catch (NotFoundException e) {
+      if (namespace != null) {
+        onWorkspaceRemoved(workspaceId, namespace);
+      }
+      return;
+    } catch (ServerException e) {
+      LOG.error(e.getLocalizedMessage(), e);
+      if (namespace != null) {
+        final NamespaceUsage namespaceUsage = namespaces.get(namespace);
+        if (namespaceUsage != null) {
+          drop(namespace, namespaceUsage);
+        }
+      }
+      return;
+    }
+    onWorkspaceChanged(workspace);
+  }
+
+  /** Drops usage of the namespace, so it is calculated with a full scan on the next request. */
+  private void drop(String namespace, NamespaceUsage namespaceUsage) {
+    if (namespaces.remove(namespace, namespaceUsage)) {
+      workspacesNamespaces.values().removeIf(namespace::equals);
+    }
+  }
+
+  /** Calculates amount of resource used by a single workspace. */
+  @FunctionalInterface
+  public interface UsageCalculator {
+    long calculate(Workspace workspace) throws ServerException;
+  }
+
+  private static final class NamespaceUsage {
+    private final String accountId;
+    /** Resource type -> usage, guarded by this. */
+    private final Map<String, Usage> usages = new HashMap<>();
+    /** Incremented on each change of namespace workspaces, guarded by this. */
+    private long modCount;
+
+    private NamespaceUsage(String accountId) {
+      this.accountId = accountId;
+    }
+  }
+
+  private static final class Usage {
+    private final String resourceType;
+    private final boolean includeRuntimes;
+    private final UsageCalculator calculator;
+    /** Workspace id -> used amount, only workspaces which use the resource are present. */
+    private final Map<String, Long> amounts = new HashMap<>();
+
+    private long total;
+    private boolean requested;
+
+    private Usage(String resourceType, boolean includeRuntimes, UsageCalculator calculator) {
+      this.resourceType = resourceType;
+      this.includeRuntimes = includeRuntimes;
+      this.calculator = calculator;
+    }
+
+    /** Sets amount used by the workspace, non positive amount removes the workspace. */
+    private void put(String workspaceId, long amount) {
+      final Long previous;
+      if (amount > 0) {
+        previous = amounts.put(workspaceId, amount);
+        total += amount;
+      } else {
+        previous = amounts.remove(workspaceId);
+      }
+      if (previous != null) {
+        total -= previous;
+      }
+    }
+  }
+}
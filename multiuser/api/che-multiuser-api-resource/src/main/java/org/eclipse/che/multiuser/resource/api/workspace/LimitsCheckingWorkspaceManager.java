@@ -12,6 +12,7 @@ package org.eclipse.che.multiuser.resource.api.workspace;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static java.lang.String.format;
+import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -45,6 +46,7 @@ import org.eclipse.che.multiuser.resource.api.type.RuntimeResourceType;
 import org.eclipse.che.multiuser.resource.api.type.WorkspaceResourceType;
 import org.eclipse.che.multiuser.resource.api.usage.ResourceManager;
 import org.eclipse.che.multiuser.resource.api.usage.ResourcesLocks;
+import org.eclipse.che.multiuser.resource.api.usage.ResourcesReservations;
 import org.eclipse.che.multiuser.resource.api.usage.tracker.EnvironmentRamCalculator;
 import org.eclipse.che.multiuser.resource.model.Resource;
 import org.eclipse.che.multiuser.resource.spi.impl.ResourceImpl;
@@ -54,6 +56,11 @@ import org.eclipse.che.multiuser.resource.spi.impl.ResourceImpl;
  * Doesn't contain any logic related to start/stop or any kind of operations different from limits
  * checks.
  *
+ * <p>Resources are checked under {@link ResourcesLocks} of the account. By default the lock is held
+ * until the operation finishes. When reservation mode is enabled the checked resources are reserved
+ * with {@link ResourcesReservations} and the lock is held only while checking and reserving them,
+ * so long operations like workspace start don't block other operations of the same account.
+ *
  * @author Yevhenii Voevodin
  * @author Igor Vinokur
  * @author Sergii Leschenko
@@ -64,9 +71,11 @@ public class LimitsCheckingWorkspaceManager extends WorkspaceManager {
   private final EnvironmentRamCalculator environmentRamCalculator;
   private final ResourceManager resourceManager;
   private final ResourcesLocks resourcesLocks;
+  private final ResourcesReservations resourcesReservations;
   private final AccountManager accountManager;
 
   private final long maxRamPerEnvMB;
+  private final boolean reservationMode;
 
   @Inject
   public LimitsCheckingWorkspaceManager(
@@ -79,12 +88,16 @@ public class LimitsCheckingWorkspaceManager extends WorkspaceManager {
       @Named("che.limits.workspace.env.ram") String maxRamPerEnv,
       EnvironmentRamCalculator environmentRamCalculator,
       ResourceManager resourceManager,
-      ResourcesLocks resourcesLocks) {
+      ResourcesLocks resourcesLocks,
+      ResourcesReservations resourcesReservations,
+      @Named("che.limits.resources_reservation.enabled") boolean reservationMode) {
     super(workspaceDao, runtimes, eventService, accountManager, workspaceValidator);
     this.environmentRamCalculator = environmentRamCalculator;
     this.maxRamPerEnvMB = "-1".equals(maxRamPerEnv) ? -1 : Size.parseSizeToMegabytes(maxRamPerEnv);
     this.resourceManager = resourceManager;
     this.resourcesLocks = resourcesLocks;
+    this.resourcesReservations = resourcesReservations;
+    this.reservationMode = reservationMode;
     this.accountManager = accountManager;
   }
 
@@ -95,9 +108,9 @@ public class LimitsCheckingWorkspaceManager extends WorkspaceManager {
     checkMaxEnvironmentRam(config);
     String accountId = accountManager.getByName(namespace).getId();
     try (@SuppressWarnings("unused")
-        Unlocker u = resourcesLocks.lock(accountId)) {
-      checkWorkspaceResourceAvailability(accountId);
-
+        Unlocker u =
+            acquireResources(
+                accountId, () -> singletonList(checkWorkspaceResourceAvailability(accountId)))) {
       return super.createWorkspace(config, namespace, attributes);
     }
   }
@@ -108,13 +121,17 @@ public class LimitsCheckingWorkspaceManager extends WorkspaceManager {
       throws NotFoundException, ServerException, ConflictException {
     WorkspaceImpl workspace = this.getWorkspace(workspaceId);
     String accountId = workspace.getAccount().getId();
+    WorkspaceConfig config = workspace.getConfig();
 
     try (@SuppressWarnings("unused")
-        Unlocker u = resourcesLocks.lock(accountId)) {
-      checkRuntimeResourceAvailability(accountId);
-      checkRamResourcesAvailability(
-          accountId, workspace.getNamespace(), workspace.getConfig(), envName);
-
+        Unlocker u =
+            acquireResources(
+                accountId,
+                () ->
+                    asList(
+                        checkRuntimeResourceAvailability(accountId),
+                        checkRamResourcesAvailability(
+                            accountId, workspace.getNamespace(), config, envName)))) {
       return super.startWorkspace(workspaceId, envName, options);
     }
   }
@@ -127,11 +144,14 @@ public class LimitsCheckingWorkspaceManager extends WorkspaceManager {
 
     String accountId = accountManager.getByName(namespace).getId();
     try (@SuppressWarnings("unused")
-        Unlocker u = resourcesLocks.lock(accountId)) {
-      checkWorkspaceResourceAvailability(accountId);
-      checkRuntimeResourceAvailability(accountId);
-      checkRamResourcesAvailability(accountId, namespace, config, null);
-
+        Unlocker u =
+            acquireResources(
+                accountId,
+                () ->
+                    asList(
+                        checkWorkspaceResourceAvailability(accountId),
+                        checkRuntimeResourceAvailability(accountId),
+                        checkRamResourcesAvailability(accountId, namespace, config, null)))) {
       return super.startWorkspace(config, namespace, isTemporary, options);
     }
   }
@@ -151,6 +171,36 @@ public class LimitsCheckingWorkspaceManager extends WorkspaceManager {
     }
   }
 
+  /**
+   * Checks resources availability under the resources lock of the given account.
+   *
+   * <p>In reservation mode the checked resources are reserved and the lock is released right after
+   * the check, otherwise the lock is held until the returned unlocker is called.
+   *
+   * @param accountId account id to lock resources
+   * @param check checks resources availability and returns resources to reserve
+   * @return unlocker which releases the lock or the reservation
+   */
+  @VisibleForTesting
+  Unlocker acquireResources(String accountId, ResourcesCheck check)
+      throws NotFoundException, ServerException, ConflictException {
+    final Unlocker lock = resourcesLocks.lock(accountId);
+    if (reservationMode) {
+      try {
+        return resourcesReservations.reserve(accountId, check.check());
+      } finally {
+        lock.unlock();
+      }
+    }
+    try {
+      check.check();
+    } catch (Exception e) {
+      lock.unlock();
+      throw e;
+    }
+    return lock;
+  }
+
   @VisibleForTesting
   void checkMaxEnvironmentRam(WorkspaceConfig config) throws ServerException {
     if (maxRamPerEnvMB < 0) {
@@ -175,8 +225,13 @@ public class LimitsCheckingWorkspaceManager extends WorkspaceManager {
     }
   }
 
+  /**
+   * Checks that account has enough RAM to start the given environment.
+   *
+   * @return checked RAM resource
+   */
   @VisibleForTesting
-  void checkRamResourcesAvailability(
+  Resource checkRamResourcesAvailability(
       String accountId, String namespace, WorkspaceConfig config, @Nullable String envName)
       throws NotFoundException, ServerException, ConflictException {
 
@@ -189,6 +244,7 @@ public class LimitsCheckingWorkspaceManager extends WorkspaceManager {
             RamResourceType.UNIT);
     try {
       resourceManager.checkResourcesAvailability(accountId, singletonList(ramToUse));
+      return ramToUse;
     } catch (NoEnoughResourcesException e) {
       final Resource requiredRam =
           e.getRequiredResources().get(0); // starting of workspace requires only RAM resource
@@ -214,25 +270,36 @@ public class LimitsCheckingWorkspaceManager extends WorkspaceManager {
     }
   }
 
+  /**
+   * Checks that account can create one more workspace.
+   *
+   * @return checked workspace resource
+   */
   @VisibleForTesting
-  void checkWorkspaceResourceAvailability(String accountId)
+  Resource checkWorkspaceResourceAvailability(String accountId)
       throws NotFoundException, ServerException {
+    final Resource workspace =
+        new ResourceImpl(WorkspaceResourceType.ID, 1, WorkspaceResourceType.UNIT);
     try {
-      resourceManager.checkResourcesAvailability(
-          accountId,
-          singletonList(new ResourceImpl(WorkspaceResourceType.ID, 1, WorkspaceResourceType.UNIT)));
+      resourceManager.checkResourcesAvailability(accountId, singletonList(workspace));
+      return workspace;
     } catch (NoEnoughResourcesException e) {
       throw new LimitExceededException("You are not allowed to create more workspaces.");
     }
   }
 
+  /**
+   * Checks that account can start one more workspace.
+   *
+   * @return checked runtime resource
+   */
   @VisibleForTesting
-  void checkRuntimeResourceAvailability(String accountId)
+  Resource checkRuntimeResourceAvailability(String accountId)
       throws NotFoundException, ServerException {
+    final Resource runtime = new ResourceImpl(RuntimeResourceType.ID, 1, RuntimeResourceType.UNIT);
     try {
-      resourceManager.checkResourcesAvailability(
-          accountId,
-          singletonList(new ResourceImpl(RuntimeResourceType.ID, 1, RuntimeResourceType.UNIT)));
+      resourceManager.checkResourcesAvailability(accountId, singletonList(runtime));
+      return runtime;
     } catch (NoEnoughResourcesException e) {
       throw new LimitExceededException("You are not allowed to start more workspaces.");
     }
@@ -264,4 +331,10 @@ public class LimitsCheckingWorkspaceManager extends WorkspaceManager {
   private String printResourceInfo(Resource resource) {
     return resource.getAmount() + resource.getUnit().toUpperCase();
   }
+
+  /** Checks resources availability and returns resources which should be reserved. */
+  @FunctionalInterface
+  interface ResourcesCheck {
+    List<? extends Resource> check() throws NotFoundException, ServerException, ConflictException;
+  }
 }
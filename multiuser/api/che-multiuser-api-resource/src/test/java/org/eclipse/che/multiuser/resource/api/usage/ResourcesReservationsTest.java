@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.resource.api.usage;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.eclipse.che.commons.lang.concurrent.Unlocker;
+import org.eclipse.che.multiuser.resource.spi.impl.ResourceImpl;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests {@link ResourcesReservations}. */
+public class ResourcesReservationsTest {
+
+  private static final ResourceImpl RAM = new ResourceImpl("RAM", 1024, "mb");
+  private static final ResourceImpl RUNTIME = new ResourceImpl("runtime", 1, "item");
+
+  private ResourcesReservations reservations;
+
+  @BeforeMethod
+  public void setUp() {
+    reservations = new ResourcesReservations();
+  }
+
+  @Test
+  public void shouldReturnResourcesOfAllAccountReservations() {
+    reservations.reserve("account1", asList(RAM, RUNTIME));
+    reservations.reserve("account1", singletonList(RAM));
+    reservations.reserve("account2", singletonList(RUNTIME));
+
+    assertEquals(reservations.getReservedResources("account1"), asList(RAM, RUNTIME, RAM));
+  }
+
+  @Test
+  public void shouldReleaseOnlyUnlockedReservation() {
+    final Unlocker reservation = reservations.reserve("account1", singletonList(RAM));
+    reservations.reserve("account1", singletonList(RUNTIME));
+
+    reservation.unlock();
+    reservation.unlock();
+
+    assertEquals(reservations.getReservedResources("account1"), singletonList(RUNTIME));
+  }
+
+  @Test
+  public void shouldConsumeOnlyReservationsOfCurrentThread() throws Exception {
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      executor.submit(() -> reservations.reserve("account1", singletonList(RAM))).get();
+      reservations.reserve("account1", asList(RAM, RUNTIME));
+
+      reservations.consume("account1", "RAM", 1000);
+
+      assertEquals(reservations.getReservedAmount("account1", "RAM"), 1048);
+      assertEquals(reservations.getReservedAmount("account1", "runtime"), 1);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void shouldReleaseAllConcurrentReservations() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      final List<Callable<Void>> tasks = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        tasks.add(
+            () -> {
+              for (int j = 0; j < 1000; j++) {
+                try (Unlocker ignored = reservations.reserve("account1", singletonList(RAM))) {
+                  reservations.getReservedResources("account1");
+                }
+              }
+              return null;
+            });
+      }
+      for (Future<Void> future : executor.invokeAll(tasks)) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertTrue(reservations.getReservedResources("account1").isEmpty());
+  }
+}
@@ -12,6 +12,8 @@ package org.eclipse.che.multiuser.resource.api.usage.tracker;
 
 import static org.eclipse.che.api.core.model.workspace.config.MachineConfig.MEMORY_LIMIT_ATTRIBUTE;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 
@@ -59,7 +61,7 @@ public class EnvironmentRamCalculatorTest {
   @BeforeMethod
   public void setUp() throws Exception {
     envRamCalculator =
-        new EnvironmentRamCalculator(ImmutableMap.of(RECIPE_TYPE, environmentFactory));
+        new EnvironmentRamCalculator(ImmutableMap.of(RECIPE_TYPE, environmentFactory), 100, 60);
     when(environmentFactory.create(environment)).thenReturn(internalEnv);
     when(internalEnv.getMachines())
         .thenReturn(
@@ -97,6 +99,36 @@ public class EnvironmentRamCalculatorTest {
     assertEquals(ram, 512);
   }
 
+  @Test
+  public void testCachesRamOfEnvironmentWithTheSameRecipeAndMachines() throws Exception {
+    when(machineConfig1.getAttributes())
+        .thenReturn(ImmutableMap.of(MEMORY_LIMIT_ATTRIBUTE, "2147483648"));
+    when(machineConfig2.getAttributes())
+        .thenReturn(ImmutableMap.of(MEMORY_LIMIT_ATTRIBUTE, "536870912"));
+    when(recipeMock.getType()).thenReturn(RECIPE_TYPE);
+
+    assertEquals(envRamCalculator.calculate(environment), 2560);
+    assertEquals(envRamCalculator.calculate(environment), 2560);
+
+    verify(environmentFactory).create(environment);
+    assertEquals(envRamCalculator.getCacheStats().hitCount(), 1);
+  }
+
+  @Test
+  public void testRecalculatesRamOfEnvironmentWhenRecipeChanges() throws Exception {
+    when(machineConfig1.getAttributes())
+        .thenReturn(ImmutableMap.of(MEMORY_LIMIT_ATTRIBUTE, "2147483648"));
+    when(machineConfig2.getAttributes())
+        .thenReturn(ImmutableMap.of(MEMORY_LIMIT_ATTRIBUTE, "536870912"));
+    when(recipeMock.getType()).thenReturn(RECIPE_TYPE);
+    when(recipeMock.getContent()).thenReturn("content", "changed content");
+
+    envRamCalculator.calculate(environment);
+    envRamCalculator.calculate(environment);
+
+    verify(environmentFactory, times(2)).create(environment);
+  }
+
   @Test(expectedExceptions = ServerException.class)
   public void testThrowServerExceptionWhenNoEnvFactoryForGivenRecipeTypeFound() throws Exception {
     when(recipeMock.getType()).thenReturn("unsupported");
@@ -38,6 +38,7 @@ import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.workspace.Runtime;
 import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
 import org.eclipse.che.api.core.model.workspace.config.Environment;
+import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.workspace.server.WorkspaceManager;
 import org.eclipse.che.api.workspace.server.model.impl.EnvironmentImpl;
 import org.eclipse.che.api.workspace.server.model.impl.MachineConfigImpl;
@@ -46,8 +47,8 @@ import org.eclipse.che.api.workspace.server.model.impl.RuntimeImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceConfigImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
 import org.eclipse.che.multiuser.resource.api.type.RamResourceType;
+import org.eclipse.che.multiuser.resource.api.usage.ResourcesReservations;
 import org.eclipse.che.multiuser.resource.model.Resource;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
 import org.testng.annotations.BeforeMethod;
@@ -72,11 +73,18 @@ public class RamResourceUsageTrackerTest {
   @Mock private WorkspaceManager workspaceManager;
   @Mock private AccountManager accountManager;
   @Mock private EnvironmentRamCalculator envRamCalculator;
+  @Mock private EventService eventService;
 
-  @InjectMocks private RamResourceUsageTracker ramUsageTracker;
+  private RamResourceUsageTracker ramUsageTracker;
 
   @BeforeMethod
   public void setUp() throws Exception {
+    ramUsageTracker =
+        new RamResourceUsageTracker(
+            accountManager,
+            envRamCalculator,
+            new ResourceUsageLedger(
+                workspaceManagerProvider, eventService, new ResourcesReservations()));
     when(workspaceManagerProvider.get()).thenReturn(workspaceManager);
     when(accountManager.getById(ACCOUNT_ID)).thenReturn(account);
     when(account.getName()).thenReturn(ACCOUNT_NAME);
@@ -169,6 +177,7 @@ public class RamResourceUsageTrackerTest {
       machineConfigs.put(machineName, createMachineConfig(machineRam));
     }
     return WorkspaceImpl.builder()
+        .generateId()
         .setConfig(
             WorkspaceConfigImpl.builder()
                 .setEnvironments(
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.resource.api.usage.tracker;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.RUNNING;
+import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STARTING;
+import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STOPPED;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.inject.Provider;
+import org.eclipse.che.account.spi.AccountImpl;
+import org.eclipse.che.api.core.Page;
+import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.workspace.server.WorkspaceManager;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
+import org.eclipse.che.api.workspace.shared.dto.event.WorkspaceStatusEvent;
+import org.eclipse.che.api.workspace.shared.event.WorkspaceCreatedEvent;
+import org.eclipse.che.api.workspace.shared.event.WorkspaceRemovedEvent;
+import org.eclipse.che.commons.lang.concurrent.Unlocker;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.multiuser.resource.api.usage.ResourcesReservations;
+import org.eclipse.che.multiuser.resource.api.usage.tracker.ResourceUsageLedger.UsageCalculator;
+import org.eclipse.che.multiuser.resource.spi.impl.ResourceImpl;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests {@link ResourceUsageLedger}. */
+@Listeners(MockitoTestNGListener.class)
+public class ResourceUsageLedgerTest {
+
+  private static final String NAMESPACE = "testAccount";
+  private static final AccountImpl ACCOUNT = new AccountImpl("account123", NAMESPACE, "test");
+  private static final String RESOURCE_TYPE = "runtime";
+  private static final UsageCalculator RUNTIMES_CALCULATOR =
+      workspace -> STOPPED != workspace.getStatus() ? 1 : 0;
+  private static final ResourceImpl RUNTIME = new ResourceImpl(RESOURCE_TYPE, 1, "item");
+
+  @Mock private Provider<WorkspaceManager> workspaceManagerProvider;
+  @Mock private WorkspaceManager workspaceManager;
+
+  private EventService eventService;
+  private ResourcesReservations reservations;
+  private ResourceUsageLedger ledger;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    when(workspaceManagerProvider.get()).thenReturn(workspaceManager);
+    eventService = new EventService();
+    reservations = new ResourcesReservations();
+    ledger = new ResourceUsageLedger(workspaceManagerProvider, eventService, reservations);
+    ledger.subscribe();
+  }
+
+  @Test
+  public void shouldScanNamespaceWorkspacesOnlyOnFirstRequest() throws Exception {
+    mockWorkspaces(createWorkspace("ws1", RUNNING), createWorkspace("ws2", STOPPED));
+
+    assertEquals(getUsed(), 1);
+    assertEquals(getUsed(), 1);
+
+    verify(workspaceManager).getByNamespace(eq(NAMESPACE), eq(false), anyInt(), anyLong());
+  }
+
+  @Test
+  public void shouldUpdateUsageOnWorkspaceCreatedEvent() throws Exception {
+    mockWorkspaces(createWorkspace("ws1", STOPPED));
+    getUsed();
+
+    eventService.publish(new WorkspaceCreatedEvent(createWorkspace("ws2", RUNNING)));
+
+    assertEquals(getUsed(), 1);
+    verify(workspaceManager).getByNamespace(anyString(), anyBoolean(), anyInt(), anyLong());
+  }
+
+  @Test
+  public void shouldUpdateUsageOnWorkspaceRemovedEvent() throws Exception {
+    final WorkspaceImpl workspace = createWorkspace("ws1", RUNNING);
+    mockWorkspaces(workspace, createWorkspace("ws2", RUNNING));
+    getUsed();
+
+    eventService.publish(new WorkspaceRemovedEvent(workspace));
+
+    assertEquals(getUsed(), 1);
+    verify(workspaceManager).getByNamespace(anyString(), anyBoolean(), anyInt(), anyLong());
+  }
+
+  @Test
+  public void shouldUpdateUsageOnWorkspaceStatusEvent() throws Exception {
+    mockWorkspaces(createWorkspace("ws1", STOPPED));
+    getUsed();
+    when(workspaceManager.getWorkspace("ws1")).thenReturn(createWorkspace("ws1", RUNNING));
+
+    eventService.publish(createStatusEvent("ws1", RUNNING));
+
+    assertEquals(getUsed(), 1);
+    verify(workspaceManager).getByNamespace(anyString(), anyBoolean(), anyInt(), anyLong());
+  }
+
+  @Test
+  public void shouldIgnoreStatusEventOfWorkspaceWhoseNamespaceUsageIsNotKept() throws Exception {
+    eventService.publish(createStatusEvent("ws1", RUNNING));
+
+    verify(workspaceManager, never()).getWorkspace(anyString());
+  }
+
+  @Test
+  public void shouldNotKeepUsageWhenNamespaceWorkspacesChangeDuringScan() throws Exception {
+    mockWorkspaces(createWorkspace("ws1", RUNNING));
+
+    ledger.getUsed(
+        ACCOUNT,
+        RESOURCE_TYPE,
+        false,
+        workspace -> {
+          eventService.publish(new WorkspaceCreatedEvent(createWorkspace("ws2", RUNNING)));
+          return 1;
+        });
+    getUsed();
+
+    verify(workspaceManager, times(2))
+        .getByNamespace(anyString(), anyBoolean(), anyInt(), anyLong());
+  }
+
+  @Test
+  public void shouldRescanRequestedUsageAndDropNotRequestedOneOnReconciliation() throws Exception {
+    mockWorkspaces(createWorkspace("ws1", RUNNING));
+    getUsed();
+
+    // usage was requested, so it is rescanned
+    ledger.reconcile();
+    verify(workspaceManager, times(2))
+        .getByNamespace(anyString(), anyBoolean(), anyInt(), anyLong());
+
+    // usage was not requested since previous reconciliation, so it is dropped
+    ledger.reconcile();
+    verify(workspaceManager, times(2))
+        .getByNamespace(anyString(), anyBoolean(), anyInt(), anyLong());
+
+    assertEquals(getUsed(), 1);
+    verify(workspaceManager, times(3))
+        .getByNamespace(anyString(), anyBoolean(), anyInt(), anyLong());
+  }
+
+  @Test
+  public void shouldIncludeReservedResourcesIntoUsage() throws Exception {
+    mockWorkspaces(createWorkspace("ws1", RUNNING));
+    getUsed();
+
+    try (Unlocker ignored = reservations.reserve(ACCOUNT.getId(), singletonList(RUNTIME))) {
+      assertEquals(getUsed(), 2);
+    }
+    assertEquals(getUsed(), 1);
+  }
+
+  @Test
+  public void shouldConsumeReservationWhenUsageOfReservingOperationIsRecorded() throws Exception {
+    mockWorkspaces(createWorkspace("ws1", STOPPED));
+    getUsed();
+    when(workspaceManager.getWorkspace("ws1")).thenReturn(createWorkspace("ws1", STARTING));
+
+    try (Unlocker ignored = reservations.reserve(ACCOUNT.getId(), singletonList(RUNTIME))) {
+      eventService.publish(createStatusEvent("ws1", STARTING));
+
+      assertEquals(getUsed(), 1);
+      assertTrue(reservations.getReservedResources(ACCOUNT.getId()).isEmpty());
+    }
+  }
+
+  @Test
+  public void shouldNotConsumeReservationOfOtherOperation() throws Exception {
+    mockWorkspaces(createWorkspace("ws1", STOPPED));
+    getUsed();
+    when(workspaceManager.getWorkspace("ws1")).thenReturn(createWorkspace("ws1", STARTING));
+    final Unlocker reservation = reservations.reserve(ACCOUNT.getId(), singletonList(RUNTIME));
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    try {
+      executor.submit(() -> eventService.publish(createStatusEvent("ws1", STARTING))).get();
+
+      assertEquals(getUsed(), 2);
+    } finally {
+      executor.shutdownNow();
+      reservation.unlock();
+    }
+  }
+
+  @Test
+  public void shouldAllowTwoConcurrentStartsNearLimit() throws Exception {
+    final Map<String, WorkspaceStatus> statuses = new ConcurrentHashMap<>();
+    statuses.put("ws1", STOPPED);
+    statuses.put("ws2", STOPPED);
+    mockWorkspaces(createWorkspace("ws1", STOPPED), createWorkspace("ws2", STOPPED));
+    when(workspaceManager.getWorkspace(anyString()))
+        .thenAnswer(inv -> createWorkspace(inv.getArgument(0), statuses.get(inv.getArgument(0))));
+    final CountDownLatch firstStarted = new CountDownLatch(1);
+    final CountDownLatch secondStarted = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    try {
+      // the first start keeps its reservation until the second one is done
+      final Future<Boolean> first =
+          executor.submit(() -> start("ws1", statuses, firstStarted, secondStarted));
+      firstStarted.await(10, SECONDS);
+      final boolean second = start("ws2", statuses, secondStarted, secondStarted);
+
+      assertTrue(first.get(10, SECONDS));
+      assertTrue(second);
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(getUsed(), 2);
+    assertTrue(reservations.getReservedResources(ACCOUNT.getId()).isEmpty());
+  }
+
+  /**
+   * Starts the workspace if the limit of two runtimes allows it, the way workspace manager does it
+   * in resources reservation mode.
+   */
+  private boolean start(
+      String workspaceId,
+      Map<String, WorkspaceStatus> statuses,
+      CountDownLatch started,
+      CountDownLatch finish)
+      throws Exception {
+    final Unlocker reservation;
+    synchronized (this) {
+      if (getUsed() + 1 > 2) {
+        return false;
+      }
+      reservation = reservations.reserve(ACCOUNT.getId(), singletonList(RUNTIME));
+    }
+    try {
+      statuses.put(workspaceId, STARTING);
+      eventService.publish(createStatusEvent(workspaceId, STARTING));
+      started.countDown();
+      return finish.await(10, SECONDS);
+    } finally {
+      reservation.unlock();
+    }
+  }
+
+  private long getUsed() throws Exception {
+    return ledger.getUsed(ACCOUNT, RESOURCE_TYPE, false, RUNTIMES_CALCULATOR);
+  }
+
+  private void mockWorkspaces(WorkspaceImpl... workspaces) throws Exception {
+    when(workspaceManager.getByNamespace(anyString(), anyBoolean(), anyInt(), anyLong()))
+        .thenReturn(new Page<>(asList(workspaces), 0, workspaces.length, workspaces.length));
+  }
+
+  private static WorkspaceImpl createWorkspace(String id, WorkspaceStatus status) {
+    return WorkspaceImpl.builder()
+        .setId(id)
+        .setAccount(ACCOUNT)
+        .setStatus(status)
+        .build();
+  }
+
+  private static WorkspaceStatusEvent createStatusEvent(String id, WorkspaceStatus status) {
+    return DtoFactory.newDto(WorkspaceStatusEvent.class).withWorkspaceId(id).withStatus(status);
+  }
+}
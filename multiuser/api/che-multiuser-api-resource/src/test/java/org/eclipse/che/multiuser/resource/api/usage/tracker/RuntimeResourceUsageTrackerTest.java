@@ -33,11 +33,12 @@ import org.eclipse.che.account.shared.model.Account;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.Page;
 import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
+import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.workspace.server.WorkspaceManager;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
 import org.eclipse.che.multiuser.resource.api.type.RuntimeResourceType;
+import org.eclipse.che.multiuser.resource.api.usage.ResourcesReservations;
 import org.eclipse.che.multiuser.resource.model.Resource;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
 import org.testng.annotations.BeforeMethod;
@@ -55,11 +56,17 @@ public class RuntimeResourceUsageTrackerTest {
   @Mock private WorkspaceManager workspaceManager;
   @Mock private AccountManager accountManager;
   @Mock private Account account;
+  @Mock private EventService eventService;
 
-  @InjectMocks private RuntimeResourceUsageTracker runtimeResourceUsageTracker;
+  private RuntimeResourceUsageTracker runtimeResourceUsageTracker;
 
   @BeforeMethod
   public void setUp() throws Exception {
+    runtimeResourceUsageTracker =
+        new RuntimeResourceUsageTracker(
+            accountManager,
+            new ResourceUsageLedger(
+                workspaceManagerProvider, eventService, new ResourcesReservations()));
     when(workspaceManagerProvider.get()).thenReturn(workspaceManager);
   }
 
@@ -113,6 +120,6 @@ public class RuntimeResourceUsageTrackerTest {
 
   /** Creates users workspace object based on the status. */
   public static WorkspaceImpl createWorkspace(WorkspaceStatus status) {
-    return WorkspaceImpl.builder().setStatus(status).build();
+    return WorkspaceImpl.builder().generateId().setStatus(status).build();
   }
 }
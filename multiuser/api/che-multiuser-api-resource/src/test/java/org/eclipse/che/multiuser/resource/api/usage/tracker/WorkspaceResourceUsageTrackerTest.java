@@ -30,11 +30,12 @@ import org.eclipse.che.account.api.AccountManager;
 import org.eclipse.che.account.shared.model.Account;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.Page;
+import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.workspace.server.WorkspaceManager;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
 import org.eclipse.che.multiuser.resource.api.type.WorkspaceResourceType;
+import org.eclipse.che.multiuser.resource.api.usage.ResourcesReservations;
 import org.eclipse.che.multiuser.resource.model.Resource;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
 import org.testng.annotations.BeforeMethod;
@@ -51,11 +52,17 @@ public class WorkspaceResourceUsageTrackerTest {
   @Mock private WorkspaceManager workspaceManager;
   @Mock private AccountManager accountManager;
   @Mock private Account account;
+  @Mock private EventService eventService;
 
-  @InjectMocks private WorkspaceResourceUsageTracker workspaceResourceUsageTracker;
+  private WorkspaceResourceUsageTracker workspaceResourceUsageTracker;
 
   @BeforeMethod
   public void setUp() throws Exception {
+    workspaceResourceUsageTracker =
+        new WorkspaceResourceUsageTracker(
+            accountManager,
+            new ResourceUsageLedger(
+                workspaceManagerProvider, eventService, new ResourcesReservations()));
     when(workspaceManagerProvider.get()).thenReturn(workspaceManager);
   }
 
@@ -92,7 +99,10 @@ public class WorkspaceResourceUsageTrackerTest {
     when(workspaceManager.getByNamespace(anyString(), anyBoolean(), anyInt(), anyLong()))
         .thenReturn(
             new Page<>(
-                Arrays.asList(new WorkspaceImpl(), new WorkspaceImpl(), new WorkspaceImpl()),
+                Arrays.asList(
+                    WorkspaceImpl.builder().generateId().build(),
+                    WorkspaceImpl.builder().generateId().build(),
+                    WorkspaceImpl.builder().generateId().build()),
                 0,
                 3,
                 3));
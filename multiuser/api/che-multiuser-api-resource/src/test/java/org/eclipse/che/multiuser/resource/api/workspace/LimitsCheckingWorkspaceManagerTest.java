@@ -21,15 +21,21 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.workspace.WorkspaceConfig;
 import org.eclipse.che.api.core.model.workspace.config.Environment;
+import org.eclipse.che.commons.lang.concurrent.Unlocker;
 import org.eclipse.che.multiuser.resource.api.exception.NoEnoughResourcesException;
 import org.eclipse.che.multiuser.resource.api.type.RamResourceType;
 import org.eclipse.che.multiuser.resource.api.type.RuntimeResourceType;
 import org.eclipse.che.multiuser.resource.api.type.WorkspaceResourceType;
 import org.eclipse.che.multiuser.resource.api.usage.ResourceManager;
+import org.eclipse.che.multiuser.resource.api.usage.ResourcesLocks;
+import org.eclipse.che.multiuser.resource.api.usage.ResourcesReservations;
 import org.eclipse.che.multiuser.resource.api.usage.tracker.EnvironmentRamCalculator;
 import org.eclipse.che.multiuser.resource.spi.impl.ResourceImpl;
 import org.mockito.Mock;
@@ -50,8 +56,13 @@ public class LimitsCheckingWorkspaceManagerTest {
 
   public static final String NAMESPACE = "namespace";
   public static final String ACCOUNT_ID = "accountId";
+  private static final ResourceImpl RUNTIME =
+      new ResourceImpl(RuntimeResourceType.ID, 1, RuntimeResourceType.UNIT);
+
   @Mock private EnvironmentRamCalculator environmentRamCalculator;
   @Mock private ResourceManager resourceManager;
+  @Mock private ResourcesLocks resourcesLocks;
+  @Mock private Unlocker lock;
 
   @Test
   public void shouldUseRamOfSpecifiedEnvironmentOnCheckingAvailabilityOfRamResource()
@@ -247,6 +258,70 @@ public class LimitsCheckingWorkspaceManagerTest {
     verify(environmentRamCalculator, never()).calculate(any(Environment.class));
   }
 
+  @Test
+  public void shouldHoldResourcesLockUntilUnlockedWhenReservationModeIsDisabled()
+      throws Exception {
+    when(resourcesLocks.lock(ACCOUNT_ID)).thenReturn(lock);
+    final ResourcesReservations reservations = new ResourcesReservations();
+    final LimitsCheckingWorkspaceManager manager =
+        managerBuilder()
+            .setResourcesLocks(resourcesLocks)
+            .setResourcesReservations(reservations)
+            .build();
+
+    final Unlocker unlocker = manager.acquireResources(ACCOUNT_ID, () -> singletonList(RUNTIME));
+
+    verify(lock, never()).unlock();
+    assertTrue(reservations.getReservedResources(ACCOUNT_ID).isEmpty());
+    unlocker.unlock();
+    verify(lock).unlock();
+  }
+
+  @Test
+  public void shouldReleaseResourcesLockRightAfterReservationWhenReservationModeIsEnabled()
+      throws Exception {
+    when(resourcesLocks.lock(ACCOUNT_ID)).thenReturn(lock);
+    final ResourcesReservations reservations = new ResourcesReservations();
+    final LimitsCheckingWorkspaceManager manager =
+        managerBuilder()
+            .setResourcesLocks(resourcesLocks)
+            .setResourcesReservations(reservations)
+            .setReservationMode(true)
+            .build();
+
+    final Unlocker unlocker = manager.acquireResources(ACCOUNT_ID, () -> singletonList(RUNTIME));
+
+    verify(lock).unlock();
+    assertEquals(reservations.getReservedResources(ACCOUNT_ID), singletonList(RUNTIME));
+    unlocker.unlock();
+    assertTrue(reservations.getReservedResources(ACCOUNT_ID).isEmpty());
+  }
+
+  @Test
+  public void shouldReleaseResourcesLockWhenResourcesCheckFails() throws Exception {
+    when(resourcesLocks.lock(ACCOUNT_ID)).thenReturn(lock);
+    final ResourcesReservations reservations = new ResourcesReservations();
+    final LimitsCheckingWorkspaceManager manager =
+        managerBuilder()
+            .setResourcesLocks(resourcesLocks)
+            .setResourcesReservations(reservations)
+            .setReservationMode(true)
+            .build();
+
+    try {
+      manager.acquireResources(
+          ACCOUNT_ID,
+          () -> {
+            throw new LimitExceededException("You are not allowed to start more workspaces.");
+          });
+      fail("LimitExceededException expected");
+    } catch (LimitExceededException ignored) {
+    }
+
+    verify(lock).unlock();
+    assertTrue(reservations.getReservedResources(ACCOUNT_ID).isEmpty());
+  }
+
   private static ManagerBuilder managerBuilder() throws ServerException {
     return new ManagerBuilder();
   }
@@ -256,6 +331,9 @@ public class LimitsCheckingWorkspaceManagerTest {
     private String maxRamPerEnv;
     private EnvironmentRamCalculator environmentRamCalculator;
     private ResourceManager resourceManager;
+    private ResourcesLocks resourcesLocks;
+    private ResourcesReservations resourcesReservations;
+    private boolean reservationMode;
 
     ManagerBuilder() throws ServerException {
       maxRamPerEnv = "1gb";
@@ -272,7 +350,9 @@ public class LimitsCheckingWorkspaceManagerTest {
               maxRamPerEnv,
               environmentRamCalculator,
               resourceManager,
-              null));
+              resourcesLocks,
+              resourcesReservations,
+              reservationMode));
     }
 
     ManagerBuilder setMaxRamPerEnv(String maxRamPerEnv) {
@@ -289,5 +369,20 @@ public class LimitsCheckingWorkspaceManagerTest {
       this.resourceManager = resourceManager;
       return this;
     }
+
+    ManagerBuilder setResourcesLocks(ResourcesLocks resourcesLocks) {
+      this.resourcesLocks = resourcesLocks;
+      return this;
+    }
+
+    ManagerBuilder setResourcesReservations(ResourcesReservations resourcesReservations) {
+      this.resourcesReservations = resourcesReservations;
+      return this;
+    }
+
+    ManagerBuilder setReservationMode(boolean reservationMode) {
+      this.reservationMode = reservationMode;
+      return this;
+    }
   }
 }
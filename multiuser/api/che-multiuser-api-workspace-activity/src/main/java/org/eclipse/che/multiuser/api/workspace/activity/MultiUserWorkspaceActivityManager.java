@@ -53,8 +53,16 @@ public class MultiUserWorkspaceActivityManager extends WorkspaceActivityManager
       EventService eventService,
       AccountManager accountManager,
       ResourceManager resourceManager,
-      @Named("che.limits.workspace.idle.timeout") long defaultTimeout) {
-    super(workspaceManager, activityDao, eventService, defaultTimeout);
+      @Named("che.limits.workspace.idle.timeout") long defaultTimeout,
+      @Named("che.workspace.activity_flush_period_s") long flushPeriod,
+      @Named("che.workspace.activity_stop_parallelism") int stopParallelism) {
+    super(
+        workspaceManager,
+        activityDao,
+        eventService,
+        defaultTimeout,
+        flushPeriod,
+        stopParallelism);
     this.accountManager = accountManager;
     this.resourceManager = resourceManager;
     this.defaultTimeout = defaultTimeout;
@@ -64,7 +64,9 @@ public class MultiUserWorkspaceActivityManagerTest {
             eventService,
             accountManager,
             resourceManager,
-            DEFAULT_TIMEOUT);
+            DEFAULT_TIMEOUT,
+            0,
+            1);
 
     when(account.getName()).thenReturn("accountName");
     when(account.getId()).thenReturn("account123");
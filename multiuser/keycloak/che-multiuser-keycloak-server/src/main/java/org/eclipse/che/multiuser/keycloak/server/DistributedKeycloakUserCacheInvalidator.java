@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.keycloak.server;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.user.server.event.UserRemovedEvent;
+import org.jgroups.JChannel;
+import org.jgroups.Message;
+import org.jgroups.ReceiverAdapter;
+import org.jgroups.View;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Propagates invalidations of {@link KeycloakUserCache} between Che Servers instances.
+ *
+ * <p>Each user removal which happens on this instance is sent to other instances, so they don't
+ * keep the removed user cached. When cluster membership changes all the users are invalidated as
+ * the removals made while instances were disconnected could be missed.
+ */
+@Singleton
+public class DistributedKeycloakUserCacheInvalidator implements EventSubscriber<UserRemovedEvent> {
+
+  private static final String CHANNEL_NAME = "KeycloakUserCache";
+  private static final Logger LOG =
+      LoggerFactory.getLogger(DistributedKeycloakUserCacheInvalidator.class);
+
+  private final EventService eventService;
+  private final JChannel channel;
+
+  @Inject
+  public DistributedKeycloakUserCacheInvalidator(
+      @Named("jgroups.config.file") String confFile,
+      EventService eventService,
+      KeycloakUserCache userCache) {
+    this.eventService = eventService;
+    try {
+      channel = new JChannel(confFile);
+      channel.setDiscardOwnMessages(true);
+      channel.setReceiver(
+          new ReceiverAdapter() {
+            @Override
+            public void receive(Message msg) {
+              userCache.invalidate((String) msg.getObject());
+            }
+
+            @Override
+            public void viewAccepted(View view) {
+              userCache.invalidateAll();
+            }
+          });
+      channel.connect(CHANNEL_NAME);
+    } catch (Exception ex) {
+      throw new RuntimeException(
+          "Jgroups user cache channel creation failed. Cause :" + ex.getMessage());
+    }
+    eventService.subscribe(this);
+  }
+
+  @Override
+  public void onEvent(UserRemovedEvent event) {
+    try {
+      channel.send(new Message(null, event.getUserId()));
+    } catch (Exception ex) {
+      LOG.error("Failed to propagate user cache invalidation. Cause: {}", ex.getMessage(), ex);
+    }
+  }
+
+  /** Stops propagation of user cache invalidations. */
+  @PreDestroy
+  public void shutdown() {
+    eventService.unsubscribe(this);
+    channel.close();
+  }
+}
@@ -15,6 +15,8 @@ import com.auth0.jwk.Jwk;
 import com.auth0.jwk.JwkException;
 import com.auth0.jwk.JwkProvider;
 import com.auth0.jwk.UrlJwkProvider;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jws;
@@ -30,6 +32,7 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.security.Key;
 import java.security.PublicKey;
+import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -52,16 +55,26 @@ public class KeycloakAuthenticationFilter extends AbstractKeycloakFilter {
   private long allowedClockSkewSec;
   private RequestTokenExtractor tokenExtractor;
   private JwkProvider jwkProvider;
+  private KeycloakVerifiedTokenCache verifiedTokens;
+  /**
+   * Public keys parsed from the provider JWKs by key id, expire as the JWKs cached by {@link
+   * GuavaCachedJwkProvider} do, so rotated keys are not trusted forever.
+   */
+  private Cache<String, PublicKey> publicKeys;
 
   @Inject
   public KeycloakAuthenticationFilter(
       KeycloakSettings keycloakSettings,
       @Named(KeycloakConstants.ALLOWED_CLOCK_SKEW_SEC) long allowedClockSkewSec,
-      RequestTokenExtractor tokenExtractor)
+      RequestTokenExtractor tokenExtractor,
+      KeycloakVerifiedTokenCache verifiedTokens)
       throws MalformedURLException {
     this.jwksUrl = keycloakSettings.get().get(KeycloakConstants.JWKS_ENDPOINT_SETTING);
     this.allowedClockSkewSec = allowedClockSkewSec;
     this.tokenExtractor = tokenExtractor;
+    this.verifiedTokens = verifiedTokens;
+    this.publicKeys =
+        CacheBuilder.newBuilder().maximumSize(5).expireAfterWrite(10, TimeUnit.HOURS).build();
     if (jwksUrl != null) {
       this.jwkProvider = new GuavaCachedJwkProvider(new UrlJwkProvider(new URL(jwksUrl)));
     }
@@ -83,7 +96,12 @@ public class KeycloakAuthenticationFilter extends AbstractKeycloakFilter {
       return;
     }
 
-    Jws<Claims> jwt;
+    Jws<Claims> jwt = verifiedTokens.get(token);
+    if (jwt != null) {
+      request.setAttribute("token", jwt);
+      chain.doFilter(req, res);
+      return;
+    }
     try {
       jwt =
           Jwts.parser()
@@ -116,11 +134,12 @@ public class KeycloakAuthenticationFilter extends AbstractKeycloakFilter {
       return;
     }
 
+    verifiedTokens.put(token, jwt);
     request.setAttribute("token", jwt);
     chain.doFilter(req, res);
   }
 
-  private synchronized PublicKey getJwtPublicKey(JwsHeader<?> header) throws JwkException {
+  private PublicKey getJwtPublicKey(JwsHeader<?> header) throws JwkException {
     String kid = header.getKeyId();
     if (kid == null) {
       LOG.warn(
@@ -140,8 +159,14 @@ public class KeycloakAuthenticationFilter extends AbstractKeycloakFilter {
               + "Please look into the startup logs to find out the root cause");
       return null;
     }
-    Jwk jwk = jwkProvider.get(kid);
-    return jwk.getPublicKey();
+    PublicKey publicKey = publicKeys.getIfPresent(kid);
+    if (publicKey == null) {
+      // concurrent requests may parse the same key, the provider caches JWKs itself
+      Jwk jwk = jwkProvider.get(kid);
+      publicKey = jwk.getPublicKey();
+      publicKeys.put(kid, publicKey);
+    }
+    return publicKey;
   }
 
   private void send403(ServletResponse res, String message) throws IOException {
@@ -42,18 +42,18 @@ import org.eclipse.che.multiuser.keycloak.shared.KeycloakConstants;
 @Singleton
 public class KeycloakEnvironmentInitalizationFilter extends AbstractKeycloakFilter {
 
-  private final KeycloakUserManager userManager;
+  private final KeycloakUserCache userCache;
   private final KeycloakSettings settings;
   private final RequestTokenExtractor tokenExtractor;
   private final PermissionChecker permissionChecker;
 
   @Inject
   public KeycloakEnvironmentInitalizationFilter(
-      KeycloakUserManager userManager,
+      KeycloakUserCache userCache,
       RequestTokenExtractor tokenExtractor,
       PermissionChecker permissionChecker,
       KeycloakSettings settings) {
-    this.userManager = userManager;
+    this.userCache = userCache;
     this.tokenExtractor = tokenExtractor;
     this.permissionChecker = permissionChecker;
     this.settings = settings;
@@ -87,7 +87,7 @@ public class KeycloakEnvironmentInitalizationFilter extends AbstractKeycloakFilt
           username = claims.getIssuer() + ":" + claims.getSubject();
         }
         User user =
-            userManager.getOrCreateUser(
+            userCache.getOrCreateUser(
                 claims.getSubject(), claims.get("email", String.class), username);
         subject =
             new AuthorizedSubject(
@@ -11,18 +11,24 @@
 package org.eclipse.che.multiuser.keycloak.server;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import javax.validation.constraints.NotNull;
-import org.eclipse.che.api.core.rest.DefaultHttpJsonRequestFactory;
 import org.eclipse.che.api.core.rest.HttpJsonRequest;
+import org.eclipse.che.api.core.rest.PooledHttpJsonRequestFactory;
 import org.eclipse.che.api.core.rest.shared.dto.Link;
 import org.eclipse.che.commons.env.EnvironmentContext;
 
 @Singleton
-public class KeycloakHttpJsonRequestFactory extends DefaultHttpJsonRequestFactory {
+public class KeycloakHttpJsonRequestFactory extends PooledHttpJsonRequestFactory {
 
   @Inject
-  public KeycloakHttpJsonRequestFactory() {}
+  public KeycloakHttpJsonRequestFactory(
+      @Named("che.core.rest.http_client.max_idle_connections") int maxIdleConnections,
+      @Named("che.core.rest.http_client.keep_alive_ms") long keepAliveMs,
+      @Named("che.core.rest.http_client.accept_binary_dto") boolean acceptBinaryDto) {
+    super(maxIdleConnections, keepAliveMs, acceptBinaryDto);
+  }
 
   @Override
   public HttpJsonRequest fromUrl(@NotNull String url) {
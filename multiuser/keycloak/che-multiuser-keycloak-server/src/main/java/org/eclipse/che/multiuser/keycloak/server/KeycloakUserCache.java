@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.keycloak.server;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.Hashing;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.eclipse.che.api.core.ConflictException;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.model.user.User;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.user.server.event.UserRemovedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded cache of users provisioned with {@link KeycloakUserManager#getOrCreateUser(String,
+ * String, String)}, shared by all the HTTP sessions.
+ *
+ * <p>Users are keyed by the Keycloak subject and the cached user is returned only while email and
+ * name in the token claims are the same as the ones it was provisioned with, so any change of them
+ * in Keycloak, including a change back to the previous values, provisions the user again and the
+ * email stored by Che is actualized. Users removed on this node are invalidated, removals which
+ * happen on other nodes must be propagated with {@link #invalidate(String)}. Entries also expire
+ * after the configured period, that bounds staleness of users changed directly in storage or by
+ * other nodes.
+ */
+@Singleton
+public class KeycloakUserCache implements EventSubscriber<UserRemovedEvent> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(KeycloakUserCache.class);
+
+  private final KeycloakUserManager userManager;
+  private final EventService eventService;
+  private final Cache<String, CachedUser> users;
+  /** Incremented on each invalidation, so the users provisioned before it are not cached. */
+  private final AtomicLong generation;
+  /** Guards the generation check and caching of provisioned user against invalidations. */
+  private final Object cacheLock;
+
+  private final AtomicLong provisioningCount;
+  private final AtomicLong provisioningTimeNanos;
+  private final AtomicLong maxProvisioningTimeNanos;
+
+  @Inject
+  public KeycloakUserCache(
+      KeycloakUserManager userManager,
+      EventService eventService,
+      @Named("che.keycloak.user_cache.max_size") long maxSize,
+      @Named("che.keycloak.user_cache.expire_after_write_sec") long expireAfterWriteSec) {
+    this.userManager = userManager;
+    this.eventService = eventService;
+    this.users =
+        CacheBuilder.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(expireAfterWriteSec, TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+    this.generation = new AtomicLong();
+    this.cacheLock = new Object();
+    this.provisioningCount = new AtomicLong();
+    this.provisioningTimeNanos = new AtomicLong();
+    this.maxProvisioningTimeNanos = new AtomicLong();
+  }
+
+  @PostConstruct
+  private void subscribe() {
+    eventService.subscribe(this);
+  }
+
+  @PreDestroy
+  private void unsubscribe() {
+    eventService.unsubscribe(this);
+  }
+
+  @Override
+  public void onEvent(UserRemovedEvent event) {
+    invalidate(event.getUserId());
+  }
+
+  /**
+   * Returns cached user or provisions it with {@link KeycloakUserManager} and caches the result.
+   *
+   * @param subject Keycloak subject, which is also used as user id
+   * @param email user email from token claims
+   * @param username user name from token claims
+   * @throws ServerException when provisioning fails, the result is not cached in this case
+   * @throws ConflictException when provisioning fails, the result is not cached in this case
+   */
+  public User getOrCreateUser(String subject, String email, String username)
+      throws ServerException, ConflictException {
+    final String claimsHash = claimsHash(email, username);
+    final CachedUser cached = users.getIfPresent(subject);
+    if (cached != null && cached.claimsHash.equals(claimsHash)) {
+      return cached.user;
+    }
+    final long provisioningGeneration = generation.get();
+    final long start = System.nanoTime();
+    final User user = userManager.getOrCreateUser(subject, email, username);
+    recordProvisioningTime(System.nanoTime() - start);
+    synchronized (cacheLock) {
+      if (provisioningGeneration == generation.get()) {
+        users.put(subject, new CachedUser(user, claimsHash));
+      }
+    }
+    return user;
+  }
+
+  /**
+   * Invalidates cached users with the given id.
+   *
+   * @param userId id of the removed user
+   */
+  public void invalidate(String userId) {
+    synchronized (cacheLock) {
+      generation.incrementAndGet();
+      // users are keyed by subject which is used as user id
+      users.invalidate(userId);
+    }
+  }
+
+  /** Invalidates all cached users. */
+  public void invalidateAll() {
+    synchronized (cacheLock) {
+      generation.incrementAndGet();
+      users.invalidateAll();
+    }
+  }
+
+  /** Returns statistics of cache hits and misses. */
+  public CacheStats getStats() {
+    return users.stats();
+  }
+
+  /** Returns the number of users provisioned with {@link KeycloakUserManager}. */
+  public long getProvisioningCount() {
+    return provisioningCount.get();
+  }
+
+  /** Returns total time in nanoseconds spent on provisioning of users. */
+  public long getProvisioningTimeNanos() {
+    return provisioningTimeNanos.get();
+  }
+
+  /** Returns the longest time in nanoseconds spent on provisioning of a single user. */
+  public long getMaxProvisioningTimeNanos() {
+    return maxProvisioningTimeNanos.get();
+  }
+
+  private void recordProvisioningTime(long nanos) {
+    provisioningCount.incrementAndGet();
+    provisioningTimeNanos.addAndGet(nanos);
+    maxProvisioningTimeNanos.accumulateAndGet(nanos, Math::max);
+    LOG.debug("User provisioning took {}ms", TimeUnit.NANOSECONDS.toMillis(nanos));
+  }
+
+  private static String claimsHash(String email, String username) {
+    return Hashing.murmur3_128()
+        .newHasher()
+        .putString(String.valueOf(email), UTF_8)
+        .putChar('\0')
+        .putString(String.valueOf(username), UTF_8)
+        .hash()
+        .toString();
+  }
+
+  private static class CachedUser {
+    private final User user;
+    /** Hash of the token claims the user was provisioned with. */
+    private final String claimsHash;
+
+    private CachedUser(User user, String claimsHash) {
+      this.user = user;
+      this.claimsHash = claimsHash;
+    }
+  }
+}
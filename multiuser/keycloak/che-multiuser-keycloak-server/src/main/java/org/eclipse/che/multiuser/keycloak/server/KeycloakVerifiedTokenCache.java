@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.keycloak.server;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.Hashing;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.eclipse.che.multiuser.keycloak.shared.KeycloakConstants;
+
+/**
+ * Bounded cache of tokens which signature and claims are already verified by {@link
+ * KeycloakAuthenticationFilter}.
+ *
+ * <p>Tokens are keyed by their SHA-256 hash, so the raw tokens are not kept in memory. A cached
+ * token is returned only until its expiration time plus the allowed clock skew passes, after that
+ * it is evicted and must be verified again, which reports it as expired. Entries also expire after
+ * the configured period, that bounds caching of tokens without expiration time.
+ */
+@Singleton
+public class KeycloakVerifiedTokenCache {
+
+  private final Cache<String, Jws<Claims>> tokens;
+  private final long allowedClockSkewMs;
+
+  @Inject
+  public KeycloakVerifiedTokenCache(
+      @Named("che.keycloak.verified_token_cache.max_size") long maxSize,
+      @Named("che.keycloak.verified_token_cache.expire_after_write_sec") long expireAfterWriteSec,
+      @Named(KeycloakConstants.ALLOWED_CLOCK_SKEW_SEC) long allowedClockSkewSec) {
+    this.tokens =
+        CacheBuilder.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(expireAfterWriteSec, TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+    this.allowedClockSkewMs = TimeUnit.SECONDS.toMillis(allowedClockSkewSec);
+  }
+
+  /**
+   * Returns verified token or null when the token is not cached or already expired.
+   *
+   * @param token raw token
+   */
+  public Jws<Claims> get(String token) {
+    final String key = hash(token);
+    final Jws<Claims> jwt = tokens.getIfPresent(key);
+    if (jwt != null && isExpired(jwt)) {
+      tokens.invalidate(key);
+      return null;
+    }
+    return jwt;
+  }
+
+  /**
+   * Caches the verified token.
+   *
+   * @param token raw token
+   * @param jwt token parsed and verified from the raw one
+   */
+  public void put(String token, Jws<Claims> jwt) {
+    if (!isExpired(jwt)) {
+      tokens.put(hash(token), jwt);
+    }
+  }
+
+  /** Returns statistics of cache hits and misses. */
+  public CacheStats getStats() {
+    return tokens.stats();
+  }
+
+  private boolean isExpired(Jws<Claims> jwt) {
+    final Date expiration = jwt.getBody().getExpiration();
+    return expiration != null
+        && expiration.getTime() + allowedClockSkewMs < System.currentTimeMillis();
+  }
+
+  private static String hash(String token) {
+    return Hashing.sha256().hashString(token, UTF_8).toString();
+  }
+}
@@ -57,7 +57,7 @@ import org.testng.annotations.Test;
 public class KeycloakEnvironmentInitalizationFilterTest {
 
   @Mock private SignatureKeyManager keyManager;
-  @Mock private KeycloakUserManager userManager;
+  @Mock private KeycloakUserCache userCache;
   @Mock private KeycloakSettings keycloakSettings;
   @Mock private RequestTokenExtractor tokenExtractor;
   @Mock private PermissionChecker permissionChecker;
@@ -77,7 +77,7 @@ public class KeycloakEnvironmentInitalizationFilterTest {
     EnvironmentContext.setCurrent(context);
     filter =
         new KeycloakEnvironmentInitalizationFilter(
-            userManager, tokenExtractor, permissionChecker, keycloakSettings);
+            userCache, tokenExtractor, permissionChecker, keycloakSettings);
     filter.signatureKeyManager = keyManager;
     final KeyPair kp = new KeyPair(mock(PublicKey.class), mock(PrivateKey.class));
     when(keyManager.getKeyPair()).thenReturn(kp);
@@ -104,7 +104,7 @@ public class KeycloakEnvironmentInitalizationFilterTest {
 
     // then
     verify(chain).doFilter(eq(request), eq(response));
-    verifyNoMoreInteractions(userManager);
+    verifyNoMoreInteractions(userCache);
   }
 
   @Test
@@ -120,7 +120,7 @@ public class KeycloakEnvironmentInitalizationFilterTest {
     when(tokenExtractor.getToken(any(HttpServletRequest.class))).thenReturn("token2");
     when(request.getAttribute("token")).thenReturn(createJwt());
     when(session.getAttribute(eq("che_subject"))).thenReturn(existingSubject);
-    when(userManager.getOrCreateUser(anyString(), anyString(), anyString())).thenReturn(user);
+    when(userCache.getOrCreateUser(anyString(), anyString(), anyString())).thenReturn(user);
     EnvironmentContext context = spy(EnvironmentContext.getCurrent());
     EnvironmentContext.setCurrent(context);
 
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.keycloak.server;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.user.server.event.UserRemovedEvent;
+import org.eclipse.che.api.user.server.model.impl.UserImpl;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests {@link KeycloakUserCache}. */
+@Listeners(MockitoTestNGListener.class)
+public class KeycloakUserCacheTest {
+
+  @Mock private KeycloakUserManager userManager;
+  @Mock private EventService eventService;
+
+  private UserImpl user;
+  private KeycloakUserCache cache;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    user = new UserImpl("id", "user@mail.com", "name");
+    cache = new KeycloakUserCache(userManager, eventService, 100, 60);
+  }
+
+  @Test
+  public void shouldCacheProvisionedUser() throws Exception {
+    when(userManager.getOrCreateUser(anyString(), anyString(), anyString())).thenReturn(user);
+
+    assertEquals(cache.getOrCreateUser("id", "user@mail.com", "name"), user);
+    assertEquals(cache.getOrCreateUser("id", "user@mail.com", "name"), user);
+
+    verify(userManager).getOrCreateUser("id", "user@mail.com", "name");
+    assertEquals(cache.getStats().hitCount(), 1);
+    assertEquals(cache.getProvisioningCount(), 1);
+  }
+
+  @Test
+  public void shouldProvisionUserAgainWhenClaimsChange() throws Exception {
+    when(userManager.getOrCreateUser(anyString(), anyString(), anyString())).thenReturn(user);
+
+    cache.getOrCreateUser("id", "user@mail.com", "name");
+
+    cache.getOrCreateUser("id", "new@mail.com", "name");
+    cache.getOrCreateUser("id", "new@mail.com", "new-name");
+
+    verify(userManager, times(3)).getOrCreateUser(anyString(), anyString(), anyString());
+    assertEquals(cache.getProvisioningCount(), 3);
+  }
+
+  @Test
+  public void shouldProvisionUserAgainWhenClaimsChangeBackToPreviousOnes() throws Exception {
+    when(userManager.getOrCreateUser(anyString(), anyString(), anyString())).thenReturn(user);
+
+    cache.getOrCreateUser("id", "user@mail.com", "name");
+    cache.getOrCreateUser("id", "new@mail.com", "name");
+    cache.getOrCreateUser("id", "user@mail.com", "name");
+
+    verify(userManager, times(2)).getOrCreateUser("id", "user@mail.com", "name");
+    verify(userManager).getOrCreateUser("id", "new@mail.com", "name");
+  }
+
+  @Test
+  public void shouldInvalidateUserOnRemovedEvent() throws Exception {
+    when(userManager.getOrCreateUser(anyString(), anyString(), anyString())).thenReturn(user);
+
+    cache.getOrCreateUser("id", "user@mail.com", "name");
+
+    cache.onEvent(new UserRemovedEvent("id"));
+    cache.getOrCreateUser("id", "user@mail.com", "name");
+
+    verify(userManager, times(2)).getOrCreateUser(anyString(), anyString(), anyString());
+  }
+
+  @Test
+  public void shouldNotCacheUserWhichIsRemovedWhileProvisioning() throws Exception {
+    doAnswer(
+            inv -> {
+              cache.invalidate("id");
+              return user;
+            })
+        .when(userManager)
+        .getOrCreateUser("id", "user@mail.com", "name");
+
+    cache.getOrCreateUser("id", "user@mail.com", "name");
+    cache.getOrCreateUser("id", "user@mail.com", "name");
+
+    verify(userManager, times(2)).getOrCreateUser("id", "user@mail.com", "name");
+  }
+
+  @Test
+  public void shouldNotCacheUserWhenProvisioningFails() throws Exception {
+    when(userManager.getOrCreateUser("id", "user@mail.com", "name"))
+        .thenThrow(new ServerException("error"))
+        .thenReturn(user);
+
+    try {
+      cache.getOrCreateUser("id", "user@mail.com", "name");
+    } catch (ServerException ignored) {
+    }
+
+    assertEquals(cache.getOrCreateUser("id", "user@mail.com", "name"), user);
+    verify(userManager, times(2)).getOrCreateUser("id", "user@mail.com", "name");
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.keycloak.server;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.impl.DefaultClaims;
+import io.jsonwebtoken.impl.DefaultJws;
+import io.jsonwebtoken.impl.DefaultJwsHeader;
+import java.util.Date;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests {@link KeycloakVerifiedTokenCache}. */
+public class KeycloakVerifiedTokenCacheTest {
+
+  private static final long CLOCK_SKEW_SEC = 3;
+
+  private KeycloakVerifiedTokenCache cache;
+
+  @BeforeMethod
+  public void setUp() {
+    cache = new KeycloakVerifiedTokenCache(100, 60, CLOCK_SKEW_SEC);
+  }
+
+  @Test
+  public void shouldReturnCachedToken() {
+    final Jws<Claims> jwt = createJws(System.currentTimeMillis() + 60_000);
+
+    cache.put("token", jwt);
+
+    assertEquals(cache.get("token"), jwt);
+    assertNull(cache.get("token2"));
+    assertEquals(cache.getStats().hitCount(), 1);
+  }
+
+  @Test
+  public void shouldCacheTokenWithoutExpirationTime() {
+    final Jws<Claims> jwt = createJws(null);
+
+    cache.put("token", jwt);
+
+    assertEquals(cache.get("token"), jwt);
+  }
+
+  @Test
+  public void shouldReturnTokenExpiredWithinAllowedClockSkew() {
+    final Jws<Claims> jwt = createJws(System.currentTimeMillis() - 1000);
+
+    cache.put("token", jwt);
+
+    assertEquals(cache.get("token"), jwt);
+  }
+
+  @Test
+  public void shouldNotCacheExpiredToken() {
+    cache.put("token", createJws(System.currentTimeMillis() - CLOCK_SKEW_SEC * 1000 - 1000));
+
+    assertNull(cache.get("token"));
+    assertEquals(cache.getStats().missCount(), 1);
+  }
+
+  @Test
+  public void shouldNotReturnTokenWhichExpiredAfterCaching() throws Exception {
+    final KeycloakVerifiedTokenCache noSkewCache = new KeycloakVerifiedTokenCache(100, 60, 0);
+    noSkewCache.put("token", createJws(System.currentTimeMillis() + 50));
+
+    Thread.sleep(100);
+
+    assertNull(noSkewCache.get("token"));
+  }
+
+  private static Jws<Claims> createJws(Long expiration) {
+    final Claims claims = new DefaultClaims().setSubject("id");
+    if (expiration != null) {
+      claims.setExpiration(new Date(expiration));
+    }
+    return new DefaultJws<>(new DefaultJwsHeader(), claims, "signature");
+  }
+}
@@ -407,6 +407,23 @@ public class WorkspacePermissionsFilterTest {
     verify(subject).hasPermission(eq("workspace"), eq("workspace123"), eq("configure"));
   }
 
+  @Test
+  public void shouldCheckPermissionsOnProjectsUpdating() throws Exception {
+    when(subject.hasPermission("workspace", "workspace123", "configure")).thenReturn(true);
+
+    final Response response =
+        given()
+            .auth()
+            .basic(ADMIN_USER_NAME, ADMIN_USER_PASSWORD)
+            .pathParam("id", "workspace123")
+            .when()
+            .put(SECURE_PATH + "/workspace/{id}/project");
+
+    assertEquals(response.getStatusCode(), 204);
+    verify(workspaceService).updateProjects(eq("workspace123"), any());
+    verify(subject).hasPermission(eq("workspace"), eq("workspace123"), eq("configure"));
+  }
+
   @Test
   public void shouldCheckPermissionsOnCommandAdding() throws Exception {
     when(subject.hasPermission("workspace", "workspace123", "configure")).thenReturn(true);
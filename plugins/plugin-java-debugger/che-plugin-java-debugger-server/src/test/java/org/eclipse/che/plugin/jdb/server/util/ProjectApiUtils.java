@@ -18,6 +18,7 @@ import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.assistedinject.FactoryModuleBuilder;
 import com.google.inject.name.Names;
+import com.google.inject.util.Providers;
 import java.io.File;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.eclipse.che.api.core.jsonrpc.commons.RequestHandlerManager;
@@ -87,6 +88,20 @@ public class ProjectApiUtils {
                 bind(String.class)
                     .annotatedWith(Names.named("project.importer.default_importer_id"))
                     .toInstance("git");
+                bindConstant()
+                    .annotatedWith(Names.named("che.core.jsonrpc.processor_max_pool_size"))
+                    .to(10);
+                bindConstant()
+                    .annotatedWith(Names.named("che.core.jsonrpc.processor_queue_capacity"))
+                    .to(100);
+                bindConstant()
+                    .annotatedWith(
+                        Names.named("che.core.jsonrpc.processor_endpoint_max_concurrency"))
+                    .to(10);
+                bind(String.class)
+                    .annotatedWith(
+                        Names.named("che.core.jsonrpc.processor_method_max_concurrency"))
+                    .toProvider(Providers.of(null));
 
                 install(
                     new FactoryModuleBuilder()
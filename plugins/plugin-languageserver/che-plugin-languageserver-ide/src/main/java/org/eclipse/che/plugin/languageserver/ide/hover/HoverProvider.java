@@ -10,6 +10,8 @@
  */
 package org.eclipse.che.plugin.languageserver.ide.hover;
 
+import static org.eclipse.che.plugin.languageserver.ide.service.TextDocumentServiceClient.isSuperseded;
+
 import com.google.common.base.Joiner;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -17,6 +19,7 @@ import java.util.ArrayList;
 import java.util.List;
 import org.eclipse.che.api.promises.client.Promise;
 import org.eclipse.che.api.promises.client.js.JsPromise;
+import org.eclipse.che.api.promises.client.js.Promises;
 import org.eclipse.che.ide.api.editor.EditorAgent;
 import org.eclipse.che.ide.api.editor.EditorPartPresenter;
 import org.eclipse.che.ide.api.editor.document.Document;
@@ -90,6 +93,10 @@ public class HoverProvider implements OrionHoverHandler {
 
               return hover;
             });
+    // the newer hover request shows the hover instead of the superseded one
+    then =
+        then.catchErrorPromise(
+            error -> isSuperseded(error) ? Promises.resolve(null) : Promises.reject(error));
     return (JsPromise<OrionHoverOverlay>) then;
   }
 
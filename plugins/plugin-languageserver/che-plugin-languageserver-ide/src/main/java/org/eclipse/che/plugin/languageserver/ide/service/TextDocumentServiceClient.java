@@ -49,6 +49,12 @@ import org.eclipse.lsp4j.services.TextDocumentService;
 @Singleton
 public class TextDocumentServiceClient {
 
+  /**
+   * Error code the agent answers a completion, signature help or hover request with when a newer
+   * request of the same kind is sent for the document.
+   */
+  public static final int REQUEST_SUPERSEDED = -27001;
+
   private final RequestTransmitter requestTransmitter;
 
   @Inject
@@ -264,6 +270,16 @@ public class TextDocumentServiceClient {
         .sendAndSkipResult();
   }
 
+  /**
+   * Checks whether the request failed because it was superseded by a newer request of the same
+   * kind. The caller of the newer request receives the answer, so such failures are not reported.
+   */
+  public static boolean isSuperseded(PromiseError error) {
+    Throwable cause = error.getCause();
+    return cause instanceof JsonRpcException
+        && ((JsonRpcException) cause).getCode() == REQUEST_SUPERSEDED;
+  }
+
   private PromiseError getPromiseError(JsonRpcError jsonRpcError) {
     return new PromiseError() {
       @Override
@@ -169,31 +169,32 @@ public class GitChangesDetector {
           throw new NotFoundException("Project '" + projectName + "' is not found");
         }
         String projectFsPath = pathTransformer.transform(projectName).toString();
-        GitConnection gitConnection = gitConnectionFactory.getConnection(projectFsPath);
-        Status status = gitConnection.status(singletonList(itemPath));
-        FileChangedEventDto.Status fileStatus;
-        if (status.getAdded().contains(itemPath)) {
-          fileStatus = ADDED;
-        } else if (status.getUntracked().contains(itemPath)) {
-          fileStatus = UNTRACKED;
-        } else if (status.getModified().contains(itemPath)
-            || status.getChanged().contains(itemPath)) {
-          fileStatus = MODIFIED;
-        } else {
-          fileStatus = NOT_MODIFIED;
-        }
+        try (GitConnection gitConnection = gitConnectionFactory.getConnection(projectFsPath)) {
+          Status status = gitConnection.status(singletonList(itemPath));
+          FileChangedEventDto.Status fileStatus;
+          if (status.getAdded().contains(itemPath)) {
+            fileStatus = ADDED;
+          } else if (status.getUntracked().contains(itemPath)) {
+            fileStatus = UNTRACKED;
+          } else if (status.getModified().contains(itemPath)
+              || status.getChanged().contains(itemPath)) {
+            fileStatus = MODIFIED;
+          } else {
+            fileStatus = NOT_MODIFIED;
+          }
 
-        transmitter
-            .newRequest()
-            .endpointId(endpointId)
-            .methodName(EVENT_GIT_FILE_CHANGED)
-            .paramsAsDto(
-                newDto(FileChangedEventDto.class)
-                    .withPath(wsPath)
-                    .withStatus(fileStatus)
-                    .withEditedRegions(
-                        fileStatus == MODIFIED ? gitConnection.getEditedRegions(itemPath) : null))
-            .sendAndSkipResult();
+          transmitter
+              .newRequest()
+              .endpointId(endpointId)
+              .methodName(EVENT_GIT_FILE_CHANGED)
+              .paramsAsDto(
+                  newDto(FileChangedEventDto.class)
+                      .withPath(wsPath)
+                      .withStatus(fileStatus)
+                      .withEditedRegions(
+                          fileStatus == MODIFIED ? gitConnection.getEditedRegions(itemPath) : null))
+              .sendAndSkipResult();
+        }
       } catch (GitCommitInProgressException | GitInvalidRepositoryException e) {
         // Silent ignore
       } catch (ServerException | NotFoundException e) {
@@ -0,0 +1,499 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.git;
+
+import static java.nio.file.Files.isDirectory;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.eclipse.che.api.core.model.workspace.config.ProjectConfig;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.fs.server.PathTransformer;
+import org.eclipse.che.api.git.exception.GitCheckoutInProgressException;
+import org.eclipse.che.api.git.exception.GitCommitInProgressException;
+import org.eclipse.che.api.git.exception.GitException;
+import org.eclipse.che.api.git.exception.GitInvalidRepositoryException;
+import org.eclipse.che.api.git.shared.EditedRegion;
+import org.eclipse.che.api.git.shared.Status;
+import org.eclipse.che.api.git.shared.StatusChangedEventDto;
+import org.eclipse.che.api.project.server.ProjectManager;
+import org.eclipse.che.api.project.server.notification.ProjectDeletedEvent;
+import org.eclipse.che.api.watcher.server.FileWatcherManager;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.slf4j.Logger;
+
+/**
+ * Keeps git status snapshot of each project which status is requested and serves it to the tree
+ * decoration and to the status change notifications, so the status is computed once for all the
+ * consumers.
+ *
+ * <p>Changes of git index and ORIG_HEAD files cause full recalculation of the project status and
+ * publishing of {@link StatusChangedEventDto}. Changes of working tree files, reported by the file
+ * tree walker, are collected and applied to the snapshot by calculating status of the changed
+ * files only, {@link StatusChangedEventDto} is published in this case only when the status of the
+ * project changes. Changes are applied with a short delay, so a burst of changes, e.g. caused by a
+ * build or a checkout, is applied at once. Snapshots of deleted projects and their modules are
+ * dropped.
+ */
+@Singleton
+public class GitStatusEngine implements Consumer<Path> {
+
+  private static final Logger LOG = getLogger(GitStatusEngine.class);
+
+  private static final String GIT_DIR = ".git";
+  private static final String INDEX_FILE = "index";
+  private static final String ORIG_HEAD_FILE = "ORIG_HEAD";
+
+  /** Delay in milliseconds after the first change during which the next changes are collected. */
+  @VisibleForTesting static final long DEBOUNCE_DELAY_MS = 300;
+  /** More changed files than this are applied with full status recalculation. */
+  @VisibleForTesting static final int MAX_INCREMENTAL_PATHS = 100;
+
+  private final FileWatcherManager manager;
+  private final PathTransformer pathTransformer;
+  private final ProjectManager projectManager;
+  private final GitConnectionFactory gitConnectionFactory;
+  private final EventService eventService;
+  private final EventSubscriber<ProjectDeletedEvent> projectDeletedSubscriber;
+
+  /** Project path -> status of the project. */
+  private final Map<String, ProjectStatus> statuses = new ConcurrentHashMap<>();
+
+  private ScheduledExecutorService executor;
+  private int indexId;
+  private int origHeadId;
+
+  @Inject
+  public GitStatusEngine(
+      FileWatcherManager manager,
+      PathTransformer pathTransformer,
+      ProjectManager projectManager,
+      GitConnectionFactory gitConnectionFactory,
+      EventService eventService) {
+    this.manager = manager;
+    this.pathTransformer = pathTransformer;
+    this.projectManager = projectManager;
+    this.gitConnectionFactory = gitConnectionFactory;
+    this.eventService = eventService;
+    this.projectDeletedSubscriber = event -> onProjectDeleted(event.getProjectPath());
+  }
+
+  @PostConstruct
+  public void start() {
+    executor =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat(GitStatusEngine.class.getSimpleName())
+                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                .setDaemon(true)
+                .build());
+    indexId =
+        manager.registerByMatcher(
+            gitFileMatcher(INDEX_FILE),
+            this::onGitFileChanged,
+            this::onGitFileChanged,
+            it -> {});
+    origHeadId =
+        manager.registerByMatcher(
+            gitFileMatcher(ORIG_HEAD_FILE),
+            this::onGitFileChanged,
+            this::onGitFileChanged,
+            it -> {});
+    eventService.subscribe(projectDeletedSubscriber, ProjectDeletedEvent.class);
+  }
+
+  @PreDestroy
+  public void stop() {
+    eventService.unsubscribe(projectDeletedSubscriber, ProjectDeletedEvent.class);
+    manager.unRegisterByMatcher(indexId);
+    manager.unRegisterByMatcher(origHeadId);
+    executor.shutdownNow();
+  }
+
+  /**
+   * Returns status of the project, pending changes are applied before.
+   *
+   * <p>Returned status is shared and must not be modified.
+   *
+   * @param projectPath workspace path of the project
+   * @throws GitException when status can't be calculated
+   */
+  public Status getStatus(String projectPath) throws GitException {
+    final ProjectStatus projectStatus = statuses.computeIfAbsent(projectPath, ProjectStatus::new);
+    final Status status = projectStatus.status;
+    if (status != null && !projectStatus.hasPending()) {
+      return status;
+    }
+    return refresh(projectStatus);
+  }
+
+  /** Collects change of a working tree file reported by the file tree walker. */
+  @Override
+  public void accept(Path fsPath) {
+    final String wsPath = pathTransformer.transform(fsPath);
+    if (wsPath.contains('/' + GIT_DIR + '/')) {
+      return;
+    }
+    for (ProjectStatus projectStatus : statuses.values()) {
+      if (wsPath.startsWith(projectStatus.projectPath + '/')) {
+        projectStatus.addPending(wsPath.substring(projectStatus.projectPath.length() + 1), false);
+      }
+    }
+  }
+
+  /** Collects change of git index or ORIG_HEAD files. */
+  @VisibleForTesting
+  void onGitFileChanged(String wsPath) {
+    final ProjectConfig project = projectManager.getClosest(wsPath).orElse(null);
+    if (project == null) {
+      return;
+    }
+    final String projectPath = project.getPath();
+    statuses.computeIfAbsent(projectPath, ProjectStatus::new).addPending(null, true);
+    // statuses of the modules of the project are changed as well
+    for (ProjectStatus projectStatus : statuses.values()) {
+      if (projectStatus.projectPath.startsWith(projectPath + '/')) {
+        projectStatus.addPending(null, false);
+      }
+    }
+  }
+
+  /** Drops snapshots of the deleted project and of its modules. */
+  @VisibleForTesting
+  void onProjectDeleted(String projectPath) {
+    statuses
+        .keySet()
+        .removeIf(path -> path.equals(projectPath) || path.startsWith(projectPath + '/'));
+  }
+
+  private Status refresh(ProjectStatus projectStatus) throws GitException {
+    final StatusChangedEventDto event;
+    final Status status;
+    synchronized (projectStatus.refreshLock) {
+      final Pending pending = projectStatus.drainPending();
+      final String projectFsPath = pathTransformer.transform(projectStatus.projectPath).toString();
+      try (GitConnection connection = gitConnectionFactory.getConnection(projectFsPath)) {
+        final Snapshot previous = projectStatus.snapshot;
+        final Snapshot snapshot;
+        try {
+          if (previous == null || pending.full || pending.paths.size() > MAX_INCREMENTAL_PATHS) {
+            snapshot = new Snapshot(connection.status(emptyList()));
+          } else if (!pending.paths.isEmpty()) {
+            final List<String> paths = new ArrayList<>(pending.paths);
+            snapshot = previous.update(paths, connection.status(paths));
+          } else {
+            snapshot = previous;
+          }
+        } catch (GitException e) {
+          // changes are applied again on the next request or change
+          projectStatus.retryPending(pending.notify);
+          throw e;
+        }
+        status = snapshot == previous ? projectStatus.status : snapshot.toDto();
+        projectStatus.snapshot = snapshot;
+        projectStatus.status = status;
+
+        if (pending.notify || (previous != null && !previous.equals(snapshot))) {
+          event = createEvent(connection, snapshot, status);
+        } else {
+          event = null;
+        }
+      }
+    }
+    if (event != null) {
+      eventService.publish(event);
+    }
+    return status;
+  }
+
+  private StatusChangedEventDto createEvent(
+      GitConnection connection, Snapshot snapshot, Status status) {
+    final Map<String, List<EditedRegion>> modifiedFiles = new HashMap<>();
+    try {
+      for (String file : snapshot.changed) {
+        modifiedFiles.put(file, connection.getEditedRegions(file));
+      }
+      for (String file : snapshot.modified) {
+        modifiedFiles.put(file, connection.getEditedRegions(file));
+      }
+    } catch (GitException e) {
+      LOG.debug("Unable to get edited regions of modified files. Cause: {}", e.getMessage());
+      return null;
+    }
+    return newDto(StatusChangedEventDto.class)
+        .withProjectName(connection.getWorkingDir().getName())
+        .withStatus(status)
+        .withModifiedFiles(modifiedFiles);
+  }
+
+  private void refreshQuietly(ProjectStatus projectStatus) {
+    if (statuses.get(projectStatus.projectPath) != projectStatus) {
+      // project is deleted
+      return;
+    }
+    try {
+      refresh(projectStatus);
+    } catch (GitCommitInProgressException
+        | GitCheckoutInProgressException
+        | GitInvalidRepositoryException e) {
+      // Silent ignore
+    } catch (GitException e) {
+      LOG.error(e.getMessage());
+    }
+  }
+
+  private static PathMatcher gitFileMatcher(String fileName) {
+    return it ->
+        !isDirectory(it)
+            && fileName.equals(it.getFileName().toString())
+            && GIT_DIR.equals(it.getParent().getFileName().toString());
+  }
+
+  /** Changes of the project status which are not applied yet. */
+  private static class Pending {
+    private final Set<String> paths;
+    private final boolean full;
+    private final boolean notify;
+
+    private Pending(Set<String> paths, boolean full, boolean notify) {
+      this.paths = paths;
+      this.full = full;
+      this.notify = notify;
+    }
+  }
+
+  private class ProjectStatus {
+    private final String projectPath;
+    /** Serializes status calculations of the project. */
+    private final Object refreshLock = new Object();
+
+    /** Guarded by {@link #refreshLock}. */
+    private Snapshot snapshot;
+    /** Status built from the current snapshot. */
+    private volatile Status status;
+
+    /** Guarded by this. */
+    private Set<String> pendingPaths = new LinkedHashSet<>();
+    /** Guarded by this. */
+    private boolean pendingFull;
+    /** Guarded by this. */
+    private boolean pendingNotify;
+    /** Guarded by this. */
+    private boolean refreshScheduled;
+
+    private ProjectStatus(String projectPath) {
+      this.projectPath = projectPath;
+    }
+
+    private synchronized boolean hasPending() {
+      return pendingFull || !pendingPaths.isEmpty();
+    }
+
+    /**
+     * Adds pending change and schedules its application if it is not scheduled yet.
+     *
+     * @param path changed file relative to the project, null means full recalculation
+     * @param notify whether status change event must be published after application
+     */
+    private synchronized void addPending(String path, boolean notify) {
+      if (path == null) {
+        pendingFull = true;
+      } else {
+        pendingPaths.add(path);
+      }
+      pendingNotify |= notify;
+      if (!refreshScheduled) {
+        refreshScheduled = true;
+        executor.schedule(() -> refreshQuietly(this), DEBOUNCE_DELAY_MS, MILLISECONDS);
+      }
+    }
+
+    /** Marks the status for full recalculation without scheduling it. */
+    private synchronized void retryPending(boolean notify) {
+      pendingFull = true;
+      pendingNotify |= notify;
+    }
+
+    private synchronized Pending drainPending() {
+      final Pending pending = new Pending(pendingPaths, pendingFull, pendingNotify);
+      pendingPaths = new LinkedHashSet<>();
+      pendingFull = false;
+      pendingNotify = false;
+      refreshScheduled = false;
+      return pending;
+    }
+  }
+
+  /** Immutable git status of the project. */
+  private static class Snapshot {
+    private final String branchName;
+    private final String repositoryState;
+    private final Set<String> added;
+    private final Set<String> untracked;
+    private final Set<String> changed;
+    private final Set<String> modified;
+    private final Set<String> removed;
+    private final Set<String> missing;
+    private final Set<String> untrackedFolders;
+    private final Set<String> conflicting;
+
+    private Snapshot(Status status) {
+      this(
+          status.getBranchName(),
+          status.getRepositoryState(),
+          new LinkedHashSet<>(status.getAdded()),
+          new LinkedHashSet<>(status.getUntracked()),
+          new LinkedHashSet<>(status.getChanged()),
+          new LinkedHashSet<>(status.getModified()),
+          new LinkedHashSet<>(status.getRemoved()),
+          new LinkedHashSet<>(status.getMissing()),
+          new LinkedHashSet<>(status.getUntrackedFolders()),
+          new LinkedHashSet<>(status.getConflicting()));
+    }
+
+    private Snapshot(
+        String branchName,
+        String repositoryState,
+        Set<String> added,
+        Set<String> untracked,
+        Set<String> changed,
+        Set<String> modified,
+        Set<String> removed,
+        Set<String> missing,
+        Set<String> untrackedFolders,
+        Set<String> conflicting) {
+      this.branchName = branchName;
+      this.repositoryState = repositoryState;
+      this.added = added;
+      this.untracked = untracked;
+      this.changed = changed;
+      this.modified = modified;
+      this.removed = removed;
+      this.missing = missing;
+      this.untrackedFolders = untrackedFolders;
+      this.conflicting = conflicting;
+    }
+
+    /**
+     * Returns new snapshot where status of the given files is replaced with their actual status.
+     */
+    private Snapshot update(List<String> paths, Status status) {
+      final Snapshot updated =
+          new Snapshot(
+              branchName,
+              repositoryState,
+              merge(added, paths, status.getAdded()),
+              merge(untracked, paths, status.getUntracked()),
+              merge(changed, paths, status.getChanged()),
+              merge(modified, paths, status.getModified()),
+              merge(removed, paths, status.getRemoved()),
+              merge(missing, paths, status.getMissing()),
+              new LinkedHashSet<>(untrackedFolders),
+              merge(conflicting, paths, status.getConflicting()));
+      updated.untrackedFolders.addAll(status.getUntrackedFolders());
+      // folders which don't contain untracked files anymore
+      updated.untrackedFolders.removeIf(
+          folder -> updated.untracked.stream().noneMatch(file -> file.startsWith(folder + '/')));
+      return updated;
+    }
+
+    private static Set<String> merge(Set<String> files, List<String> paths, List<String> actual) {
+      final Set<String> merged = new LinkedHashSet<>(files);
+      merged.removeAll(paths);
+      merged.addAll(actual);
+      return merged;
+    }
+
+    private boolean isClean() {
+      return added.isEmpty()
+          && untracked.isEmpty()
+          && changed.isEmpty()
+          && modified.isEmpty()
+          && removed.isEmpty()
+          && missing.isEmpty()
+          && conflicting.isEmpty();
+    }
+
+    private Status toDto() {
+      final Status status = newDto(Status.class);
+      status.setBranchName(branchName);
+      status.setRepositoryState(repositoryState);
+      status.setClean(isClean());
+      status.setAdded(new ArrayList<>(added));
+      status.setUntracked(new ArrayList<>(untracked));
+      status.setChanged(new ArrayList<>(changed));
+      status.setModified(new ArrayList<>(modified));
+      status.setRemoved(new ArrayList<>(removed));
+      status.setMissing(new ArrayList<>(missing));
+      status.setUntrackedFolders(new ArrayList<>(untrackedFolders));
+      status.setConflicting(new ArrayList<>(conflicting));
+      return status;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Snapshot)) {
+        return false;
+      }
+      final Snapshot other = (Snapshot) obj;
+      return Objects.equals(branchName, other.branchName)
+          && Objects.equals(repositoryState, other.repositoryState)
+          && added.equals(other.added)
+          && untracked.equals(other.untracked)
+          && changed.equals(other.changed)
+          && modified.equals(other.modified)
+          && removed.equals(other.removed)
+          && missing.equals(other.missing)
+          && untrackedFolders.equals(other.untrackedFolders)
+          && conflicting.equals(other.conflicting);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(
+          branchName,
+          repositoryState,
+          added,
+          untracked,
+          changed,
+          modified,
+          removed,
+          missing,
+          untrackedFolders,
+          conflicting);
+    }
+  }
+}
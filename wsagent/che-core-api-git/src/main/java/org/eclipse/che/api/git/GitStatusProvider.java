@@ -10,7 +10,6 @@
  */
 package org.eclipse.che.api.git;
 
-import static java.util.Collections.singletonList;
 import static org.eclipse.che.api.fs.server.WsPathUtils.SEPARATOR;
 import static org.eclipse.che.api.fs.server.WsPathUtils.absolutize;
 import static org.eclipse.che.api.fs.server.WsPathUtils.resolve;
@@ -26,7 +25,6 @@ import javax.inject.Inject;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.workspace.config.ProjectConfig;
-import org.eclipse.che.api.fs.server.PathTransformer;
 import org.eclipse.che.api.git.exception.GitException;
 import org.eclipse.che.api.git.shared.Status;
 import org.eclipse.che.api.project.server.ProjectManager;
@@ -39,17 +37,12 @@ import org.eclipse.che.api.project.server.VcsStatusProvider;
  */
 public class GitStatusProvider implements VcsStatusProvider {
 
-  private final GitConnectionFactory gitConnectionFactory;
-  private final PathTransformer pathTransformer;
+  private final GitStatusEngine statusEngine;
   private final ProjectManager projectManager;
 
   @Inject
-  public GitStatusProvider(
-      GitConnectionFactory gitConnectionFactory,
-      PathTransformer pathTransformer,
-      ProjectManager projectManager) {
-    this.gitConnectionFactory = gitConnectionFactory;
-    this.pathTransformer = pathTransformer;
+  public GitStatusProvider(GitStatusEngine statusEngine, ProjectManager projectManager) {
+    this.statusEngine = statusEngine;
     this.projectManager = projectManager;
   }
 
@@ -65,11 +58,9 @@ public class GitStatusProvider implements VcsStatusProvider {
           projectManager
               .getClosest(wsPath)
               .orElseThrow(() -> new NotFoundException("Can't find project"));
-      String projectFsPath = pathTransformer.transform(project.getPath()).toString();
       wsPath = wsPath.substring(wsPath.startsWith(SEPARATOR) ? 1 : 0);
       String itemPath = wsPath.substring(wsPath.indexOf(SEPARATOR) + 1);
-      Status status =
-          gitConnectionFactory.getConnection(projectFsPath).status(singletonList(itemPath));
+      Status status = statusEngine.getStatus(project.getPath());
       if (status.getUntracked().contains(itemPath)) {
         return UNTRACKED;
       } else if (status.getAdded().contains(itemPath)) {
@@ -94,8 +85,7 @@ public class GitStatusProvider implements VcsStatusProvider {
           projectManager
               .getClosest(absolutize(wsPath))
               .orElseThrow(() -> new NotFoundException("Can't find project"));
-      String projectFsPath = pathTransformer.transform(project.getPath()).toString();
-      Status status = gitConnectionFactory.getConnection(projectFsPath).status(paths);
+      Status status = statusEngine.getStatus(project.getPath());
       paths.forEach(
           path -> {
             String itemWsPath = resolve(project.getPath(), path);
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.git;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.fs.server.PathTransformer;
+import org.eclipse.che.api.git.shared.Status;
+import org.eclipse.che.api.git.shared.StatusChangedEventDto;
+import org.eclipse.che.api.project.server.ProjectManager;
+import org.eclipse.che.api.project.shared.RegisteredProject;
+import org.eclipse.che.api.watcher.server.FileWatcherManager;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests for {@link GitStatusEngine}. */
+@Listeners(MockitoTestNGListener.class)
+public class GitStatusEngineTest {
+
+  private static final String PROJECT = "/project";
+  private static final Path PROJECT_FS_PATH = Paths.get("/fsPath/project");
+
+  @Mock private FileWatcherManager manager;
+  @Mock private PathTransformer pathTransformer;
+  @Mock private ProjectManager projectManager;
+  @Mock private GitConnectionFactory gitConnectionFactory;
+  @Mock private GitConnection connection;
+  @Mock private EventService eventService;
+  @Mock private RegisteredProject project;
+
+  private GitStatusEngine engine;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    when(pathTransformer.transform(PROJECT)).thenReturn(PROJECT_FS_PATH);
+    when(gitConnectionFactory.getConnection(PROJECT_FS_PATH.toString())).thenReturn(connection);
+    engine =
+        new GitStatusEngine(
+            manager, pathTransformer, projectManager, gitConnectionFactory, eventService);
+    engine.start();
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    engine.stop();
+  }
+
+  @Test
+  public void shouldCalculateStatusOnceForAllRequests() throws Exception {
+    final Status status = status(singletonList("file"), emptyList());
+    when(connection.status(emptyList())).thenReturn(status);
+
+    assertEquals(engine.getStatus(PROJECT).getModified(), singletonList("file"));
+    assertSame(engine.getStatus(PROJECT), engine.getStatus(PROJECT));
+
+    verify(connection).status(anyList());
+  }
+
+  @Test
+  public void shouldApplyWorkingTreeChangesIncrementally() throws Exception {
+    when(connection.status(emptyList())).thenReturn(status(singletonList("a"), emptyList()));
+    engine.getStatus(PROJECT);
+    when(connection.status(asList("a", "b"))).thenReturn(status(emptyList(), singletonList("b")));
+    when(pathTransformer.transform(PROJECT_FS_PATH.resolve("a"))).thenReturn(PROJECT + "/a");
+    when(pathTransformer.transform(PROJECT_FS_PATH.resolve("b"))).thenReturn(PROJECT + "/b");
+
+    engine.accept(PROJECT_FS_PATH.resolve("a"));
+    engine.accept(PROJECT_FS_PATH.resolve("b"));
+    final Status status = engine.getStatus(PROJECT);
+
+    assertEquals(status.getModified(), emptyList());
+    assertEquals(status.getUntracked(), singletonList("b"));
+    verify(connection).status(asList("a", "b"));
+  }
+
+  @Test
+  public void shouldIgnoreChangesInsideGitDirectory() throws Exception {
+    when(connection.status(emptyList())).thenReturn(status(emptyList(), emptyList()));
+    engine.getStatus(PROJECT);
+    final Path objectPath = PROJECT_FS_PATH.resolve(".git/objects/ab");
+    when(pathTransformer.transform(objectPath)).thenReturn(PROJECT + "/.git/objects/ab");
+
+    engine.accept(objectPath);
+    engine.getStatus(PROJECT);
+
+    verify(connection).status(anyList());
+  }
+
+  @Test
+  public void shouldDropStatusOfDeletedProject() throws Exception {
+    when(connection.status(emptyList())).thenReturn(status(emptyList(), emptyList()));
+    engine.getStatus(PROJECT);
+
+    engine.onProjectDeleted(PROJECT);
+    engine.getStatus(PROJECT);
+
+    verify(connection, times(2)).status(anyList());
+  }
+
+  @Test
+  public void shouldRecalculateStatusAndPublishEventWhenIndexChanges() throws Exception {
+    when(connection.status(emptyList())).thenReturn(status(singletonList("a"), emptyList()));
+    when(connection.getWorkingDir()).thenReturn(new File(PROJECT_FS_PATH.toString()));
+    when(project.getPath()).thenReturn(PROJECT);
+    when(projectManager.getClosest(anyString())).thenReturn(Optional.of(project));
+
+    engine.onGitFileChanged(PROJECT + "/.git/index");
+
+    final ArgumentCaptor<StatusChangedEventDto> captor =
+        ArgumentCaptor.forClass(StatusChangedEventDto.class);
+    verify(eventService, timeout(5000)).publish(captor.capture());
+    assertEquals(captor.getValue().getProjectName(), "project");
+    assertEquals(captor.getValue().getStatus().getModified(), singletonList("a"));
+    verify(connection).getEditedRegions("a");
+  }
+
+  @Test
+  public void shouldNotPublishEventWhenWorkingTreeChangeDoesNotChangeStatus() throws Exception {
+    when(connection.status(emptyList())).thenReturn(status(singletonList("a"), emptyList()));
+    engine.getStatus(PROJECT);
+    when(connection.status(singletonList("a"))).thenReturn(status(singletonList("a"), emptyList()));
+    when(pathTransformer.transform(PROJECT_FS_PATH.resolve("a"))).thenReturn(PROJECT + "/a");
+
+    engine.accept(PROJECT_FS_PATH.resolve("a"));
+    engine.getStatus(PROJECT);
+
+    verify(connection).status(singletonList("a"));
+    verify(eventService, never()).publish(any());
+  }
+
+  private static Status status(List<String> modified, List<String> untracked) {
+    final Status status = newDto(Status.class);
+    status.setModified(modified);
+    status.setUntracked(untracked);
+    return status;
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.languageserver.shared.model;
+
+import org.eclipse.che.dto.shared.DTO;
+
+/** Counts of the diagnostics notifications published by the language servers. */
+@DTO
+public class DiagnosticsStatistics {
+  private long sent;
+  private long merged;
+  private long dropped;
+
+  /** Returns count of the sent notifications. */
+  public long getSent() {
+    return sent;
+  }
+
+  public void setSent(long sent) {
+    this.sent = sent;
+  }
+
+  /** Returns count of the notifications replaced by newer diagnostics before they were sent. */
+  public long getMerged() {
+    return merged;
+  }
+
+  public void setMerged(long merged) {
+    this.merged = merged;
+  }
+
+  /** Returns count of the notifications which were not sent as they change nothing. */
+  public long getDropped() {
+    return dropped;
+  }
+
+  public void setDropped(long dropped) {
+    this.dropped = dropped;
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.languageserver.shared.model;
+
+import org.eclipse.che.dto.shared.DTO;
+
+/**
+ * Bucket of a request latency histogram, counts requests which took not more than the upper bound.
+ * The last bucket of a histogram has negative upper bound which means that it is unbounded.
+ */
+@DTO
+public class LatencyBucket {
+  private long upperBoundMillis;
+  private long count;
+
+  public long getUpperBoundMillis() {
+    return upperBoundMillis;
+  }
+
+  public void setUpperBoundMillis(long upperBoundMillis) {
+    this.upperBoundMillis = upperBoundMillis;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public void setCount(long count) {
+    this.count = count;
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.languageserver.shared.model;
+
+import java.util.List;
+import org.eclipse.che.dto.shared.DTO;
+
+/** Latency histogram of the requests of a single method sent to a single language server. */
+@DTO
+public class RequestLatency {
+  private String languageServerId;
+  private String method;
+  private long count;
+  private long totalMillis;
+  private long maxMillis;
+  private List<LatencyBucket> buckets;
+
+  public String getLanguageServerId() {
+    return languageServerId;
+  }
+
+  public void setLanguageServerId(String languageServerId) {
+    this.languageServerId = languageServerId;
+  }
+
+  public String getMethod() {
+    return method;
+  }
+
+  public void setMethod(String method) {
+    this.method = method;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public void setCount(long count) {
+    this.count = count;
+  }
+
+  public long getTotalMillis() {
+    return totalMillis;
+  }
+
+  public void setTotalMillis(long totalMillis) {
+    this.totalMillis = totalMillis;
+  }
+
+  public long getMaxMillis() {
+    return maxMillis;
+  }
+
+  public void setMaxMillis(long maxMillis) {
+    this.maxMillis = maxMillis;
+  }
+
+  public List<LatencyBucket> getBuckets() {
+    return buckets;
+  }
+
+  public void setBuckets(List<LatencyBucket> buckets) {
+    this.buckets = buckets;
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.languageserver;
+
+import com.google.inject.Singleton;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import org.eclipse.che.api.core.jsonrpc.commons.RequestHandlerConfigurator;
+import org.eclipse.che.api.languageserver.server.dto.DtoServerImpls.RequestLatencyDto;
+import org.eclipse.che.api.languageserver.shared.model.LatencyBucket;
+import org.eclipse.che.api.languageserver.shared.model.RequestLatency;
+import org.eclipse.che.api.languageserver.util.LSOperation;
+import org.eclipse.che.api.languageserver.util.LatencyHistogram;
+
+/**
+ * Collects latency histograms of the requests sent to the language servers per server and method,
+ * and publishes them with {@code languageServer/getRequestLatencies} JSON RPC method. Cancelled
+ * requests are not recorded.
+ */
+@Singleton
+class RequestLatencies {
+  private final RequestHandlerConfigurator configurator;
+  private final Map<String, Map<String, LatencyHistogram>> histograms = new ConcurrentHashMap<>();
+
+  @Inject
+  RequestLatencies(RequestHandlerConfigurator configurator) {
+    this.configurator = configurator;
+  }
+
+  @PostConstruct
+  private void configureMethodHandlers() {
+    configurator
+        .newConfiguration()
+        .methodName("languageServer/getRequestLatencies")
+        .noParams()
+        .resultAsListOfDto(RequestLatencyDto.class)
+        .withSupplier(this::getRequestLatencies);
+  }
+
+  /**
+   * Records latency of the given request when it is completed.
+   *
+   * @param languageServerId id of the language server the request is sent to
+   * @param method request method
+   * @param request pending request
+   * @return the same request
+   */
+  <R> CompletableFuture<R> record(
+      String languageServerId, String method, CompletableFuture<R> request) {
+    long start = System.nanoTime();
+    request.whenComplete(
+        (r, t) -> {
+          if (!request.isCancelled()) {
+            histogram(languageServerId, method).record((System.nanoTime() - start) / 1_000_000);
+          }
+        });
+    return request;
+  }
+
+  /** Returns operation which records latencies of the requests started by the given one. */
+  <R> LSOperation<ExtendedLanguageServer, R> record(
+      String method, LSOperation<ExtendedLanguageServer, R> op) {
+    return new LSOperation<ExtendedLanguageServer, R>() {
+      @Override
+      public boolean canDo(ExtendedLanguageServer element) {
+        return op.canDo(element);
+      }
+
+      @Override
+      public CompletableFuture<R> start(ExtendedLanguageServer element) {
+        return record(element.getId(), method, op.start(element));
+      }
+
+      @Override
+      public boolean handleResult(ExtendedLanguageServer element, R result) {
+        return op.handleResult(element, result);
+      }
+    };
+  }
+
+  List<RequestLatencyDto> getRequestLatencies() {
+    long[] bounds = LatencyHistogram.getUpperBounds();
+    List<RequestLatencyDto> result = new ArrayList<>();
+    histograms.forEach(
+        (languageServerId, methods) ->
+            methods.forEach(
+                (method, histogram) -> {
+                  long[] counts = histogram.getCounts();
+                  List<LatencyBucket> buckets = new ArrayList<>(counts.length);
+                  for (int i = 0; i < counts.length; i++) {
+                    LatencyBucket bucket = new LatencyBucket();
+                    bucket.setUpperBoundMillis(i < bounds.length ? bounds[i] : -1);
+                    bucket.setCount(counts[i]);
+                    buckets.add(bucket);
+                  }
+                  RequestLatency latency = new RequestLatency();
+                  latency.setLanguageServerId(languageServerId);
+                  latency.setMethod(method);
+                  latency.setCount(histogram.getCount());
+                  latency.setTotalMillis(histogram.getTotalMillis());
+                  latency.setMaxMillis(histogram.getMaxMillis());
+                  latency.setBuckets(buckets);
+                  result.add(new RequestLatencyDto(latency));
+                }));
+    return result;
+  }
+
+  private LatencyHistogram histogram(String languageServerId, String method) {
+    return histograms
+        .computeIfAbsent(languageServerId, id -> new ConcurrentHashMap<>())
+        .computeIfAbsent(method, m -> new LatencyHistogram());
+  }
+}
@@ -139,42 +139,21 @@ public class ServerCapabilitiesAccumulator implements BinaryOperator<ServerCapab
         return left;
       }
 
-      if (left.isLeft() && left.getLeft() == TextDocumentSyncKind.Full) {
-        return left;
-      }
-
-      if (left.isLeft() && left.getLeft() == TextDocumentSyncKind.Incremental) {
-        if (right.isLeft() && right.getLeft() == TextDocumentSyncKind.Full) {
-          return right;
-        } else {
-          return left;
-        }
-      }
-
-      if (left.isRight() && right.isRight()) {
-        TextDocumentSyncOptions leftRight = left.getRight();
-        TextDocumentSyncOptions rightRight = right.getRight();
-        if (leftRight.getChange() == TextDocumentSyncKind.Full) {
-          return left;
-        }
-
-        if (leftRight.getChange() == TextDocumentSyncKind.Incremental) {
-          if (rightRight.getChange() == TextDocumentSyncKind.Full) {
-            return right;
-          } else {
-            return left;
-          }
-        }
-      }
-
-      if (left.isLeft() && right.isRight()) {
-        return right;
-      }
+      // workspace agent sends each server the changes in the form the server supports, see
+      // TextDocumentSynchronizer, so the cheapest form any of the servers supports is requested
+      int leftRank = syncRank(TextDocumentSynchronizer.syncKind(left));
+      int rightRank = syncRank(TextDocumentSynchronizer.syncKind(right));
+      if (leftRank == rightRank) {
+        return left.isRight() ? left : right;
+      }
+      return leftRank > rightRank ? left : right;
+    }
 
-      if (left.isRight() && right.isLeft()) {
-        return left;
+    private int syncRank(TextDocumentSyncKind kind) {
+      if (kind == TextDocumentSyncKind.Incremental) {
+        return 2;
       }
-      return right;
+      return kind == TextDocumentSyncKind.Full ? 1 : 0;
     }
 
     private Boolean or(Function<ServerCapabilities, Boolean> f) {
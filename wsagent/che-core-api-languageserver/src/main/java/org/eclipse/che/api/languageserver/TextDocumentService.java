@@ -10,6 +10,7 @@
  */
 package org.eclipse.che.api.languageserver;
 
+import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.collect.Lists.newLinkedList;
 import static java.util.Collections.emptyList;
 import static org.eclipse.che.api.languageserver.LanguageServiceUtils.isStartWithProject;
@@ -17,8 +18,14 @@ import static org.eclipse.che.api.languageserver.LanguageServiceUtils.prefixProj
 import static org.eclipse.che.api.languageserver.LanguageServiceUtils.prefixURI;
 import static org.eclipse.che.api.languageserver.LanguageServiceUtils.removePrefixUri;
 import static org.eclipse.che.api.languageserver.LanguageServiceUtils.removeUriScheme;
+import static org.eclipse.che.api.languageserver.util.FuturePromise.REQUEST_SUPERSEDED;
 
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import com.google.inject.name.Named;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
@@ -27,19 +34,18 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
-import javax.inject.Inject;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcException;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcPromise;
 import org.eclipse.che.api.core.jsonrpc.commons.RequestHandlerConfigurator;
 import org.eclipse.che.api.languageserver.server.dto.DtoServerImpls.CommandDto;
 import org.eclipse.che.api.languageserver.server.dto.DtoServerImpls.CompletionItemDto;
@@ -53,6 +59,7 @@ import org.eclipse.che.api.languageserver.server.dto.DtoServerImpls.SignatureHel
 import org.eclipse.che.api.languageserver.server.dto.DtoServerImpls.SymbolInformationDto;
 import org.eclipse.che.api.languageserver.server.dto.DtoServerImpls.TextEditDto;
 import org.eclipse.che.api.languageserver.shared.model.*;
+import org.eclipse.che.api.languageserver.util.FuturePromise;
 import org.eclipse.che.api.languageserver.util.LSOperation;
 import org.eclipse.che.api.languageserver.util.OperationUtil;
 import org.eclipse.jface.text.BadLocationException;
@@ -98,61 +105,91 @@ import org.slf4j.LoggerFactory;
 public class TextDocumentService {
   private static final Logger LOG = LoggerFactory.getLogger(TextDocumentService.class);
 
+  private static final long DEFAULT_TIMEOUT_MILLIS = 10_000;
+  private static final Map<String, Long> DEFAULT_TIMEOUTS =
+      ImmutableMap.of(
+          "definition", 30_000L, "references", 30_000L, "rename", 30_000L, "formatting", 5_000L);
+
+  /** Methods whose pending requests are abandoned once a newer request for the document comes. */
+  private static final Set<String> SUPERSEDED_METHODS =
+      ImmutableSet.of("completion", "signatureHelp", "hover");
+
   private final FindServer findServer;
   private final RequestHandlerConfigurator requestHandler;
+  private final RequestLatencies latencies;
+  private final TextDocumentSynchronizer synchronizer;
+  private final Map<String, Long> timeouts = new ConcurrentHashMap<>(DEFAULT_TIMEOUTS);
+  private final Map<String, CompletableFuture<?>> pendingRequests = new ConcurrentHashMap<>();
+
+  /**
+   * Comma separated request timeouts in milliseconds overriding the default ones, e.g. {@code
+   * completion=5000,references=60000}.
+   */
+  @Inject(optional = true)
+  @Named("che.languageserver.request_timeouts")
+  private String requestTimeouts;
 
   @Inject
-  public TextDocumentService(FindServer findServer, RequestHandlerConfigurator requestHandler) {
+  public TextDocumentService(
+      FindServer findServer,
+      RequestHandlerConfigurator requestHandler,
+      RequestLatencies latencies,
+      TextDocumentSynchronizer synchronizer) {
     this.findServer = findServer;
     this.requestHandler = requestHandler;
+    this.latencies = latencies;
+    this.synchronizer = synchronizer;
   }
 
   @PostConstruct
   public void configureMethods() {
-    dtoToDtoList(
+    configureTimeouts();
+
+    dtoToPromiseList(
         "definition", TextDocumentPositionParams.class, LocationDto.class, this::definition);
-    dtoToDtoList("codeAction", CodeActionParams.class, CommandDto.class, this::codeAction);
-    dtoToDtoList(
+    dtoToPromiseList("codeAction", CodeActionParams.class, CommandDto.class, this::codeAction);
+    dtoToPromiseList(
         "documentSymbol",
         DocumentSymbolParams.class,
         SymbolInformationDto.class,
         this::documentSymbol);
-    dtoToDtoList("formatting", DocumentFormattingParams.class, TextEditDto.class, this::formatting);
-    dtoToDtoList(
+    dtoToPromiseList(
+        "formatting", DocumentFormattingParams.class, TextEditDto.class, this::formatting);
+    dtoToPromiseList(
         "rangeFormatting",
         DocumentRangeFormattingParams.class,
         TextEditDto.class,
         this::rangeFormatting);
-    dtoToDtoList("references", ReferenceParams.class, LocationDto.class, this::references);
-    dtoToDtoList(
+    dtoToPromiseList("references", ReferenceParams.class, LocationDto.class, this::references);
+    dtoToPromiseList(
         "onTypeFormatting",
         DocumentOnTypeFormattingParams.class,
         TextEditDto.class,
         this::onTypeFormatting);
 
-    dtoToDto(
+    dtoToPromise(
         "completionItem/resolve",
         ExtendedCompletionItem.class,
         ExtendedCompletionItemDto.class,
         this::completionItemResolve);
-    dtoToDto(
+    dtoToPromise(
         "documentHighlight",
         TextDocumentPositionParams.class,
         DocumentHighlight.class,
         this::documentHighlight);
-    dtoToDto(
+    dtoToPromise(
         "completion",
         TextDocumentPositionParams.class,
         ExtendedCompletionListDto.class,
         this::completion);
-    dtoToDto("hover", TextDocumentPositionParams.class, HoverDto.class, this::hover);
-    dtoToDto(
+    dtoToPromise("hover", TextDocumentPositionParams.class, HoverDto.class, this::hover);
+    dtoToPromise(
         "signatureHelp",
         TextDocumentPositionParams.class,
         SignatureHelpDto.class,
         this::signatureHelp);
 
-    dtoToDto("rename", RenameParams.class, RenameResultDto.class, this::rename);
+    dtoToPromise("rename", RenameParams.class, RenameResultDto.class, this::rename);
 
     dtoToNothing("didChange", DidChangeTextDocumentParams.class, this::didChange);
     dtoToNothing("didClose", DidCloseTextDocumentParams.class, this::didClose);
@@ -160,13 +197,30 @@ public class TextDocumentService {
     dtoToNothing("didSave", DidSaveTextDocumentParams.class, this::didSave);
   }
 
-  private List<CommandDto> codeAction(CodeActionParams params) {
+  private void configureTimeouts() {
+    if (isNullOrEmpty(requestTimeouts)) {
+      return;
+    }
+    Splitter splitter = Splitter.on(',').trimResults().omitEmptyStrings();
+    for (String timeout : splitter.split(requestTimeouts)) {
+      int separator = timeout.indexOf('=');
+      try {
+        timeouts.put(
+            timeout.substring(0, separator).trim(),
+            Long.parseLong(timeout.substring(separator + 1).trim()));
+      } catch (IndexOutOfBoundsException | NumberFormatException e) {
+        LOG.warn("Ignoring malformed language server request timeout '{}'", timeout);
+      }
+    }
+  }
+
+  private JsonRpcPromise<List<CommandDto>> codeAction(
+      String endpointId, CodeActionParams params) {
     TextDocumentIdentifier textDocument = params.getTextDocument();
     String wsPath = textDocument.getUri();
     String uri = prefixURI(wsPath);
     textDocument.setUri(uri);
     List<CommandDto> result = new ArrayList<>();
-    Set<ExtendedLanguageServer> servers = findServer.byPath(wsPath);
     LSOperation<ExtendedLanguageServer, List<? extends Command>> op =
         new LSOperation<ExtendedLanguageServer, List<? extends Command>>() {
 
@@ -188,22 +242,20 @@ public class TextDocumentService {
             return false;
           }
         };
-    OperationUtil.doInParallel(servers, op, 10000);
-    return result;
+    return inParallel(endpointId, "codeAction", wsPath, op, () -> result);
   }
 
-  private ExtendedCompletionListDto completion(
-      TextDocumentPositionParams textDocumentPositionParams) {
+  private JsonRpcPromise<ExtendedCompletionListDto> completion(
+      String endpointId, TextDocumentPositionParams textDocumentPositionParams) {
     TextDocumentIdentifier textDocument = textDocumentPositionParams.getTextDocument();
     String wsPath = textDocument.getUri();
     String uri = prefixURI(wsPath);
     textDocument.setUri(uri);
     textDocumentPositionParams.setUri(prefixURI(textDocumentPositionParams.getUri()));
 
-    ExtendedCompletionListDto[] result = new ExtendedCompletionListDto[1];
-    result[0] = new ExtendedCompletionListDto();
-    result[0].setInComplete(true);
-    result[0].setItems(newLinkedList());
+    ExtendedCompletionListDto result = new ExtendedCompletionListDto();
+    result.setInComplete(true);
+    result.setItems(newLinkedList());
 
     LSOperation<ExtendedLanguageServer, Either<List<CompletionItem>, CompletionList>> lsOperation =
         new LSOperation<ExtendedLanguageServer, Either<List<CompletionItem>, CompletionList>>() {
@@ -225,7 +277,7 @@ public class TextDocumentService {
 
             List<CompletionItem> itemList;
             if (r.isRight()) {
-              result[0].setInComplete(result[0].isInComplete() && r.getRight().isIncomplete());
+              result.setInComplete(result.isInComplete() && r.getRight().isIncomplete());
               itemList = r.getRight().getItems();
             } else {
               itemList = r.getLeft();
@@ -238,26 +290,25 @@ public class TextDocumentService {
               items.add(exItem);
             }
 
-            result[0].getItems().addAll(items);
+            result.getItems().addAll(items);
             return false;
           }
         };
 
-    Set<ExtendedLanguageServer> languageServers = findServer.byPath(wsPath);
-    OperationUtil.doInSequence(languageServers, lsOperation, 10000);
-
-    return result[0];
+    return inSequence(endpointId, "completion", wsPath, lsOperation, () -> result);
   }
 
-  private List<SymbolInformationDto> documentSymbol(DocumentSymbolParams documentSymbolParams) {
+  private JsonRpcPromise<List<SymbolInformationDto>> documentSymbol(
+      String endpointId, DocumentSymbolParams documentSymbolParams) {
     String wsPath = documentSymbolParams.getTextDocument().getUri();
     String uri = prefixURI(wsPath);
     documentSymbolParams.getTextDocument().setUri(uri);
     List<SymbolInformationDto> result = new ArrayList<>();
-    Set<ExtendedLanguageServer> servers = findServer.byPath(wsPath);
 
-    OperationUtil.doInParallel(
-        servers,
+    return inParallel(
+        endpointId,
+        "documentSymbol",
+        wsPath,
         new LSOperation<ExtendedLanguageServer, List<? extends SymbolInformation>>() {
 
           @Override
@@ -282,18 +333,19 @@ public class TextDocumentService {
             return true;
           }
         },
-        10000);
-    return result;
+        () -> result);
   }
 
-  private List<LocationDto> references(ReferenceParams referenceParams) {
+  private JsonRpcPromise<List<LocationDto>> references(
+      String endpointId, ReferenceParams referenceParams) {
     String wsPath = referenceParams.getTextDocument().getUri();
     String uri = prefixURI(wsPath);
     referenceParams.getTextDocument().setUri(uri);
     List<LocationDto> result = new ArrayList<>();
-    Set<ExtendedLanguageServer> servers = findServer.byPath(wsPath);
-    OperationUtil.doInParallel(
-        servers,
+    return inParallel(
+        endpointId,
+        "references",
+        wsPath,
         new LSOperation<ExtendedLanguageServer, List<? extends Location>>() {
 
           @Override
@@ -317,18 +369,19 @@ public class TextDocumentService {
             return true;
           }
         },
-        30000);
-    return result;
+        () -> result);
   }
 
-  private List<LocationDto> definition(TextDocumentPositionParams textDocumentPositionParams) {
+  private JsonRpcPromise<List<LocationDto>> definition(
+      String endpointId, TextDocumentPositionParams textDocumentPositionParams) {
     String wsPath = textDocumentPositionParams.getTextDocument().getUri();
     String uri = prefixURI(wsPath);
     textDocumentPositionParams.getTextDocument().setUri(uri);
-    Set<ExtendedLanguageServer> servers = findServer.byPath(wsPath);
     List<LocationDto> result = new ArrayList<>();
-    OperationUtil.doInParallel(
-        servers,
+    return inParallel(
+        endpointId,
+        "definition",
+        wsPath,
         new LSOperation<ExtendedLanguageServer, List<? extends Location>>() {
 
           @Override
@@ -352,32 +405,44 @@ public class TextDocumentService {
             return true;
           }
         },
-        30000);
-    return result;
+        () -> result);
   }
 
-  private ExtendedCompletionItemDto completionItemResolve(ExtendedCompletionItem unresolved) {
-    try {
-      ExtendedLanguageServer languageServer = findServer.byId(unresolved.getLanguageServerId());
-
-      if (languageServer == null) {
-        return new ExtendedCompletionItemDto(unresolved);
-      } else {
-        ExtendedCompletionItem res = new ExtendedCompletionItem();
-        res.setItem(
-            languageServer
-                .getTextDocumentService()
-                .resolveCompletionItem(unresolved.getItem())
-                .get());
-        res.setLanguageServerId(unresolved.getLanguageServerId());
-        return new ExtendedCompletionItemDto(res);
-      }
-    } catch (InterruptedException | ExecutionException e) {
-      throw new JsonRpcException(-27000, e.getMessage());
-    }
+  private JsonRpcPromise<ExtendedCompletionItemDto> completionItemResolve(
+      String endpointId, ExtendedCompletionItem unresolved) {
+    ExtendedCompletionItemDto[] result = {new ExtendedCompletionItemDto(unresolved)};
+    ExtendedLanguageServer languageServer = findServer.byId(unresolved.getLanguageServerId());
+    Set<ExtendedLanguageServer> servers =
+        languageServer == null ? Collections.emptySet() : Collections.singleton(languageServer);
+    LSOperation<ExtendedLanguageServer, CompletionItem> op =
+        new LSOperation<ExtendedLanguageServer, CompletionItem>() {
+          @Override
+          public boolean canDo(ExtendedLanguageServer element) {
+            return true;
+          }
+
+          @Override
+          public CompletableFuture<CompletionItem> start(ExtendedLanguageServer element) {
+            return element.getTextDocumentService().resolveCompletionItem(unresolved.getItem());
+          }
+
+          @Override
+          public boolean handleResult(ExtendedLanguageServer element, CompletionItem item) {
+            ExtendedCompletionItem res = new ExtendedCompletionItem();
+            res.setItem(item);
+            res.setLanguageServerId(unresolved.getLanguageServerId());
+            result[0] = new ExtendedCompletionItemDto(res);
+            return true;
+          }
+        };
+    String method = "completionItem/resolve";
+    CompletableFuture<Void> operation =
+        OperationUtil.doInSequenceAsync(servers, latencies.record(method, op), timeout(method));
+    return new FuturePromise<>(endpointId, operation.thenApply(it -> result[0]));
   }
 
-  private HoverDto hover(TextDocumentPositionParams positionParams) {
+  private JsonRpcPromise<HoverDto> hover(
+      String endpointId, TextDocumentPositionParams positionParams) {
     String wsPath = positionParams.getTextDocument().getUri();
     String uri = prefixURI(wsPath);
     positionParams.getTextDocument().setUri(uri);
@@ -385,9 +450,10 @@ public class TextDocumentService {
     HoverDto result = new HoverDto();
     result.setContents(new ArrayList<>());
 
-    Set<ExtendedLanguageServer> servers = findServer.byPath(uri);
-    OperationUtil.doInParallel(
-        servers,
+    return inParallel(
+        endpointId,
+        "hover",
+        wsPath,
         new LSOperation<ExtendedLanguageServer, Hover>() {
 
           @Override
@@ -409,17 +475,16 @@ public class TextDocumentService {
             return true;
           }
         },
-        10000);
-    return result;
+        () -> result);
   }
 
-  private SignatureHelpDto signatureHelp(TextDocumentPositionParams positionParams) {
+  private JsonRpcPromise<SignatureHelpDto> signatureHelp(
+      String endpointId, TextDocumentPositionParams positionParams) {
     String wsPath = positionParams.getTextDocument().getUri();
     String uri = prefixURI(wsPath);
     positionParams.getTextDocument().setUri(uri);
     positionParams.setUri(prefixURI(positionParams.getUri()));
     SignatureHelpDto[] result = new SignatureHelpDto[1];
-    Set<ExtendedLanguageServer> servers = findServer.byPath(wsPath);
     LSOperation<ExtendedLanguageServer, SignatureHelp> op =
         new LSOperation<ExtendedLanguageServer, SignatureHelp>() {
 
@@ -442,95 +507,76 @@ public class TextDocumentService {
             return false;
           }
         };
-    OperationUtil.doInSequence(servers, op, 10000);
-    return result[0];
+    return inSequence(endpointId, "signatureHelp", wsPath, op, () -> result[0]);
   }
 
-  private List<TextEditDto> formatting(DocumentFormattingParams documentFormattingParams) {
-    try {
-      String wsPath = documentFormattingParams.getTextDocument().getUri();
-      String uri = prefixURI(wsPath);
-      documentFormattingParams.getTextDocument().setUri(uri);
-      Optional<ExtendedLanguageServer> serverOptional =
-          findServer
-              .byPath(wsPath)
-              .stream()
-              .filter(s -> truish(s.getCapabilities().getDocumentFormattingProvider()))
-              .findFirst();
-      if (serverOptional.isPresent()) {
-        return serverOptional
-            .get()
-            .getTextDocumentService()
-            .formatting(documentFormattingParams)
-            .get(5000, TimeUnit.MILLISECONDS)
-            .stream()
-            .map(TextEditDto::new)
-            .collect(Collectors.toList());
-      } else {
-        return emptyList();
-      }
-    } catch (InterruptedException | ExecutionException | TimeoutException e) {
-      throw new JsonRpcException(-27000, e.getMessage());
-    }
+  private JsonRpcPromise<List<TextEditDto>> formatting(
+      String endpointId, DocumentFormattingParams documentFormattingParams) {
+    String wsPath = documentFormattingParams.getTextDocument().getUri();
+    String uri = prefixURI(wsPath);
+    documentFormattingParams.getTextDocument().setUri(uri);
+    return format(
+        endpointId,
+        "formatting",
+        wsPath,
+        server -> truish(server.getCapabilities().getDocumentFormattingProvider()),
+        server -> server.getTextDocumentService().formatting(documentFormattingParams));
   }
 
-  private List<TextEditDto> rangeFormatting(
-      DocumentRangeFormattingParams documentRangeFormattingParams) {
-    try {
-      String wsPath = documentRangeFormattingParams.getTextDocument().getUri();
-      String uri = prefixURI(wsPath);
-      documentRangeFormattingParams.getTextDocument().setUri(uri);
-      Optional<ExtendedLanguageServer> serverOptional =
-          findServer
-              .byPath(wsPath)
-              .stream()
-              .filter(s -> truish(s.getCapabilities().getDocumentRangeFormattingProvider()))
-              .findFirst();
-      if (serverOptional.isPresent()) {
-        return serverOptional
-            .get()
-            .getTextDocumentService()
-            .rangeFormatting(documentRangeFormattingParams)
-            .get()
-            .stream()
-            .map(TextEditDto::new)
-            .collect(Collectors.toList());
-      } else {
-        return emptyList();
-      }
+  private JsonRpcPromise<List<TextEditDto>> rangeFormatting(
+      String endpointId, DocumentRangeFormattingParams documentRangeFormattingParams) {
+    String wsPath = documentRangeFormattingParams.getTextDocument().getUri();
+    String uri = prefixURI(wsPath);
+    documentRangeFormattingParams.getTextDocument().setUri(uri);
+    return format(
+        endpointId,
+        "rangeFormatting",
+        wsPath,
+        server -> truish(server.getCapabilities().getDocumentRangeFormattingProvider()),
+        server -> server.getTextDocumentService().rangeFormatting(documentRangeFormattingParams));
+  }
 
-    } catch (InterruptedException | ExecutionException e) {
-      throw new JsonRpcException(-27000, e.getMessage());
-    }
+  private JsonRpcPromise<List<TextEditDto>> onTypeFormatting(
+      String endpointId, DocumentOnTypeFormattingParams documentOnTypeFormattingParams) {
+    String wsPath = documentOnTypeFormattingParams.getTextDocument().getUri();
+    String uri = prefixURI(wsPath);
+    documentOnTypeFormattingParams.getTextDocument().setUri(uri);
+    return format(
+        endpointId,
+        "onTypeFormatting",
+        wsPath,
+        server -> server.getCapabilities().getDocumentOnTypeFormattingProvider() != null,
+        server -> server.getTextDocumentService().onTypeFormatting(documentOnTypeFormattingParams));
   }
 
-  private List<TextEditDto> onTypeFormatting(
-      DocumentOnTypeFormattingParams documentOnTypeFormattingParams) {
-    try {
-      String wsPath = documentOnTypeFormattingParams.getTextDocument().getUri();
-      String uri = prefixURI(wsPath);
-      documentOnTypeFormattingParams.getTextDocument().setUri(uri);
-      Optional<ExtendedLanguageServer> serverOptional =
-          findServer
-              .byPath(wsPath)
-              .stream()
-              .filter(it -> it.getCapabilities().getDocumentOnTypeFormattingProvider() != null)
-              .findFirst();
-      if (serverOptional.isPresent()) {
-        return serverOptional
-            .get()
-            .getTextDocumentService()
-            .onTypeFormatting(documentOnTypeFormattingParams)
-            .get()
-            .stream()
-            .map(TextEditDto::new)
-            .collect(Collectors.toList());
-      } else {
-        return emptyList();
-      }
-    } catch (InterruptedException | ExecutionException e) {
-      throw new JsonRpcException(-27000, e.getMessage());
-    }
+  /** Formats the document with the first language server which is capable to do it. */
+  private JsonRpcPromise<List<TextEditDto>> format(
+      String endpointId,
+      String method,
+      String wsPath,
+      Predicate<ExtendedLanguageServer> canDo,
+      Function<ExtendedLanguageServer, CompletableFuture<List<? extends TextEdit>>> start) {
+    List<TextEditDto> result = new ArrayList<>();
+    LSOperation<ExtendedLanguageServer, List<? extends TextEdit>> op =
+        new LSOperation<ExtendedLanguageServer, List<? extends TextEdit>>() {
+          @Override
+          public boolean canDo(ExtendedLanguageServer element) {
+            return canDo.test(element);
+          }
+
+          @Override
+          public CompletableFuture<List<? extends TextEdit>> start(ExtendedLanguageServer element) {
+            return start.apply(element);
+          }
+
+          @Override
+          public boolean handleResult(
+              ExtendedLanguageServer element, List<? extends TextEdit> edits) {
+            edits.forEach(edit -> result.add(new TextEditDto(edit)));
+            return true;
+          }
+        };
+    return inSequence(endpointId, method, wsPath, op, () -> result);
   }
 
   private void didChange(DidChangeTextDocumentParams didChangeTextDocumentParams) {
@@ -538,110 +584,71 @@ public class TextDocumentService {
     String uri = prefixURI(wsPath);
     didChangeTextDocumentParams.getTextDocument().setUri(uri);
     didChangeTextDocumentParams.setUri(prefixURI(didChangeTextDocumentParams.getUri()));
-    findServer
-        .byPath(wsPath)
-        .forEach(server -> server.getTextDocumentService().didChange(didChangeTextDocumentParams));
+    synchronizer.didChange(wsPath, didChangeTextDocumentParams);
   }
 
   private void didOpen(DidOpenTextDocumentParams openTextDocumentParams) {
     String wsPath = openTextDocumentParams.getTextDocument().getUri();
     String uri = prefixURI(wsPath);
     openTextDocumentParams.getTextDocument().setUri(uri);
-    findServer
-        .byPath(wsPath)
-        .forEach(server -> server.getTextDocumentService().didOpen(openTextDocumentParams));
+    synchronizer.didOpen(wsPath, openTextDocumentParams);
   }
 
   private void didClose(DidCloseTextDocumentParams didCloseTextDocumentParams) {
     String wsPath = didCloseTextDocumentParams.getTextDocument().getUri();
     String uri = prefixURI(wsPath);
     didCloseTextDocumentParams.getTextDocument().setUri(uri);
-    findServer
-        .byPath(wsPath)
-        .forEach(server -> server.getTextDocumentService().didClose(didCloseTextDocumentParams));
+    synchronizer.didClose(wsPath, didCloseTextDocumentParams);
   }
 
   private void didSave(DidSaveTextDocumentParams didSaveTextDocumentParams) {
     String wsPath = didSaveTextDocumentParams.getTextDocument().getUri();
     String uri = prefixURI(wsPath);
     didSaveTextDocumentParams.getTextDocument().setUri(uri);
+    synchronizer.flush(wsPath);
     findServer
         .byPath(wsPath)
         .forEach(server -> server.getTextDocumentService().didSave(didSaveTextDocumentParams));
   }
 
-  private DocumentHighlightDto documentHighlight(
-      TextDocumentPositionParams textDocumentPositionParams) {
+  private JsonRpcPromise<DocumentHighlight> documentHighlight(
+      String endpointId, TextDocumentPositionParams textDocumentPositionParams) {
     String wsPath = textDocumentPositionParams.getTextDocument().getUri();
     String uri = prefixURI(wsPath);
     textDocumentPositionParams.getTextDocument().setUri(uri);
-    @SuppressWarnings("unchecked")
-    List<DocumentHighlightDto>[] result = new List[1];
-    LSOperation<ExtendedLanguageServer, List<DocumentHighlightDto>> op =
-        new LSOperation<ExtendedLanguageServer, List<DocumentHighlightDto>>() {
+    DocumentHighlightDto[] result = new DocumentHighlightDto[1];
+    LSOperation<ExtendedLanguageServer, List<? extends DocumentHighlight>> op =
+        new LSOperation<ExtendedLanguageServer, List<? extends DocumentHighlight>>() {
 
           @Override
-          public boolean canDo(ExtendedLanguageServer servers) {
-            return true;
+          public boolean canDo(ExtendedLanguageServer element) {
+            return truish(element.getCapabilities().getDocumentHighlightProvider());
           }
 
           @Override
-          public CompletableFuture<List<DocumentHighlightDto>> start(
+          public CompletableFuture<List<? extends DocumentHighlight>> start(
               ExtendedLanguageServer element) {
-            return CompletableFuture.supplyAsync(
-                () -> {
-                  List<DocumentHighlightDto> res = new ArrayList<>();
-                  LSOperation<ExtendedLanguageServer, List<? extends DocumentHighlight>> op2 =
-                      new LSOperation<ExtendedLanguageServer, List<? extends DocumentHighlight>>() {
-
-                        @Override
-                        public boolean canDo(ExtendedLanguageServer lsProxy) {
-                          return truish(lsProxy.getCapabilities().getDocumentHighlightProvider());
-                        }
-
-                        @Override
-                        public CompletableFuture<List<? extends DocumentHighlight>> start(
-                            ExtendedLanguageServer element) {
-                          return element
-                              .getTextDocumentService()
-                              .documentHighlight(textDocumentPositionParams);
-                        }
-
-                        @Override
-                        public boolean handleResult(
-                            ExtendedLanguageServer element,
-                            List<? extends DocumentHighlight> result) {
-
-                          return false;
-                        }
-                      };
-                  OperationUtil.doInParallel(Collections.singleton(element), op2, 10000);
-
-                  return res;
-                });
+            return element.getTextDocumentService().documentHighlight(textDocumentPositionParams);
           }
 
           @Override
           public boolean handleResult(
-              ExtendedLanguageServer element, List<DocumentHighlightDto> list) {
-            result[0] = list;
-            return !list.isEmpty();
+              ExtendedLanguageServer element, List<? extends DocumentHighlight> highlights) {
+            if (highlights != null && !highlights.isEmpty()) {
+              result[0] = new DocumentHighlightDto(highlights.get(0));
+              return true;
+            }
+            return false;
           }
         };
-    OperationUtil.doInSequence(findServer.byPath(wsPath), op, 10000);
-
-    if (!result[0].isEmpty()) {
-      return result[0].get(0);
-    }
-    return null;
+    return inSequence(endpointId, "documentHighlight", wsPath, op, () -> result[0]);
   }
 
-  private RenameResultDto rename(RenameParams renameParams) {
+  private JsonRpcPromise<RenameResultDto> rename(String endpointId, RenameParams renameParams) {
     String wsPath = renameParams.getTextDocument().getUri();
     String uri = prefixURI(wsPath);
     renameParams.getTextDocument().setUri(uri);
     Map<String, ExtendedWorkspaceEdit> edits = new ConcurrentHashMap<>();
-    Set<ExtendedLanguageServer> servers = findServer.byPath(wsPath);
     LSOperation<ExtendedLanguageServer, WorkspaceEdit> op =
         new LSOperation<ExtendedLanguageServer, WorkspaceEdit>() {
           @Override
@@ -662,8 +669,8 @@ public class TextDocumentService {
             return true;
           }
         };
-    OperationUtil.doInParallel(servers, op, TimeUnit.SECONDS.toMillis(30));
-    return new RenameResultDto(new RenameResult(edits));
+    return inParallel(
+        endpointId, "rename", wsPath, op, () -> new RenameResultDto(new RenameResult(edits)));
   }
 
   private void addRenameResult(
@@ -736,6 +743,68 @@ public class TextDocumentService {
     return emptyList();
   }
 
+  private <R, T> JsonRpcPromise<T> inParallel(
+      String endpointId,
+      String method,
+      String wsPath,
+      LSOperation<ExtendedLanguageServer, R> op,
+      Supplier<T> result) {
+    synchronizer.flush(wsPath);
+    CompletableFuture<Void> operation =
+        OperationUtil.doInParallelAsync(
+            findServer.byPath(wsPath), latencies.record(method, op), timeout(method));
+    return supersede(endpointId, method, wsPath, operation, result);
+  }
+
+  private <R, T> JsonRpcPromise<T> inSequence(
+      String endpointId,
+      String method,
+      String wsPath,
+      LSOperation<ExtendedLanguageServer, R> op,
+      Supplier<T> result) {
+    synchronizer.flush(wsPath);
+    CompletableFuture<Void> operation =
+        OperationUtil.doInSequenceAsync(
+            findServer.byPath(wsPath), latencies.record(method, op), timeout(method));
+    return supersede(endpointId, method, wsPath, operation, result);
+  }
+
+  /**
+   * Resolves the promise with the result when the operation completes. Requests of the {@link
+   * #SUPERSEDED_METHODS} abandon the pending request of the same method for the same document sent
+   * from the same endpoint, e.g. completion requested for the previous caret position. The
+   * abandoned request is cancelled and answered with {@link FuturePromise#REQUEST_SUPERSEDED}
+   * error which the IDE does not report.
+   */
+  private <T> JsonRpcPromise<T> supersede(
+      String endpointId,
+      String method,
+      String wsPath,
+      CompletableFuture<Void> operation,
+      Supplier<T> result) {
+    CompletableFuture<T> answer = operation.thenApply(it -> result.get());
+    if (SUPERSEDED_METHODS.contains(method)) {
+      String key = endpointId + '@' + method + '@' + wsPath;
+      CompletableFuture<?> previous = pendingRequests.put(key, answer);
+      if (previous != null) {
+        previous.completeExceptionally(
+            new JsonRpcException(REQUEST_SUPERSEDED, "Request superseded by a newer one"));
+      }
+      answer.whenComplete(
+          (r, t) -> {
+            pendingRequests.remove(key, answer);
+            if (t != null) {
+              operation.cancel(true);
+            }
+          });
+    }
+    return new FuturePromise<>(endpointId, answer);
+  }
+
+  private long timeout(String method) {
+    return timeouts.getOrDefault(method, DEFAULT_TIMEOUT_MILLIS);
+  }
+
   private <P> void dtoToNothing(String name, Class<P> pClass, Consumer<P> consumer) {
     requestHandler
         .newConfiguration()
@@ -745,24 +814,30 @@ public class TextDocumentService {
         .withConsumer(consumer);
   }
 
-  private <P, R> void dtoToDtoList(
-      String name, Class<P> pClass, Class<R> rClass, Function<P, List<R>> function) {
+  private <P, R> void dtoToPromiseList(
+      String name,
+      Class<P> pClass,
+      Class<R> rClass,
+      BiFunction<String, P, JsonRpcPromise<List<R>>> function) {
     requestHandler
         .newConfiguration()
         .methodName("textDocument/" + name)
         .paramsAsDto(pClass)
-        .resultAsListOfDto(rClass)
-        .withFunction(function);
+        .resultAsPromiseListOfDto(rClass)
+        .withPromiseBiFunction(function);
   }
 
-  private <P, R> void dtoToDto(
-      String name, Class<P> pClass, Class<R> rClass, Function<P, R> function) {
+  private <P, R> void dtoToPromise(
+      String name,
+      Class<P> pClass,
+      Class<R> rClass,
+      BiFunction<String, P, JsonRpcPromise<R>> function) {
     requestHandler
         .newConfiguration()
         .methodName("textDocument/" + name)
         .paramsAsDto(pClass)
-        .resultAsDto(rClass)
-        .withFunction(function);
+        .resultAsPromiseDto(rClass)
+        .withPromiseBiFunction(function);
   }
 
   private boolean truish(Boolean b) {
@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.languageserver;
+
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Singleton;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.lsp4j.DidChangeTextDocumentParams;
+import org.eclipse.lsp4j.DidCloseTextDocumentParams;
+import org.eclipse.lsp4j.DidOpenTextDocumentParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.eclipse.lsp4j.TextDocumentItem;
+import org.eclipse.lsp4j.TextDocumentSyncKind;
+import org.eclipse.lsp4j.TextDocumentSyncOptions;
+import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the text of the documents opened in the editor and forwards document changes to the
+ * language servers.
+ *
+ * <p>Changes which come within {@link #COALESCE_DELAY_MILLIS} are merged and sent to the servers
+ * at once. Each server receives the change in the form negotiated by its {@link
+ * TextDocumentSyncKind}: servers which support incremental synchronization receive the single
+ * changed range, servers which support full synchronization receive the whole text. Pending changes
+ * must be flushed with {@link #flush(String)} before any request which depends on the document
+ * state.
+ */
+@Singleton
+public class TextDocumentSynchronizer {
+  private static final Logger LOG = LoggerFactory.getLogger(TextDocumentSynchronizer.class);
+
+  private static final long COALESCE_DELAY_MILLIS = 50;
+
+  private final FindServer findServer;
+  private final Map<String, OpenDocument> documents = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService executor;
+
+  @Inject
+  TextDocumentSynchronizer(FindServer findServer) {
+    this.findServer = findServer;
+    this.executor =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("LanguageServerDocumentSync-%d")
+                .setDaemon(true)
+                .build());
+  }
+
+  @PreDestroy
+  void stop() {
+    executor.shutdownNow();
+  }
+
+  /** Checks whether the document is opened in the editor. */
+  public boolean isOpened(String wsPath) {
+    return documents.containsKey(wsPath);
+  }
+
+  /** Starts tracking of the opened document and notifies the language servers. */
+  void didOpen(String wsPath, DidOpenTextDocumentParams params) {
+    TextDocumentItem textDocument = params.getTextDocument();
+    if (textDocument.getText() != null) {
+      documents.put(
+          wsPath,
+          new OpenDocument(
+              textDocument.getUri(), textDocument.getText(), textDocument.getVersion()));
+    }
+    findServer.byPath(wsPath).forEach(server -> server.getTextDocumentService().didOpen(params));
+  }
+
+  /**
+   * Applies the changes to the tracked document and schedules their delivery to the language
+   * servers. Changes of the document which is not tracked are forwarded as is.
+   */
+  void didChange(String wsPath, DidChangeTextDocumentParams params) {
+    OpenDocument document = documents.get(wsPath);
+    if (document != null) {
+      synchronized (document) {
+        try {
+          for (TextDocumentContentChangeEvent change : params.getContentChanges()) {
+            document.apply(change);
+          }
+          document.version = params.getTextDocument().getVersion();
+          if (document.flushTask == null) {
+            document.flushTask =
+                executor.schedule(() -> flush(wsPath), COALESCE_DELAY_MILLIS, MILLISECONDS);
+          }
+          return;
+        } catch (BadLocationException e) {
+          LOG.warn("Change of the document '{}' is out of its bounds, stop tracking it", wsPath);
+          documents.remove(wsPath, document);
+          cancelFlush(document);
+        }
+      }
+    }
+    findServer.byPath(wsPath).forEach(server -> server.getTextDocumentService().didChange(params));
+  }
+
+  /** Stops tracking of the closed document and notifies the language servers. */
+  void didClose(String wsPath, DidCloseTextDocumentParams params) {
+    OpenDocument document = documents.remove(wsPath);
+    if (document != null) {
+      synchronized (document) {
+        cancelFlush(document);
+      }
+    }
+    findServer.byPath(wsPath).forEach(server -> server.getTextDocumentService().didClose(params));
+  }
+
+  /** Sends pending changes of the document to the language servers. */
+  void flush(String wsPath) {
+    OpenDocument document = documents.get(wsPath);
+    if (document != null) {
+      synchronized (document) {
+        flush(wsPath, document);
+      }
+    }
+  }
+
+  private void flush(String wsPath, OpenDocument document) {
+    cancelFlush(document);
+    String text = document.text.get();
+    if (text.equals(document.syncedText)) {
+      return;
+    }
+    TextDocumentContentChangeEvent fullChange = null;
+    TextDocumentContentChangeEvent incrementalChange = null;
+    for (ExtendedLanguageServer server : findServer.byPath(wsPath)) {
+      TextDocumentSyncKind syncKind = syncKind(server.getCapabilities().getTextDocumentSync());
+      TextDocumentContentChangeEvent change;
+      if (syncKind == TextDocumentSyncKind.None) {
+        continue;
+      } else if (syncKind == TextDocumentSyncKind.Incremental) {
+        if (incrementalChange == null) {
+          incrementalChange = diff(document.syncedText, text);
+        }
+        change = incrementalChange;
+      } else {
+        // servers which don't declare synchronization kind used to receive all the changes
+        if (fullChange == null) {
+          fullChange = new TextDocumentContentChangeEvent(text);
+        }
+        change = fullChange;
+      }
+      VersionedTextDocumentIdentifier identifier = new VersionedTextDocumentIdentifier();
+      identifier.setUri(document.uri);
+      identifier.setVersion(document.version);
+      DidChangeTextDocumentParams params =
+          new DidChangeTextDocumentParams(identifier, singletonList(change));
+      params.setUri(document.uri);
+      server.getTextDocumentService().didChange(params);
+    }
+    document.syncedText = text;
+  }
+
+  private static void cancelFlush(OpenDocument document) {
+    if (document.flushTask != null) {
+      document.flushTask.cancel(false);
+      document.flushTask = null;
+    }
+  }
+
+  /** Returns synchronization kind of the given capability or null if it is not defined. */
+  static TextDocumentSyncKind syncKind(
+      Either<TextDocumentSyncKind, TextDocumentSyncOptions> textDocumentSync) {
+    if (textDocumentSync == null) {
+      return null;
+    }
+    return textDocumentSync.isLeft()
+        ? textDocumentSync.getLeft()
+        : textDocumentSync.getRight().getChange();
+  }
+
+  /** Returns the single change which turns the old text into the new one. */
+  @VisibleForTesting
+  static TextDocumentContentChangeEvent diff(String oldText, String newText) {
+    int maxLength = Math.min(oldText.length(), newText.length());
+    int prefix = 0;
+    while (prefix < maxLength && oldText.charAt(prefix) == newText.charAt(prefix)) {
+      prefix++;
+    }
+    if (prefix > 0 && splitsCharacter(oldText, prefix)) {
+      prefix--;
+    }
+    int suffix = 0;
+    while (suffix < maxLength - prefix
+        && oldText.charAt(oldText.length() - 1 - suffix)
+            == newText.charAt(newText.length() - 1 - suffix)) {
+      suffix++;
+    }
+    if (suffix > 0 && splitsCharacter(oldText, oldText.length() - suffix)) {
+      suffix--;
+    }
+    int oldEnd = oldText.length() - suffix;
+    return new TextDocumentContentChangeEvent(
+        new Range(position(oldText, prefix), position(oldText, oldEnd)),
+        oldEnd - prefix,
+        newText.substring(prefix, newText.length() - suffix));
+  }
+
+  /** Checks whether the offset is inside of a surrogate pair or a CRLF line delimiter. */
+  private static boolean splitsCharacter(String text, int offset) {
+    if (offset <= 0 || offset >= text.length()) {
+      return false;
+    }
+    char before = text.charAt(offset - 1);
+    char after = text.charAt(offset);
+    return (before == '\r' && after == '\n')
+        || (Character.isHighSurrogate(before) && Character.isLowSurrogate(after));
+  }
+
+  private static Position position(String text, int offset) {
+    int line = 0;
+    int lineStart = 0;
+    for (int i = 0; i < offset; i++) {
+      char c = text.charAt(i);
+      if (c == '\n' || (c == '\r' && (i + 1 == text.length() || text.charAt(i + 1) != '\n'))) {
+        line++;
+        lineStart = i + 1;
+      }
+    }
+    return new Position(line, offset - lineStart);
+  }
+
+  private static class OpenDocument {
+    private final String uri;
+    private final Document text;
+    private String syncedText;
+    private Integer version;
+    private ScheduledFuture<?> flushTask;
+
+    private OpenDocument(String uri, String text, Integer version) {
+      this.uri = uri;
+      this.text = new Document(text);
+      this.syncedText = text;
+      this.version = version;
+    }
+
+    private void apply(TextDocumentContentChangeEvent change) throws BadLocationException {
+      if (change.getRange() == null) {
+        text.set(change.getText());
+        return;
+      }
+      int start = offset(change.getRange().getStart());
+      int end = offset(change.getRange().getEnd());
+      text.replace(start, end - start, change.getText());
+    }
+
+    private int offset(Position position) throws BadLocationException {
+      return text.getLineOffset(position.getLine()) + position.getCharacter();
+    }
+  }
+}
@@ -10,40 +10,84 @@
  */
 package org.eclipse.che.api.languageserver.messager;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.eclipse.che.api.core.jsonrpc.commons.RequestHandlerConfigurator;
 import org.eclipse.che.api.core.jsonrpc.commons.RequestTransmitter;
 import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.languageserver.TextDocumentSynchronizer;
+import org.eclipse.che.api.languageserver.server.dto.DtoServerImpls.DiagnosticsStatisticsDto;
 import org.eclipse.che.api.languageserver.server.dto.DtoServerImpls.ExtendedPublishDiagnosticsParamsDto;
+import org.eclipse.che.api.languageserver.shared.model.DiagnosticsStatistics;
 import org.eclipse.che.api.languageserver.shared.model.ExtendedPublishDiagnosticsParams;
 import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-/** Transmits 'textDocument/publishDiagnostics' over the JSON-RPC */
+/**
+ * Transmits 'textDocument/publishDiagnostics' over the JSON-RPC.
+ *
+ * <p>Diagnostics are not sent as soon as they are published, only the latest diagnostics of each
+ * document published by each language server are kept and sent periodically, at most {@link
+ * #MAX_NOTIFICATIONS_PER_FLUSH} notifications per {@link #FLUSH_PERIOD_MILLIS}. Diagnostics of the
+ * documents opened in the editor are sent first. Empty diagnostics of the document which has no
+ * diagnostics sent yet are dropped as they change nothing on the client side. Counts of the sent,
+ * merged and dropped notifications are published with {@code
+ * textDocument/publishDiagnostics/getStatistics} JSON RPC method.
+ */
 @Singleton
 public class PublishDiagnosticsParamsJsonRpcTransmitter {
+  private static final Logger LOG =
+      LoggerFactory.getLogger(PublishDiagnosticsParamsJsonRpcTransmitter.class);
+
+  private static final long FLUSH_PERIOD_MILLIS = 100;
+  private static final int MAX_NOTIFICATIONS_PER_FLUSH = 50;
+
   private final Set<String> endpointIds = new CopyOnWriteArraySet<>();
+  private final Map<String, ExtendedPublishDiagnosticsParams> pending = new LinkedHashMap<>();
+  private final Set<String> withDiagnostics = new HashSet<>();
+  private final LongAdder sent = new LongAdder();
+  private final LongAdder merged = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+
+  private final RequestTransmitter requestTransmitter;
+  private final TextDocumentSynchronizer synchronizer;
+  private final ScheduledExecutorService executor;
 
   @Inject
-  private void subscribe(EventService eventService, RequestTransmitter requestTransmitter) {
-    eventService.subscribe(
-        event -> {
-          PublishDiagnosticsParams params = event.getParams();
-          if (params.getUri() != null) {
-            params.setUri(params.getUri().substring(16));
-          }
-          endpointIds.forEach(
-              endpointId ->
-                  requestTransmitter
-                      .newRequest()
-                      .endpointId(endpointId)
-                      .methodName("textDocument/publishDiagnostics")
-                      .paramsAsDto(new ExtendedPublishDiagnosticsParamsDto(event))
-                      .sendAndSkipResult());
-        },
-        ExtendedPublishDiagnosticsParams.class);
+  public PublishDiagnosticsParamsJsonRpcTransmitter(
+      RequestTransmitter requestTransmitter, TextDocumentSynchronizer synchronizer) {
+    this.requestTransmitter = requestTransmitter;
+    this.synchronizer = synchronizer;
+    this.executor =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("PublishDiagnosticsTransmitter-%d")
+                .setDaemon(true)
+                .build());
+  }
+
+  @Inject
+  private void subscribe(EventService eventService) {
+    eventService.subscribe(this::onDiagnostics, ExtendedPublishDiagnosticsParams.class);
+    executor.scheduleWithFixedDelay(
+        this::flushSafely, FLUSH_PERIOD_MILLIS, FLUSH_PERIOD_MILLIS, MILLISECONDS);
   }
 
   @Inject
@@ -53,7 +97,7 @@ public class PublishDiagnosticsParamsJsonRpcTransmitter {
         .methodName("textDocument/publishDiagnostics/subscribe")
         .noParams()
         .noResult()
-        .withConsumer(endpointIds::add);
+        .withConsumer(this::subscribeEndpoint);
   }
 
   @Inject
@@ -65,4 +109,105 @@ public class PublishDiagnosticsParamsJsonRpcTransmitter {
         .noResult()
         .withConsumer(endpointIds::remove);
   }
+
+  @Inject
+  private void configureStatisticsHandler(RequestHandlerConfigurator requestHandler) {
+    requestHandler
+        .newConfiguration()
+        .methodName("textDocument/publishDiagnostics/getStatistics")
+        .noParams()
+        .resultAsDto(DiagnosticsStatisticsDto.class)
+        .withSupplier(this::getStatistics);
+  }
+
+  @PreDestroy
+  private void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @VisibleForTesting
+  DiagnosticsStatisticsDto getStatistics() {
+    DiagnosticsStatistics statistics = new DiagnosticsStatistics();
+    statistics.setSent(sent.sum());
+    statistics.setMerged(merged.sum());
+    statistics.setDropped(dropped.sum());
+    return new DiagnosticsStatisticsDto(statistics);
+  }
+
+  @VisibleForTesting
+  void subscribeEndpoint(String endpointId) {
+    endpointIds.add(endpointId);
+  }
+
+  @VisibleForTesting
+  void onDiagnostics(ExtendedPublishDiagnosticsParams event) {
+    PublishDiagnosticsParams params = event.getParams();
+    if (params.getUri() != null) {
+      params.setUri(params.getUri().substring(16));
+    }
+    synchronized (pending) {
+      if (pending.put(event.getLanguageServerId() + '@' + params.getUri(), event) != null) {
+        merged.increment();
+      }
+    }
+  }
+
+  /** Sends the pending diagnostics, diagnostics of the opened documents go first. */
+  @VisibleForTesting
+  void flush() {
+    List<ExtendedPublishDiagnosticsParams> batch = new ArrayList<>();
+    synchronized (pending) {
+      takePending(batch, true);
+      takePending(batch, false);
+    }
+    for (ExtendedPublishDiagnosticsParams event : batch) {
+      endpointIds.forEach(
+          endpointId ->
+              requestTransmitter
+                  .newRequest()
+                  .endpointId(endpointId)
+                  .methodName("textDocument/publishDiagnostics")
+                  .paramsAsDto(new ExtendedPublishDiagnosticsParamsDto(event))
+                  .sendAndSkipResult());
+    }
+    if (!batch.isEmpty()) {
+      sent.add(batch.size());
+      LOG.debug(
+          "Sent {} diagnostics, in total sent: {}, merged: {}, dropped: {}",
+          batch.size(),
+          sent.sum(),
+          merged.sum(),
+          dropped.sum());
+    }
+  }
+
+  private void takePending(List<ExtendedPublishDiagnosticsParams> batch, boolean opened) {
+    Iterator<Map.Entry<String, ExtendedPublishDiagnosticsParams>> it =
+        pending.entrySet().iterator();
+    while (batch.size() < MAX_NOTIFICATIONS_PER_FLUSH && it.hasNext()) {
+      Map.Entry<String, ExtendedPublishDiagnosticsParams> entry = it.next();
+      PublishDiagnosticsParams params = entry.getValue().getParams();
+      if (params.getUri() != null && synchronizer.isOpened(params.getUri()) != opened) {
+        continue;
+      }
+      it.remove();
+      if (params.getDiagnostics() == null || params.getDiagnostics().isEmpty()) {
+        if (!withDiagnostics.remove(entry.getKey())) {
+          dropped.increment();
+          continue;
+        }
+      } else {
+        withDiagnostics.add(entry.getKey());
+      }
+      batch.add(entry.getValue());
+    }
+  }
+
+  private void flushSafely() {
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      LOG.error("Can't send diagnostics", e);
+    }
+  }
 }
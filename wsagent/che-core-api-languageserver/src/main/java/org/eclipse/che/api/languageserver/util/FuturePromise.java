@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.languageserver.util;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcError;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcException;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcPromise;
+
+/**
+ * JSON RPC promise which is resolved by a {@link CompletableFuture}. The future is subscribed only
+ * when both success and failure consumers are set, so a future which is already completed at the
+ * moment the promise is returned from a request handler is not lost.
+ *
+ * @param <R> type of the result
+ */
+public class FuturePromise<R> extends JsonRpcPromise<R> {
+  /** Error code of a request cancelled by the client or by the language server. */
+  public static final int REQUEST_CANCELLED = -32800;
+
+  /** Error code of a request abandoned in favour of a newer request of the same kind. */
+  public static final int REQUEST_SUPERSEDED = -27001;
+
+  private static final int INTERNAL_ERROR = -27000;
+
+  private final String endpointId;
+  private final CompletableFuture<R> future;
+  private final AtomicBoolean subscribed = new AtomicBoolean();
+
+  public FuturePromise(String endpointId, CompletableFuture<R> future) {
+    this.endpointId = endpointId;
+    this.future = future;
+  }
+
+  @Override
+  public JsonRpcPromise<R> onSuccess(BiConsumer<String, R> biConsumer) {
+    super.onSuccess(biConsumer);
+    subscribe();
+    return this;
+  }
+
+  @Override
+  public JsonRpcPromise<R> onSuccess(Consumer<R> consumer) {
+    super.onSuccess(consumer);
+    subscribe();
+    return this;
+  }
+
+  @Override
+  public JsonRpcPromise<R> onSuccess(Runnable runnable) {
+    super.onSuccess(runnable);
+    subscribe();
+    return this;
+  }
+
+  @Override
+  public JsonRpcPromise<R> onFailure(BiConsumer<String, JsonRpcError> biConsumer) {
+    super.onFailure(biConsumer);
+    subscribe();
+    return this;
+  }
+
+  @Override
+  public JsonRpcPromise<R> onFailure(Consumer<JsonRpcError> consumer) {
+    super.onFailure(consumer);
+    subscribe();
+    return this;
+  }
+
+  @Override
+  public JsonRpcPromise<R> onFailure(Runnable runnable) {
+    super.onFailure(runnable);
+    subscribe();
+    return this;
+  }
+
+  private void subscribe() {
+    if (!getSuccessConsumer().isPresent()
+        || !getFailureConsumer().isPresent()
+        || !subscribed.compareAndSet(false, true)) {
+      return;
+    }
+    BiConsumer<String, R> successConsumer = getSuccessConsumer().get();
+    BiConsumer<String, JsonRpcError> failureConsumer = getFailureConsumer().get();
+    future.whenComplete(
+        (result, t) -> {
+          if (t == null) {
+            successConsumer.accept(endpointId, result);
+          } else {
+            failureConsumer.accept(endpointId, toError(t));
+          }
+        });
+  }
+
+  private static JsonRpcError toError(Throwable t) {
+    Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+    if (cause instanceof CancellationException) {
+      return new JsonRpcError(REQUEST_CANCELLED, "Request cancelled");
+    }
+    if (cause instanceof JsonRpcException) {
+      return new JsonRpcError(((JsonRpcException) cause).getCode(), cause.getMessage());
+    }
+    return new JsonRpcError(INTERNAL_ERROR, cause.getMessage());
+  }
+}
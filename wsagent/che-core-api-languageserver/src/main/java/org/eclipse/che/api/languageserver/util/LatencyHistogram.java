@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.languageserver.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies with fixed buckets. Bucket {@code i} counts latencies which are
+ * less or equal to {@code getUpperBounds()[i]} and greater than the previous bound, the last
+ * bucket counts latencies greater than all the bounds.
+ */
+public class LatencyHistogram {
+  private static final long[] UPPER_BOUNDS_MILLIS = {
+    5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000
+  };
+
+  private final AtomicLongArray counts = new AtomicLongArray(UPPER_BOUNDS_MILLIS.length + 1);
+  private final LongAdder totalMillis = new LongAdder();
+  private final AtomicLong maxMillis = new AtomicLong();
+
+  /** Returns upper bounds of all the buckets except the last unbounded one. */
+  public static long[] getUpperBounds() {
+    return UPPER_BOUNDS_MILLIS.clone();
+  }
+
+  /** Records latency of a single request. */
+  public void record(long millis) {
+    int bucket = 0;
+    while (bucket < UPPER_BOUNDS_MILLIS.length && millis > UPPER_BOUNDS_MILLIS[bucket]) {
+      bucket++;
+    }
+    counts.incrementAndGet(bucket);
+    totalMillis.add(millis);
+    maxMillis.accumulateAndGet(millis, Math::max);
+  }
+
+  /** Returns count of recorded latencies per bucket. */
+  public long[] getCounts() {
+    long[] result = new long[counts.length()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = counts.get(i);
+    }
+    return result;
+  }
+
+  /** Returns count of all the recorded latencies. */
+  public long getCount() {
+    long count = 0;
+    for (int i = 0; i < counts.length(); i++) {
+      count += counts.get(i);
+    }
+    return count;
+  }
+
+  /** Returns sum of all the recorded latencies. */
+  public long getTotalMillis() {
+    return totalMillis.sum();
+  }
+
+  /** Returns the maximal recorded latency. */
+  public long getMaxMillis() {
+    return maxMillis.get();
+  }
+}
@@ -10,22 +10,45 @@
  */
 package org.eclipse.che.api.languageserver.util;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Runs {@link LSOperation} against a collection of language servers.
+ *
+ * <p>The asynchronous variants never block the calling thread. The returned future completes when
+ * all the results are handled or the timeout elapses, whichever happens first, and it never
+ * completes exceptionally unless it is cancelled. Requests which are still pending at that moment
+ * are cancelled, which makes lsp4j send {@code $/cancelRequest} to the language server, so
+ * cancelling of the returned future cancels the whole operation.
+ */
 public class OperationUtil {
   private static final Logger LOG = LoggerFactory.getLogger(OperationUtil.class);
 
+  private static final ScheduledExecutorService TIMEOUTS =
+      Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder()
+              .setNameFormat("LanguageServerOperationTimeout-%d")
+              .setDaemon(true)
+              .build());
+
   /**
    * Execute the given operation on each element of the collection in sequence. Stops as soon as
-   * {@link LSOperation#canDo(Object)} returns true.
+   * {@link LSOperation#handleResult(Object, Object)} returns true. Blocks until the operation is
+   * completed.
    *
    * @param collection
    * @param op
@@ -33,30 +56,12 @@ public class OperationUtil {
    */
   public static <C, R> void doInSequence(
       Collection<C> collection, LSOperation<C, R> op, long timeoutMillis) {
-    long endTime = System.currentTimeMillis() + timeoutMillis;
-    for (C element : collection) {
-      if (op.canDo(element)) {
-        CompletableFuture<R> future = op.start(element);
-        try {
-          R result = future.get(Math.max(endTime - timeoutMillis, 1), TimeUnit.MILLISECONDS);
-          if (op.handleResult(element, result)) {
-            return;
-          }
-        } catch (InterruptedException e) {
-          LOG.info("Thread interrupted", e);
-          Thread.currentThread().interrupt();
-        } catch (ExecutionException e) {
-          LOG.info("Exception occurred in op", e);
-        } catch (TimeoutException e) {
-          future.cancel(true);
-        }
-      }
-    }
+    await(doInSequenceAsync(collection, op, timeoutMillis));
   }
 
   /**
    * Executes the given operation in parallel for each element in the collection. Failures in any of
-   * the operations are ignored.
+   * the operations are ignored. Blocks until the operation is completed.
    *
    * @param collection
    * @param op
@@ -64,56 +69,139 @@ public class OperationUtil {
    */
   public static <C, R> void doInParallel(
       Collection<C> collection, LSOperation<C, R> op, long timeoutMillis) {
-    Object lock = new Object();
-    List<CompletableFuture<?>> pendingResponses = new ArrayList<>();
+    await(doInParallelAsync(collection, op, timeoutMillis));
+  }
+
+  /**
+   * Asynchronously executes the given operation on each element of the collection in sequence.
+   * Stops as soon as {@link LSOperation#handleResult(Object, Object)} returns true. Failures in any
+   * of the operations are ignored.
+   *
+   * @param collection elements to run operation on
+   * @param op operation to run
+   * @param timeoutMillis timeout of the whole operation
+   * @return future which is completed when the operation is completed or timed out
+   */
+  public static <C, R> CompletableFuture<Void> doInSequenceAsync(
+      Collection<C> collection, LSOperation<C, R> op, long timeoutMillis) {
+    CompletableFuture<Void> done = new CompletableFuture<>();
+    AtomicReference<CompletableFuture<R>> pending = new AtomicReference<>();
+    scheduleTimeout(done, timeoutMillis);
+    done.whenComplete(
+        (r, t) -> {
+          CompletableFuture<R> future = pending.get();
+          if (future != null) {
+            future.cancel(true);
+          }
+        });
+    startNext(new ArrayList<>(collection).iterator(), op, pending, done);
+    return done;
+  }
+
+  /**
+   * Asynchronously executes the given operation in parallel for each element in the collection.
+   * Failures in any of the operations are ignored.
+   *
+   * @param collection elements to run operation on
+   * @param op operation to run
+   * @param timeoutMillis timeout of the whole operation
+   * @return future which is completed when the operation is completed or timed out
+   */
+  public static <C, R> CompletableFuture<Void> doInParallelAsync(
+      Collection<C> collection, LSOperation<C, R> op, long timeoutMillis) {
+    CompletableFuture<Void> done = new CompletableFuture<>();
+    List<CompletableFuture<R>> pendingResponses = new ArrayList<>();
+    List<CompletableFuture<?>> handledResponses = new ArrayList<>();
 
     for (C element : collection) {
       if (op.canDo(element)) {
         CompletableFuture<R> future = op.start(element);
-        synchronized (lock) {
-          pendingResponses.add(future);
-          lock.notifyAll();
-        }
-        future
-            .thenAccept(
-                result -> {
-                  synchronized (lock) {
-                    if (!future.isCancelled()) {
+        pendingResponses.add(future);
+        handledResponses.add(
+            future.handle(
+                (result, t) -> {
+                  synchronized (done) {
+                    if (done.isDone()) {
+                      return null;
+                    }
+                    if (t == null) {
                       op.handleResult(element, result);
-                      pendingResponses.remove(future);
-                      lock.notifyAll();
+                    } else {
+                      LOG.info("Exception occurred in request", t);
                     }
                   }
-                })
-            .exceptionally(
-                (t) -> {
-                  LOG.info("Exception occurred in request", t);
-                  synchronized (lock) {
-                    pendingResponses.remove(future);
-                    lock.notifyAll();
-                  }
                   return null;
-                });
+                }));
       }
     }
 
-    long endTime = System.currentTimeMillis() + 5000;
+    scheduleTimeout(done, timeoutMillis);
+    done.whenComplete((r, t) -> pendingResponses.forEach(future -> future.cancel(true)));
+    CompletableFuture.allOf(handledResponses.toArray(new CompletableFuture<?>[0]))
+        .thenRun(() -> complete(done));
+    return done;
+  }
 
-    try {
-      synchronized (lock) {
-        while (System.currentTimeMillis() < endTime && pendingResponses.size() > 0) {
-          lock.wait(endTime - System.currentTimeMillis());
+  private static <C, R> void startNext(
+      Iterator<C> elements,
+      LSOperation<C, R> op,
+      AtomicReference<CompletableFuture<R>> pending,
+      CompletableFuture<Void> done) {
+    while (elements.hasNext() && !done.isDone()) {
+      C element = elements.next();
+      if (op.canDo(element)) {
+        CompletableFuture<R> future = op.start(element);
+        pending.set(future);
+        if (done.isDone()) {
+          // cancelled or timed out while the request was being started
+          future.cancel(true);
+          return;
         }
+        future.whenComplete(
+            (result, t) -> {
+              synchronized (done) {
+                if (done.isDone()) {
+                  return;
+                }
+                if (t == null) {
+                  if (op.handleResult(element, result)) {
+                    done.complete(null);
+                    return;
+                  }
+                } else {
+                  LOG.info("Exception occurred in op", t);
+                }
+              }
+              startNext(elements, op, pending, done);
+            });
+        return;
       }
+    }
+    complete(done);
+  }
+
+  private static void scheduleTimeout(CompletableFuture<Void> done, long timeoutMillis) {
+    ScheduledFuture<?> timeout =
+        TIMEOUTS.schedule(() -> complete(done), timeoutMillis, MILLISECONDS);
+    done.whenComplete((r, t) -> timeout.cancel(false));
+  }
+
+  /** Completes the operation so that no result is handled after that. */
+  private static void complete(CompletableFuture<Void> done) {
+    synchronized (done) {
+      done.complete(null);
+    }
+  }
+
+  private static void await(CompletableFuture<Void> future) {
+    try {
+      future.get();
     } catch (InterruptedException e) {
       LOG.info("Thread interrupted", e);
+      future.cancel(true);
       Thread.currentThread().interrupt();
-    }
-    synchronized (lock) {
-      for (CompletableFuture<?> pending : new ArrayList<>(pendingResponses)) {
-        pending.cancel(true);
-      }
-      lock.notifyAll();
+    } catch (ExecutionException e) {
+      LOG.info("Exception occurred in op", e);
     }
   }
 }
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.languageserver;
+
+import static java.util.Collections.singletonList;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import com.google.common.collect.ImmutableSet;
+import org.eclipse.lsp4j.DidChangeTextDocumentParams;
+import org.eclipse.lsp4j.DidOpenTextDocumentParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.ServerCapabilities;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.eclipse.lsp4j.TextDocumentItem;
+import org.eclipse.lsp4j.TextDocumentSyncKind;
+import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
+import org.eclipse.lsp4j.services.LanguageServer;
+import org.eclipse.lsp4j.services.TextDocumentService;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+@Listeners(MockitoTestNGListener.class)
+public class TextDocumentSynchronizerTest {
+
+  private static final String WS_PATH = "/project/file.txt";
+  private static final String URI = "file:///projects/project/file.txt";
+
+  @Mock private FindServer findServer;
+  @Mock private LanguageServer incrementalServer;
+  @Mock private LanguageServer fullServer;
+  @Mock private LanguageServer noneServer;
+  @Mock private TextDocumentService incrementalService;
+  @Mock private TextDocumentService fullService;
+  @Mock private TextDocumentService noneService;
+
+  private TextDocumentSynchronizer synchronizer;
+
+  @BeforeMethod
+  public void setUp() {
+    when(incrementalServer.getTextDocumentService()).thenReturn(incrementalService);
+    when(fullServer.getTextDocumentService()).thenReturn(fullService);
+    when(noneServer.getTextDocumentService()).thenReturn(noneService);
+    when(findServer.byPath(WS_PATH))
+        .thenReturn(
+            ImmutableSet.of(
+                server("incremental", TextDocumentSyncKind.Incremental, incrementalServer),
+                server("full", TextDocumentSyncKind.Full, fullServer),
+                server("none", TextDocumentSyncKind.None, noneServer)));
+
+    synchronizer = new TextDocumentSynchronizer(findServer);
+    synchronizer.didOpen(
+        WS_PATH,
+        new DidOpenTextDocumentParams(new TextDocumentItem(URI, "text", 1, "hello\nworld")));
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    synchronizer.stop();
+  }
+
+  @Test
+  public void shouldSendCoalescedChangesInFormSupportedByServer() {
+    synchronizer.didChange(WS_PATH, change(2, insert(1, 5, "!")));
+    synchronizer.didChange(WS_PATH, change(3, insert(1, 6, "!")));
+    synchronizer.flush(WS_PATH);
+
+    TextDocumentContentChangeEvent incremental = sentChange(incrementalService);
+    assertEquals(incremental.getRange(), new Range(new Position(1, 5), new Position(1, 5)));
+    assertEquals(incremental.getText(), "!!");
+    TextDocumentContentChangeEvent full = sentChange(fullService);
+    assertNull(full.getRange());
+    assertEquals(full.getText(), "hello\nworld!!");
+    verify(noneService, never()).didChange(any());
+  }
+
+  @Test
+  public void shouldFlushChangesAfterDelay() {
+    synchronizer.didChange(WS_PATH, change(2, insert(0, 0, "> ")));
+
+    verify(fullService, timeout(5000)).didChange(any());
+  }
+
+  @Test
+  public void shouldNotSendChangesWhenTextIsNotChanged() {
+    synchronizer.didChange(WS_PATH, change(2, insert(0, 0, "a")));
+    synchronizer.didChange(
+        WS_PATH,
+        change(
+            3,
+            new TextDocumentContentChangeEvent(
+                new Range(new Position(0, 0), new Position(0, 1)), 1, "")));
+    synchronizer.flush(WS_PATH);
+
+    verify(incrementalService, never()).didChange(any());
+    verify(fullService, never()).didChange(any());
+  }
+
+  @Test
+  public void shouldComputeMinimalChangeBetweenTexts() {
+    TextDocumentContentChangeEvent change =
+        TextDocumentSynchronizer.diff("one\r\ntwo\r\nthree", "one\r\n2\r\nthree");
+
+    assertEquals(change.getRange(), new Range(new Position(1, 0), new Position(1, 3)));
+    assertEquals(change.getRangeLength(), Integer.valueOf(3));
+    assertEquals(change.getText(), "2");
+  }
+
+  @Test
+  public void shouldNotSplitLineDelimiter() {
+    TextDocumentContentChangeEvent change = TextDocumentSynchronizer.diff("a\r\nb", "a\r\r\nb");
+
+    assertEquals(change.getRange(), new Range(new Position(0, 1), new Position(0, 1)));
+    assertEquals(change.getText(), "\r");
+  }
+
+  private static ExtendedLanguageServer server(
+      String id, TextDocumentSyncKind syncKind, LanguageServer languageServer) {
+    ServerCapabilities capabilities = new ServerCapabilities();
+    capabilities.setTextDocumentSync(syncKind);
+    return new ExtendedLanguageServer(id, capabilities, languageServer);
+  }
+
+  private static DidChangeTextDocumentParams change(
+      int version, TextDocumentContentChangeEvent event) {
+    VersionedTextDocumentIdentifier identifier = new VersionedTextDocumentIdentifier();
+    identifier.setUri(URI);
+    identifier.setVersion(version);
+    return new DidChangeTextDocumentParams(identifier, singletonList(event));
+  }
+
+  private static TextDocumentContentChangeEvent insert(int line, int character, String text) {
+    Position position = new Position(line, character);
+    return new TextDocumentContentChangeEvent(new Range(position, position), 0, text);
+  }
+
+  private static TextDocumentContentChangeEvent sentChange(TextDocumentService service) {
+    ArgumentCaptor<DidChangeTextDocumentParams> captor =
+        ArgumentCaptor.forClass(DidChangeTextDocumentParams.class);
+    verify(service).didChange(captor.capture());
+    assertEquals(captor.getValue().getTextDocument().getVersion(), Integer.valueOf(3));
+    return captor.getValue().getContentChanges().get(0);
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.languageserver.messager;
+
+import static java.util.Collections.nCopies;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+import java.util.List;
+import org.eclipse.che.api.core.jsonrpc.commons.RequestTransmitter;
+import org.eclipse.che.api.core.jsonrpc.commons.transmission.EndpointIdConfigurator;
+import org.eclipse.che.api.core.jsonrpc.commons.transmission.MethodNameConfigurator;
+import org.eclipse.che.api.core.jsonrpc.commons.transmission.ParamsConfigurator;
+import org.eclipse.che.api.core.jsonrpc.commons.transmission.SendConfiguratorFromOne;
+import org.eclipse.che.api.languageserver.TextDocumentSynchronizer;
+import org.eclipse.che.api.languageserver.shared.model.ExtendedPublishDiagnosticsParams;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+@Listeners(MockitoTestNGListener.class)
+public class PublishDiagnosticsParamsJsonRpcTransmitterTest {
+
+  private static final String ENDPOINT_ID = "endpoint";
+
+  @Mock private RequestTransmitter requestTransmitter;
+  @Mock private TextDocumentSynchronizer synchronizer;
+  @Mock private EndpointIdConfigurator endpointIdConfigurator;
+  @Mock private MethodNameConfigurator methodNameConfigurator;
+  @Mock private ParamsConfigurator paramsConfigurator;
+  @Mock private SendConfiguratorFromOne<Object> sendConfigurator;
+
+  private PublishDiagnosticsParamsJsonRpcTransmitter transmitter;
+
+  @BeforeMethod
+  public void setUp() {
+    transmitter = new PublishDiagnosticsParamsJsonRpcTransmitter(requestTransmitter, synchronizer);
+    transmitter.subscribeEndpoint(ENDPOINT_ID);
+  }
+
+  @Test
+  public void shouldSendOnlyLatestDiagnosticsOfDocument() {
+    mockRequests();
+    transmitter.onDiagnostics(diagnostics("ls", "/project/a", 1));
+    transmitter.onDiagnostics(diagnostics("ls", "/project/a", 2));
+
+    transmitter.flush();
+
+    List<ExtendedPublishDiagnosticsParams> sent = sent(1);
+    assertEquals(sent.get(0).getParams().getDiagnostics().size(), 2);
+    assertEquals(transmitter.getStatistics().getMerged(), 1);
+  }
+
+  @Test
+  public void shouldSendDiagnosticsOfOpenedDocumentsFirst() {
+    mockRequests();
+    when(synchronizer.isOpened("/project/opened")).thenReturn(true);
+    transmitter.onDiagnostics(diagnostics("ls", "/project/closed", 1));
+    transmitter.onDiagnostics(diagnostics("ls", "/project/opened", 1));
+
+    transmitter.flush();
+
+    List<ExtendedPublishDiagnosticsParams> sent = sent(2);
+    assertEquals(sent.get(0).getParams().getUri(), "/project/opened");
+    assertEquals(sent.get(1).getParams().getUri(), "/project/closed");
+  }
+
+  @Test
+  public void shouldDropEmptyDiagnosticsOfDocumentWithoutDiagnostics() {
+    transmitter.onDiagnostics(diagnostics("ls", "/project/a", 0));
+
+    transmitter.flush();
+
+    verify(requestTransmitter, never()).newRequest();
+    assertEquals(transmitter.getStatistics().getDropped(), 1);
+  }
+
+  @Test
+  public void shouldSendEmptyDiagnosticsToClearPreviouslySentOnes() {
+    mockRequests();
+    transmitter.onDiagnostics(diagnostics("ls", "/project/a", 1));
+    transmitter.flush();
+    transmitter.onDiagnostics(diagnostics("ls", "/project/a", 0));
+
+    transmitter.flush();
+
+    verify(sendConfigurator, times(2)).sendAndSkipResult();
+    assertEquals(transmitter.getStatistics().getSent(), 2);
+  }
+
+  private void mockRequests() {
+    when(requestTransmitter.newRequest()).thenReturn(endpointIdConfigurator);
+    when(endpointIdConfigurator.endpointId(ENDPOINT_ID)).thenReturn(methodNameConfigurator);
+    when(methodNameConfigurator.methodName(anyString())).thenReturn(paramsConfigurator);
+    when(paramsConfigurator.paramsAsDto(any())).thenReturn(sendConfigurator);
+  }
+
+  private List<ExtendedPublishDiagnosticsParams> sent(int count) {
+    ArgumentCaptor<ExtendedPublishDiagnosticsParams> captor =
+        ArgumentCaptor.forClass(ExtendedPublishDiagnosticsParams.class);
+    verify(paramsConfigurator, times(count)).paramsAsDto(captor.capture());
+    return captor.getAllValues();
+  }
+
+  private static ExtendedPublishDiagnosticsParams diagnostics(
+      String languageServerId, String wsPath, int count) {
+    PublishDiagnosticsParams params = new PublishDiagnosticsParams();
+    params.setUri("file:///projects" + wsPath);
+    params.setDiagnostics(nCopies(count, new Diagnostic()));
+    return new ExtendedPublishDiagnosticsParams(languageServerId, params);
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.languageserver.util;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.testng.annotations.Test;
+
+/** Tests for {@link OperationUtil}. */
+public class OperationUtilTest {
+
+  @Test
+  public void shouldHandleResultsOfAllElementsInParallel() throws Exception {
+    TestOperation op = new TestOperation(false);
+
+    CompletableFuture<Void> done = OperationUtil.doInParallelAsync(asList("a", "b"), op, 10_000);
+    assertFalse(done.isDone());
+    op.complete("b");
+    op.complete("a");
+
+    done.get(5, SECONDS);
+    assertEquals(op.handled, asList("b", "a"));
+  }
+
+  @Test
+  public void shouldCancelPendingRequestsOnTimeout() throws Exception {
+    TestOperation op = new TestOperation(false);
+
+    CompletableFuture<Void> done = OperationUtil.doInParallelAsync(asList("a", "b"), op, 100);
+    op.complete("a");
+
+    done.get(5, SECONDS);
+    assertTrue(op.requests.get("b").isCancelled());
+    assertEquals(op.handled, singletonList("a"));
+  }
+
+  @Test
+  public void shouldCancelPendingRequestsWhenOperationIsCancelled() throws Exception {
+    TestOperation op = new TestOperation(false);
+
+    CompletableFuture<Void> done = OperationUtil.doInParallelAsync(asList("a", "b"), op, 10_000);
+    done.cancel(true);
+    op.complete("a");
+
+    assertTrue(op.requests.get("b").isCancelled());
+    assertTrue(op.handled.isEmpty());
+  }
+
+  @Test
+  public void shouldStopSequenceWhenResultIsHandled() throws Exception {
+    TestOperation op = new TestOperation(true);
+
+    CompletableFuture<Void> done = OperationUtil.doInSequenceAsync(asList("a", "b"), op, 10_000);
+    assertFalse(op.requests.containsKey("b"));
+    op.complete("a");
+
+    done.get(5, SECONDS);
+    assertEquals(op.handled, singletonList("a"));
+    assertFalse(op.requests.containsKey("b"));
+  }
+
+  @Test
+  public void shouldContinueSequenceWhenRequestFails() throws Exception {
+    TestOperation op = new TestOperation(true);
+
+    CompletableFuture<Void> done = OperationUtil.doInSequenceAsync(asList("a", "b"), op, 10_000);
+    op.requests.get("a").completeExceptionally(new RuntimeException("failed"));
+    op.complete("b");
+
+    done.get(5, SECONDS);
+    assertEquals(op.handled, singletonList("b"));
+  }
+
+  @Test
+  public void shouldCancelPendingRequestOfSequenceOnTimeout() throws Exception {
+    TestOperation op = new TestOperation(true);
+
+    OperationUtil.doInSequenceAsync(asList("a", "b"), op, 100).get(5, SECONDS);
+
+    assertTrue(op.requests.get("a").isCancelled());
+    assertFalse(op.requests.containsKey("b"));
+  }
+
+  private static class TestOperation implements LSOperation<String, String> {
+    private final boolean stopOnResult;
+    private final Map<String, CompletableFuture<String>> requests = new HashMap<>();
+    private final List<String> handled = new ArrayList<>();
+
+    private TestOperation(boolean stopOnResult) {
+      this.stopOnResult = stopOnResult;
+    }
+
+    @Override
+    public boolean canDo(String element) {
+      return true;
+    }
+
+    @Override
+    public CompletableFuture<String> start(String element) {
+      CompletableFuture<String> request = new CompletableFuture<>();
+      requests.put(element, request);
+      return request;
+    }
+
+    @Override
+    public boolean handleResult(String element, String result) {
+      handled.add(result);
+      return stopOnResult;
+    }
+
+    private void complete(String element) {
+      requests.get(element).complete(element);
+    }
+  }
+}
@@ -11,26 +11,30 @@
 package org.eclipse.che.api.editor.server.impl;
 
 import static java.lang.String.format;
+import static java.nio.charset.Charset.defaultCharset;
 import static org.eclipse.che.api.project.shared.dto.EditorChangesDto.Type.INSERT;
 import static org.eclipse.che.api.project.shared.dto.EditorChangesDto.Type.REMOVE;
 
 import com.google.common.io.ByteStreams;
-import java.io.ByteArrayInputStream;
+import com.google.common.io.CharSource;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Arrays;
+import java.io.Reader;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.project.shared.dto.EditorChangesDto;
 
 /**
  * In-memory implementation of working copy for opened editor on client.
  *
+ * <p>The content is kept in a {@link PieceTable}, so editor changes are applied without copying of
+ * the whole content and the content may be read while it is updated.
+ *
  * @author Roman Nikitenko
  */
 public class EditorWorkingCopy {
   private String path;
   private String projectPath;
-  private byte[] content;
+  private volatile PieceTable content;
 
   /**
    * Creates a working copy for opened editor on client.
@@ -42,7 +46,7 @@ public class EditorWorkingCopy {
   public EditorWorkingCopy(String path, String projectPath, byte[] content) {
     this.path = path;
     this.projectPath = projectPath;
-    this.content = Arrays.copyOf(content, content.length);
+    this.content = PieceTable.of(new String(content, defaultCharset()));
   }
 
   /**
@@ -51,10 +55,7 @@ public class EditorWorkingCopy {
    * @return content ot the working copy
    */
   public byte[] getContentAsBytes() {
-    if (content == null) {
-      content = new byte[0];
-    }
-    return Arrays.copyOf(content, content.length);
+    return getContentAsString().getBytes(defaultCharset());
   }
 
   /**
@@ -63,7 +64,26 @@ public class EditorWorkingCopy {
    * @return content ot the working copy
    */
   public String getContentAsString() {
-    return new String(getContentAsBytes());
+    return content.toString();
+  }
+
+  /**
+   * Gets the snapshot of the working copy content. The snapshot is not affected by the further
+   * changes of the working copy and is not a copy of the content, so it is cheap to get it.
+   *
+   * @return content ot the working copy
+   */
+  public CharSequence getContentAsCharSequence() {
+    return content;
+  }
+
+  /**
+   * Gets reader of the working copy content snapshot.
+   *
+   * @return content ot the working copy
+   */
+  public Reader getContentAsReader() {
+    return content.openReader();
   }
 
   /**
@@ -72,7 +92,18 @@ public class EditorWorkingCopy {
    * @return content ot the working copy
    */
   public InputStream getContent() {
-    return new ByteArrayInputStream(getContentAsBytes());
+    PieceTable snapshot = content;
+    try {
+      return new CharSource() {
+        @Override
+        public Reader openStream() {
+          return snapshot.openReader();
+        }
+      }.asByteSource(defaultCharset()).openStream();
+    } catch (IOException e) {
+      // the reader of in-memory content doesn't throw IOException
+      throw new IllegalStateException(e.getMessage(), e);
+    }
   }
 
   /**
@@ -82,8 +113,7 @@ public class EditorWorkingCopy {
    * @return current working copy after updating content
    */
   EditorWorkingCopy updateContent(byte[] content) {
-    this.content = content;
-    return this;
+    return updateContent(new String(content, defaultCharset()));
   }
 
   /**
@@ -93,7 +123,9 @@ public class EditorWorkingCopy {
    * @return current working copy after updating content
    */
   EditorWorkingCopy updateContent(String content) {
-    updateContent(content.getBytes());
+    synchronized (this) {
+      this.content = PieceTable.of(content);
+    }
     return this;
   }
 
@@ -126,20 +158,13 @@ public class EditorWorkingCopy {
       int offset = changes.getOffset();
       int removedCharCount = changes.getRemovedCharCount();
 
-      String newContent = null;
-      String oldContent = getContentAsString();
       EditorChangesDto.Type type = changes.getType();
       if (type == INSERT) {
-        newContent = new StringBuilder(oldContent).insert(offset, text).toString();
+        content = content.insert(offset, text);
       }
 
       if (type == REMOVE && removedCharCount > 0) {
-        newContent =
-            new StringBuilder(oldContent).delete(offset, offset + removedCharCount).toString();
-      }
-
-      if (newContent != null) {
-        updateContent(newContent);
+        content = content.delete(offset, removedCharCount);
       }
     }
   }
@@ -11,16 +11,13 @@
 package org.eclipse.che.api.editor.server.impl;
 
 import static java.io.File.separator;
-import static java.nio.charset.Charset.defaultCharset;
 import static org.eclipse.che.api.project.shared.Constants.CHE_DIR;
 
-import com.google.common.hash.Hashing;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -57,7 +54,7 @@ public class EditorWorkingCopyManager {
 
   private final FsManager fsManager;
   private final ProjectManager projectManager;
-  private final Map<String, EditorWorkingCopy> workingCopiesStorage = new HashMap<>();
+  private final Map<String, EditorWorkingCopy> workingCopiesStorage = new ConcurrentHashMap<>();
 
   private EventService eventService;
   private RequestTransmitter transmitter;
@@ -227,8 +224,6 @@ public class EditorWorkingCopyManager {
       if (workingCopy == null) {
         return false;
       }
-      String workingCopyContent = workingCopy.getContentAsString();
-
       String originalFileContent;
       if (fsManager.existsAsFile(originalFilePath)) {
         InputStream inputStream = fsManager.read(originalFilePath);
@@ -237,16 +232,11 @@ public class EditorWorkingCopyManager {
         return false;
       }
 
-      if (workingCopyContent == null || originalFileContent == null) {
+      if (originalFileContent == null) {
         return false;
       }
 
-      String workingCopyHash =
-          Hashing.md5().hashString(workingCopyContent, defaultCharset()).toString();
-      String originalFileHash =
-          Hashing.md5().hashString(originalFileContent, defaultCharset()).toString();
-
-      return !Objects.equals(workingCopyHash, originalFileHash);
+      return !originalFileContent.contentEquals(workingCopy.getContentAsCharSequence());
     } catch (NotFoundException | IOException | ServerException | ConflictException e) {
       LOG.error(e.getLocalizedMessage());
     }
@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.editor.server.impl;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkPositionIndex;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Immutable text which is stored as a sequence of pieces of the original and the inserted texts.
+ *
+ * <p>Pieces are kept in a randomized balanced tree ordered by their positions in the text, so
+ * insertion, removal and access by index take logarithmic time regardless of the text length.
+ * Modifications return a new table which shares the unchanged pieces with this one, so a table may
+ * be read by any number of threads while another thread modifies the text.
+ */
+final class PieceTable implements CharSequence {
+
+  /** Inserted text is copied into the preceding piece while the piece stays shorter than this. */
+  private static final int MAX_MERGED_PIECE_LENGTH = 256;
+
+  private static final PieceTable EMPTY = new PieceTable(null);
+
+  private final Node root;
+
+  private PieceTable(Node root) {
+    this.root = root;
+  }
+
+  /** Creates the table which holds the given text. */
+  static PieceTable of(CharSequence text) {
+    if (text.length() == 0) {
+      return EMPTY;
+    }
+    return new PieceTable(new Node(text.toString(), 0, text.length(), priority(), null, null));
+  }
+
+  /**
+   * Returns the table with the text inserted at the given offset.
+   *
+   * @throws IndexOutOfBoundsException when offset is out of the text bounds
+   */
+  PieceTable insert(int offset, String text) {
+    checkPositionIndex(offset, length());
+    if (text.isEmpty()) {
+      return this;
+    }
+    Node[] parts = split(root, offset);
+    Node left = parts[0];
+    Node inserted;
+    Node last = last(left);
+    if (last != null && last.length + text.length() <= MAX_MERGED_PIECE_LENGTH) {
+      // typing produces a lot of tiny insertions, keep them in a single piece
+      left = split(left, length(left) - last.length)[0];
+      String merged = last.text.substring(last.start, last.start + last.length) + text;
+      inserted = new Node(merged, 0, merged.length(), priority(), null, null);
+    } else {
+      inserted = new Node(text, 0, text.length(), priority(), null, null);
+    }
+    return new PieceTable(merge(merge(left, inserted), parts[1]));
+  }
+
+  /**
+   * Returns the table with the given count of characters removed starting from the offset.
+   *
+   * @throws IndexOutOfBoundsException when removed range is out of the text bounds
+   */
+  PieceTable delete(int offset, int count) {
+    checkPositionIndexes(offset, offset + count, length());
+    if (count == 0) {
+      return this;
+    }
+    Node[] head = split(root, offset);
+    Node[] tail = split(head[1], count);
+    return new PieceTable(merge(head[0], tail[1]));
+  }
+
+  /** Returns the reader of the text which doesn't copy the whole text. */
+  Reader openReader() {
+    return new PieceReader(root);
+  }
+
+  /** Returns count of the pieces the text consists of. */
+  int pieceCount() {
+    return root == null ? 0 : root.pieces;
+  }
+
+  @Override
+  public int length() {
+    return length(root);
+  }
+
+  @Override
+  public char charAt(int index) {
+    checkElementIndex(index, length());
+    Node node = root;
+    while (true) {
+      int leftLength = length(node.left);
+      if (index < leftLength) {
+        node = node.left;
+      } else if (index < leftLength + node.length) {
+        return node.text.charAt(node.start + index - leftLength);
+      } else {
+        index -= leftLength + node.length;
+        node = node.right;
+      }
+    }
+  }
+
+  @Override
+  public PieceTable subSequence(int start, int end) {
+    checkPositionIndexes(start, end, length());
+    Node[] head = split(root, start);
+    return new PieceTable(split(head[1], end - start)[0]);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder(length());
+    appendTo(builder, root);
+    return builder.toString();
+  }
+
+  private static void appendTo(StringBuilder builder, Node node) {
+    if (node != null) {
+      appendTo(builder, node.left);
+      builder.append(node.text, node.start, node.start + node.length);
+      appendTo(builder, node.right);
+    }
+  }
+
+  /** Splits the tree into the trees which hold the text before and after the offset. */
+  private static Node[] split(Node node, int offset) {
+    if (node == null) {
+      return new Node[2];
+    }
+    int leftLength = length(node.left);
+    if (offset <= leftLength) {
+      Node[] parts = split(node.left, offset);
+      return new Node[] {parts[0], node.withChildren(parts[1], node.right)};
+    }
+    int pieceEnd = leftLength + node.length;
+    if (offset >= pieceEnd) {
+      Node[] parts = split(node.right, offset - pieceEnd);
+      return new Node[] {node.withChildren(node.left, parts[0]), parts[1]};
+    }
+    int cut = offset - leftLength;
+    return new Node[] {
+      new Node(node.text, node.start, cut, node.priority, node.left, null),
+      new Node(node.text, node.start + cut, node.length - cut, node.priority, null, node.right)
+    };
+  }
+
+  /** Concatenates the trees, all the text of the left tree goes before the text of the right. */
+  private static Node merge(Node left, Node right) {
+    if (left == null) {
+      return right;
+    }
+    if (right == null) {
+      return left;
+    }
+    if (left.priority > right.priority) {
+      return left.withChildren(left.left, merge(left.right, right));
+    }
+    return right.withChildren(merge(left, right.left), right.right);
+  }
+
+  private static Node last(Node node) {
+    if (node == null) {
+      return null;
+    }
+    while (node.right != null) {
+      node = node.right;
+    }
+    return node;
+  }
+
+  private static int length(Node node) {
+    return node == null ? 0 : node.totalLength;
+  }
+
+  private static int priority() {
+    return ThreadLocalRandom.current().nextInt();
+  }
+
+  private static final class Node {
+    private final String text;
+    private final int start;
+    private final int length;
+    private final int priority;
+    private final Node left;
+    private final Node right;
+    private final int totalLength;
+    private final int pieces;
+
+    private Node(String text, int start, int length, int priority, Node left, Node right) {
+      this.text = text;
+      this.start = start;
+      this.length = length;
+      this.priority = priority;
+      this.left = left;
+      this.right = right;
+      this.totalLength = length(left) + length + length(right);
+      this.pieces = (left == null ? 0 : left.pieces) + 1 + (right == null ? 0 : right.pieces);
+    }
+
+    private Node withChildren(Node left, Node right) {
+      if (left == this.left && right == this.right) {
+        return this;
+      }
+      return new Node(text, start, length, priority, left, right);
+    }
+  }
+
+  /** Reads the pieces one by one walking the tree in order. */
+  private static final class PieceReader extends Reader {
+    private final Deque<Node> path = new ArrayDeque<>();
+    private Node piece;
+    private int position;
+
+    private PieceReader(Node root) {
+      descend(root);
+      nextPiece();
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) {
+      checkPositionIndexes(offset, offset + length, buffer.length);
+      if (length == 0) {
+        return 0;
+      }
+      if (piece == null) {
+        return -1;
+      }
+      int read = 0;
+      while (piece != null && read < length) {
+        int count = Math.min(length - read, piece.length - position);
+        int from = piece.start + position;
+        piece.text.getChars(from, from + count, buffer, offset + read);
+        read += count;
+        position += count;
+        if (position == piece.length) {
+          nextPiece();
+        }
+      }
+      return read;
+    }
+
+    @Override
+    public void close() {
+      path.clear();
+      piece = null;
+    }
+
+    private void nextPiece() {
+      piece = path.poll();
+      position = 0;
+      if (piece != null) {
+        descend(piece.right);
+      }
+    }
+
+    private void descend(Node node) {
+      while (node != null) {
+        path.push(node);
+        node = node.left;
+      }
+    }
+  }
+}
@@ -12,12 +12,19 @@ package org.eclipse.che.api.fs.server.impl;
 
 import static java.nio.file.Files.createTempFile;
 import static java.nio.file.Files.newInputStream;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.zip.ZipEntry;
@@ -33,6 +40,11 @@ import org.eclipse.che.api.fs.server.WsPathUtils;
 @Singleton
 class ZipArchiver {
 
+  /** Size of the chunks of the unpacked entries transferred to the files. */
+  private static final long TRANSFER_CHUNK_SIZE = 1024 * 1024;
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
   private final Path root;
 
   @Inject
@@ -81,30 +93,41 @@ class ZipArchiver {
         Files.createDirectories(fsPath);
       }
 
-      try (ZipInputStream zis = new ZipInputStream(content)) {
+      // entries are unpacked while the archive is being read, content is never stored entirely
+      try (ZipInputStream zis = new ZipInputStream(new BufferedInputStream(content, BUFFER_SIZE))) {
+        ReadableByteChannel entryChannel = Channels.newChannel(zis);
         ZipEntry zipEntry = zis.getNextEntry();
 
         String prefixToSkip = null;
-        if (zipEntry.isDirectory() && skipRoot) {
+        if (zipEntry != null && zipEntry.isDirectory() && skipRoot) {
           prefixToSkip = zipEntry.getName();
           zipEntry = zis.getNextEntry();
         }
 
         while (zipEntry != null) {
           String name =
-              prefixToSkip != null
-                  ? zipEntry.getName().replaceFirst(prefixToSkip, "")
+              prefixToSkip != null && zipEntry.getName().startsWith(prefixToSkip)
+                  ? zipEntry.getName().substring(prefixToSkip.length())
                   : zipEntry.getName();
-          Path path = fsPath.resolve(name);
-
-          if (overwrite) {
-            Files.deleteIfExists(path);
+          Path path = fsPath.resolve(name).normalize();
+          if (!path.startsWith(fsPath.normalize())) {
+            throw new IOException("Entry is outside of the target directory: " + zipEntry);
           }
+
           if (zipEntry.isDirectory()) {
-            Files.createDirectory(path);
+            Files.createDirectories(path);
           } else {
-            try (FileOutputStream fos = new FileOutputStream(path.toFile())) {
-              IOUtils.copy(zis, fos);
+            Files.createDirectories(path.getParent());
+            if (overwrite) {
+              Files.deleteIfExists(path);
+            }
+            try (FileChannel file = FileChannel.open(path, CREATE, WRITE, TRUNCATE_EXISTING)) {
+              long position = 0;
+              long transferred;
+              do {
+                transferred = file.transferFrom(entryChannel, position, TRANSFER_CHUNK_SIZE);
+                position += transferred;
+              } while (transferred > 0);
             }
           }
 
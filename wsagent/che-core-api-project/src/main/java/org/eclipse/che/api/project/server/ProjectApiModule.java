@@ -32,6 +32,7 @@ import org.eclipse.che.api.project.server.impl.RootDirRemovalHandler;
 import org.eclipse.che.api.project.server.impl.ValidatingProjectManager;
 import org.eclipse.che.api.project.server.impl.ZipProjectImporter;
 import org.eclipse.che.api.project.server.type.BaseProjectType;
+import org.eclipse.che.api.project.server.type.CachingProjectTypeResolver;
 import org.eclipse.che.api.project.server.type.InitBaseProjectTypeHandler;
 import org.eclipse.che.api.project.server.type.ProjectQualifier;
 import org.eclipse.che.api.project.server.type.ProjectTypeDef;
@@ -39,7 +40,6 @@ import org.eclipse.che.api.project.server.type.ProjectTypeResolver;
 import org.eclipse.che.api.project.server.type.ProjectTypes;
 import org.eclipse.che.api.project.server.type.ProjectTypesFactory;
 import org.eclipse.che.api.project.server.type.SimpleProjectQualifier;
-import org.eclipse.che.api.project.server.type.SimpleProjectTypeResolver;
 
 /**
  * Guice module contains configuration of Project API components.
@@ -65,7 +65,7 @@ public class ProjectApiModule extends AbstractModule {
 
     bind(ProjectManager.class).to(ValidatingProjectManager.class);
     bind(ProjectQualifier.class).to(SimpleProjectQualifier.class);
-    bind(ProjectTypeResolver.class).to(SimpleProjectTypeResolver.class);
+    bind(ProjectTypeResolver.class).to(CachingProjectTypeResolver.class);
 
     bind(ProjectConfigRegistry.class).to(InmemoryProjectRegistry.class);
 
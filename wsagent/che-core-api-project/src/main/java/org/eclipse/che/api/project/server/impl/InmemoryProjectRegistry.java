@@ -10,27 +10,24 @@
  */
 package org.eclipse.che.api.project.server.impl;
 
-import static java.util.Optional.empty;
 import static java.util.stream.Collectors.toSet;
-import static org.eclipse.che.api.fs.server.WsPathUtils.SEPARATOR;
-import static org.eclipse.che.api.fs.server.WsPathUtils.isRoot;
 
 import com.google.common.collect.ImmutableSet;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.eclipse.che.api.core.model.workspace.config.ProjectConfig;
-import org.eclipse.che.api.fs.server.WsPathUtils;
 import org.eclipse.che.api.project.shared.RegisteredProject;
 
 @Singleton
 public class InmemoryProjectRegistry implements ProjectConfigRegistry {
 
   private final Map<String, RegisteredProject> projects = new ConcurrentHashMap<>();
+  private final ProjectPathIndex index = new ProjectPathIndex();
 
   private final RegisteredProjectFactory registeredProjectFactory;
 
@@ -47,12 +44,11 @@ public class InmemoryProjectRegistry implements ProjectConfigRegistry {
   @Override
   public Set<RegisteredProject> getAll(String wsPath) {
     Set<RegisteredProject> children =
-        projects
-            .entrySet()
+        index
+            .getDescendants(wsPath)
             .stream()
-            .filter(it -> it.getKey().startsWith(wsPath + SEPARATOR))
-            .filter(it -> !it.getKey().equals(wsPath))
-            .map(Entry::getValue)
+            .map(projects::get)
+            .filter(Objects::nonNull)
             .collect(toSet());
     return ImmutableSet.copyOf(children);
   }
@@ -73,6 +69,7 @@ public class InmemoryProjectRegistry implements ProjectConfigRegistry {
     String wsPath = config.getPath();
     RegisteredProject project = registeredProjectFactory.create(wsPath, config, updated, detected);
     projects.put(wsPath, project);
+    index.add(wsPath);
     return project;
   }
 
@@ -86,16 +83,18 @@ public class InmemoryProjectRegistry implements ProjectConfigRegistry {
 
     RegisteredProject project = registeredProjectFactory.create(wsPath, null, updated, detected);
     projects.put(wsPath, project);
+    index.add(wsPath);
     return project;
   }
 
   @Override
   public Optional<RegisteredProject> remove(String wsPath) {
-    return Optional.ofNullable(projects.remove(wsPath));
+    return Optional.ofNullable(removeOrNull(wsPath));
   }
 
   @Override
-  public RegisteredProject removeOrNull(String wsPath) {
+  public synchronized RegisteredProject removeOrNull(String wsPath) {
+    index.remove(wsPath);
     return projects.remove(wsPath);
   }
 
@@ -106,14 +105,6 @@ public class InmemoryProjectRegistry implements ProjectConfigRegistry {
 
   @Override
   public Optional<RegisteredProject> getClosest(String wsPath) {
-    while (!isRoot(wsPath)) {
-
-      if (projects.containsKey(wsPath)) {
-        return Optional.of(projects.get(wsPath));
-      }
-      wsPath = WsPathUtils.parentOf(wsPath);
-    }
-
-    return empty();
+    return index.getClosest(wsPath).map(projects::get);
   }
 }
@@ -37,6 +37,7 @@ public class OnWorkspaceStartProjectInitializer {
   private final ProjectConfigRegistry projectConfigRegistry;
   private final ProjectHandlerRegistry projectHandlerRegistry;
   private final HiddenItemPathMatcher hiddenItemPathMatcher;
+  private final ProjectImportManager projectImportManager;
 
   @Inject
   public OnWorkspaceStartProjectInitializer(
@@ -44,12 +45,14 @@ public class OnWorkspaceStartProjectInitializer {
       WorkspaceProjectSynchronizer projectSynchronizer,
       ProjectConfigRegistry projectConfigRegistry,
       ProjectHandlerRegistry projectHandlerRegistry,
-      HiddenItemPathMatcher hiddenItemPathMatcher) {
+      HiddenItemPathMatcher hiddenItemPathMatcher,
+      ProjectImportManager projectImportManager) {
     this.fsManager = fsManager;
     this.projectSynchronizer = projectSynchronizer;
     this.projectConfigRegistry = projectConfigRegistry;
     this.projectHandlerRegistry = projectHandlerRegistry;
     this.hiddenItemPathMatcher = hiddenItemPathMatcher;
+    this.projectImportManager = projectImportManager;
   }
 
   @PostConstruct
@@ -58,6 +61,7 @@ public class OnWorkspaceStartProjectInitializer {
     initializeRegisteredProjects();
     initializeNotRegisteredProjects();
     firePostInitializationHandlers();
+    projectImportManager.resumeUnfinishedImports();
   }
 
   private void initializeRegisteredProjects()
@@ -10,9 +10,8 @@
  */
 package org.eclipse.che.api.project.server.impl;
 
-import static java.util.Optional.empty;
 import static java.util.stream.Collectors.toSet;
-import static org.eclipse.che.api.fs.server.WsPathUtils.isRoot;
+import static org.eclipse.che.api.fs.server.WsPathUtils.SEPARATOR;
 
 import com.google.common.collect.ImmutableSet;
 import java.nio.file.Files;
@@ -20,14 +19,15 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.eclipse.che.api.core.model.workspace.config.ProjectConfig;
 import org.eclipse.che.api.fs.server.FsManager;
-import org.eclipse.che.api.fs.server.WsPathUtils;
 import org.eclipse.che.api.project.shared.RegisteredProject;
 import org.eclipse.che.api.project.shared.dto.RegisteredProjectDto;
 import org.eclipse.che.dto.server.DtoFactory;
@@ -44,6 +44,8 @@ public class PersistingProjectRegistry implements ProjectConfigRegistry {
   private final RegisteredProjectFactory registeredProjectFactory;
   private final FsManager fsManager;
   private final FileCache cache;
+  private final ProjectPathIndex index = new ProjectPathIndex();
+  private volatile boolean indexLoaded;
 
   @Inject
   public PersistingProjectRegistry(
@@ -55,14 +57,19 @@ public class PersistingProjectRegistry implements ProjectConfigRegistry {
 
   @Override
   public Set<RegisteredProject> getAll() {
-
-    return ImmutableSet.copyOf(cache.getAll(""));
+    return getAll("");
   }
 
   @Override
   public Set<RegisteredProject> getAll(String wsPath) {
-
-    return ImmutableSet.copyOf(cache.getAll(wsPath));
+    Set<RegisteredProject> children =
+        index()
+            .getDescendants(wsPath)
+            .stream()
+            .map(this::getOrNull)
+            .filter(Objects::nonNull)
+            .collect(toSet());
+    return ImmutableSet.copyOf(children);
   }
 
   @Override
@@ -73,7 +80,10 @@ public class PersistingProjectRegistry implements ProjectConfigRegistry {
 
   @Override
   public RegisteredProject getOrNull(String wsPath) {
-    return projects.containsKey(wsPath) ? projects.get(wsPath) : cache.get(wsPath);
+    if (projects.containsKey(wsPath)) {
+      return projects.get(wsPath);
+    }
+    return index().contains(wsPath) ? cache.get(wsPath) : null;
   }
 
   @Override
@@ -84,6 +94,7 @@ public class PersistingProjectRegistry implements ProjectConfigRegistry {
     projects.put(wsPath, project);
 
     cache.put(project);
+    index().add(wsPath);
 
     return project;
   }
@@ -100,44 +111,44 @@ public class PersistingProjectRegistry implements ProjectConfigRegistry {
     projects.put(wsPath, project);
 
     cache.put(project);
+    index().add(wsPath);
 
     return project;
   }
 
   @Override
   public Optional<RegisteredProject> remove(String wsPath) {
-
-    cache.remove(wsPath);
-    return Optional.ofNullable(projects.remove(wsPath));
+    return Optional.ofNullable(removeOrNull(wsPath));
   }
 
   @Override
-  public RegisteredProject removeOrNull(String wsPath) {
-
+  public synchronized RegisteredProject removeOrNull(String wsPath) {
+    index().remove(wsPath);
     cache.remove(wsPath);
     return projects.remove(wsPath);
   }
 
   @Override
   public boolean isRegistered(String path) {
-    return projects.containsKey(path) || cache.contains(path);
+    return projects.containsKey(path) || index().contains(path);
   }
 
   @Override
   public Optional<RegisteredProject> getClosest(String wsPath) {
-    while (!isRoot(wsPath)) {
-
-      if (projects.containsKey(wsPath)) {
-        // get from local map
-        return Optional.of(projects.get(wsPath));
-      } else if (cache.contains(wsPath)) {
-        // get from fs cache
-        return Optional.of(cache.get(wsPath));
+    return index().getClosest(wsPath).map(this::getOrNull);
+  }
+
+  /** Returns the index of project paths, loads paths of the cached projects on the first call. */
+  private ProjectPathIndex index() {
+    if (!indexLoaded) {
+      synchronized (this) {
+        if (!indexLoaded) {
+          cache.getPaths().forEach(index::add);
+          indexLoaded = true;
+        }
       }
-      wsPath = WsPathUtils.parentOf(wsPath);
     }
-
-    return empty();
+    return index;
   }
 
   private class FileCache {
@@ -182,32 +193,22 @@ public class PersistingProjectRegistry implements ProjectConfigRegistry {
       return p;
     }
 
-    public Set<RegisteredProject> getAll(String wsPath) {
-
-      Set<RegisteredProject> projects = new HashSet<>();
-      String fsPath = fsManager.toIoFile(ROOT + wsPath).getPath();
-      // Check if there are child projects (if so there is a folder)
-      // this check is needed since otherwise Files.walk throws excepton
-      if (Files.isDirectory(Paths.get(fsPath))) {
-        try {
-          Set<Path> paths =
-              Files.walk(Paths.get(fsPath)).filter(Files::isRegularFile).collect(toSet());
-
-          for (Path p : paths) {
-            String json = new String(Files.readAllBytes(p));
-
-            projects.add(
-                DtoFactory.getInstance().createDtoFromJson(json, RegisteredProjectDto.class));
-          }
-        } catch (Exception e) {
-          e.printStackTrace();
-        }
+    public Set<String> getPaths() {
+      Path root = Paths.get(fsManager.toIoFile(ROOT).getPath());
+      if (!Files.isDirectory(root)) {
+        return new HashSet<>();
+      }
+      try (Stream<Path> files = Files.walk(root)) {
+        return files
+            .filter(Files::isRegularFile)
+            .map(it -> SEPARATOR + root.relativize(it))
+            .filter(it -> it.endsWith(".json"))
+            .map(it -> it.substring(0, it.length() - ".json".length()))
+            .collect(toSet());
+      } catch (Exception e) {
+        LOG.error(e.getMessage());
+        return new HashSet<>();
       }
-      return projects;
-    }
-
-    public boolean contains(String wsPath) {
-      return fsManager.exists(filePath(wsPath));
     }
 
     private String filePath(String wsPath) {
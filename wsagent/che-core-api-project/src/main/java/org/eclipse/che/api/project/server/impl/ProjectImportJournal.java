@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.project.server.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.HashMap;
+import java.util.Map;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.eclipse.che.api.core.model.workspace.config.SourceStorage;
+import org.eclipse.che.api.fs.server.FsManager;
+import org.eclipse.che.api.workspace.shared.dto.ProjectConfigDto;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps records of the project imports which are in progress. Records outlive the agent, so the
+ * imports interrupted by the agent restart can be found and started again.
+ */
+@Singleton
+class ProjectImportJournal {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ProjectImportJournal.class);
+
+  private static final String ROOT = "/.che/tmp/import";
+
+  private final FsManager fsManager;
+
+  @Inject
+  ProjectImportJournal(FsManager fsManager) {
+    this.fsManager = fsManager;
+  }
+
+  /** Records that the project is being imported from the given source. */
+  void begin(String wsPath, SourceStorage source) {
+    ProjectConfigDto record =
+        newDto(ProjectConfigDto.class)
+            .withPath(wsPath)
+            .withSource(ProjectDtoConverter.asDto(source));
+    try {
+      fsManager.createFile(recordPath(wsPath), DtoFactory.getInstance().toJson(record), true, true);
+    } catch (Exception e) {
+      LOG.warn("Can't record import of project '{}': {}", wsPath, e.getMessage());
+    }
+  }
+
+  /** Removes the record of the project import, whether the import succeeded or failed. */
+  void end(String wsPath) {
+    try {
+      fsManager.delete(recordPath(wsPath), true);
+    } catch (Exception e) {
+      LOG.warn("Can't remove import record of project '{}': {}", wsPath, e.getMessage());
+    }
+  }
+
+  /** Returns sources of the projects which imports were started but never ended. */
+  Map<String, SourceStorage> getUnfinished() {
+    Map<String, SourceStorage> unfinished = new HashMap<>();
+    if (!fsManager.existsAsDir(ROOT)) {
+      return unfinished;
+    }
+    for (String recordPath : fsManager.getFileWsPaths(ROOT)) {
+      try {
+        ProjectConfigDto record =
+            DtoFactory.getInstance()
+                .createDtoFromJson(fsManager.readAsString(recordPath), ProjectConfigDto.class);
+        unfinished.put(record.getPath(), record.getSource());
+      } catch (Exception e) {
+        LOG.warn("Can't read import record '{}': {}", recordPath, e.getMessage());
+      }
+    }
+    return unfinished;
+  }
+
+  private static String recordPath(String wsPath) {
+    try {
+      return ROOT + '/' + URLEncoder.encode(wsPath, UTF_8.name()) + ".json";
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e.getMessage(), e);
+    }
+  }
+}
@@ -12,9 +12,12 @@ package org.eclipse.che.api.project.server.impl;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static java.io.File.separator;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.toSet;
+import static org.eclipse.che.api.fs.server.WsPathUtils.SEPARATOR;
 import static org.eclipse.che.api.fs.server.WsPathUtils.parentOf;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -25,8 +28,16 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.eclipse.che.api.core.BadRequestException;
@@ -46,15 +57,25 @@ import org.eclipse.che.api.project.server.type.AttributeValue;
 import org.eclipse.che.api.project.server.type.BaseProjectType;
 import org.eclipse.che.api.project.shared.NewProjectConfig;
 import org.eclipse.che.api.project.shared.RegisteredProject;
+import org.eclipse.che.commons.lang.concurrent.ThreadLocalPropagateContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 @Singleton
 public class ProjectImportManager {
 
+  private static final Logger LOG = LoggerFactory.getLogger(ProjectImportManager.class);
+
+  /** Maximum number of the projects imported at the same time. */
+  private static final int MAX_CONCURRENT_IMPORTS = 4;
+
   private final FsManager fsManager;
   private final WorkspaceProjectSynchronizer projectSynchronizer;
   private final ProjectConfigRegistry projectConfigRegistry;
   private final ProjectImporterRegistry projectImporterRegistry;
   private final ProjectHandlerRegistry projectHandlerRegistry;
+  private final ProjectImportJournal importJournal;
+  private final ThreadPoolExecutor executor;
 
   @Inject
   public ProjectImportManager(
@@ -62,12 +83,63 @@ public class ProjectImportManager {
       ProjectConfigRegistry projectConfigs,
       WorkspaceProjectSynchronizer projectSynchronizer,
       ProjectImporterRegistry projectImporterRegistry,
-      ProjectHandlerRegistry projectHandlerRegistry) {
+      ProjectHandlerRegistry projectHandlerRegistry,
+      ProjectImportJournal importJournal) {
     this.fsManager = fsManager;
     this.projectSynchronizer = projectSynchronizer;
     this.projectConfigRegistry = projectConfigs;
     this.projectImporterRegistry = projectImporterRegistry;
     this.projectHandlerRegistry = projectHandlerRegistry;
+    this.importJournal = importJournal;
+    this.executor =
+        new ThreadPoolExecutor(
+            MAX_CONCURRENT_IMPORTS,
+            MAX_CONCURRENT_IMPORTS,
+            60,
+            SECONDS,
+            new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder().setNameFormat("ProjectImporter-%d").setDaemon(true).build());
+    this.executor.allowCoreThreadTimeOut(true);
+  }
+
+  @PreDestroy
+  private void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Starts again the imports of the projects which were interrupted by the agent restart. Imports
+   * run in background, the partially imported content is replaced. The projects which are already
+   * stored in the workspace configuration were imported completely, only their records are left.
+   */
+  void resumeUnfinishedImports() {
+    Map<String, SourceStorage> unfinished = new HashMap<>();
+    importJournal
+        .getUnfinished()
+        .forEach(
+            (wsPath, source) -> {
+              RegisteredProject project = projectConfigRegistry.getOrNull(wsPath);
+              if (project != null && project.isSynced() && !project.isDetected()) {
+                importJournal.end(wsPath);
+              } else {
+                unfinished.put(wsPath, source);
+              }
+            });
+    for (List<String> group : groupNested(unfinished.keySet())) {
+      executor.execute(
+          () -> {
+            for (String wsPath : group) {
+              LOG.info("Resuming import of project '{}'", wsPath);
+              try {
+                fsManager.delete(wsPath, true);
+                doImport(wsPath, unfinished.get(wsPath), true, (projectName, line) -> {});
+              } catch (Exception e) {
+                importJournal.end(wsPath);
+                LOG.error("Can't resume import of project '{}': {}", wsPath, e.getMessage());
+              }
+            }
+          });
+    }
   }
 
   public Set<RegisteredProject> doImport(
@@ -87,27 +159,13 @@ public class ProjectImportManager {
       }
     }
 
-    Set<RegisteredProject> importedProjects = new HashSet<>();
-
+    Map<String, NewProjectConfig> configs = new HashMap<>();
     for (NewProjectConfig projectConfig : newProjectConfigs) {
-      try {
-        RegisteredProject project = doImport(projectConfig, rewrite, consumer);
-        importedProjects.add(project);
-      } catch (ServerException
-          | ForbiddenException
-          | UnauthorizedException
-          | ConflictException
-          | NotFoundException e) {
-        for (RegisteredProject importedProject : importedProjects) {
-          String path = importedProject.getPath();
-          fsManager.delete(path);
-          projectConfigRegistry.remove(path);
-        }
-
-        throw e;
-      }
+      configs.put(projectConfig.getPath(), projectConfig);
     }
-    return importedProjects;
+
+    return doImportConcurrently(
+        configs.keySet(), wsPath -> doImport(configs.get(wsPath), rewrite, consumer));
   }
 
   public RegisteredProject doImport(
@@ -226,31 +284,14 @@ public class ProjectImportManager {
       }
     }
 
-    Set<RegisteredProject> importedProjects = new HashSet<>();
-    for (Entry<String, SourceStorage> entry : projectLocations.entrySet()) {
-      String wsPath = entry.getKey();
-      SourceStorage sourceStorage = entry.getValue();
-
-      try {
-        RegisteredProject project = doImport(wsPath, sourceStorage, rewrite, jsonRpcConsumer);
-        importedProjects.add(project);
-      } catch (ServerException
-          | ForbiddenException
-          | UnauthorizedException
-          | ConflictException
-          | NotFoundException e) {
-        for (RegisteredProject importedProject : importedProjects) {
-          String path = importedProject.getPath();
-          fsManager.delete(path);
-          projectConfigRegistry.remove(path);
-        }
-        projectSynchronizer.synchronize();
-
-        throw e;
-      }
+    try {
+      return doImportConcurrently(
+          projectLocations.keySet(),
+          wsPath -> doImport(wsPath, projectLocations.get(wsPath), rewrite, jsonRpcConsumer));
+    } catch (BadRequestException e) {
+      // is not thrown by the import of a project from the source storage
+      throw new ServerException(e.getMessage(), e);
     }
-
-    return importedProjects;
   }
 
   public RegisteredProject doImport(
@@ -293,6 +334,18 @@ public class ProjectImportManager {
       String wsPath, SourceStorage sourceStorage, BiConsumer<String, String> jsonRpcConsumer)
       throws ServerException, ForbiddenException, UnauthorizedException, ConflictException,
           NotFoundException {
+    importJournal.begin(wsPath, sourceStorage);
+    try {
+      return doImportFromSource(wsPath, sourceStorage, jsonRpcConsumer);
+    } finally {
+      importJournal.end(wsPath);
+    }
+  }
+
+  private RegisteredProject doImportFromSource(
+      String wsPath, SourceStorage sourceStorage, BiConsumer<String, String> jsonRpcConsumer)
+      throws ServerException, ForbiddenException, UnauthorizedException, ConflictException,
+          NotFoundException {
     String type = sourceStorage.getType();
     ProjectImporter importer = projectImporterRegistry.getOrNull(type);
 
@@ -332,6 +385,106 @@ public class ProjectImportManager {
     return registeredProject;
   }
 
+  /**
+   * Imports the projects, the projects which don't contain each other are imported concurrently.
+   * When any of the imports fails all the imported projects are removed and the first failure is
+   * rethrown.
+   */
+  private Set<RegisteredProject> doImportConcurrently(Set<String> wsPaths, ImportAction action)
+      throws ServerException, ForbiddenException, UnauthorizedException, ConflictException,
+          NotFoundException, BadRequestException {
+    Set<RegisteredProject> importedProjects = ConcurrentHashMap.newKeySet();
+    List<Callable<Void>> tasks = new ArrayList<>();
+    for (List<String> group : groupNested(wsPaths)) {
+      tasks.add(
+          ThreadLocalPropagateContext.wrap(
+              () -> {
+                for (String wsPath : group) {
+                  importedProjects.add(action.doImport(wsPath));
+                }
+                return null;
+              }));
+    }
+
+    Exception failure = null;
+    if (tasks.size() == 1) {
+      try {
+        tasks.get(0).call();
+      } catch (Exception e) {
+        failure = e;
+      }
+    } else {
+      try {
+        for (Future<Void> future : executor.invokeAll(tasks)) {
+          try {
+            future.get();
+          } catch (ExecutionException e) {
+            if (failure == null) {
+              failure =
+                  e.getCause() instanceof Exception
+                      ? (Exception) e.getCause()
+                      : new ServerException(e.getCause());
+            }
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        failure = new ServerException("Import of the projects was interrupted");
+      }
+    }
+
+    if (failure != null) {
+      for (RegisteredProject importedProject : importedProjects) {
+        String path = importedProject.getPath();
+        fsManager.delete(path);
+        projectConfigRegistry.remove(path);
+      }
+      projectSynchronizer.synchronize();
+
+      throwImportFailure(failure);
+    }
+    return new HashSet<>(importedProjects);
+  }
+
+  /** Groups the paths, each group starts with a path followed by the paths nested in it. */
+  private static List<List<String>> groupNested(Set<String> wsPaths) {
+    List<List<String>> groups = new ArrayList<>();
+    // in sorted set a path always precedes the paths nested in it
+    for (String wsPath : new TreeSet<>(wsPaths)) {
+      Optional<List<String>> parentGroup =
+          groups.stream().filter(it -> wsPath.startsWith(it.get(0) + SEPARATOR)).findFirst();
+      if (parentGroup.isPresent()) {
+        parentGroup.get().add(wsPath);
+      } else {
+        List<String> group = new ArrayList<>();
+        group.add(wsPath);
+        groups.add(group);
+      }
+    }
+    return groups;
+  }
+
+  private static void throwImportFailure(Exception e)
+      throws ServerException, ForbiddenException, UnauthorizedException, ConflictException,
+          NotFoundException, BadRequestException {
+    if (e instanceof ServerException) {
+      throw (ServerException) e;
+    } else if (e instanceof ForbiddenException) {
+      throw (ForbiddenException) e;
+    } else if (e instanceof UnauthorizedException) {
+      throw (UnauthorizedException) e;
+    } else if (e instanceof ConflictException) {
+      throw (ConflictException) e;
+    } else if (e instanceof NotFoundException) {
+      throw (NotFoundException) e;
+    } else if (e instanceof BadRequestException) {
+      throw (BadRequestException) e;
+    } else if (e instanceof RuntimeException) {
+      throw (RuntimeException) e;
+    }
+    throw new ServerException(e.getMessage(), e);
+  }
+
   private Supplier<LineConsumer> jsonRpcConsumer(
       String wsPath, BiConsumer<String, String> consumer) {
     return () ->
@@ -346,4 +499,10 @@ public class ProjectImportManager {
           public void close() throws IOException {}
         };
   }
+
+  private interface ImportAction {
+    RegisteredProject doImport(String wsPath)
+        throws ServerException, ForbiddenException, UnauthorizedException, ConflictException,
+            NotFoundException, BadRequestException;
+  }
 }
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.project.server.impl;
+
+import static org.eclipse.che.api.fs.server.WsPathUtils.SEPARATOR;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Trie of the registered project paths, each node corresponds to a path segment. Answers which
+ * project contains a path and which projects are located under a path in time proportional to the
+ * path depth, without walking the file system.
+ *
+ * <p>Lookups don't block and may run concurrently with modifications, modifications must be
+ * synchronized by the owner of the index.
+ */
+class ProjectPathIndex {
+
+  private final Node root = new Node(null, null);
+
+  /** Registers the project path. */
+  void add(String wsPath) {
+    Node node = root;
+    for (String segment : segments(wsPath)) {
+      Node parent = node;
+      node = parent.children.computeIfAbsent(segment, it -> new Node(parent, it));
+    }
+    node.wsPath = wsPath;
+  }
+
+  /** Unregisters the project path, nested project paths stay registered. */
+  void remove(String wsPath) {
+    Node node = find(wsPath);
+    if (node == null) {
+      return;
+    }
+    node.wsPath = null;
+    while (node.parent != null && node.wsPath == null && node.children.isEmpty()) {
+      node.parent.children.remove(node.name, node);
+      node = node.parent;
+    }
+  }
+
+  /** Checks whether the path is registered as a project. */
+  boolean contains(String wsPath) {
+    Node node = find(wsPath);
+    return node != null && node.wsPath != null;
+  }
+
+  /**
+   * Returns the path of the deepest registered project which is located on the given path or
+   * contains it.
+   */
+  Optional<String> getClosest(String wsPath) {
+    String closest = null;
+    Node node = root;
+    for (String segment : segments(wsPath)) {
+      node = node.children.get(segment);
+      if (node == null) {
+        break;
+      }
+      String nodePath = node.wsPath;
+      if (nodePath != null) {
+        closest = nodePath;
+      }
+    }
+    return Optional.ofNullable(closest);
+  }
+
+  /** Returns paths of all the registered projects located under the given path. */
+  Set<String> getDescendants(String wsPath) {
+    Set<String> descendants = new HashSet<>();
+    Node node = find(wsPath);
+    if (node == null) {
+      return descendants;
+    }
+    Deque<Node> queue = new ArrayDeque<>(node.children.values());
+    while (!queue.isEmpty()) {
+      Node next = queue.poll();
+      String nextPath = next.wsPath;
+      if (nextPath != null) {
+        descendants.add(nextPath);
+      }
+      queue.addAll(next.children.values());
+    }
+    return descendants;
+  }
+
+  private Node find(String wsPath) {
+    Node node = root;
+    for (String segment : segments(wsPath)) {
+      node = node.children.get(segment);
+      if (node == null) {
+        return null;
+      }
+    }
+    return node;
+  }
+
+  private static Iterable<String> segments(String wsPath) {
+    Deque<String> segments = new ArrayDeque<>();
+    int start = 0;
+    while (start < wsPath.length()) {
+      int end = wsPath.indexOf(SEPARATOR, start);
+      if (end < 0) {
+        end = wsPath.length();
+      }
+      if (end > start) {
+        segments.add(wsPath.substring(start, end));
+      }
+      start = end + 1;
+    }
+    return segments;
+  }
+
+  private static class Node {
+    private final Node parent;
+    private final String name;
+    private final Map<String, Node> children = new ConcurrentHashMap<>();
+    private volatile String wsPath;
+
+    private Node(Node parent, String name) {
+      this.parent = parent;
+      this.name = name;
+    }
+  }
+}
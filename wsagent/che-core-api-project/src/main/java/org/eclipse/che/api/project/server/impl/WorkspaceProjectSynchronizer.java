@@ -12,25 +12,33 @@ package org.eclipse.che.api.project.server.impl;
 
 import static java.util.Collections.unmodifiableSet;
 import static org.eclipse.che.api.project.server.impl.ProjectDtoConverter.asDto;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
 
+import com.google.common.annotations.VisibleForTesting;
 import java.io.IOException;
+import java.net.HttpURLConnection;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.UriBuilder;
 import org.eclipse.che.api.core.ApiException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.workspace.Runtime;
 import org.eclipse.che.api.core.model.workspace.WorkspaceConfig;
 import org.eclipse.che.api.core.model.workspace.config.ProjectConfig;
+import org.eclipse.che.api.core.rest.HttpJsonRequest;
 import org.eclipse.che.api.core.rest.HttpJsonRequestFactory;
+import org.eclipse.che.api.core.rest.HttpJsonResponse;
 import org.eclipse.che.api.project.shared.RegisteredProject;
 import org.eclipse.che.api.workspace.server.WorkspaceService;
 import org.eclipse.che.api.workspace.shared.dto.ProjectConfigDto;
+import org.eclipse.che.api.workspace.shared.dto.ProjectsUpdateDto;
 import org.eclipse.che.api.workspace.shared.dto.WorkspaceDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,6 +56,9 @@ public class WorkspaceProjectSynchronizer implements ProjectSynchronizer, Worksp
   private final String workspaceId;
   private final Runtime workspaceRuntime;
 
+  private WorkspaceDto workspace;
+  private String workspaceETag;
+
   @Inject
   public WorkspaceProjectSynchronizer(
       @Named("che.api") String apiEndpoint,
@@ -55,13 +66,28 @@ public class WorkspaceProjectSynchronizer implements ProjectSynchronizer, Worksp
       WorkspaceSyncCommunication workspaceSyncCommunication,
       ProjectConfigRegistry projectConfigRegistry)
       throws ServerException {
+    this(
+        apiEndpoint,
+        System.getenv("CHE_WORKSPACE_ID"),
+        httpJsonRequestFactory,
+        workspaceSyncCommunication,
+        projectConfigRegistry);
+  }
+
+  @VisibleForTesting
+  WorkspaceProjectSynchronizer(
+      String apiEndpoint,
+      String workspaceId,
+      HttpJsonRequestFactory httpJsonRequestFactory,
+      WorkspaceSyncCommunication workspaceSyncCommunication,
+      ProjectConfigRegistry projectConfigRegistry)
+      throws ServerException {
     this.apiEndpoint = apiEndpoint;
+    this.workspaceId = workspaceId;
     this.httpJsonRequestFactory = httpJsonRequestFactory;
     this.workspaceSyncCommunication = workspaceSyncCommunication;
     this.projectConfigRegistry = projectConfigRegistry;
 
-    this.workspaceId = System.getenv("CHE_WORKSPACE_ID");
-
     LOG.info("Workspace ID: " + workspaceId);
     LOG.info("API Endpoint: " + apiEndpoint);
 
@@ -70,23 +96,21 @@ public class WorkspaceProjectSynchronizer implements ProjectSynchronizer, Worksp
   }
 
   @Override
-  public void synchronize() throws ServerException {
+  public synchronized void synchronize() throws ServerException {
 
     List<ProjectConfigDto> remote = workspaceDto().getConfig().getProjects();
 
     // check on removed
-    List<ProjectConfig> removed = new ArrayList<>();
+    List<String> removed = new ArrayList<>();
     for (ProjectConfig r : remote) {
       if (!projectConfigRegistry.get(r.getPath()).isPresent()) {
-        removed.add(r);
+        removed.add(r.getPath());
       }
     }
 
-    for (ProjectConfig r : removed) {
-      remove(r);
-    }
-
-    // update or add
+    // update or add, only projects which are changed since the last synchronization are sent
+    List<RegisteredProject> dirty = new ArrayList<>();
+    List<ProjectConfigDto> updated = new ArrayList<>();
     for (RegisteredProject project : projectConfigRegistry.getAll()) {
 
       if (!project.isSynced() && !project.isDetected()) {
@@ -102,18 +126,14 @@ public class WorkspaceProjectSynchronizer implements ProjectSynchronizer, Worksp
                 null,
                 project.getSource());
 
-        boolean found = false;
-        for (ProjectConfig r : remote) {
-          if (r.getPath().equals(project.getPath())) {
-            update(config);
-            found = true;
-          }
-        }
-
-        if (!found) {
-          add(config);
-        }
+        dirty.add(project);
+        updated.add(asDto(config));
+      }
+    }
 
+    if (!removed.isEmpty() || !updated.isEmpty()) {
+      updateProjects(updated, removed);
+      for (RegisteredProject project : dirty) {
         project.setSynced(true);
       }
     }
@@ -130,16 +150,24 @@ public class WorkspaceProjectSynchronizer implements ProjectSynchronizer, Worksp
     return unmodifiableSet(projectConfigs);
   }
 
-  private void add(ProjectConfig project) throws ServerException {
+  /** Applies all the changes of the projects with a single request. */
+  private void updateProjects(List<ProjectConfigDto> updated, List<String> removed)
+      throws ServerException {
     final UriBuilder builder =
         UriBuilder.fromUri(apiEndpoint)
             .path(WorkspaceService.class)
-            .path(WorkspaceService.class, "addProject");
+            .path(WorkspaceService.class, "updateProjects");
     final String href = builder.build(workspaceId).toString();
     try {
-      httpJsonRequestFactory.fromUrl(href).usePostMethod().setBody(asDto(project)).request();
+      httpJsonRequestFactory
+          .fromUrl(href)
+          .usePutMethod()
+          .setBody(newDto(ProjectsUpdateDto.class).withUpdated(updated).withRemoved(removed))
+          .request();
     } catch (IOException | ApiException e) {
       throw new ServerException(e.getMessage());
+    } finally {
+      resetWorkspace();
     }
   }
 
@@ -148,53 +176,47 @@ public class WorkspaceProjectSynchronizer implements ProjectSynchronizer, Worksp
     return workspaceRuntime;
   }
 
-  private void update(ProjectConfig project) throws ServerException {
+  /**
+   * Returns the workspace. The workspace is requested conditionally, so it is transferred only when
+   * it is changed since the last request.
+   */
+  private synchronized WorkspaceDto workspaceDto() throws ServerException {
 
     final UriBuilder builder =
         UriBuilder.fromUri(apiEndpoint)
             .path(WorkspaceService.class)
-            .path(WorkspaceService.class, "updateProject");
-    final String href =
-        builder.build(new String[] {workspaceId, project.getPath()}, false).toString();
+            .path(WorkspaceService.class, "getByKey");
+    final String href = builder.build(workspaceId).toString();
     try {
-      httpJsonRequestFactory.fromUrl(href).usePutMethod().setBody(asDto(project)).request();
+      final HttpJsonRequest request = httpJsonRequestFactory.fromUrl(href).useGetMethod();
+      if (workspaceETag != null) {
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, workspaceETag);
+      }
+      final HttpJsonResponse response = request.request();
+      if (response.getResponseCode() != HttpURLConnection.HTTP_NOT_MODIFIED) {
+        workspace = response.asDto(WorkspaceDto.class);
+        workspaceETag = getHeader(response, HttpHeaders.ETAG);
+      }
+      return workspace;
     } catch (IOException | ApiException e) {
-      throw new ServerException(e.getMessage());
+      throw new ServerException(e);
     }
   }
 
-  private void remove(ProjectConfig project) throws ServerException {
-
-    final UriBuilder builder =
-        UriBuilder.fromUri(apiEndpoint)
-            .path(WorkspaceService.class)
-            .path(WorkspaceService.class, "deleteProject");
-
-    final String href =
-        builder.build(new String[] {workspaceId, project.getPath()}, false).toString();
-    try {
-      httpJsonRequestFactory.fromUrl(href).useDeleteMethod().request();
-    } catch (IOException | ApiException e) {
-      throw new ServerException(e.getMessage());
-    }
+  private synchronized void resetWorkspace() {
+    workspace = null;
+    workspaceETag = null;
   }
 
-  /** @return WorkspaceDto */
-  private WorkspaceDto workspaceDto() throws ServerException {
-
-    final UriBuilder builder =
-        UriBuilder.fromUri(apiEndpoint)
-            .path(WorkspaceService.class)
-            .path(WorkspaceService.class, "getByKey");
-    final String href = builder.build(workspaceId).toString();
-    try {
-      return httpJsonRequestFactory
-          .fromUrl(href)
-          .useGetMethod()
-          .request()
-          .asDto(WorkspaceDto.class);
-    } catch (IOException | ApiException e) {
-      throw new ServerException(e);
+  private static String getHeader(HttpJsonResponse response, String name) {
+    final Map<String, List<String>> headers = response.getHeaders();
+    if (headers != null) {
+      for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+        if (name.equalsIgnoreCase(header.getKey()) && !header.getValue().isEmpty()) {
+          return header.getValue().get(0);
+        }
+      }
     }
+    return null;
   }
 }
@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.project.server.type;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Comparator.comparing;
+import static org.eclipse.che.api.fs.server.WsPathUtils.ROOT;
+import static org.eclipse.che.api.fs.server.WsPathUtils.absolutize;
+import static org.eclipse.che.api.fs.server.WsPathUtils.parentOf;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.eclipse.che.api.core.model.project.type.ProjectType;
+import org.eclipse.che.api.core.model.project.type.Value;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.fs.server.FsManager;
+import org.eclipse.che.api.project.server.notification.ProjectDeletedEvent;
+import org.eclipse.che.api.project.shared.dto.SourceEstimation;
+import org.eclipse.che.api.watcher.server.FileWatcherManager;
+import org.eclipse.che.commons.schedule.ScheduleRate;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.dto.server.JsonStringMapImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Remembers project type resolutions, so value providers which parse project descriptors run once
+ * per project and type instead of every time a project is initialized or its type is estimated.
+ *
+ * <p>Resolutions are stored on the file system under the fingerprint of the project folder
+ * entries, the nested descriptor folders such as {@code .settings} and the files of the parent
+ * folder which nested projects often inherit from. These folders are watched and any change of
+ * their entries drops the resolutions of the projects located in or under the changed folder,
+ * while changes made when the agent is not running are detected by the fingerprint. Resolutions
+ * which a value provider failed to compute are not remembered. Watches and stored resolutions of
+ * the deleted projects are dropped.
+ */
+@Singleton
+public class CachingProjectTypeResolver implements ProjectTypeResolver {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CachingProjectTypeResolver.class);
+
+  private static final String CACHE_ROOT = "/.che/tmp/projectTypes";
+
+  /** Larger files are fingerprinted by their size and modification time instead of content. */
+  private static final long MAX_HASHED_FILE_SIZE = 1024 * 1024;
+
+  /** Hidden folders which hold version control data rather than project descriptors. */
+  private static final Set<String> NOT_DESCRIPTOR_DIRS = ImmutableSet.of(".git", ".hg", ".svn");
+
+  private final SimpleProjectTypeResolver delegate;
+  private final FsManager fsManager;
+  private final FileWatcherManager fileWatcherManager;
+  private final EventService eventService;
+  private final EventSubscriber<ProjectDeletedEvent> projectDeletedSubscriber;
+
+  private final Map<String, Resolutions> projects = new ConcurrentHashMap<>();
+  private final Map<String, Integer> watches = new ConcurrentHashMap<>();
+
+  /** Incremented on every eviction, so the resolutions loaded meanwhile are not kept. */
+  private final AtomicLong evictions = new AtomicLong();
+
+  @Inject
+  public CachingProjectTypeResolver(
+      SimpleProjectTypeResolver delegate,
+      FsManager fsManager,
+      FileWatcherManager fileWatcherManager,
+      EventService eventService) {
+    this.delegate = delegate;
+    this.fsManager = fsManager;
+    this.fileWatcherManager = fileWatcherManager;
+    this.eventService = eventService;
+    this.projectDeletedSubscriber = event -> onProjectDeleted(event.getProjectPath());
+  }
+
+  @Override
+  public ProjectTypeResolution resolve(ProjectType type, String wsPath) {
+    wsPath = absolutize(wsPath);
+    if (ROOT.equals(wsPath) || !fsManager.existsAsDir(wsPath)) {
+      return delegate.resolve(type, wsPath);
+    }
+
+    Resolutions resolutions = getOrLoad(wsPath);
+    if (resolutions == null) {
+      return delegate.resolve(type, wsPath);
+    }
+
+    SourceEstimation cached = resolutions.estimations.get(type.getId());
+    if (cached != null) {
+      return asResolution(cached);
+    }
+
+    AtomicBoolean failed = new AtomicBoolean();
+    ProjectTypeResolution resolution = delegate.resolve(type, wsPath, e -> failed.set(true));
+    if (!failed.get()) {
+      resolutions.estimations.put(type.getId(), asDto(resolution));
+      resolutions.dirty = true;
+    }
+    return resolution;
+  }
+
+  /** Writes resolutions which are not yet stored to the file system. */
+  @ScheduleRate(period = 10)
+  void flush() {
+    for (Resolutions resolutions : projects.values()) {
+      if (!resolutions.dirty) {
+        continue;
+      }
+      resolutions.dirty = false;
+
+      String json =
+          DtoFactory.getInstance()
+              .toJson(new JsonStringMapImpl<>(new HashMap<>(resolutions.estimations)));
+      try {
+        fsManager.createFile(
+            filePath(resolutions.wsPath, resolutions.fingerprint), json, true, true);
+      } catch (Exception e) {
+        LOG.warn(
+            "Can't store project types of project '{}': {}", resolutions.wsPath, e.getMessage());
+      }
+    }
+  }
+
+  @PostConstruct
+  private void start() {
+    eventService.subscribe(projectDeletedSubscriber, ProjectDeletedEvent.class);
+  }
+
+  @PreDestroy
+  private void stop() {
+    eventService.unsubscribe(projectDeletedSubscriber, ProjectDeletedEvent.class);
+    watches.values().forEach(fileWatcherManager::unRegisterByPath);
+    flush();
+  }
+
+  /**
+   * Returns resolutions of the project loading them when needed. The file system is not accessed
+   * while the map is updated, resolutions loaded concurrently with eviction are used only once.
+   */
+  private Resolutions getOrLoad(String wsPath) {
+    Resolutions resolutions = projects.get(wsPath);
+    if (resolutions != null) {
+      return resolutions;
+    }
+
+    long evicted = evictions.get();
+    resolutions = load(wsPath);
+    if (resolutions == null) {
+      return null;
+    }
+    Resolutions existing = projects.putIfAbsent(wsPath, resolutions);
+    if (existing != null) {
+      return existing;
+    }
+    if (evictions.get() != evicted) {
+      projects.remove(wsPath, resolutions);
+    }
+    return resolutions;
+  }
+
+  private Resolutions load(String wsPath) {
+    String fingerprint;
+    try {
+      fingerprint = fingerprint(wsPath);
+    } catch (IOException e) {
+      LOG.warn("Can't fingerprint project '{}': {}", wsPath, e.getMessage());
+      return null;
+    }
+
+    Resolutions resolutions = new Resolutions(wsPath, fingerprint);
+    String filePath = filePath(wsPath, fingerprint);
+    try {
+      if (fsManager.existsAsFile(filePath)) {
+        resolutions.estimations.putAll(
+            DtoFactory.getInstance()
+                .createMapDtoFromJson(fsManager.readAsString(filePath), SourceEstimation.class));
+      } else if (fsManager.existsAsDir(dirPath(wsPath))) {
+        fsManager.delete(dirPath(wsPath), true);
+      }
+    } catch (Exception e) {
+      LOG.warn("Can't read project types of project '{}': {}", wsPath, e.getMessage());
+    }
+    return resolutions;
+  }
+
+  /**
+   * Drops resolutions of the projects which contain the changed entry, and of the projects nested
+   * in its folder as they may inherit from the descriptors located there.
+   */
+  private void evict(String wsPath) {
+    String dirPath = parentOf(wsPath);
+    evictions.incrementAndGet();
+    projects.keySet().removeIf(it -> isSameOrNested(dirPath, it) || isSameOrNested(it, dirPath));
+  }
+
+  private void watch(String dirPath) {
+    if (!watches.containsKey(dirPath)) {
+      int id = fileWatcherManager.registerByPath(dirPath, this::evict, this::evict, this::evict);
+      if (watches.putIfAbsent(dirPath, id) != null) {
+        fileWatcherManager.unRegisterByPath(id);
+      }
+    }
+  }
+
+  /** Stops watching the project and the folders nested in it, and drops their resolutions. */
+  @VisibleForTesting
+  void onProjectDeleted(String projectPath) {
+    String wsPath = absolutize(projectPath);
+    evictions.incrementAndGet();
+    Iterator<Map.Entry<String, Integer>> it = watches.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<String, Integer> watch = it.next();
+      String watched = watch.getKey();
+      if (isSameOrNested(wsPath, watched)) {
+        it.remove();
+        fileWatcherManager.unRegisterByPath(watch.getValue());
+        projects.remove(watched);
+        try {
+          fsManager.delete(dirPath(watched), true);
+        } catch (Exception e) {
+          LOG.warn("Can't remove project types of project '{}': {}", watched, e.getMessage());
+        }
+      }
+    }
+  }
+
+  /**
+   * Hashes names of the project folder entries along with the content of the files, value
+   * providers mostly look for and read the descriptors located in the project folder, its nested
+   * descriptor folders and the parent folder. Hashed folders are watched before they are listed, so
+   * no change goes unnoticed.
+   */
+  private String fingerprint(String wsPath) throws IOException {
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    String parentPath = parentOf(wsPath);
+    if (!ROOT.equals(parentPath)) {
+      hashEntries(parentPath, hasher, name -> false);
+    }
+    hashEntries(
+        wsPath, hasher, name -> name.startsWith(".") && !NOT_DESCRIPTOR_DIRS.contains(name));
+    return hasher.hash().toString();
+  }
+
+  /** Hashes the folder entries descending into the matching folders and all their sub-folders. */
+  private void hashEntries(String dirPath, Hasher hasher, Predicate<String> descend)
+      throws IOException {
+    watch(dirPath);
+    File[] entries = fsManager.toIoFile(dirPath).listFiles();
+    if (entries == null) {
+      throw new IOException("Can't list entries of " + dirPath);
+    }
+    Arrays.sort(entries, comparing(File::getName));
+
+    for (File entry : entries) {
+      String name = entry.getName();
+      hasher.putString(name, UTF_8);
+      if (entry.isDirectory()) {
+        if (descend.test(name)) {
+          hasher.putByte((byte) 3);
+          hashEntries(dirPath + '/' + name, hasher, it -> true);
+          hasher.putByte((byte) 4);
+        } else {
+          hasher.putByte((byte) 0);
+        }
+      } else if (entry.length() <= MAX_HASHED_FILE_SIZE) {
+        hasher.putByte((byte) 1);
+        hasher.putBytes(Files.asByteSource(entry).hash(Hashing.murmur3_128()).asBytes());
+      } else {
+        hasher.putByte((byte) 2);
+        hasher.putLong(entry.length()).putLong(entry.lastModified());
+      }
+    }
+  }
+
+  private static boolean isSameOrNested(String dirPath, String wsPath) {
+    return wsPath.equals(dirPath)
+        || wsPath.startsWith(ROOT.equals(dirPath) ? dirPath : dirPath + '/');
+  }
+
+  private static ProjectTypeResolution asResolution(SourceEstimation estimation) {
+    Map<String, Value> attributes = new HashMap<>();
+    estimation
+        .getAttributes()
+        .forEach((name, values) -> attributes.put(name, new AttributeValue(values)));
+
+    boolean matched = estimation.isMatched();
+    return new ProjectTypeResolution(
+        estimation.getType(), attributes, estimation.getResolution()) {
+      @Override
+      public boolean matched() {
+        return matched;
+      }
+    };
+  }
+
+  private static SourceEstimation asDto(ProjectTypeResolution resolution) {
+    Map<String, List<String>> attributes = new HashMap<>();
+    resolution
+        .getProvidedAttributes()
+        .forEach((name, value) -> attributes.put(name, value.getList()));
+
+    return newDto(SourceEstimation.class)
+        .withType(resolution.getType())
+        .withAttributes(attributes)
+        .withMatched(resolution.matched())
+        .withResolution(resolution.getResolution());
+  }
+
+  private static String dirPath(String wsPath) {
+    try {
+      return CACHE_ROOT + '/' + URLEncoder.encode(wsPath, UTF_8.name());
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e.getMessage(), e);
+    }
+  }
+
+  private static String filePath(String wsPath, String fingerprint) {
+    return dirPath(wsPath) + '/' + fingerprint + ".json";
+  }
+
+  private static class Resolutions {
+    private final String wsPath;
+    private final String fingerprint;
+    private final Map<String, SourceEstimation> estimations = new ConcurrentHashMap<>();
+    private volatile boolean dirty;
+
+    private Resolutions(String wsPath, String fingerprint) {
+      this.wsPath = wsPath;
+      this.fingerprint = fingerprint;
+    }
+  }
+}
@@ -15,6 +15,7 @@ import static java.util.Collections.emptyMap;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 import javax.inject.Singleton;
 import org.eclipse.che.api.core.model.project.type.Attribute;
 import org.eclipse.che.api.core.model.project.type.ProjectType;
@@ -25,6 +26,15 @@ public class SimpleProjectTypeResolver implements ProjectTypeResolver {
 
   @Override
   public ProjectTypeResolution resolve(ProjectType type, String wsPath) {
+    return resolve(type, wsPath, e -> {});
+  }
+
+  /**
+   * Resolves the project type, failures of the value providers are passed to the given consumer
+   * even if they don't affect the resolution, e.g. when the attribute is not required.
+   */
+  ProjectTypeResolution resolve(
+      ProjectType type, String wsPath, Consumer<ValueStorageException> failureConsumer) {
     Map<String, Value> matchAttrs = new HashMap<>();
     for (Attribute attribute : type.getAttributes()) {
       String name = attribute.getName();
@@ -40,6 +50,7 @@ public class SimpleProjectTypeResolver implements ProjectTypeResolver {
           } catch (ValueStorageException e) {
             value = null;
             errorMessage = e.getLocalizedMessage();
+            failureConsumer.accept(e);
           }
 
           if (value == null || value.isEmpty()) {
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.editor.server.impl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import com.google.common.base.Strings;
+import com.google.common.io.CharStreams;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Random;
+import org.testng.annotations.Test;
+
+public class PieceTableTest {
+
+  @Test
+  public void shouldInsertAndDeleteText() {
+    PieceTable table = PieceTable.of("hello world");
+
+    table = table.insert(5, ",").insert(12, "!").delete(0, 1).insert(0, "H");
+
+    assertEquals(table.toString(), "Hello, world!");
+    assertEquals(table.length(), 13);
+    assertEquals(table.charAt(5), ',');
+    assertEquals(table.subSequence(7, 12).toString(), "world");
+  }
+
+  @Test
+  public void shouldKeepSnapshotUnchanged() {
+    PieceTable snapshot = PieceTable.of("text");
+
+    snapshot.insert(4, " changed").delete(0, 2);
+
+    assertEquals(snapshot.toString(), "text");
+  }
+
+  @Test
+  public void shouldMergeSubsequentTypingIntoSinglePiece() {
+    String original = Strings.repeat("original text\n", 100);
+    PieceTable table = PieceTable.of(original);
+
+    for (char c : "typed".toCharArray()) {
+      table = table.insert(table.length(), String.valueOf(c));
+    }
+
+    assertEquals(table.toString(), original + "typed");
+    assertEquals(table.pieceCount(), 2);
+  }
+
+  @Test(expectedExceptions = IndexOutOfBoundsException.class)
+  public void shouldNotDeleteOutOfBounds() {
+    PieceTable.of("text").delete(2, 3);
+  }
+
+  @Test
+  public void shouldApplyRandomChangesToLargeText() throws IOException {
+    Random random = new Random(42);
+    StringBuilder expected = new StringBuilder(4 * 1024 * 1024);
+    while (expected.length() < 4 * 1024 * 1024) {
+      expected.append("line ").append(expected.length()).append('\n');
+    }
+    PieceTable table = PieceTable.of(expected);
+
+    for (int i = 0; i < 10_000; i++) {
+      int offset = random.nextInt(expected.length());
+      if (random.nextBoolean()) {
+        String text = "+" + i;
+        expected.insert(offset, text);
+        table = table.insert(offset, text);
+      } else {
+        int count = random.nextInt(Math.min(20, expected.length() - offset));
+        expected.delete(offset, offset + count);
+        table = table.delete(offset, count);
+      }
+    }
+
+    assertEquals(table.length(), expected.length());
+    assertTrue(expected.toString().contentEquals(table));
+    try (Reader reader = table.openReader()) {
+      assertEquals(CharStreams.toString(reader), expected.toString());
+    }
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.fs.server.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.apache.commons.io.FileUtils;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.fs.server.PathTransformer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests for {@link ZipArchiver} */
+public class ZipArchiverTest {
+
+  private ZipArchiver zipArchiver;
+  private Path dstDir;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    zipArchiver = new ZipArchiver(mock(PathTransformer.class));
+    dstDir = Files.createTempDirectory("unzip");
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    FileUtils.deleteQuietly(dstDir.toFile());
+  }
+
+  @Test
+  public void shouldUnzipEntriesWithoutDirectoryEntries() throws Exception {
+    byte[] large = new byte[3 * 1024 * 1024 + 17];
+    new Random().nextBytes(large);
+    ByteArrayOutputStream zip = new ByteArrayOutputStream();
+    try (ZipOutputStream zos = new ZipOutputStream(zip)) {
+      putEntry(zos, "root/", null);
+      putEntry(zos, "root/a/b/large.bin", large);
+      putEntry(zos, "root/a/c.txt", "c".getBytes(UTF_8));
+      putEntry(zos, "root/empty.txt", new byte[0]);
+    }
+
+    zipArchiver.unzip(dstDir, new ByteArrayInputStream(zip.toByteArray()), true, true, true);
+
+    assertEquals(Files.readAllBytes(dstDir.resolve("a/b/large.bin")), large);
+    assertEquals(Files.readAllBytes(dstDir.resolve("a/c.txt")), "c".getBytes(UTF_8));
+    assertEquals(Files.size(dstDir.resolve("empty.txt")), 0);
+    assertFalse(Files.exists(dstDir.resolve("root")));
+  }
+
+  @Test(expectedExceptions = ServerException.class)
+  public void shouldNotUnzipEntriesOutsideOfTargetDirectory() throws Exception {
+    ByteArrayOutputStream zip = new ByteArrayOutputStream();
+    try (ZipOutputStream zos = new ZipOutputStream(zip)) {
+      putEntry(zos, "../outside.txt", "text".getBytes(UTF_8));
+    }
+
+    zipArchiver.unzip(dstDir, new ByteArrayInputStream(zip.toByteArray()), true, true, false);
+  }
+
+  private static void putEntry(ZipOutputStream zos, String name, byte[] content)
+      throws IOException {
+    zos.putNextEntry(new ZipEntry(name));
+    if (content != null) {
+      zos.write(content);
+    }
+    zos.closeEntry();
+  }
+}
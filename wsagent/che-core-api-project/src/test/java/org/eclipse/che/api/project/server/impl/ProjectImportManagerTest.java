@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.project.server.impl;
+
+import static java.util.Collections.singletonMap;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.argThat;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import com.google.common.collect.ImmutableSet;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.model.workspace.config.ProjectConfig;
+import org.eclipse.che.api.core.model.workspace.config.SourceStorage;
+import org.eclipse.che.api.fs.server.FsManager;
+import org.eclipse.che.api.project.server.ProjectImporter;
+import org.eclipse.che.api.project.server.type.BaseProjectType;
+import org.eclipse.che.api.project.shared.RegisteredProject;
+import org.eclipse.che.api.workspace.shared.dto.SourceStorageDto;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests for {@link ProjectImportManager} */
+@Listeners(MockitoTestNGListener.class)
+public class ProjectImportManagerTest {
+
+  private static final String IMPORTER_TYPE = "git";
+
+  @Mock private FsManager fsManager;
+  @Mock private ProjectConfigRegistry projectConfigRegistry;
+  @Mock private WorkspaceProjectSynchronizer projectSynchronizer;
+  @Mock private ProjectImporterRegistry projectImporterRegistry;
+  @Mock private ProjectHandlerRegistry projectHandlerRegistry;
+  @Mock private ProjectImportJournal importJournal;
+  @Mock private ProjectImporter importer;
+
+  private ProjectImportManager importManager;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    when(fsManager.existsAsDir(anyString())).thenReturn(true);
+    when(projectImporterRegistry.isRegistered(IMPORTER_TYPE)).thenReturn(true);
+    when(projectImporterRegistry.getOrNull(IMPORTER_TYPE)).thenReturn(importer);
+    when(projectConfigRegistry.put(any(ProjectConfig.class), anyBoolean(), anyBoolean()))
+        .thenAnswer(inv -> createProject(((ProjectConfig) inv.getArguments()[0]).getPath()));
+
+    importManager =
+        new ProjectImportManager(
+            fsManager,
+            projectConfigRegistry,
+            projectSynchronizer,
+            projectImporterRegistry,
+            projectHandlerRegistry,
+            importJournal);
+  }
+
+  @Test
+  public void shouldRemoveImportedProjectsWhenImportOfAnyProjectFails() throws Exception {
+    doThrow(new ServerException("Import failed")).when(importer).doImport(any(), eq("/b"), any());
+
+    try {
+      importManager.doImport(
+          ImmutableSet.of(createConfig("/a"), createConfig("/b")), false, (name, line) -> {});
+      fail("Import is expected to fail");
+    } catch (ServerException e) {
+      assertEquals(e.getMessage(), "Import failed");
+    }
+
+    InOrder inOrder = inOrder(projectConfigRegistry);
+    inOrder
+        .verify(projectConfigRegistry)
+        .put(argThat((ProjectConfig config) -> "/a".equals(config.getPath())), eq(true), eq(false));
+    inOrder.verify(projectConfigRegistry).remove("/a");
+    verify(importJournal).end("/a");
+    verify(importJournal).end("/b");
+  }
+
+  @Test
+  public void shouldResumeUnfinishedImport() throws Exception {
+    SourceStorage source = createSource();
+    when(importJournal.getUnfinished()).thenReturn(singletonMap("/a", source));
+
+    importManager.resumeUnfinishedImports();
+
+    verify(importer, timeout(5000)).doImport(eq(source), eq("/a"), any());
+    verify(fsManager).delete("/a", true);
+  }
+
+  @Test
+  public void shouldNotResumeImportOfProjectStoredInWorkspace() throws Exception {
+    RegisteredProject project = createProject("/a");
+    when(project.isSynced()).thenReturn(true);
+    when(projectConfigRegistry.getOrNull("/a")).thenReturn(project);
+    when(importJournal.getUnfinished()).thenReturn(singletonMap("/a", createSource()));
+
+    importManager.resumeUnfinishedImports();
+
+    verify(importJournal).end("/a");
+    verify(fsManager, never()).delete(anyString(), anyBoolean());
+    verify(importer, never()).doImport(any(), anyString(), any());
+  }
+
+  private static NewProjectConfigImpl createConfig(String wsPath) {
+    return new NewProjectConfigImpl(
+        wsPath, wsPath.substring(1), BaseProjectType.ID, createSource());
+  }
+
+  private static SourceStorageDto createSource() {
+    return newDto(SourceStorageDto.class).withType(IMPORTER_TYPE).withLocation("location");
+  }
+
+  private static RegisteredProject createProject(String wsPath) {
+    RegisteredProject project = mock(RegisteredProject.class);
+    when(project.getPath()).thenReturn(wsPath);
+    return project;
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.project.server.impl;
+
+import static java.util.Optional.empty;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Optional;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Test cases for {@link ProjectPathIndex} */
+public class ProjectPathIndexTest {
+
+  private ProjectPathIndex index;
+
+  @BeforeMethod
+  public void setUp() {
+    index = new ProjectPathIndex();
+    index.add("/project");
+    index.add("/project/module");
+    index.add("/project/module/submodule");
+    index.add("/other");
+  }
+
+  @Test
+  public void shouldFindClosestProject() {
+    assertEquals(index.getClosest("/project/src/Main.java"), Optional.of("/project"));
+    assertEquals(index.getClosest("/project/module/pom.xml"), Optional.of("/project/module"));
+    assertEquals(index.getClosest("/project/module"), Optional.of("/project/module"));
+    assertEquals(index.getClosest("/projects/file"), empty());
+    assertEquals(index.getClosest("/"), empty());
+  }
+
+  @Test
+  public void shouldFindDescendantProjects() {
+    assertEquals(
+        index.getDescendants("/project"),
+        ImmutableSet.of("/project/module", "/project/module/submodule"));
+    assertEquals(index.getDescendants("/project/module/submodule"), ImmutableSet.of());
+    assertEquals(
+        index.getDescendants("/"),
+        ImmutableSet.of("/project", "/project/module", "/project/module/submodule", "/other"));
+  }
+
+  @Test
+  public void shouldKeepNestedProjectsOnRemoval() {
+    index.remove("/project/module");
+
+    assertFalse(index.contains("/project/module"));
+    assertTrue(index.contains("/project/module/submodule"));
+    assertEquals(index.getClosest("/project/module/pom.xml"), Optional.of("/project"));
+    assertEquals(
+        index.getClosest("/project/module/submodule/pom.xml"),
+        Optional.of("/project/module/submodule"));
+  }
+
+  @Test
+  public void shouldNotTreatIntermediateFoldersAsProjects() {
+    index.add("/a/b/c");
+
+    assertFalse(index.contains("/a"));
+    assertFalse(index.contains("/a/b"));
+    assertTrue(index.contains("/a/b/c/"));
+    assertEquals(index.getClosest("/a/b/file"), empty());
+
+    index.remove("/a/b/c");
+
+    assertEquals(
+        index.getDescendants("/"),
+        ImmutableSet.of("/project", "/project/module", "/project/module/submodule", "/other"));
+  }
+}
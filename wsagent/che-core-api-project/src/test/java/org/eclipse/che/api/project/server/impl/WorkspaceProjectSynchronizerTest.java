@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.project.server.impl;
+
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static java.util.stream.Collectors.toSet;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableSet;
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import javax.ws.rs.core.HttpHeaders;
+import org.eclipse.che.api.core.model.workspace.config.ProjectConfig;
+import org.eclipse.che.api.core.rest.HttpJsonRequest;
+import org.eclipse.che.api.core.rest.HttpJsonRequestFactory;
+import org.eclipse.che.api.core.rest.HttpJsonResponse;
+import org.eclipse.che.api.project.shared.RegisteredProject;
+import org.eclipse.che.api.workspace.shared.dto.ProjectConfigDto;
+import org.eclipse.che.api.workspace.shared.dto.ProjectsUpdateDto;
+import org.eclipse.che.api.workspace.shared.dto.WorkspaceConfigDto;
+import org.eclipse.che.api.workspace.shared.dto.WorkspaceDto;
+import org.eclipse.che.commons.test.mockito.answer.SelfReturningAnswer;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests for {@link WorkspaceProjectSynchronizer} */
+@Listeners(MockitoTestNGListener.class)
+public class WorkspaceProjectSynchronizerTest {
+
+  private static final String API_ENDPOINT = "http://localhost:8080/api";
+  private static final String WORKSPACE_ID = "workspace123";
+  private static final String WORKSPACE_URL = API_ENDPOINT + "/workspace/" + WORKSPACE_ID;
+  private static final String PROJECTS_URL = WORKSPACE_URL + "/project";
+  private static final String ETAG = "\"etag\"";
+
+  @Mock private HttpJsonRequestFactory requestFactory;
+  @Mock private WorkspaceSyncCommunication workspaceSyncCommunication;
+  @Mock private ProjectConfigRegistry projectConfigRegistry;
+
+  private HttpJsonRequest getRequest;
+  private HttpJsonRequest putRequest;
+  private HttpJsonResponse workspaceResponse;
+  private HttpJsonResponse notModifiedResponse;
+
+  private WorkspaceProjectSynchronizer synchronizer;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    getRequest = mock(HttpJsonRequest.class, new SelfReturningAnswer());
+    putRequest = mock(HttpJsonRequest.class, new SelfReturningAnswer());
+    when(requestFactory.fromUrl(WORKSPACE_URL)).thenReturn(getRequest);
+    when(requestFactory.fromUrl(PROJECTS_URL)).thenReturn(putRequest);
+
+    workspaceResponse = mock(HttpJsonResponse.class);
+    when(workspaceResponse.getResponseCode()).thenReturn(HttpURLConnection.HTTP_OK);
+    when(workspaceResponse.getHeaders())
+        .thenReturn(singletonMap(HttpHeaders.ETAG, singletonList(ETAG)));
+    when(workspaceResponse.asDto(WorkspaceDto.class))
+        .thenReturn(createWorkspace("/synced", "/removed"));
+    notModifiedResponse = mock(HttpJsonResponse.class);
+    when(notModifiedResponse.getResponseCode()).thenReturn(HttpURLConnection.HTTP_NOT_MODIFIED);
+    when(getRequest.request()).thenReturn(workspaceResponse);
+
+    synchronizer =
+        new WorkspaceProjectSynchronizer(
+            API_ENDPOINT,
+            WORKSPACE_ID,
+            requestFactory,
+            workspaceSyncCommunication,
+            projectConfigRegistry);
+  }
+
+  @Test
+  public void shouldSendOnlyChangedProjectsAndRemovedPaths() throws Exception {
+    RegisteredProject synced = createProject("/synced", true, false);
+    RegisteredProject detected = createProject("/detected", false, true);
+    RegisteredProject dirty = createProject("/dirty", false, false);
+    when(projectConfigRegistry.get("/synced")).thenReturn(Optional.of(synced));
+    when(projectConfigRegistry.getAll()).thenReturn(ImmutableSet.of(synced, detected, dirty));
+
+    synchronizer.synchronize();
+
+    ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+    verify(putRequest).usePutMethod();
+    verify(putRequest).setBody(captor.capture());
+    ProjectsUpdateDto update = (ProjectsUpdateDto) captor.getValue();
+    assertEquals(update.getRemoved(), singletonList("/removed"));
+    assertEquals(update.getUpdated().size(), 1);
+    assertEquals(update.getUpdated().get(0).getPath(), "/dirty");
+    verify(dirty).setSynced(true);
+    verify(detected, never()).setSynced(true);
+    verify(workspaceSyncCommunication).synchronizeWorkspace();
+  }
+
+  @Test
+  public void shouldNotUpdateProjectsWhenNothingIsChanged() throws Exception {
+    RegisteredProject synced = createProject("/synced", true, false);
+    RegisteredProject removed = createProject("/removed", true, false);
+    when(projectConfigRegistry.get("/synced")).thenReturn(Optional.of(synced));
+    when(projectConfigRegistry.get("/removed")).thenReturn(Optional.of(removed));
+    when(projectConfigRegistry.getAll()).thenReturn(ImmutableSet.of(synced, removed));
+
+    synchronizer.synchronize();
+
+    verify(requestFactory, never()).fromUrl(PROJECTS_URL);
+    verify(workspaceSyncCommunication).synchronizeWorkspace();
+  }
+
+  @Test
+  public void shouldReuseWorkspaceWhenItIsNotModified() throws Exception {
+    when(getRequest.request()).thenReturn(notModifiedResponse);
+
+    Set<String> paths = projectPaths(synchronizer.getProjects());
+
+    verify(getRequest).addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+    verify(notModifiedResponse, never()).asDto(any());
+    assertEquals(paths, ImmutableSet.of("/synced", "/removed"));
+  }
+
+  @Test
+  public void shouldRequestWholeWorkspaceAfterProjectsUpdate() throws Exception {
+    RegisteredProject dirty = createProject("/dirty", false, false);
+    when(projectConfigRegistry.getAll()).thenReturn(ImmutableSet.of(dirty));
+    synchronizer.synchronize();
+    when(workspaceResponse.asDto(WorkspaceDto.class)).thenReturn(createWorkspace("/dirty"));
+
+    Set<String> paths = projectPaths(synchronizer.getProjects());
+
+    verify(getRequest, times(1)).addHeader(eq(HttpHeaders.IF_NONE_MATCH), anyString());
+    assertEquals(paths, singleton("/dirty"));
+  }
+
+  private static RegisteredProject createProject(String path, boolean synced, boolean detected) {
+    RegisteredProject project = mock(RegisteredProject.class);
+    when(project.getPath()).thenReturn(path);
+    when(project.isSynced()).thenReturn(synced);
+    when(project.isDetected()).thenReturn(detected);
+    return project;
+  }
+
+  private static WorkspaceDto createWorkspace(String... projectPaths) {
+    List<ProjectConfigDto> projects = new ArrayList<>();
+    for (String path : projectPaths) {
+      projects.add(newDto(ProjectConfigDto.class).withPath(path));
+    }
+    return newDto(WorkspaceDto.class)
+        .withId(WORKSPACE_ID)
+        .withConfig(newDto(WorkspaceConfigDto.class).withProjects(projects));
+  }
+
+  private static Set<String> projectPaths(Set<ProjectConfig> projects) {
+    return projects.stream().map(ProjectConfig::getPath).collect(toSet());
+  }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.project.server.type;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonList;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.apache.commons.io.FileUtils;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.fs.server.FsManager;
+import org.eclipse.che.api.watcher.server.FileWatcherManager;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests for {@link CachingProjectTypeResolver} */
+public class CachingProjectTypeResolverTest {
+
+  private static final String PROJECT = "/project";
+
+  private Path root;
+  private FsManager fsManager;
+  private FileWatcherManager fileWatcherManager;
+  private Consumer<String> modifyConsumer;
+  private AtomicInteger providerCalls;
+  private ProjectTypeDef projectType;
+
+  @BeforeMethod
+  @SuppressWarnings("unchecked")
+  public void setUp() throws Exception {
+    root = Files.createTempDirectory("workspace");
+    Files.createDirectories(root.resolve("project/src"));
+    writeDescriptor("1.0");
+
+    fsManager = mock(FsManager.class);
+    when(fsManager.toIoFile(anyString())).thenAnswer(inv -> toIoFile(inv.getArguments()[0]));
+    when(fsManager.existsAsDir(anyString()))
+        .thenAnswer(inv -> toIoFile(inv.getArguments()[0]).isDirectory());
+    when(fsManager.existsAsFile(anyString()))
+        .thenAnswer(inv -> toIoFile(inv.getArguments()[0]).isFile());
+    when(fsManager.readAsString(anyString()))
+        .thenAnswer(inv -> FileUtils.readFileToString(toIoFile(inv.getArguments()[0]), UTF_8));
+    doAnswer(
+            inv -> {
+              FileUtils.writeStringToFile(
+                  toIoFile(inv.getArguments()[0]), (String) inv.getArguments()[1], UTF_8);
+              return null;
+            })
+        .when(fsManager)
+        .createFile(anyString(), anyString(), anyBoolean(), anyBoolean());
+    doAnswer(inv -> FileUtils.deleteQuietly(toIoFile(inv.getArguments()[0])))
+        .when(fsManager)
+        .delete(anyString(), anyBoolean());
+
+    fileWatcherManager = mock(FileWatcherManager.class);
+    when(fileWatcherManager.registerByPath(anyString(), any(), any(), any()))
+        .thenAnswer(
+            inv -> {
+              modifyConsumer = (Consumer<String>) inv.getArguments()[2];
+              return 1;
+            });
+
+    providerCalls = new AtomicInteger();
+    projectType =
+        new ProjectTypeDef("described", "Described", true, false) {
+          {
+            addVariableDefinition("version", "version", true, DescriptorValueProvider::new);
+          }
+        };
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    FileUtils.deleteQuietly(root.toFile());
+  }
+
+  @Test
+  public void shouldRunValueProvidersOnce() {
+    CachingProjectTypeResolver resolver = newResolver();
+
+    resolver.resolve(projectType, PROJECT);
+    ProjectTypeResolution resolution = resolver.resolve(projectType, PROJECT);
+
+    assertTrue(resolution.matched());
+    assertEquals(resolution.getProvidedAttributes().get("version").getString(), "1.0");
+    assertEquals(providerCalls.get(), 1);
+  }
+
+  @Test
+  public void shouldResolveAgainWhenProjectIsModified() throws Exception {
+    CachingProjectTypeResolver resolver = newResolver();
+    resolver.resolve(projectType, PROJECT);
+
+    writeDescriptor("2.0");
+    modifyConsumer.accept(PROJECT + "/descriptor");
+    ProjectTypeResolution resolution = resolver.resolve(projectType, PROJECT);
+
+    assertEquals(resolution.getProvidedAttributes().get("version").getString(), "2.0");
+    assertEquals(providerCalls.get(), 2);
+  }
+
+  @Test
+  public void shouldRestoreResolutionsOnRestart() {
+    CachingProjectTypeResolver resolver = newResolver();
+    resolver.resolve(projectType, PROJECT);
+    resolver.flush();
+
+    ProjectTypeResolution resolution = newResolver().resolve(projectType, PROJECT);
+
+    assertTrue(resolution.matched());
+    assertEquals(resolution.getType(), "described");
+    assertEquals(resolution.getProvidedAttributes().get("version").getString(), "1.0");
+    assertEquals(providerCalls.get(), 1);
+  }
+
+  @Test
+  public void shouldResolveAgainWhenProjectIsModifiedWhileStopped() throws Exception {
+    CachingProjectTypeResolver resolver = newResolver();
+    resolver.resolve(projectType, PROJECT);
+    resolver.flush();
+
+    writeDescriptor("2.0");
+    ProjectTypeResolution resolution = newResolver().resolve(projectType, PROJECT);
+
+    assertEquals(resolution.getProvidedAttributes().get("version").getString(), "2.0");
+    assertEquals(providerCalls.get(), 2);
+  }
+
+  @Test
+  public void shouldStopWatchingDeletedProject() {
+    CachingProjectTypeResolver resolver = newResolver();
+    resolver.resolve(projectType, PROJECT);
+
+    resolver.onProjectDeleted(PROJECT);
+    resolver.resolve(projectType, PROJECT);
+
+    verify(fileWatcherManager).unRegisterByPath(1);
+    assertEquals(providerCalls.get(), 2);
+  }
+
+  @Test
+  public void shouldResolveAgainWhenDescriptorFolderIsModifiedWhileStopped() throws Exception {
+    Files.createDirectories(root.resolve("project/.settings"));
+    Files.write(root.resolve("project/.settings/prefs"), "a".getBytes(UTF_8));
+    CachingProjectTypeResolver resolver = newResolver();
+    resolver.resolve(projectType, PROJECT);
+    resolver.flush();
+
+    Files.write(root.resolve("project/.settings/prefs"), "b".getBytes(UTF_8));
+    newResolver().resolve(projectType, PROJECT);
+
+    assertEquals(providerCalls.get(), 2);
+  }
+
+  @Test
+  public void shouldResolveNestedProjectAgainWhenParentIsModified() throws Exception {
+    Files.createDirectories(root.resolve("project/module"));
+    Files.write(root.resolve("project/module/descriptor"), "1.0".getBytes(UTF_8));
+    CachingProjectTypeResolver resolver = newResolver();
+    resolver.resolve(projectType, PROJECT + "/module");
+
+    modifyConsumer.accept(PROJECT + "/descriptor");
+    resolver.resolve(projectType, PROJECT + "/module");
+
+    assertEquals(providerCalls.get(), 2);
+  }
+
+  @Test
+  public void shouldNotRememberResolutionWhenValueProviderFails() {
+    ProjectTypeDef failingType =
+        new ProjectTypeDef("failing", "Failing", true, false) {
+          {
+            addVariableDefinition("version", "version", false, FailingValueProvider::new);
+          }
+        };
+    CachingProjectTypeResolver resolver = newResolver();
+
+    resolver.resolve(failingType, PROJECT);
+    ProjectTypeResolution resolution = resolver.resolve(failingType, PROJECT);
+
+    assertEquals(resolution.getProvidedAttributes().get("version").getString(), "1.0");
+    assertEquals(providerCalls.get(), 2);
+  }
+
+  private CachingProjectTypeResolver newResolver() {
+    return new CachingProjectTypeResolver(
+        new SimpleProjectTypeResolver(), fsManager, fileWatcherManager, mock(EventService.class));
+  }
+
+  private File toIoFile(Object wsPath) {
+    return root.resolve(((String) wsPath).substring(1)).toFile();
+  }
+
+  private void writeDescriptor(String version) throws IOException {
+    Files.write(root.resolve("project/descriptor"), version.getBytes(UTF_8));
+  }
+
+  private class DescriptorValueProvider extends ReadonlyValueProvider {
+
+    private final String wsPath;
+
+    private DescriptorValueProvider(String wsPath) {
+      this.wsPath = wsPath;
+    }
+
+    @Override
+    public List<String> getValues(String attributeName) throws ValueStorageException {
+      providerCalls.incrementAndGet();
+      try {
+        return singletonList(
+            new String(Files.readAllBytes(toIoFile(wsPath).toPath().resolve("descriptor")), UTF_8));
+      } catch (IOException e) {
+        throw new ValueStorageException(e.getMessage());
+      }
+    }
+  }
+
+  private class FailingValueProvider extends DescriptorValueProvider {
+
+    private FailingValueProvider(String wsPath) {
+      super(wsPath);
+    }
+
+    @Override
+    public List<String> getValues(String attributeName) throws ValueStorageException {
+      if (providerCalls.get() == 0) {
+        providerCalls.incrementAndGet();
+        throw new ValueStorageException("Descriptor is locked");
+      }
+      return super.getValues(attributeName);
+    }
+  }
+}
@@ -27,7 +27,6 @@ import org.eclipse.che.api.git.GitConnectionFactory;
 import org.eclipse.che.api.git.GitUserResolver;
 import org.eclipse.che.api.git.exception.GitException;
 import org.eclipse.che.plugin.ssh.key.script.SshKeyProvider;
-import org.eclipse.jgit.internal.storage.file.FileRepository;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.transport.UserAgent;
@@ -45,18 +44,21 @@ public class JGitConnectionFactory extends GitConnectionFactory {
   private final SshKeyProvider sshKeyProvider;
   private final EventService eventService;
   private final GitUserResolver userResolver;
+  private final JGitRepositoryCache repositoryCache;
 
   @Inject
   public JGitConnectionFactory(
       CredentialsLoader credentialsLoader,
       SshKeyProvider sshKeyProvider,
       EventService eventService,
-      GitUserResolver userResolver)
+      GitUserResolver userResolver,
+      JGitRepositoryCache repositoryCache)
       throws GitException {
     this.credentialsLoader = credentialsLoader;
     this.sshKeyProvider = sshKeyProvider;
     this.eventService = eventService;
     this.userResolver = userResolver;
+    this.repositoryCache = repositoryCache;
 
     UserAgent.set(USER_AGENT);
     // Install the all-trusting trust manager
@@ -94,9 +96,9 @@ public class JGitConnectionFactory extends GitConnectionFactory {
     return conn;
   }
 
-  private static Repository createRepository(File workDir) throws GitException {
+  private Repository createRepository(File workDir) throws GitException {
     try {
-      return new FileRepository(new File(workDir, Constants.DOT_GIT));
+      return repositoryCache.acquire(new File(workDir, Constants.DOT_GIT));
     } catch (IOException e) {
       throw new GitException(e.getMessage(), e);
     }
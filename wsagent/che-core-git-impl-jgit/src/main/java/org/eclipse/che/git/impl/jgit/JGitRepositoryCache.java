@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.git.impl.jgit;
+
+import static java.nio.file.Files.isDirectory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalNotification;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.eclipse.che.api.fs.server.PathTransformer;
+import org.eclipse.che.api.watcher.server.FileWatcherManager;
+import org.eclipse.jgit.internal.storage.file.FileRepository;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Repository;
+
+/**
+ * Bounded cache of opened repositories keyed by git directory.
+ *
+ * <p>Opening of a repository reads its configuration and references and scans its pack files, so
+ * sharing one {@link Repository} instance lets all the operations on the project reuse loaded pack
+ * indices and object database state. Repositories are reference counted: each {@link
+ * #acquire(File)} increments the usage counter which is decremented when the connection closes the
+ * repository, and the cache holds one more reference which is released on eviction. Thus an
+ * evicted repository is closed only when the last connection using it is closed.
+ *
+ * <p>Cached repository is dropped when the file watcher reports that {@code .git/HEAD} file is
+ * created or deleted, which happens when the repository is initialized, removed or switched to
+ * another branch. As the file watcher notifies with a delay, recreation of the git directory is
+ * also checked on each acquisition.
+ */
+@Singleton
+public class JGitRepositoryCache {
+
+  private static final long MAX_SIZE = 32;
+  private static final long EXPIRE_AFTER_ACCESS_MIN = 10;
+
+  private final FileWatcherManager manager;
+  private final PathTransformer pathTransformer;
+  private final Cache<Path, CachedRepository> repositories;
+
+  private int headId;
+
+  @Inject
+  public JGitRepositoryCache(FileWatcherManager manager, PathTransformer pathTransformer) {
+    this.manager = manager;
+    this.pathTransformer = pathTransformer;
+    this.repositories =
+        CacheBuilder.newBuilder()
+            .maximumSize(MAX_SIZE)
+            .expireAfterAccess(EXPIRE_AFTER_ACCESS_MIN, TimeUnit.MINUTES)
+            .removalListener(JGitRepositoryCache::onRemoval)
+            .recordStats()
+            .build();
+  }
+
+  @PostConstruct
+  public void start() {
+    headId =
+        manager.registerByMatcher(
+            headFileMatcher(), this::onHeadChanged, it -> {}, this::onHeadChanged);
+  }
+
+  @PreDestroy
+  public void stop() {
+    manager.unRegisterByMatcher(headId);
+    repositories.invalidateAll();
+  }
+
+  /**
+   * Returns repository for the given git directory. The returned repository must be closed when it
+   * is not used anymore. Repository which directory does not exist yet is not cached.
+   *
+   * @param gitDir git directory of the repository
+   * @throws IOException when repository can't be opened
+   */
+  public Repository acquire(File gitDir) throws IOException {
+    final Path key = gitDir.toPath().toAbsolutePath().normalize();
+    final Object fileKey = fileKey(key);
+    if (fileKey == null) {
+      return new FileRepository(key.toFile());
+    }
+    while (true) {
+      final CachedRepository cached;
+      try {
+        cached =
+            repositories.get(
+                key, () -> new CachedRepository(new FileRepository(key.toFile()), fileKey));
+      } catch (ExecutionException e) {
+        throw new IOException(e.getCause().getMessage(), e.getCause());
+      }
+      if (!fileKey.equals(cached.fileKey)) {
+        // git directory was recreated after the repository was cached
+        repositories.asMap().remove(key, cached);
+      } else if (cached.retain()) {
+        return cached.repository;
+      }
+    }
+  }
+
+  /**
+   * Drops cached repository of the given git directory.
+   *
+   * @param gitDir git directory of the repository
+   */
+  public void invalidate(File gitDir) {
+    repositories.invalidate(gitDir.toPath().toAbsolutePath().normalize());
+  }
+
+  /** Drops all the cached repositories. */
+  public void invalidateAll() {
+    repositories.invalidateAll();
+  }
+
+  /** Returns statistics of cache hits and misses. */
+  public CacheStats getStats() {
+    return repositories.stats();
+  }
+
+  @VisibleForTesting
+  void onHeadChanged(String wsPath) {
+    invalidate(pathTransformer.transform(wsPath).getParent().toFile());
+  }
+
+  private static void onRemoval(RemovalNotification<Path, CachedRepository> notification) {
+    notification.getValue().release();
+  }
+
+  /** Returns key which identifies the directory in the file system or null if it doesn't exist. */
+  private static Object fileKey(Path dir) throws IOException {
+    try {
+      final BasicFileAttributes attributes = Files.readAttributes(dir, BasicFileAttributes.class);
+      if (!attributes.isDirectory()) {
+        return null;
+      }
+      return attributes.fileKey() != null ? attributes.fileKey() : attributes.creationTime();
+    } catch (NoSuchFileException e) {
+      return null;
+    }
+  }
+
+  private static PathMatcher headFileMatcher() {
+    return it ->
+        !isDirectory(it)
+            && Constants.HEAD.equals(it.getFileName().toString())
+            && it.getParent() != null
+            && Constants.DOT_GIT.equals(Objects.toString(it.getParent().getFileName()));
+  }
+
+  /** Repository with the reference held by the cache. */
+  private static class CachedRepository {
+    private final Repository repository;
+    private final Object fileKey;
+    private boolean released;
+
+    private CachedRepository(Repository repository, Object fileKey) {
+      this.repository = repository;
+      this.fileKey = fileKey;
+    }
+
+    /** Increments usage counter of the repository unless it is already released by the cache. */
+    private synchronized boolean retain() {
+      if (released) {
+        return false;
+      }
+      repository.incrementOpen();
+      return true;
+    }
+
+    private synchronized void release() {
+      released = true;
+      repository.close();
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.git.impl.jgit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+import java.io.File;
+import java.nio.file.Files;
+import org.apache.commons.io.FileUtils;
+import org.eclipse.che.api.fs.server.PathTransformer;
+import org.eclipse.che.api.watcher.server.FileWatcherManager;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Repository;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests for {@link JGitRepositoryCache}. */
+@Listeners(MockitoTestNGListener.class)
+public class JGitRepositoryCacheTest {
+
+  @Mock private FileWatcherManager manager;
+  @Mock private PathTransformer pathTransformer;
+
+  private JGitRepositoryCache cache;
+  private File workDir;
+  private File gitDir;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    workDir = Files.createTempDirectory("repository-cache").toFile();
+    gitDir = new File(workDir, Constants.DOT_GIT);
+    cache = new JGitRepositoryCache(manager, pathTransformer);
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    cache.invalidateAll();
+    FileUtils.deleteDirectory(workDir);
+  }
+
+  @Test
+  public void shouldShareRepositoryBetweenAcquisitions() throws Exception {
+    initRepository();
+
+    final Repository repository = cache.acquire(gitDir);
+    repository.close();
+
+    assertSame(cache.acquire(new File(workDir, "./" + Constants.DOT_GIT)), repository);
+    assertEquals(cache.getStats().hitCount(), 1);
+  }
+
+  @Test
+  public void shouldNotCacheRepositoryWhichDoesNotExist() throws Exception {
+    assertNotSame(cache.acquire(gitDir), cache.acquire(gitDir));
+    assertEquals(cache.getStats().requestCount(), 0);
+  }
+
+  @Test
+  public void shouldOpenNewRepositoryWhenGitDirectoryIsRecreated() throws Exception {
+    initRepository();
+    final Repository repository = cache.acquire(gitDir);
+
+    Files.move(gitDir.toPath(), workDir.toPath().resolve("old"));
+    initRepository();
+
+    assertNotSame(cache.acquire(gitDir), repository);
+  }
+
+  @Test
+  public void shouldInvalidateRepositoryWhenHeadFileChanges() throws Exception {
+    initRepository();
+    final Repository repository = cache.acquire(gitDir);
+    when(pathTransformer.transform("/project/.git/HEAD"))
+        .thenReturn(new File(gitDir, Constants.HEAD).toPath());
+
+    cache.onHeadChanged("/project/.git/HEAD");
+
+    assertNotSame(cache.acquire(gitDir), repository);
+  }
+
+  @Test
+  public void shouldWatchHeadFilesOnStart() throws Exception {
+    cache.start();
+
+    verify(manager).registerByMatcher(any(), any(), any(), any());
+  }
+
+  private void initRepository() throws Exception {
+    Git.init().setDirectory(workDir).call().close();
+  }
+}
@@ -14,8 +14,8 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import javax.validation.constraints.NotNull;
-import org.eclipse.che.api.core.rest.DefaultHttpJsonRequestFactory;
 import org.eclipse.che.api.core.rest.HttpJsonRequest;
+import org.eclipse.che.api.core.rest.PooledHttpJsonRequestFactory;
 import org.eclipse.che.api.core.rest.shared.dto.Link;
 
 /**
@@ -23,12 +23,17 @@ import org.eclipse.che.api.core.rest.shared.dto.Link;
  * ```machine.token``` as authorization header. Used to make request from ws-agent to ws-master.
  */
 @Singleton
-public class AgentHttpJsonRequestFactory extends DefaultHttpJsonRequestFactory {
+public class AgentHttpJsonRequestFactory extends PooledHttpJsonRequestFactory {
 
   private final String machineToken;
 
   @Inject
-  public AgentHttpJsonRequestFactory(@Named("machine.token") String machineToken) {
+  public AgentHttpJsonRequestFactory(
+      @Named("machine.token") String machineToken,
+      @Named("che.core.rest.http_client.max_idle_connections") int maxIdleConnections,
+      @Named("che.core.rest.http_client.keep_alive_ms") long keepAliveMs,
+      @Named("che.core.rest.http_client.accept_binary_dto") boolean acceptBinaryDto) {
+    super(maxIdleConnections, keepAliveMs, acceptBinaryDto);
     this.machineToken = machineToken;
   }
 
@@ -15,6 +15,7 @@ import com.google.inject.name.Names;
 import java.security.PublicKey;
 import org.eclipse.che.MachinePublicKeyProvider;
 import org.eclipse.che.api.core.rest.HttpJsonRequestFactory;
+import org.eclipse.che.api.core.rest.PooledHttpJsonRequestFactory;
 import org.eclipse.che.commons.auth.token.ChainedTokenExtractor;
 import org.eclipse.che.commons.auth.token.RequestTokenExtractor;
 import org.eclipse.che.inject.DynaModule;
@@ -26,6 +27,8 @@ public class WsAgentAuthModule extends AbstractModule {
   protected void configure() {
     if (Boolean.valueOf(System.getenv("CHE_AUTH_ENABLED"))) {
       configureMultiUserMode();
+    } else {
+      bind(HttpJsonRequestFactory.class).to(PooledHttpJsonRequestFactory.class);
     }
   }
 
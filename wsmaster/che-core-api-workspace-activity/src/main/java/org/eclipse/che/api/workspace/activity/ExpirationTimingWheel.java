@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.workspace.activity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hierarchical timing wheel of workspaces expiration times.
+ *
+ * <p>The lowest level consists of {@code size} buckets each covering one tick, every next level
+ * covers {@code size} buckets of the previous one and is created only when an expiration doesn't
+ * fit into the levels below. Scheduling and cancelling are constant time, advancing costs the
+ * number of passed ticks plus the number of drained entries, entries drained from upper levels
+ * are moved down until they expire.
+ *
+ * <p>This class is not thread safe.
+ */
+class ExpirationTimingWheel {
+
+  private final Map<String, Entry> entries;
+  /** Entries which were already expired at the moment of scheduling. */
+  private final Set<Entry> overdue;
+
+  private final Wheel wheel;
+
+  /**
+   * Creates new wheel.
+   *
+   * @param tickMs duration of the lowest level tick in milliseconds
+   * @param size number of buckets on each level
+   * @param now current time in milliseconds
+   */
+  ExpirationTimingWheel(long tickMs, int size, long now) {
+    if (tickMs <= 0 || size <= 0) {
+      throw new IllegalArgumentException("Tick duration and wheel size must be positive");
+    }
+    this.entries = new HashMap<>();
+    this.overdue = new LinkedHashSet<>();
+    this.wheel = new Wheel(tickMs, size, now, true);
+  }
+
+  /**
+   * Schedules expiration of the workspace, previously scheduled expiration of the same workspace
+   * is replaced.
+   *
+   * @param workspaceId workspace id
+   * @param expiration expiration time in milliseconds
+   */
+  void schedule(String workspaceId, long expiration) {
+    cancel(workspaceId);
+    final Entry entry = new Entry(workspaceId, expiration);
+    entries.put(workspaceId, entry);
+    add(entry);
+  }
+
+  /**
+   * Cancels scheduled expiration of the workspace, does nothing if it is not scheduled.
+   *
+   * @param workspaceId workspace id
+   */
+  void cancel(String workspaceId) {
+    final Entry entry = entries.remove(workspaceId);
+    if (entry != null) {
+      entry.bucket.remove(entry);
+    }
+  }
+
+  /** Returns true when expiration of the workspace is scheduled. */
+  boolean contains(String workspaceId) {
+    return entries.containsKey(workspaceId);
+  }
+
+  /** Returns the number of scheduled expirations. */
+  int size() {
+    return entries.size();
+  }
+
+  /**
+   * Advances the wheel to the given time and returns ids of workspaces which expiration time is
+   * older than it, returned expirations are not scheduled anymore.
+   *
+   * @param now current time in milliseconds
+   */
+  List<String> advance(long now) {
+    final List<Entry> drained = new ArrayList<>(overdue);
+    overdue.clear();
+    wheel.advance(now, drained);
+    final List<String> expired = new ArrayList<>();
+    for (Entry entry : drained) {
+      if (entry.expiration < now) {
+        entries.remove(entry.workspaceId);
+        expired.add(entry.workspaceId);
+      } else {
+        add(entry);
+      }
+    }
+    return expired;
+  }
+
+  private void add(Entry entry) {
+    if (!wheel.add(entry)) {
+      overdue.add(entry);
+      entry.bucket = overdue;
+    }
+  }
+
+  private static class Entry {
+    private final String workspaceId;
+    private final long expiration;
+
+    private Set<Entry> bucket;
+
+    private Entry(String workspaceId, long expiration) {
+      this.workspaceId = workspaceId;
+      this.expiration = expiration;
+    }
+  }
+
+  private static class Wheel {
+    private final long tickMs;
+    private final int size;
+    private final boolean lowest;
+    private final List<Set<Entry>> buckets;
+
+    /** The tick which is already passed, aligned to the tick duration. */
+    private long currentTick;
+
+    private Wheel overflow;
+
+    private Wheel(long tickMs, int size, long now, boolean lowest) {
+      this.tickMs = tickMs;
+      this.size = size;
+      this.lowest = lowest;
+      this.currentTick = Math.floorDiv(now, tickMs);
+      this.buckets = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        buckets.add(new LinkedHashSet<>());
+      }
+    }
+
+    /** Returns false when the entry expires within the current tick and can't be added. */
+    private boolean add(Entry entry) {
+      // the lowest level rounds up so entries never fire earlier than they expire,
+      // upper levels round down so entries are moved to the lower level in time
+      final long tick =
+          lowest
+              ? Math.floorDiv(entry.expiration + tickMs - 1, tickMs)
+              : Math.floorDiv(entry.expiration, tickMs);
+      if (tick <= currentTick) {
+        return false;
+      }
+      if (tick - currentTick <= size) {
+        final Set<Entry> bucket = buckets.get((int) Math.floorMod(tick, (long) size));
+        bucket.add(entry);
+        entry.bucket = bucket;
+        return true;
+      }
+      return overflow().add(entry);
+    }
+
+    private void advance(long now, List<Entry> drained) {
+      final long targetTick = Math.floorDiv(now, tickMs);
+      if (targetTick <= currentTick) {
+        return;
+      }
+      final long passed = Math.min(targetTick - currentTick, size);
+      for (long tick = targetTick - passed + 1; tick <= targetTick; tick++) {
+        final Set<Entry> bucket = buckets.get((int) Math.floorMod(tick, (long) size));
+        drained.addAll(bucket);
+        bucket.clear();
+      }
+      currentTick = targetTick;
+      if (overflow != null) {
+        overflow.advance(now, drained);
+      }
+    }
+
+    private Wheel overflow() {
+      if (overflow == null) {
+        overflow = new Wheel(tickMs * size, size, currentTick * tickMs, false);
+      }
+      return overflow;
+    }
+  }
+}
@@ -32,6 +32,13 @@ public class InmemoryWorkspaceActivityDao implements WorkspaceActivityDao {
     activeWorkspaces.put(expiration.getWorkspaceId(), expiration.getExpiration());
   }
 
+  @Override
+  public void setExpirations(List<WorkspaceExpiration> expirations) {
+    for (WorkspaceExpiration expiration : expirations) {
+      activeWorkspaces.merge(expiration.getWorkspaceId(), expiration.getExpiration(), Math::max);
+    }
+  }
+
   @Override
   public void removeExpiration(String workspaceId) {
     activeWorkspaces.remove(workspaceId);
@@ -46,4 +53,13 @@ public class InmemoryWorkspaceActivityDao implements WorkspaceActivityDao {
         .map(Entry::getKey)
         .collect(Collectors.toList());
   }
+
+  @Override
+  public List<WorkspaceExpiration> getAll() {
+    return activeWorkspaces
+        .entrySet()
+        .stream()
+        .map(e -> new WorkspaceExpiration(e.getKey(), e.getValue()))
+        .collect(Collectors.toList());
+  }
 }
@@ -45,6 +45,16 @@ public class JpaWorkspaceActivityDao implements WorkspaceActivityDao {
     }
   }
 
+  @Override
+  public void setExpirations(List<WorkspaceExpiration> expirations) throws ServerException {
+    requireNonNull(expirations, "Required non-null expirations");
+    try {
+      doCreateOrProlong(expirations);
+    } catch (RuntimeException x) {
+      throw new ServerException(x.getLocalizedMessage(), x);
+    }
+  }
+
   @Override
   public void removeExpiration(String workspaceId) throws ServerException {
     requireNonNull(workspaceId, "Required non-null id");
@@ -64,6 +74,23 @@ public class JpaWorkspaceActivityDao implements WorkspaceActivityDao {
     }
   }
 
+  @Override
+  public List<WorkspaceExpiration> getAll() throws ServerException {
+    try {
+      return doGetAll();
+    } catch (RuntimeException x) {
+      throw new ServerException(x.getLocalizedMessage(), x);
+    }
+  }
+
+  @Transactional
+  protected List<WorkspaceExpiration> doGetAll() {
+    return managerProvider
+        .get()
+        .createNamedQuery("WorkspaceExpiration.getAll", WorkspaceExpiration.class)
+        .getResultList();
+  }
+
   @Transactional
   protected List<String> doFindExpired(long timestamp) {
     return managerProvider
@@ -87,6 +114,21 @@ public class JpaWorkspaceActivityDao implements WorkspaceActivityDao {
     manager.flush();
   }
 
+  @Transactional
+  protected void doCreateOrProlong(List<WorkspaceExpiration> expirations) {
+    final EntityManager manager = managerProvider.get();
+    for (WorkspaceExpiration expiration : expirations) {
+      final WorkspaceExpiration existing =
+          manager.find(WorkspaceExpiration.class, expiration.getWorkspaceId());
+      if (existing == null) {
+        manager.persist(expiration);
+      } else if (existing.getExpiration() < expiration.getExpiration()) {
+        existing.setExpiration(expiration.getExpiration());
+      }
+    }
+    manager.flush();
+  }
+
   @Transactional
   protected void doRemove(String workspaceId) {
     final EntityManager manager = managerProvider.get();
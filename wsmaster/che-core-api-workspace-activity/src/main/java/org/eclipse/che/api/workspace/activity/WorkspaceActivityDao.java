@@ -29,6 +29,16 @@ public interface WorkspaceActivityDao {
    */
   void setExpiration(WorkspaceExpiration expiration) throws ServerException;
 
+  /**
+   * Sets expiration times of the given workspaces in a single operation. Unlike {@link
+   * #setExpiration(WorkspaceExpiration)} stored expiration time is never moved back, so if it is
+   * later than the given one it is kept as is.
+   *
+   * @param expirations expirations to store
+   * @throws ServerException when operation failed, none of expirations is stored in this case
+   */
+  void setExpirations(List<WorkspaceExpiration> expirations) throws ServerException;
+
   /**
    * Removes workspace expiration time (basically used on ws stop).
    *
@@ -45,4 +55,12 @@ public interface WorkspaceActivityDao {
    * @throws ServerException when operation failed
    */
   List<String> findExpired(long timestamp) throws ServerException;
+
+  /**
+   * Returns expiration times of all the workspaces which have them.
+   *
+   * @return list of stored expirations
+   * @throws ServerException when operation failed
+   */
+  List<WorkspaceExpiration> getAll() throws ServerException;
 }
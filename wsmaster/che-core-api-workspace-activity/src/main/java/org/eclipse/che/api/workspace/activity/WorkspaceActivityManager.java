@@ -10,18 +10,32 @@
  */
 package org.eclipse.che.api.workspace.activity;
 
-import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
 import static org.eclipse.che.api.workspace.shared.Constants.WORKSPACE_STOPPED_BY;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
-import org.eclipse.che.api.core.model.workspace.Workspace;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.workspace.server.WorkspaceManager;
@@ -35,9 +49,24 @@ import org.slf4j.LoggerFactory;
  * by given expiration time. Upon stopping, workspace attributes will be updated with information
  * like cause and timestamp of workspace stop.
  *
- * <p>Note that the workspace is not stopped immediately, scheduler will stop the workspaces with
- * one minute rate. If workspace idle timeout is negative, then workspace would not be stopped
- * automatically.
+ * <p>Expiration times are kept in memory in {@link ExpirationTimingWheel}, which is rebuilt from
+ * the storage on startup and is advanced each second, so the idle workspace is stopped soon after
+ * its expiration time without polling the storage. Expiration is confirmed with the storage before
+ * the stop, as it might be prolonged by another instance sharing the storage, expired workspaces
+ * are stopped in parallel by a bounded number of threads. The wheel knows only expirations written
+ * by this instance, so the storage is still checked for expired workspaces once per check period,
+ * which stops the workspaces whose activity was tracked by other or crashed instances and the ones
+ * whose expiration was prolonged after it passed in the wheel. If workspace idle timeout is
+ * negative, then workspace would not be stopped automatically.
+ *
+ * <p>When activity flush period is positive, activity updates are not written to the storage
+ * immediately. The latest activity time of each workspace is kept in memory and expirations of all
+ * the active workspaces are written in a single batch once per flush period, before expired
+ * workspaces are confirmed and on shutdown. As a result if this instance crashes, activity which
+ * happened during the last flush period is lost and workspaces may be stopped by at most one flush
+ * period earlier. When a few instances share the storage, each of them flushes activity it
+ * received, batch writes never move stored expiration back, so the latest activity wins regardless
+ * of the flush order.
  *
  * @author Anton Korneta
  */
@@ -48,10 +77,27 @@ public class WorkspaceActivityManager {
 
   private static final String ACTIVITY_CHECKER = "activity-checker";
 
+  private static final long WHEEL_TICK_MS = 1000;
+  private static final int WHEEL_SIZE = 64;
+
   private final long defaultTimeout;
   private final WorkspaceActivityDao activityDao;
   private final EventService eventService;
   private final EventSubscriber<?> workspaceEventsSubscriber;
+  private final long flushPeriod;
+  private final boolean writeBehind;
+  /** Latest activity time of workspaces which is not yet flushed to the storage. */
+  private final ConcurrentMap<String, Long> pendingActivities;
+  /** Serializes flushes with expirations removal, so flush never restores removed expiration. */
+  private final Object flushLock;
+  /** Scheduled expirations, guarded by itself. */
+  private final ExpirationTimingWheel expirationsWheel;
+  /** Workspaces which are being stopped by activity checker. */
+  private final Set<String> stopping;
+
+  private final ThreadPoolExecutor stopExecutor;
+  /** Flushes activity periodically, exists only when activity is written behind. */
+  private ScheduledExecutorService flushExecutor;
 
   protected final WorkspaceManager workspaceManager;
 
@@ -60,35 +106,43 @@ public class WorkspaceActivityManager {
       WorkspaceManager workspaceManager,
       WorkspaceActivityDao activityDao,
       EventService eventService,
-      @Named("che.limits.workspace.idle.timeout") long timeout) {
+      @Named("che.limits.workspace.idle.timeout") long timeout,
+      @Named("che.workspace.activity_flush_period_s") long flushPeriod,
+      @Named("che.workspace.activity_stop_parallelism") int stopParallelism) {
     this.workspaceManager = workspaceManager;
     this.eventService = eventService;
     this.activityDao = activityDao;
     this.defaultTimeout = timeout;
+    this.flushPeriod = flushPeriod;
+    this.writeBehind = flushPeriod > 0;
+    this.pendingActivities = new ConcurrentHashMap<>();
+    this.flushLock = new Object();
+    this.expirationsWheel =
+        new ExpirationTimingWheel(WHEEL_TICK_MS, WHEEL_SIZE, System.currentTimeMillis());
+    this.stopping = ConcurrentHashMap.newKeySet();
+    this.stopExecutor =
+        new ThreadPoolExecutor(
+            stopParallelism,
+            stopParallelism,
+            60,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder()
+                .setNameFormat("WorkspaceActivityChecker-%d")
+                .setDaemon(true)
+                .build());
+    this.stopExecutor.allowCoreThreadTimeOut(true);
     this.workspaceEventsSubscriber =
         new EventSubscriber<WorkspaceStatusEvent>() {
           @Override
           public void onEvent(WorkspaceStatusEvent event) {
             switch (event.getStatus()) {
               case RUNNING:
-                try {
-                  Workspace workspace = workspaceManager.getWorkspace(event.getWorkspaceId());
-                  if (workspace.getAttributes().remove(WORKSPACE_STOPPED_BY) != null) {
-                    workspaceManager.updateWorkspace(event.getWorkspaceId(), workspace);
-                  }
-                } catch (Exception ex) {
-                  LOG.warn(
-                      "Failed to remove stopped information attribute for workspace "
-                          + event.getWorkspaceId());
-                }
+                // stopped information attribute is removed by workspace manager on start
                 update(event.getWorkspaceId(), System.currentTimeMillis());
                 break;
               case STOPPED:
-                try {
-                  activityDao.removeExpiration(event.getWorkspaceId());
-                } catch (ServerException e) {
-                  LOG.error(e.getLocalizedMessage(), e);
-                }
+                removeExpiration(event.getWorkspaceId());
                 break;
               default:
                 // do nothing
@@ -104,38 +158,136 @@ public class WorkspaceActivityManager {
    * @param activityTime moment in which the activity occurred
    */
   public void update(String wsId, long activityTime) {
+    if (writeBehind) {
+      pendingActivities.merge(wsId, activityTime, Math::max);
+      return;
+    }
     try {
       long timeout = getIdleTimeout(wsId);
       if (timeout > 0) {
         activityDao.setExpiration(new WorkspaceExpiration(wsId, activityTime + timeout));
+        synchronized (expirationsWheel) {
+          expirationsWheel.schedule(wsId, activityTime + timeout);
+        }
       }
     } catch (ServerException e) {
       LOG.error(e.getLocalizedMessage(), e);
     }
   }
 
+  /**
+   * Writes expirations of workspaces which had activity since the previous flush and schedules
+   * them. Is scheduled only when activity flush period is positive, otherwise activity updates are
+   * written immediately.
+   */
+  @VisibleForTesting
+  void flush() {
+    synchronized (flushLock) {
+      final Map<String, Long> activities = new HashMap<>();
+      for (Map.Entry<String, Long> entry : pendingActivities.entrySet()) {
+        if (pendingActivities.remove(entry.getKey(), entry.getValue())) {
+          activities.put(entry.getKey(), entry.getValue());
+        }
+      }
+      final List<WorkspaceExpiration> expirations = new ArrayList<>(activities.size());
+      for (Map.Entry<String, Long> entry : activities.entrySet()) {
+        long timeout = getIdleTimeout(entry.getKey());
+        if (timeout > 0) {
+          expirations.add(new WorkspaceExpiration(entry.getKey(), entry.getValue() + timeout));
+        }
+      }
+      if (expirations.isEmpty()) {
+        return;
+      }
+      try {
+        activityDao.setExpirations(expirations);
+      } catch (ServerException e) {
+        // batch fails as a whole e.g. when one of the workspaces is already removed
+        LOG.warn("Failed to flush workspaces activity in batch. Cause: {}", e.getMessage());
+        for (WorkspaceExpiration expiration : expirations) {
+          try {
+            activityDao.setExpirations(singletonList(expiration));
+          } catch (ServerException x) {
+            LOG.error(x.getLocalizedMessage(), x);
+          }
+        }
+      }
+      synchronized (expirationsWheel) {
+        for (WorkspaceExpiration expiration : expirations) {
+          expirationsWheel.schedule(expiration.getWorkspaceId(), expiration.getExpiration());
+        }
+      }
+    }
+  }
+
   protected long getIdleTimeout(String wsId) {
     return defaultTimeout;
   }
 
+  /** Advances expirations wheel and stops the workspaces which are expired. */
+  @VisibleForTesting
+  @ScheduleDelay(
+    initialDelayParameterName = "che.workspace.activity_check_scheduler_delay_s",
+    delay = 1
+  )
+  void advance() {
+    final long now = System.currentTimeMillis();
+    final List<String> fired;
+    synchronized (expirationsWheel) {
+      fired = expirationsWheel.advance(now);
+    }
+    if (fired.isEmpty()) {
+      return;
+    }
+    if (!stopExpired(now)) {
+      // retry on the next check unless the expiration is prolonged meanwhile
+      synchronized (expirationsWheel) {
+        for (String workspaceId : fired) {
+          if (!expirationsWheel.contains(workspaceId)) {
+            expirationsWheel.schedule(workspaceId, now);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Stops all the workspaces which are expired according to the storage, including the ones which
+   * are not scheduled in the expirations wheel of this instance.
+   */
+  @VisibleForTesting
   @ScheduleDelay(
     initialDelayParameterName = "che.workspace.activity_check_scheduler_delay_s",
     delayParameterName = "che.workspace.activity_check_scheduler_period_s"
   )
-  private void invalidate() {
+  void invalidate() {
+    stopExpired(System.currentTimeMillis());
+  }
+
+  /** Returns false when expired workspaces can't be fetched from the storage. */
+  private boolean stopExpired(long now) {
+    if (writeBehind) {
+      // otherwise the workspaces which were active during the last flush period are stopped
+      flush();
+    }
     try {
-      activityDao.findExpired(System.currentTimeMillis()).forEach(this::stopExpired);
+      // the expiration may be prolonged by another instance, so the storage has the final word
+      for (String workspaceId : activityDao.findExpired(now)) {
+        if (stopping.add(workspaceId)) {
+          stopExecutor.execute(() -> stopExpired(workspaceId));
+        }
+      }
+      return true;
     } catch (ServerException e) {
       LOG.error(e.getLocalizedMessage(), e);
+      return false;
     }
   }
 
   private void stopExpired(String workspaceId) {
     try {
-      Workspace workspace = workspaceManager.getWorkspace(workspaceId);
-      workspace.getAttributes().put(WORKSPACE_STOPPED_BY, ACTIVITY_CHECKER);
-      workspaceManager.updateWorkspace(workspaceId, workspace);
-      workspaceManager.stopWorkspace(workspaceId, emptyMap());
+      workspaceManager.stopWorkspace(
+          workspaceId, singletonMap(WORKSPACE_STOPPED_BY, ACTIVITY_CHECKER));
     } catch (NotFoundException ignored) {
       // workspace no longer exists, no need to do anything
     } catch (ConflictException e) {
@@ -144,6 +296,17 @@ public class WorkspaceActivityManager {
       LOG.error(ex.getLocalizedMessage());
       LOG.debug(ex.getLocalizedMessage(), ex);
     } finally {
+      removeExpiration(workspaceId);
+      stopping.remove(workspaceId);
+    }
+  }
+
+  private void removeExpiration(String workspaceId) {
+    synchronized (flushLock) {
+      pendingActivities.remove(workspaceId);
+      synchronized (expirationsWheel) {
+        expirationsWheel.cancel(workspaceId);
+      }
       try {
         activityDao.removeExpiration(workspaceId);
       } catch (ServerException e) {
@@ -155,6 +318,45 @@ public class WorkspaceActivityManager {
   @VisibleForTesting
   @PostConstruct
   public void subscribe() {
+    try {
+      final List<WorkspaceExpiration> stored = activityDao.getAll();
+      synchronized (expirationsWheel) {
+        for (WorkspaceExpiration expiration : stored) {
+          expirationsWheel.schedule(expiration.getWorkspaceId(), expiration.getExpiration());
+        }
+      }
+    } catch (ServerException e) {
+      LOG.error("Failed to load workspaces expirations. Cause: {}", e.getMessage(), e);
+    }
     eventService.subscribe(workspaceEventsSubscriber);
+    if (writeBehind) {
+      flushExecutor =
+          Executors.newSingleThreadScheduledExecutor(
+              new ThreadFactoryBuilder()
+                  .setNameFormat("WorkspaceActivityFlusher")
+                  .setDaemon(true)
+                  .build());
+      flushExecutor.scheduleWithFixedDelay(
+          this::flushQuietly, flushPeriod, flushPeriod, TimeUnit.SECONDS);
+    }
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      LOG.error("Failed to flush workspaces activity. Cause: {}", e.getMessage(), e);
+    }
+  }
+
+  @PreDestroy
+  private void shutdown() {
+    if (flushExecutor != null) {
+      flushExecutor.shutdownNow();
+    }
+    if (writeBehind) {
+      flush();
+    }
+    stopExecutor.shutdown();
   }
 }
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.workspace.activity;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests for {@link ExpirationTimingWheel}. */
+public class ExpirationTimingWheelTest {
+
+  private static final long TICK = 1000;
+  private static final int SIZE = 8;
+
+  private ExpirationTimingWheel wheel;
+
+  @BeforeMethod
+  public void setUp() {
+    wheel = new ExpirationTimingWheel(TICK, SIZE, 0);
+  }
+
+  @Test
+  public void shouldNotFireExpirationBeforeItPasses() {
+    wheel.schedule("ws1", 2500);
+
+    assertTrue(wheel.advance(2000).isEmpty());
+    assertTrue(wheel.advance(2500).isEmpty());
+    assertEquals(wheel.advance(3000), singletonList("ws1"));
+    assertFalse(wheel.contains("ws1"));
+  }
+
+  @Test
+  public void shouldFireExpirationWhichIsAlreadyPassedOnNextAdvance() {
+    wheel.advance(5000);
+    wheel.schedule("ws1", 1000);
+
+    assertEquals(wheel.advance(5000), singletonList("ws1"));
+  }
+
+  @Test
+  public void shouldFireExpirationsFromUpperLevels() {
+    wheel.schedule("ws1", TICK * SIZE * 3 + 500);
+    wheel.schedule("ws2", TICK * SIZE * SIZE * 2 + 100);
+
+    assertTrue(wheel.advance(TICK * SIZE * 3).isEmpty());
+    assertEquals(wheel.advance(TICK * SIZE * 3 + 1000), singletonList("ws1"));
+    assertTrue(wheel.advance(TICK * SIZE * SIZE * 2 + 100).isEmpty());
+    assertEquals(wheel.advance(TICK * SIZE * SIZE * 2 + TICK), singletonList("ws2"));
+    assertEquals(wheel.size(), 0);
+  }
+
+  @Test
+  public void shouldReplaceScheduledExpiration() {
+    wheel.schedule("ws1", 1500);
+    wheel.schedule("ws1", 100_000);
+
+    assertTrue(wheel.advance(50_000).isEmpty());
+    assertEquals(wheel.advance(100_001), singletonList("ws1"));
+  }
+
+  @Test
+  public void shouldNotFireCancelledExpiration() {
+    wheel.schedule("ws1", 1500);
+    wheel.schedule("ws2", 1500);
+
+    wheel.cancel("ws1");
+
+    assertEquals(wheel.advance(2000), singletonList("ws2"));
+  }
+
+  @Test
+  public void shouldFireAllExpirationsWhenAdvancedFarAhead() {
+    wheel.schedule("ws1", 500);
+    wheel.schedule("ws2", 20_000);
+    wheel.schedule("ws3", 1_000_000);
+
+    assertEquals(
+        new HashSet<>(wheel.advance(2_000_000)), new HashSet<>(asList("ws1", "ws2", "ws3")));
+  }
+
+  @Test
+  public void shouldFireEachExpirationWithinOneTickAfterItPasses() {
+    final Random random = new Random(42);
+    final long[] expirations = new long[500];
+    for (int i = 0; i < expirations.length; i++) {
+      expirations[i] = random.nextInt(1_000_000);
+      wheel.schedule("ws" + i, expirations[i]);
+    }
+
+    final List<String> fired = new ArrayList<>();
+    for (long now = 0; now <= 1_001_000; now += TICK) {
+      for (String id : wheel.advance(now)) {
+        final long expiration = expirations[Integer.parseInt(id.substring(2))];
+        assertTrue(expiration < now && now - expiration <= TICK, id + " fired at " + now);
+        fired.add(id);
+      }
+    }
+    assertEquals(fired.size(), expirations.length);
+  }
+}
@@ -10,20 +10,37 @@
  */
 package org.eclipse.che.api.workspace.activity;
 
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.eclipse.che.api.workspace.shared.Constants.WORKSPACE_STOPPED_BY;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.AssertJUnit.assertEquals;
 
+import com.google.inject.Binder;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.name.Names;
 import org.eclipse.che.account.shared.model.Account;
+import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.workspace.server.WorkspaceManager;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
 import org.eclipse.che.api.workspace.shared.dto.event.WorkspaceStatusEvent;
+import org.eclipse.che.commons.schedule.executor.ScheduleModule;
+import org.eclipse.che.commons.schedule.executor.ThreadPullLauncher;
 import org.eclipse.che.dto.server.DtoFactory;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
@@ -54,7 +71,7 @@ public class WorkspaceActivityManagerTest {
   private void setUp() throws Exception {
     activityManager =
         new WorkspaceActivityManager(
-            workspaceManager, workspaceActivityDao, eventService, DEFAULT_TIMEOUT);
+            workspaceManager, workspaceActivityDao, eventService, DEFAULT_TIMEOUT, 0, 1);
 
     when(account.getName()).thenReturn("accountName");
     when(account.getId()).thenReturn("account123");
@@ -74,6 +91,32 @@ public class WorkspaceActivityManagerTest {
     verify(workspaceActivityDao, times(1)).setExpiration(eq(expected));
   }
 
+  @Test
+  public void shouldBeInjectedWithDefaultFlushPeriod() throws Exception {
+    Injector injector =
+        Guice.createInjector(
+            new ScheduleModule(),
+            binder -> {
+              binder.bind(WorkspaceManager.class).toInstance(workspaceManager);
+              binder.bind(WorkspaceActivityDao.class).toInstance(workspaceActivityDao);
+              binder.bind(EventService.class).toInstance(eventService);
+              bindConstant(binder, "schedule.core_pool_size", "1");
+              bindConstant(binder, "che.limits.workspace.idle.timeout", "60000");
+              bindConstant(binder, "che.workspace.activity_flush_period_s", "0");
+              bindConstant(binder, "che.workspace.activity_stop_parallelism", "1");
+              bindConstant(binder, "che.workspace.activity_check_scheduler_delay_s", "180");
+              bindConstant(binder, "che.workspace.activity_check_scheduler_period_s", "60");
+            });
+    try {
+      injector.getInstance(WorkspaceActivityManager.class).update("testWsId", 1000L);
+
+      verify(workspaceActivityDao)
+          .setExpiration(eq(new WorkspaceExpiration("testWsId", 1000L + DEFAULT_TIMEOUT)));
+    } finally {
+      injector.getInstance(ThreadPullLauncher.class).shutdown();
+    }
+  }
+
   @Test
   public void shouldAddWorkspaceForTrackActivityWhenWorkspaceRunning() throws Exception {
     final String wsId = "testWsId";
@@ -105,4 +148,128 @@ public class WorkspaceActivityManagerTest {
 
     verify(workspaceActivityDao, times(1)).removeExpiration(eq(wsId));
   }
+
+  @Test
+  public void shouldWriteLatestActivityOnFlushInWriteBehindMode() throws Exception {
+    final String wsId = "testWsId";
+    activityManager =
+        new WorkspaceActivityManager(
+            workspaceManager, workspaceActivityDao, eventService, DEFAULT_TIMEOUT, 10, 1);
+
+    activityManager.update(wsId, 1000L);
+    activityManager.update(wsId, 3000L);
+    activityManager.update(wsId, 2000L);
+    verify(workspaceActivityDao, never()).setExpiration(any());
+
+    activityManager.flush();
+    activityManager.flush();
+
+    verify(workspaceActivityDao, times(1))
+        .setExpirations(singletonList(new WorkspaceExpiration(wsId, 3000L + DEFAULT_TIMEOUT)));
+  }
+
+  @Test
+  public void shouldNotFlushActivityOfStoppedWorkspace() throws Exception {
+    final String wsId = "testWsId";
+    activityManager =
+        new WorkspaceActivityManager(
+            workspaceManager, workspaceActivityDao, eventService, DEFAULT_TIMEOUT, 10, 1);
+    activityManager.update(wsId, 1000L);
+    activityManager.subscribe();
+    verify(eventService).subscribe(captor.capture());
+
+    captor
+        .getValue()
+        .onEvent(
+            DtoFactory.newDto(WorkspaceStatusEvent.class)
+                .withStatus(WorkspaceStatus.STOPPED)
+                .withWorkspaceId(wsId));
+    activityManager.flush();
+
+    verify(workspaceActivityDao).removeExpiration(wsId);
+    verify(workspaceActivityDao, never()).setExpirations(anyList());
+  }
+
+  @Test
+  public void shouldWriteExpirationsOneByOneWhenBatchWriteFails() throws Exception {
+    activityManager =
+        new WorkspaceActivityManager(
+            workspaceManager, workspaceActivityDao, eventService, DEFAULT_TIMEOUT, 10, 1);
+    doThrow(new ServerException("removed"))
+        .doNothing()
+        .when(workspaceActivityDao)
+        .setExpirations(anyList());
+    activityManager.update("ws1", 1000L);
+    activityManager.update("ws2", 2000L);
+
+    activityManager.flush();
+
+    verify(workspaceActivityDao)
+        .setExpirations(singletonList(new WorkspaceExpiration("ws1", 1000L + DEFAULT_TIMEOUT)));
+    verify(workspaceActivityDao)
+        .setExpirations(singletonList(new WorkspaceExpiration("ws2", 2000L + DEFAULT_TIMEOUT)));
+  }
+
+  @Test
+  public void shouldStopWorkspaceWhenScheduledExpirationPasses() throws Exception {
+    final String wsId = "testWsId";
+    when(workspaceActivityDao.findExpired(anyLong())).thenReturn(singletonList(wsId));
+    activityManager.update(wsId, System.currentTimeMillis() - DEFAULT_TIMEOUT - 1);
+
+    activityManager.advance();
+
+    verify(workspaceManager, timeout(5000))
+        .stopWorkspace(wsId, singletonMap(WORKSPACE_STOPPED_BY, "activity-checker"));
+    verify(workspaceActivityDao, timeout(5000)).removeExpiration(wsId);
+  }
+
+  @Test
+  public void shouldNotQueryStorageWhenNothingExpires() throws Exception {
+    activityManager.update("testWsId", System.currentTimeMillis());
+
+    activityManager.advance();
+
+    verify(workspaceActivityDao, never()).findExpired(anyLong());
+  }
+
+  @Test
+  public void shouldNotStopWorkspaceWhenExpirationIsProlongedInStorage() throws Exception {
+    final String wsId = "testWsId";
+    when(workspaceActivityDao.findExpired(anyLong())).thenReturn(emptyList());
+    activityManager.update(wsId, System.currentTimeMillis() - DEFAULT_TIMEOUT - 1);
+
+    activityManager.advance();
+
+    verify(workspaceActivityDao).findExpired(anyLong());
+    verify(workspaceManager, never()).stopWorkspace(anyString(), any());
+  }
+
+  @Test
+  public void shouldStopWorkspaceExpiredInStorageWhenItIsNotScheduled() throws Exception {
+    final String wsId = "testWsId";
+    when(workspaceActivityDao.findExpired(anyLong())).thenReturn(singletonList(wsId));
+
+    activityManager.invalidate();
+
+    verify(workspaceManager, timeout(5000))
+        .stopWorkspace(wsId, singletonMap(WORKSPACE_STOPPED_BY, "activity-checker"));
+  }
+
+  @Test
+  public void shouldScheduleStoredExpirationsOnStartup() throws Exception {
+    final String wsId = "testWsId";
+    when(workspaceActivityDao.getAll())
+        .thenReturn(singletonList(new WorkspaceExpiration(wsId, 1000L)));
+    when(workspaceActivityDao.findExpired(anyLong())).thenReturn(singletonList(wsId));
+    activityManager.subscribe();
+
+    activityManager.advance();
+
+    verify(workspaceManager, timeout(5000))
+        .stopWorkspace(wsId, singletonMap(WORKSPACE_STOPPED_BY, "activity-checker"));
+  }
+
+  private static void bindConstant(Binder binder, String name, String value) {
+    binder.bindConstant().annotatedWith(Names.named(name)).to(value);
+  }
 }
@@ -19,6 +19,7 @@ import com.google.common.collect.ImmutableMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -97,6 +98,14 @@ public class WorkspaceActivityDaoTest {
     assertEquals(found, expected);
   }
 
+  @Test
+  public void shouldGetAllExpirations() throws Exception {
+    List<WorkspaceExpiration> found = new ArrayList<>(workspaceActivityDao.getAll());
+    found.sort(Comparator.comparing(WorkspaceExpiration::getWorkspaceId));
+
+    assertEquals(found, asList(expirations));
+  }
+
   @Test(dependsOnMethods = "shouldFindExpirationsByTimestamp")
   public void shouldRemoveExpirationsByWsId() throws Exception {
     List<String> expected = Collections.singletonList(expirations[1].getWorkspaceId());
@@ -137,6 +146,34 @@ public class WorkspaceActivityDaoTest {
     assertEquals(found, expected);
   }
 
+  @Test(dependsOnMethods = {"shouldFindExpirationsByTimestamp", "shouldRemoveExpirationsByWsId"})
+  public void shouldSetExpirationsInBatch() throws Exception {
+    List<String> expected =
+        Arrays.asList(expirations[1].getWorkspaceId(), expirations[2].getWorkspaceId());
+    workspaceActivityDao.removeExpiration(expirations[1].getWorkspaceId());
+
+    workspaceActivityDao.setExpirations(
+        Arrays.asList(
+            new WorkspaceExpiration(expirations[0].getWorkspaceId(), 3_500_000),
+            new WorkspaceExpiration(expirations[1].getWorkspaceId(), 1_500_000),
+            new WorkspaceExpiration(expirations[2].getWorkspaceId(), 2_500_000)));
+
+    List<String> found = workspaceActivityDao.findExpired(3_000_000);
+    assertEquals(found, expected);
+  }
+
+  @Test(dependsOnMethods = "shouldFindExpirationsByTimestamp")
+  public void shouldNotMoveExpirationBackOnBatchUpdate() throws Exception {
+    List<String> expected = Collections.singletonList(expirations[0].getWorkspaceId());
+
+    workspaceActivityDao.setExpirations(
+        Collections.singletonList(
+            new WorkspaceExpiration(expirations[1].getWorkspaceId(), 500_000)));
+
+    List<String> found = workspaceActivityDao.findExpired(1_500_000);
+    assertEquals(found, expected);
+  }
+
   private static WorkspaceConfigImpl createWorkspaceConfig(String name) {
     // Project Sources configuration
     final SourceStorageImpl source1 = new SourceStorageImpl();
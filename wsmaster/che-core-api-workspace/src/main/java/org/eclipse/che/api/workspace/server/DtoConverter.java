@@ -54,6 +54,9 @@ import org.eclipse.che.api.workspace.shared.stack.Stack;
 /**
  * Helps to convert to/from DTOs related to workspace.
  *
+ * <p>Only the DTO objects themselves are created, attributes, lists and other leaf values are
+ * shared with the converted model instead of being copied.
+ *
  * @author Yevhenii Voevodin
  */
 public final class DtoConverter {
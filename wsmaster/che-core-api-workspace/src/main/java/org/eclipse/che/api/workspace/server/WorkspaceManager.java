@@ -22,6 +22,7 @@ import static org.eclipse.che.api.workspace.shared.Constants.ERROR_MESSAGE_ATTRI
 import static org.eclipse.che.api.workspace.shared.Constants.STOPPED_ABNORMALLY_ATTRIBUTE_NAME;
 import static org.eclipse.che.api.workspace.shared.Constants.STOPPED_ATTRIBUTE_NAME;
 import static org.eclipse.che.api.workspace.shared.Constants.UPDATED_ATTRIBUTE_NAME;
+import static org.eclipse.che.api.workspace.shared.Constants.WORKSPACE_STOPPED_BY;
 
 import com.google.inject.Inject;
 import java.util.Collections;
@@ -316,7 +317,13 @@ public class WorkspaceManager {
   /**
    * Asynchronously stops the workspace.
    *
+   * <p>When {@code options} contain {@link
+   * org.eclipse.che.api.workspace.shared.Constants#WORKSPACE_STOPPED_BY} it is stored in workspace
+   * attributes together with the stop time, so callers don't need to update the workspace before
+   * stopping it.
+   *
    * @param workspaceId the id of the workspace to stop
+   * @param options stop options, may be null
    * @throws ServerException when any server error occurs
    * @throws NullPointerException when {@code workspaceId} is null
    * @throws NotFoundException when workspace {@code workspaceId} doesn't have runtime
@@ -327,6 +334,9 @@ public class WorkspaceManager {
     requireNonNull(workspaceId, "Required non-null workspace id");
     final WorkspaceImpl workspace = normalizeState(workspaceDao.get(workspaceId), true);
     checkWorkspaceIsRunningOrStarting(workspace);
+    if (options != null && options.containsKey(WORKSPACE_STOPPED_BY)) {
+      workspace.getAttributes().put(WORKSPACE_STOPPED_BY, options.get(WORKSPACE_STOPPED_BY));
+    }
     if (!workspace.isTemporary()) {
       workspace.getAttributes().put(STOPPED_ATTRIBUTE_NAME, Long.toString(currentTimeMillis()));
       workspace.getAttributes().put(STOPPED_ABNORMALLY_ATTRIBUTE_NAME, Boolean.toString(false));
@@ -357,6 +367,7 @@ public class WorkspaceManager {
               workspace.getNamespace(), workspace.getConfig().getName(), envName));
     }
     workspace.getAttributes().put(UPDATED_ATTRIBUTE_NAME, Long.toString(currentTimeMillis()));
+    workspace.getAttributes().remove(WORKSPACE_STOPPED_BY);
     workspaceDao.update(workspace);
     final String env = firstNonNull(envName, workspace.getConfig().getDefaultEnv());
 
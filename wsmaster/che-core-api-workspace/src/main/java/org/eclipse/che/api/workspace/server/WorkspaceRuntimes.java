@@ -53,7 +53,6 @@ import org.eclipse.che.api.core.model.workspace.runtime.RuntimeIdentity;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.workspace.server.hc.probe.ProbeScheduler;
-import org.eclipse.che.api.workspace.server.model.impl.EnvironmentImpl;
 import org.eclipse.che.api.workspace.server.model.impl.RuntimeIdentityImpl;
 import org.eclipse.che.api.workspace.server.model.impl.RuntimeImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
@@ -291,7 +290,7 @@ public class WorkspaceRuntimes {
       Workspace workspace, String envName, Map<String, String> options)
       throws ConflictException, NotFoundException, ServerException {
 
-    final EnvironmentImpl environment = copyEnv(workspace, envName);
+    final Environment environment = getEnv(workspace, envName);
     final String workspaceId = workspace.getId();
 
     requireNonNull(environment, "Environment should not be null " + workspaceId);
@@ -620,7 +619,7 @@ public class WorkspaceRuntimes {
             .withStatus(status));
   }
 
-  private static EnvironmentImpl copyEnv(Workspace workspace, String envName) {
+  private static Environment getEnv(Workspace workspace, String envName) {
 
     requireNonNull(workspace, "Workspace should not be null.");
     requireNonNull(envName, "Environment name should not be null.");
@@ -629,7 +628,7 @@ public class WorkspaceRuntimes {
       throw new IllegalArgumentException(
           format("Workspace '%s' doesn't contain environment '%s'", workspace.getId(), envName));
     }
-    return new EnvironmentImpl(environment);
+    return environment;
   }
 
   /**
@@ -28,9 +28,12 @@ import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import io.swagger.annotations.Example;
 import io.swagger.annotations.ExampleProperty;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.ws.rs.Consumes;
@@ -65,6 +68,7 @@ import org.eclipse.che.api.workspace.shared.dto.CommandDto;
 import org.eclipse.che.api.workspace.shared.dto.EnvironmentDto;
 import org.eclipse.che.api.workspace.shared.dto.MachineDto;
 import org.eclipse.che.api.workspace.shared.dto.ProjectConfigDto;
+import org.eclipse.che.api.workspace.shared.dto.ProjectsUpdateDto;
 import org.eclipse.che.api.workspace.shared.dto.RecipeDto;
 import org.eclipse.che.api.workspace.shared.dto.RuntimeDto;
 import org.eclipse.che.api.workspace.shared.dto.ServerDto;
@@ -645,7 +649,7 @@ public class WorkspaceService extends Service {
     requiredNotNull(update, "Project config");
     final WorkspaceImpl workspace = workspaceManager.getWorkspace(id);
     final List<ProjectConfigImpl> projects = workspace.getConfig().getProjects();
-    final String normalizedPath = path.startsWith("/") ? path : '/' + path;
+    final String normalizedPath = normalizePath(path);
     if (!projects.removeIf(project -> project.getPath().equals(normalizedPath))) {
       throw new NotFoundException(
           format("Workspace '%s' doesn't contain project with path '%s'", id, normalizedPath));
@@ -672,7 +676,7 @@ public class WorkspaceService extends Service {
       throws ServerException, BadRequestException, NotFoundException, ConflictException,
           ForbiddenException {
     final WorkspaceImpl workspace = workspaceManager.getWorkspace(id);
-    final String normalizedPath = path.startsWith("/") ? path : '/' + path;
+    final String normalizedPath = normalizePath(path);
     if (workspace
         .getConfig()
         .getProjects()
@@ -681,6 +685,53 @@ public class WorkspaceService extends Service {
     }
   }
 
+  @PUT
+  @Path("/{id}/project")
+  @Consumes(APPLICATION_JSON)
+  @Produces(APPLICATION_JSON)
+  @ApiOperation(
+    value = "Add, update and remove the workspace projects at once",
+    notes =
+        "Updated projects replace the projects with the same paths or are added "
+            + "to the workspace if there are no such projects. "
+            + "This operation can be performed only by the workspace owner"
+  )
+  @ApiResponses({
+    @ApiResponse(code = 200, message = "The projects successfully updated"),
+    @ApiResponse(code = 400, message = "Missed required parameters, parameters are not valid"),
+    @ApiResponse(code = 403, message = "The user does not have access to update the projects"),
+    @ApiResponse(code = 404, message = "The workspace not found"),
+    @ApiResponse(code = 409, message = "Any conflict error occurs"),
+    @ApiResponse(code = 500, message = "Internal server error occurred")
+  })
+  public WorkspaceDto updateProjects(
+      @ApiParam("The workspace id") @PathParam("id") String id,
+      @ApiParam(value = "The projects update", required = true) ProjectsUpdateDto update)
+      throws ServerException, BadRequestException, NotFoundException, ConflictException,
+          ForbiddenException {
+    requiredNotNull(update, "Projects update");
+    final WorkspaceImpl workspace = workspaceManager.getWorkspace(id);
+    final List<ProjectConfigImpl> projects = workspace.getConfig().getProjects();
+    final Set<String> paths = new HashSet<>();
+    for (String path : update.getRemoved()) {
+      paths.add(normalizePath(path));
+    }
+    final List<ProjectConfigImpl> updated = new ArrayList<>();
+    for (ProjectConfigDto project : update.getUpdated()) {
+      requiredNotNull(project.getPath(), "Project path");
+      final ProjectConfigImpl config = new ProjectConfigImpl(project);
+      config.setPath(normalizePath(project.getPath()));
+      paths.add(config.getPath());
+      updated.add(config);
+    }
+    if (paths.isEmpty()) {
+      return asDtoWithLinksAndToken(workspace);
+    }
+    projects.removeIf(project -> paths.contains(project.getPath()));
+    projects.addAll(updated);
+    return asDtoWithLinksAndToken(doUpdate(id, workspace));
+  }
+
   @GET
   @Path("/settings")
   @Produces(APPLICATION_JSON)
@@ -694,6 +745,11 @@ public class WorkspaceService extends Service {
         Boolean.toString(cheWorkspaceAutoStart));
   }
 
+  /** Project paths are stored in the workspace config starting with '/'. */
+  private static String normalizePath(String path) {
+    return path.startsWith("/") ? path : '/' + path;
+  }
+
   private static Map<String, String> parseAttrs(List<String> attributes)
       throws BadRequestException, ForbiddenException {
     if (attributes == null) {
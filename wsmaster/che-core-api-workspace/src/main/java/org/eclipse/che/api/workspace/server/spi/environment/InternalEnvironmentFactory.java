@@ -97,14 +97,16 @@ public abstract class InternalEnvironmentFactory<T extends InternalEnvironment>
         throw new InfrastructureException(e);
       }
 
-      machineConfig.getEnv().put(CHE_MACHINE_NAME_ENV_VAR, machineEntry.getKey());
+      // source environment is not modified, it may be shared with the workspace config
+      Map<String, String> env = new HashMap<>(machineConfig.getEnv());
+      env.put(CHE_MACHINE_NAME_ENV_VAR, machineEntry.getKey());
 
       machines.put(
           machineEntry.getKey(),
           new InternalMachineConfig(
               installers,
               normalizeServers(machineConfig.getServers()),
-              machineConfig.getEnv(),
+              env,
               machineConfig.getAttributes(),
               machineConfig.getVolumes()));
     }
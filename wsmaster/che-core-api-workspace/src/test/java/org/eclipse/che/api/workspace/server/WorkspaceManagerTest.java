@@ -24,6 +24,7 @@ import static org.eclipse.che.api.workspace.shared.Constants.ERROR_MESSAGE_ATTRI
 import static org.eclipse.che.api.workspace.shared.Constants.STOPPED_ABNORMALLY_ATTRIBUTE_NAME;
 import static org.eclipse.che.api.workspace.shared.Constants.STOPPED_ATTRIBUTE_NAME;
 import static org.eclipse.che.api.workspace.shared.Constants.UPDATED_ATTRIBUTE_NAME;
+import static org.eclipse.che.api.workspace.shared.Constants.WORKSPACE_STOPPED_BY;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -445,6 +446,33 @@ public class WorkspaceManagerTest {
             workspaceCaptor.getValue().getAttributes().get(STOPPED_ABNORMALLY_ATTRIBUTE_NAME)));
   }
 
+  @Test
+  public void storesStoppedByOptionInWorkspaceAttributesOnStop() throws Exception {
+    final WorkspaceImpl workspace = createAndMockWorkspace(createConfig(), NAMESPACE_1);
+    mockRuntime(workspace, RUNNING);
+    mockAnyWorkspaceStop();
+    final Map<String, String> options = singletonMap(WORKSPACE_STOPPED_BY, "activity-checker");
+
+    workspaceManager.stopWorkspace(workspace.getId(), options);
+
+    verify(runtimes).stopAsync(workspace, options);
+    verify(workspaceDao).update(workspaceCaptor.capture());
+    assertEquals(
+        workspaceCaptor.getValue().getAttributes().get(WORKSPACE_STOPPED_BY), "activity-checker");
+  }
+
+  @Test
+  public void removesStoppedByAttributeOnWorkspaceStart() throws Exception {
+    final WorkspaceImpl workspace = createAndMockWorkspace(createConfig(), NAMESPACE_1);
+    workspace.getAttributes().put(WORKSPACE_STOPPED_BY, "activity-checker");
+    mockStart(workspace);
+
+    workspaceManager.startWorkspace(workspace.getId(), null, emptyMap());
+
+    verify(workspaceDao, atLeastOnce()).update(workspaceCaptor.capture());
+    assertNull(workspaceCaptor.getValue().getAttributes().get(WORKSPACE_STOPPED_BY));
+  }
+
   @Test
   public void removesTemporaryWorkspaceAfterStop() throws Exception {
     final WorkspaceImpl workspace = createAndMockWorkspace();
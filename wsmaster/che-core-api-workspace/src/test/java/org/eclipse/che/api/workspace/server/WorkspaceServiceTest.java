@@ -61,6 +61,7 @@ import org.eclipse.che.api.workspace.server.model.impl.CommandImpl;
 import org.eclipse.che.api.workspace.server.model.impl.EnvironmentImpl;
 import org.eclipse.che.api.workspace.server.model.impl.MachineConfigImpl;
 import org.eclipse.che.api.workspace.server.model.impl.MachineImpl;
+import org.eclipse.che.api.workspace.server.model.impl.ProjectConfigImpl;
 import org.eclipse.che.api.workspace.server.model.impl.RecipeImpl;
 import org.eclipse.che.api.workspace.server.model.impl.RuntimeImpl;
 import org.eclipse.che.api.workspace.server.model.impl.ServerImpl;
@@ -72,6 +73,7 @@ import org.eclipse.che.api.workspace.shared.dto.CommandDto;
 import org.eclipse.che.api.workspace.shared.dto.EnvironmentDto;
 import org.eclipse.che.api.workspace.shared.dto.MachineDto;
 import org.eclipse.che.api.workspace.shared.dto.ProjectConfigDto;
+import org.eclipse.che.api.workspace.shared.dto.ProjectsUpdateDto;
 import org.eclipse.che.api.workspace.shared.dto.RuntimeDto;
 import org.eclipse.che.api.workspace.shared.dto.ServerDto;
 import org.eclipse.che.api.workspace.shared.dto.SourceStorageDto;
@@ -1114,6 +1116,83 @@ public class WorkspaceServiceTest {
     verify(wsManager).updateWorkspace(any(), any());
   }
 
+  @Test
+  public void shouldUpdateProjectsAtOnce() throws Exception {
+    final WorkspaceImpl workspace = createWorkspace(createConfigDto());
+    when(wsManager.getWorkspace(workspace.getId())).thenReturn(workspace);
+    when(wsManager.updateWorkspace(any(), any())).thenReturn(workspace);
+    final ProjectConfigDto updated = createProjectDto().withDescription("Updated project");
+    final ProjectConfigDto added = createProjectDto().withName("added").withPath("/added");
+    final ProjectsUpdateDto update =
+        newDto(ProjectsUpdateDto.class)
+            .withUpdated(asList(updated, added))
+            .withRemoved(singletonList("removed"));
+    workspace
+        .getConfig()
+        .getProjects()
+        .add(new ProjectConfigImpl(createProjectDto().withPath("/removed")));
+
+    final Response response =
+        given()
+            .auth()
+            .basic(ADMIN_USER_NAME, ADMIN_USER_PASSWORD)
+            .contentType("application/json")
+            .body(update)
+            .when()
+            .put(SECURE_PATH + "/workspace/" + workspace.getId() + "/project");
+
+    assertEquals(response.getStatusCode(), 200);
+    final List<ProjectConfigDto> projects =
+        unwrapDto(response, WorkspaceDto.class).getConfig().getProjects();
+    assertEquals(projects.size(), 2);
+    assertEquals(projects.get(0).getDescription(), "Updated project");
+    assertEquals(projects.get(1).getPath(), "/added");
+    verify(wsManager).updateWorkspace(any(), any());
+  }
+
+  @Test
+  public void shouldReplaceProjectWhenUpdatedPathHasNoLeadingSlash() throws Exception {
+    final WorkspaceImpl workspace = createWorkspace(createConfigDto());
+    when(wsManager.getWorkspace(workspace.getId())).thenReturn(workspace);
+    when(wsManager.updateWorkspace(any(), any())).thenReturn(workspace);
+    final ProjectConfigDto updated =
+        createProjectDto().withPath("project/path").withDescription("Updated project");
+
+    final Response response =
+        given()
+            .auth()
+            .basic(ADMIN_USER_NAME, ADMIN_USER_PASSWORD)
+            .contentType("application/json")
+            .body(newDto(ProjectsUpdateDto.class).withUpdated(singletonList(updated)))
+            .when()
+            .put(SECURE_PATH + "/workspace/" + workspace.getId() + "/project");
+
+    assertEquals(response.getStatusCode(), 200);
+    final List<ProjectConfigDto> projects =
+        unwrapDto(response, WorkspaceDto.class).getConfig().getProjects();
+    assertEquals(projects.size(), 1);
+    assertEquals(projects.get(0).getPath(), "/project/path");
+    assertEquals(projects.get(0).getDescription(), "Updated project");
+  }
+
+  @Test
+  public void shouldNotUpdateWorkspaceWhenProjectsUpdateIsEmpty() throws Exception {
+    final WorkspaceImpl workspace = createWorkspace(createConfigDto());
+    when(wsManager.getWorkspace(workspace.getId())).thenReturn(workspace);
+
+    final Response response =
+        given()
+            .auth()
+            .basic(ADMIN_USER_NAME, ADMIN_USER_PASSWORD)
+            .contentType("application/json")
+            .body(newDto(ProjectsUpdateDto.class))
+            .when()
+            .put(SECURE_PATH + "/workspace/" + workspace.getId() + "/project");
+
+    assertEquals(response.getStatusCode(), 200);
+    verify(wsManager, never()).updateWorkspace(any(), any());
+  }
+
   @Test
   public void shouldBeAbleToGetSettings() throws Exception {
     when(wsManager.getSupportedRecipes()).thenReturn(ImmutableSet.of("dockerimage", "dockerfile"));
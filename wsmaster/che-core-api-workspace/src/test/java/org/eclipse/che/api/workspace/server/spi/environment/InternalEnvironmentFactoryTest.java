@@ -26,6 +26,7 @@ import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -138,6 +139,20 @@ public class InternalEnvironmentFactoryTest {
         internalMachines.get("machine2").getEnv().get(CHE_MACHINE_NAME_ENV_VAR), "machine2");
   }
 
+  @Test
+  public void shouldNotModifySourceEnvironmentDuringInternalEnvironmentCreation()
+      throws Exception {
+    // given
+    MachineConfigImpl machineConfig = new MachineConfigImpl().withEnv(new HashMap<>());
+    EnvironmentImpl env = new EnvironmentImpl(null, ImmutableMap.of("machine", machineConfig));
+
+    // when
+    environmentFactory.create(env);
+
+    // then
+    assertTrue(env.getMachines().get("machine").getEnv().isEmpty());
+  }
+
   @Test
   public void shouldUseNormalizedServersWhileInternalEnvironmentCreation() throws Exception {
     // given